@@ -15,7 +15,11 @@
  */
 package org.smithx.timeagent.api.agent;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.smithx.timeagent.api.exceptions.TimeAgentException;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
 import org.smithx.timeagent.api.services.TimeAgentService;
 
@@ -29,4 +33,23 @@ import org.smithx.timeagent.api.services.TimeAgentService;
 public abstract class TimeAgent {
 
   public abstract void execute(TimeAgentService service, TimeAgentArgument... arguments) throws TimeAgentException;
+
+  /**
+   * returns the keys of the partitions of a run. the partitions are executed by
+   * executePartition on any instance sharing the database instead of execute.
+   * a run without partitions is executed by execute.
+   */
+  public List<String> partition(TimeAgentService service, TimeAgentArgument... arguments) throws TimeAgentException {
+    return Collections.emptyList();
+  }
+
+  /**
+   * executes a partition of a run and returns its result for the protocol. it
+   * may run on another instance, so that it must not write to the info of the
+   * service.
+   */
+  public String executePartition(TimeAgentService service, String partitionKey, TimeAgentArgument... arguments)
+      throws TimeAgentException {
+    throw new TimeAgentException(TimeAgentExceptionCause.PARTITION_FAILED, "the agent has no partitions");
+  }
 }
@@ -16,10 +16,16 @@
 package org.smithx.timeagent.api.agent;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.smithx.timeagent.api.exceptions.TimeAgentException;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.services.TimeAgentNotificationService;
 import org.smithx.timeagent.api.services.TimeAgentService;
 
 import lombok.AllArgsConstructor;
@@ -38,6 +44,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TimeAgentRuntime {
   private TimeAgentService service;
+  private TimeAgentNotificationService notificationService;
   private TimeAgent agent;
 
   private void logArguments(TimeAgentArgument... arguments) {
@@ -52,10 +59,11 @@ public class TimeAgentRuntime {
     service.updateAgentInfo();
   }
 
-  private void logError(TimeAgentException exception) {
-    setStatusFinish(TimeAgentStatus.ABORTED);
+  private TimeAgentInfo logError(TimeAgentException exception) {
     service.getAgentInfo().addProtocol(String.format("%s - %s", exception.getClass(), exception.getFullErrorMessage()));
+    TimeAgentInfo runInfo = setStatusFinish(TimeAgentStatus.ABORTED);
     log.error(service.getMessages().getMessage("exception.runtime.aborted"), exception);
+    return runInfo;
   }
 
   private void isAlreadyRunning() {
@@ -63,32 +71,62 @@ public class TimeAgentRuntime {
   }
 
   private void setStatusStart() {
-    service.getAgentInfo().setStatus(TimeAgentStatus.RUNNING);
-    service.getAgentInfo().setStartTimeExecution(LocalDateTime.now());
-    service.getAgentInfo().clearProtocol();
+    TimeAgentInfo agentInfo = service.getAgentInfo();
+    // a published snapshot sees the status and its time together
+    synchronized (agentInfo) {
+      agentInfo.setStatus(TimeAgentStatus.RUNNING);
+      agentInfo.setStartTimeExecution(LocalDateTime.now());
+      agentInfo.clearProtocol();
+    }
     log.info(service.getMessages().getMessage("log.agent.start", service.getAgentInfo()));
-    service.updateAgentInfo();
+    service.updateAgentInfo(TimeAgentEventType.STARTED);
   }
 
-  private void setStatusFinish(TimeAgentStatus status) {
-    service.getAgentInfo().setStatus(status);
-    service.getAgentInfo().setFinishTimeExecution(LocalDateTime.now());
+  /**
+   * returns the saved info of the ended run, the save replaces the info of the
+   * service.
+   */
+  private TimeAgentInfo setStatusFinish(TimeAgentStatus status) {
+    TimeAgentInfo agentInfo = service.getAgentInfo();
+    synchronized (agentInfo) {
+      agentInfo.setStatus(status);
+      agentInfo.setFinishTimeExecution(LocalDateTime.now());
+    }
     log.info(service.getMessages().getMessage("log.agent.finish", service.getAgentInfo()));
-    service.updateAgentInfo();
+    TimeAgentInfo runInfo = service.updateAgentInfo(TimeAgentEventType.forStatus(status));
+    service.updateStatistic();
+    return runInfo;
   }
 
   public void run(TimeAgentArgument... arguments) {
     isAlreadyRunning();
-    setStatusStart();
-    logArguments(arguments);
+    // the ended run is replaced by the next info
+    TimeAgentInfo runInfo;
     try {
-      agent.execute(service, arguments);
-      setStatusFinish(TimeAgentStatus.FINISHED);
-      service.initAgentInfo();
-    } catch (TimeAgentException exception) {
-      logError(exception);
+      setStatusStart();
+      logArguments(arguments);
+      try {
+        List<String> partitions = agent.partition(service, arguments);
+        if (partitions.isEmpty()) {
+          agent.execute(service, arguments);
+        } else {
+          service.runPartitions(partitions, arguments);
+        }
+        runInfo = setStatusFinish(TimeAgentStatus.FINISHED);
+        service.initAgentInfo();
+      } catch (TimeAgentException exception) {
+        runInfo = logError(exception);
+      }
+    } catch (TimeAgentRuntimeException exception) {
+      if (!TimeAgentExceptionCause.LEASE_LOST.equals(exception.getErrorCause())) {
+        throw exception;
+      }
+      // the run must not write again, so that it does not stay running
+      log.warn(service.getMessages().getMessage("log.agent.fenced", service.getAgentInfo().getId()));
+      service.dropAgentInfo();
+      return;
     }
-    // send protocol
+    notificationService.sendProtocol(runInfo);
   }
 
 }
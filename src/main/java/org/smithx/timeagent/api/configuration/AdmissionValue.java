@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the admission of the runs to the slots shared by all agents on the
+ * database. the weight and the reservation of the agent are used, when runs of
+ * several agents wait for a slot. the poll interval, the duration and the
+ * heartbeat are given in milliseconds.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class AdmissionValue {
+  private boolean enabled = false;
+  private int slots = 4;
+  private double weight = 1;
+  private int reservation = 0;
+  private long pollInterval = 500;
+  private long duration = 30_000;
+  private long heartbeat = 10_000;
+}
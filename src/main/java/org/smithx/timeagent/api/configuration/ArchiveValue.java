@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the archive of finished infos, which are older than the retention
+ * days. the archiver is scheduled by the trigger, when it is enabled. the
+ * instances sharing the database have to share the directory too, because an
+ * info is archived by one of them only.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class ArchiveValue {
+  private boolean enabled = false;
+  private String directory = "timeagent-archive";
+  private int retentionDays = 90;
+  private int segmentSize = 10000;
+  private String trigger = "0 0 2 * * ?";
+  private int scanThreads = 2;
+}
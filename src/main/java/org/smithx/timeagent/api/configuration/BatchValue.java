@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the batches of runs started with a list of argument sets. the
+ * parallelism is used, when the request does not set it, and limited by the
+ * max parallelism. the finished batches are kept in memory up to the
+ * retention.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class BatchValue {
+  private int parallelism = 4;
+  private int maxParallelism = 16;
+  private int maxSize = 1000;
+  private int retention = 20;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * data for the dependencies of the agent. the upstream agents replace the
+ * saved dependencies on startup, when they are set. the poll interval is given
+ * in milliseconds.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class DependencyValue {
+  private List<String> upstream = new ArrayList<>();
+  private long pollInterval = 5_000;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * data for the protocol mails of the runs. the runs are collected per
+ * recipient, until the digest size is reached or the digest window has passed
+ * since the first run. the window is given in milliseconds, 0 sends the digest
+ * only by its size. protocols larger than the attachment threshold in bytes are
+ * attached compressed.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class MailValue {
+  private boolean enabled = false;
+  private String from = "timeagent@localhost";
+  private List<MailRecipientValue> recipients = new ArrayList<>();
+  private int digestSize = 1;
+  private long digestWindow = 0;
+  private int attachmentThreshold = 16_384;
+  private int poolSize = 2;
+  private int queueCapacity = 100;
+}
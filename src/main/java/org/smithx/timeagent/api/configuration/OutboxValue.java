@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the outbox of the lifecycle events of the runs. the events are
+ * delivered in batches to the webhook and to the file, when they are set. the
+ * poll interval, the backoff of the retries and the claim duration are given
+ * in milliseconds. the claim of a batch has to last longer than its delivery
+ * to all sinks, otherwise another instance delivers the batch again.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class OutboxValue {
+  private boolean enabled = false;
+  private int batchSize = 100;
+  private long pollInterval = 1000;
+  private int maxAttempts = 10;
+  private long backoff = 1000;
+  private long maxBackoff = 60_000;
+  private long claimDuration = 60_000;
+  private String webhookUrl;
+  private long webhookTimeout = 5000;
+  private String filePath;
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the partitions of a run. an enabled instance claims the partitions
+ * of the runs of other instances with the given number of workers. the
+ * interval, the duration of a claim and its heartbeat are given in
+ * milliseconds.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class PartitionValue {
+  private boolean enabled = false;
+  private int workers = 2;
+  private long pollInterval = 2_000;
+  private long claimDuration = 30_000;
+  private long heartbeat = 10_000;
+  private int maxAttempts = 3;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import lombok.Data;
+
+/**
+ * data for the executors of the searches and of the exports. the exports have
+ * their own executor, so that long exports never block the searches. the
+ * timeouts and the longest wait of a long poll on the info are given in
+ * milliseconds, the search timeout is also set as timeout of its statements.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class QueryValue {
+  private int poolSize = 2;
+  private int queueCapacity = 10;
+  private int exportPoolSize = 2;
+  private int exportQueueCapacity = 2;
+  private long searchTimeout = 30_000;
+  private long exportTimeout = 600_000;
+  private long maxPollWait = 60_000;
+}
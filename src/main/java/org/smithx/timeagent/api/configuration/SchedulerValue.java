@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import org.smithx.timeagent.api.threads.TimeAgentSchedulerType;
+
+import lombok.Data;
+
+/**
+ * data for the scheduler of the triggers. the tick duration, the wheel size
+ * and the fire threads are only used by the timer wheel, the tick duration is
+ * given in milliseconds and the wheel size is rounded up to a power of two.
+ * the run threads and the run queue capacity bound the threads of the started
+ * runs, a run beyond them is dropped. the pool threads run the fires of the
+ * pool, the polls and the mail digests, the heartbeat threads only renew the
+ * lease, the admissions and the claims of the partitions, so that a slow task
+ * does not let them expire.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class SchedulerValue {
+  private TimeAgentSchedulerType type = TimeAgentSchedulerType.POOL;
+  private long tickDuration = 10;
+  private int wheelSize = 512;
+  private int fireThreads = 2;
+  private int runThreads = 4;
+  private int runQueueCapacity = 16;
+  private int poolThreads = 2;
+  private int heartbeatThreads = 1;
+}
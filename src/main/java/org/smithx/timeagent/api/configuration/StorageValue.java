@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import org.smithx.timeagent.api.storage.TimeAgentStorageType;
+
+import lombok.Data;
+
+/**
+ * data for the storage of the infos. the file and the initial size of its
+ * mapping are only used by the log storage, the chunk lines only by the blob
+ * storage.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+public class StorageValue {
+  private TimeAgentStorageType type = TimeAgentStorageType.JPA;
+  private String file = "timeagent-info.log";
+  private int initialSize = 16 * 1024 * 1024;
+  private int chunkLines = 20;
+}
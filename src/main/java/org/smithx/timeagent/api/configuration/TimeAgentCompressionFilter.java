@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * filter to compress a response by gzip, if the client accepts it and the body
+ * reaches the threshold. smaller bodies are sent as they are, because the gzip
+ * header and the time to compress are not worth it. the body is buffered until
+ * the response is complete, so the filter is only mapped to responses of a
+ * bounded size like the search.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentCompressionFilter extends OncePerRequestFilter {
+  private static final String GZIP = "gzip";
+
+  private EncodingValue encodingValue;
+
+  public TimeAgentCompressionFilter(EncodingValue encodingValue) {
+    this.encodingValue = encodingValue;
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    // the body of an async search is written by the async dispatch
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    HttpServletResponse responseToUse = response;
+    if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
+      responseToUse = new ContentCachingResponseWrapper(response);
+    }
+
+    filterChain.doFilter(request, responseToUse);
+
+    if (!isAsyncStarted(request)) {
+      writeResponse(request, responseToUse);
+    }
+  }
+
+  private void writeResponse(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+    if (wrapper == null) {
+      return;
+    }
+    HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
+    rawResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+    if (!isCompressible(request, wrapper)) {
+      wrapper.copyBodyToResponse();
+      return;
+    }
+    byte[] body = wrapper.getContentAsByteArray();
+    wrapper.resetBuffer();
+    rawResponse.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+    GZIPOutputStream gzipOutput = new GZIPOutputStream(rawResponse.getOutputStream(), 8192);
+    gzipOutput.write(body);
+    // the output stream of the response is closed by the container
+    gzipOutput.finish();
+  }
+
+  private boolean isCompressible(HttpServletRequest request, ContentCachingResponseWrapper wrapper) {
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return encodingValue.isCompression()
+        && acceptEncoding != null && acceptEncoding.contains(GZIP)
+        && wrapper.getStatus() == HttpServletResponse.SC_OK
+        && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+        && wrapper.getContentSize() >= encodingValue.getCompressionThreshold();
+  }
+}
@@ -15,20 +15,45 @@
  */
 package org.smithx.timeagent.api.configuration;
 
+import java.sql.Connection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import javax.servlet.DispatcherType;
 import javax.sql.DataSource;
 
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.threads.TimeAgentSchedulerType;
+import org.smithx.timeagent.api.threads.TimeAgentTimerWheelScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zaxxer.hikari.HikariDataSource;
 
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -48,26 +73,170 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 @PropertySource("classpath:/timeagent.properties")
 @EnableSwagger2
 public class TimeAgentConfiguration {
+  private static final String DATASOURCE_PREFIX = "timeagent.datasource";
+
   @Autowired
   private TimeAgentValues values;
 
+  @Autowired
+  private Environment environment;
+
+  /**
+   * the write pool is bound from timeagent.datasource.* and overridden by
+   * timeagent.datasource.write.*, so that the datasource of older
+   * configurations stays the write pool. without a maximum-pool-size, the pool
+   * gets a connection for every thread, which writes infos.
+   */
+  @Bean
+  public DataSource writeDataSource() {
+    DataSource dataSource = bindDataSource(DATASOURCE_PREFIX, DATASOURCE_PREFIX + ".write");
+    if (dataSource instanceof HikariDataSource && ((HikariDataSource) dataSource).getMaximumPoolSize() <= 0) {
+      ((HikariDataSource) dataSource).setMaximumPoolSize(writePoolSize());
+    }
+    return dataSource;
+  }
+
+  /**
+   * the threads of the runs, of the batches, of the schedulers and one thread
+   * for the requests.
+   */
+  private int writePoolSize() {
+    SchedulerValue schedulerValue = values.getScheduler();
+    int fireThreads = TimeAgentSchedulerType.WHEEL.equals(schedulerValue.getType()) ? schedulerValue.getFireThreads() : 0;
+    return Math.max(1, schedulerValue.getRunThreads()) + Math.max(1, values.getBatch().getMaxParallelism())
+        + schedulerValue.getPoolThreads() + fireThreads + schedulerValue.getHeartbeatThreads() + 1;
+  }
+
+  /**
+   * the read pool falls back to the settings of the write pool and is
+   * overridden by timeagent.datasource.read.*.
+   */
+  @Bean
+  public DataSource readDataSource() {
+    return bindDataSource(DATASOURCE_PREFIX, DATASOURCE_PREFIX + ".write", DATASOURCE_PREFIX + ".read");
+  }
+
+  private DataSource bindDataSource(String... prefixes) {
+    DataSource dataSource = DataSourceBuilder.create().build();
+    Binder binder = Binder.get(environment);
+    for (String prefix : prefixes) {
+      binder.bind(prefix, Bindable.ofInstance(dataSource));
+    }
+    return dataSource;
+  }
+
   @Bean
   @Primary
-  @ConfigurationProperties(prefix = "timeagent.datasource")
-  public DataSource dataSource() {
-    return DataSourceBuilder.create().build();
+  public DataSource dataSource(@Lazy @Qualifier("writeDataSource") DataSource writeDataSource,
+      @Lazy @Qualifier("readDataSource") DataSource readDataSource) {
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(TimeAgentRoutingDataSource.Route.WRITE, writeDataSource);
+    targetDataSources.put(TimeAgentRoutingDataSource.Route.READ, readDataSource);
+
+    TimeAgentRoutingDataSource routingDataSource = new TimeAgentRoutingDataSource();
+    routingDataSource.setTargetDataSources(targetDataSources);
+    routingDataSource.setDefaultTargetDataSource(writeDataSource);
+    routingDataSource.afterPropertiesSet();
+
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+    dataSource.setTargetDataSource(routingDataSource);
+    dataSource.setDefaultAutoCommit(true);
+    dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    dataSource.afterPropertiesSet();
+
+    return dataSource;
   }
 
   @Bean
+  @Primary
   public ThreadPoolTaskScheduler threadPoolTaskScheduler() {
     ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-    scheduler.setPoolSize(1);
+    scheduler.setPoolSize(values.getScheduler().getPoolThreads());
     scheduler.setThreadNamePrefix("timeagent-thread");
     scheduler.setRemoveOnCancelPolicy(true);
 
     return scheduler;
   }
 
+  /**
+   * the heartbeats renew the lease, the admissions and the claims of the
+   * partitions on their own threads, so that the fires and the polls cannot
+   * delay them beyond their expiry.
+   */
+  @Bean
+  public ThreadPoolTaskScheduler heartbeatTaskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(values.getScheduler().getHeartbeatThreads());
+    scheduler.setThreadNamePrefix("timeagent-heartbeat");
+    scheduler.setRemoveOnCancelPolicy(true);
+
+    return scheduler;
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  @ConditionalOnProperty(prefix = "timeagent.values.scheduler", name = "type", havingValue = "wheel")
+  public TimeAgentTimerWheelScheduler timerWheelScheduler(TimeAgentMessages messages) {
+    return new TimeAgentTimerWheelScheduler(values.getScheduler(), messages);
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor queryTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(values.getQuery().getPoolSize());
+    executor.setMaxPoolSize(values.getQuery().getPoolSize());
+    executor.setQueueCapacity(values.getQuery().getQueueCapacity());
+    executor.setThreadNamePrefix("timeagent-query");
+
+    return executor;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor exportTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(values.getQuery().getExportPoolSize());
+    executor.setMaxPoolSize(values.getQuery().getExportPoolSize());
+    executor.setQueueCapacity(values.getQuery().getExportQueueCapacity());
+    executor.setThreadNamePrefix("timeagent-export");
+
+    return executor;
+  }
+
+  @Bean
+  public WebMvcConfigurer asyncSupportConfigurer(@Qualifier("exportTaskExecutor") ThreadPoolTaskExecutor exportTaskExecutor) {
+    return new WebMvcConfigurer() {
+      @Override
+      public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // the searches run on the query executor, the mvc executor only streams the exports
+        configurer.setTaskExecutor(exportTaskExecutor);
+        configurer.setDefaultTimeout(values.getQuery().getExportTimeout());
+      }
+    };
+  }
+
+  @Bean
+  public WebMvcConfigurer encodingConfigurer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return new WebMvcConfigurer() {
+      @Override
+      public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // the binary encodings are configured like the json of spring boot, so that they only differ in their representation
+        converters.add(0, new MappingJackson2CborHttpMessageConverter(
+            objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(1, new MappingJackson2SmileHttpMessageConverter(
+            objectMapperBuilder.factory(new SmileFactory()).build()));
+      }
+    };
+  }
+
+  @Bean
+  public FilterRegistrationBean<TimeAgentCompressionFilter> compressionFilter() {
+    FilterRegistrationBean<TimeAgentCompressionFilter> registration = new FilterRegistrationBean<>(
+        new TimeAgentCompressionFilter(values.getEncoding()));
+    registration.addUrlPatterns("/timeagent/info/search");
+    registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+
+    return registration;
+  }
+
   @Bean
   public TimeAgentInfo agentInfo() {
     return new TimeAgentInfo(values.getAgentName(), TimeAgentStatus.READY);
@@ -36,4 +36,18 @@ public class TimeAgentValues {
   private String agentName;
   private int maxLimitSearch;
   private SwaggerValue swagger = new SwaggerValue();
+  private QueryValue query = new QueryValue();
+  private StorageValue storage = new StorageValue();
+  private ArchiveValue archive = new ArchiveValue();
+  private LeaseValue lease = new LeaseValue();
+  private PartitionValue partition = new PartitionValue();
+  private JitterValue jitter = new JitterValue();
+  private SchedulerValue scheduler = new SchedulerValue();
+  private DependencyValue dependency = new DependencyValue();
+  private AdmissionValue admission = new AdmissionValue();
+  private WatchValue watch = new WatchValue();
+  private MailValue mail = new MailValue();
+  private OutboxValue outbox = new OutboxValue();
+  private BatchValue batch = new BatchValue();
+  private EncodingValue encoding = new EncodingValue();
 }
@@ -15,14 +15,30 @@
  */
 package org.smithx.timeagent.api.controller;
 
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentMisfire;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.services.TimeAgentNotificationService;
+import org.smithx.timeagent.api.services.TimeAgentPartitionService;
+import org.smithx.timeagent.api.services.TimeAgentRunService;
 import org.smithx.timeagent.api.services.TimeAgentService;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.annotations.ApiOperation;
@@ -42,6 +58,9 @@ import lombok.AllArgsConstructor;
 @RequestMapping(path = "/timeagent/admin", produces = MediaType.APPLICATION_JSON_VALUE)
 public class TimeAgentAdminController {
   private TimeAgentService service;
+  private TimeAgentRunService runService;
+  private TimeAgentPartitionService partitionService;
+  private TimeAgentNotificationService notificationService;
 
   @PostMapping(path = "/run", consumes = MediaType.APPLICATION_JSON_VALUE)
   @ApiOperation(value = "start the run of the agent at once")
@@ -54,6 +73,30 @@ public class TimeAgentAdminController {
     service.run(arguments);
   }
 
+  @PostMapping(path = "/batches", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = "start a sub-run for every argument set besides the other runs and get the handle of the batch")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "batch started"),
+      @ApiResponse(code = 406, message = "no, too many argument sets or invalid parallelism"),
+      @ApiResponse(code = 422, message = "agent already running on another instance"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public TimeAgentBatch runBatch(@RequestBody List<List<TimeAgentArgument>> argumentSets,
+      @RequestParam(required = false) Integer parallelism) {
+    return runService.runBatch(argumentSets, parallelism);
+  }
+
+  @GetMapping(path = "/batches/{id}")
+  @ApiOperation(value = "get the progress of a batch of runs")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "batch found"),
+      @ApiResponse(code = 404, message = "batch not found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public TimeAgentBatch getBatch(@PathVariable Long id) {
+    return runService.getBatch(id);
+  }
+
   @PostMapping(path = "/trigger", consumes = MediaType.TEXT_PLAIN_VALUE)
   @ApiOperation(value = "set a crontrigger for a scheduled execution")
   @ApiResponses(value = {
@@ -66,6 +109,120 @@ public class TimeAgentAdminController {
     return service.setTrigger(value);
   }
 
+  @GetMapping(path = "/triggers")
+  @ApiOperation(value = "get all named triggers of the agent")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "ok"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentTrigger> getTriggers() {
+    return service.getTriggers();
+  }
+
+  @GetMapping(path = "/triggers/{name}")
+  @ApiOperation(value = "get a named trigger of the agent")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "ok"),
+      @ApiResponse(code = 404, message = "trigger not found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public TimeAgentTrigger getTrigger(@PathVariable String name) {
+    return service.getTrigger(name);
+  }
+
+  @PutMapping(path = "/triggers/{name}", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = "create or replace a named trigger with its arguments and schedule it, when it is enabled")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "trigger saved successfully"),
+      @ApiResponse(code = 406, message = "invalid trigger"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public TimeAgentTrigger saveTrigger(@PathVariable String name, @RequestBody TimeAgentTrigger trigger) {
+    return service.saveTrigger(name, trigger);
+  }
+
+  @DeleteMapping(path = "/triggers/{name}")
+  @ApiOperation(value = "delete a named trigger and cancel its scheduled executions")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "trigger deleted successfully"),
+      @ApiResponse(code = 404, message = "trigger not found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public TimeAgentTrigger deleteTrigger(@PathVariable String name) {
+    return service.deleteTrigger(name);
+  }
+
+  @GetMapping(path = "/misfires")
+  @ApiOperation(value = "get the latest skipped, dropped or missed fires of the triggers")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "misfires found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentMisfire> getMisfires(@RequestParam(defaultValue = "50") int limit) {
+    return runService.getMisfires(limit);
+  }
+
+  @GetMapping(path = "/partitions/{infoId}")
+  @ApiOperation(value = "get the partitions of a run with their status and results")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "partitions found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentPartition> getPartitions(@PathVariable Long infoId) {
+    return partitionService.getPartitions(infoId);
+  }
+
+  @GetMapping(path = "/admissions")
+  @ApiOperation(value = "get the runs of all agents holding or waiting for a slot in the order of their admission")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "admissions found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentAdmission> getAdmissions() {
+    return runService.getAdmissions();
+  }
+
+  @GetMapping(path = "/outbox")
+  @ApiOperation(value = "get the lifecycle events of the runs waiting for their delivery in the order of their delivery")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "events found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentOutboxEvent> getOutboxEvents(@RequestParam(defaultValue = "50") int limit) {
+    return notificationService.getOutboxEvents(limit);
+  }
+
+  @GetMapping(path = "/dependencies")
+  @ApiOperation(value = "get the upstream agents, whose runs the agent awaits")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "dependencies found"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentDependency> getDependencies() {
+    return service.getDependencies();
+  }
+
+  @PutMapping(path = "/dependencies", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = "replace the upstream agents, the agent is fired after all of them have finished a run")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "dependencies saved successfully"),
+      @ApiResponse(code = 406, message = "invalid dependencies or cycle"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public List<TimeAgentDependency> saveDependencies(@RequestBody List<String> upstreamNames) {
+    return service.saveDependencies(upstreamNames);
+  }
+
+  @PostMapping(path = "/archive")
+  @ApiOperation(value = "move the finished runs older than the retention days into the archive at once")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "number of archived runs"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public int archive() {
+    return service.archiveInfo();
+  }
+
   @DeleteMapping(path = "/trigger")
   @PostMapping(path = "/trigger", consumes = MediaType.TEXT_PLAIN_VALUE)
   @ApiOperation(value = "delete a trigger to cancel a scheduled execution")
@@ -16,16 +16,30 @@
 package org.smithx.timeagent.api.controller;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import org.smithx.timeagent.api.models.TimeAgentEncoding;
+import org.smithx.timeagent.api.models.TimeAgentExportFormat;
+import org.smithx.timeagent.api.models.TimeAgentFields;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticSearch;
 import org.smithx.timeagent.api.services.TimeAgentService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
@@ -45,24 +59,120 @@ import lombok.AllArgsConstructor;
 public class TimeAgentInfoController {
   private TimeAgentService service;
 
-  @GetMapping
-  @ApiOperation(value = "getting the current status and information of the agent")
+  @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, TimeAgentEncoding.CBOR_VALUE, TimeAgentEncoding.SMILE_VALUE })
+  @ApiOperation(value = "getting the current status and information of the agent, restricted to the comma separated 'fields',"
+      + " if given", response = TimeAgentInfo.class)
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "ok"),
+      @ApiResponse(code = 304, message = "not changed since the etag given by 'If-None-Match'"),
+      @ApiResponse(code = 406, message = "no acceptable encoding is available or unknown fields"),
       @ApiResponse(code = 500, message = "internal error")
   })
-  public TimeAgentInfo getAgentInfo() {
-    return service.getAgentInfo();
+  public ResponseEntity<byte[]> getAgentInfo(@RequestParam(required = false) String fields,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String encoding)
+      throws HttpMediaTypeNotAcceptableException {
+    return toResponse(service.getAgentInfoSnapshot(), acceptedEncoding(accept), TimeAgentFields.parse(fields), encoding);
   }
 
-  @PostMapping(path = "/search", consumes = MediaType.APPLICATION_JSON_VALUE)
-  @ApiOperation(value = "searching for a past information of the agent")
+  @GetMapping(params = "wait", produces = { MediaType.APPLICATION_JSON_VALUE, TimeAgentEncoding.CBOR_VALUE,
+      TimeAgentEncoding.SMILE_VALUE })
+  @ApiOperation(value = "waiting up to 'wait' milliseconds for a change of the info with the etag given by 'If-None-Match'",
+      response = TimeAgentInfo.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "ok"),
+      @ApiResponse(code = 304, message = "not changed within the wait"),
+      @ApiResponse(code = 406, message = "no acceptable encoding is available or unknown fields"),
+      @ApiResponse(code = 500, message = "internal error")
+  })
+  public CompletableFuture<ResponseEntity<byte[]>> awaitAgentInfo(@RequestParam long wait,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String encoding)
+      throws HttpMediaTypeNotAcceptableException {
+    TimeAgentEncoding contentEncoding = acceptedEncoding(accept);
+    Set<String> fieldSet = TimeAgentFields.parse(fields);
+    return service.awaitAgentInfoSnapshot(ifNoneMatch, wait)
+        .thenApply(snapshot -> toResponse(snapshot, contentEncoding, fieldSet, encoding));
+  }
+
+  private TimeAgentEncoding acceptedEncoding(String accept) throws HttpMediaTypeNotAcceptableException {
+    TimeAgentEncoding contentEncoding = TimeAgentEncoding.forAccept(accept);
+    if (contentEncoding == null) {
+      throw new HttpMediaTypeNotAcceptableException(TimeAgentEncoding.getMediaTypes());
+    }
+    return contentEncoding;
+  }
+
+  private ResponseEntity<byte[]> toResponse(TimeAgentInfoSnapshot snapshot, TimeAgentEncoding contentEncoding, Set<String> fields,
+      String encoding) {
+    // the published snapshot is already serialized, so polling only copies its bytes.
+    // a matching 'If-None-Match' is answered with 304 by the etag of the variant
+    boolean transcoded = fields != null || contentEncoding != TimeAgentEncoding.JSON;
+    // a tiny info grows by the gzip header, so it is only compressed, if it gets smaller
+    boolean gzip = !transcoded && encoding != null && encoding.contains("gzip")
+        && snapshot.getGzip().length < snapshot.getJson().length;
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(contentEncoding.getMediaType())
+        .eTag(snapshot.getEtag(contentEncoding, fields, gzip))
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT);
+    if (transcoded) {
+      return response.body(snapshot.getEncoded(contentEncoding, fields));
+    }
+    if (gzip) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+    }
+    return response.body(snapshot.getJson());
+  }
+
+  @PostMapping(path = "/search", consumes = MediaType.APPLICATION_JSON_VALUE, produces = { MediaType.APPLICATION_JSON_VALUE,
+      TimeAgentEncoding.CBOR_VALUE, TimeAgentEncoding.SMILE_VALUE })
+  @ApiOperation(value = "searching for a past information of the agent, restricted to the comma separated 'fields', if given",
+      response = TimeAgentInfo.class, responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "search successful"),
+      @ApiResponse(code = 406, message = "no acceptable encoding is available or unknown fields"),
+      @ApiResponse(code = 500, message = "internal error"),
+      @ApiResponse(code = 503, message = "too many searches or search timed out")
+  })
+  public CompletableFuture<? extends List<?>> findAgentInfo(@RequestBody TimeAgentInfoSearch searchModel,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) throws HttpMediaTypeNotAcceptableException {
+    acceptedEncoding(accept);
+    Set<String> fieldSet = TimeAgentFields.parse(fields);
+    if (fieldSet == null) {
+      return service.searchInfoAsync(searchModel);
+    }
+    // the omitted fields are neither loaded nor serialized
+    searchModel.setFields(fieldSet);
+    return service.searchInfoAsync(searchModel).thenApply(agentInfos -> TimeAgentFields.select(agentInfos, fieldSet));
+  }
+
+  @PostMapping(path = "/export", consumes = MediaType.APPLICATION_JSON_VALUE, produces = { TimeAgentExportFormat.NDJSON_VALUE,
+      TimeAgentExportFormat.CSV_VALUE })
+  @ApiOperation(value = "exporting all past information of the agent matching the search as ndjson or csv")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "export successful"),
+      @ApiResponse(code = 500, message = "internal error"),
+      @ApiResponse(code = 503, message = "too many exports or export timed out")
+  })
+  public ResponseEntity<StreamingResponseBody> exportAgentInfo(@RequestBody TimeAgentInfoSearch searchModel,
+      @RequestParam(defaultValue = "NDJSON") TimeAgentExportFormat format, @RequestParam(defaultValue = "false") boolean protocol) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"timeagent-info.%s\"", format.getFileExtension()))
+        .body(outputStream -> service.exportInfo(searchModel, format, protocol, outputStream));
+  }
+
+  @PostMapping(path = "/stats", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ApiOperation(value = "getting the run statistics of the agent for a time range")
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "search successful"),
       @ApiResponse(code = 500, message = "internal error")
   })
-  public List<TimeAgentInfo> findAgentInfo(@RequestBody TimeAgentInfoSearch searchModel) {
-    return service.searchInfo(searchModel);
+  public List<TimeAgentStatistic> findAgentStatistic(@RequestBody TimeAgentStatisticSearch searchModel) {
+    return service.searchStatistic(searchModel);
   }
 
 }
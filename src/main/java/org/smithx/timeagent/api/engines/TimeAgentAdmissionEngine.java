@@ -0,0 +1,281 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.smithx.timeagent.api.configuration.AdmissionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.smithx.timeagent.api.repositories.TimeAgentAdmissionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the admission of the runs to the slots shared by all agents on
+ * the database. a run waits until it is the next one by weighted fair queuing:
+ * every run gets a virtual finish of the later of the current virtual time and
+ * the virtual finish of the last run of its agent plus the inverse weight of
+ * the agent. the waiting run with the lowest virtual finish is admitted to a
+ * free slot, unless an agent is below its reservation. so a flood of runs of
+ * one agent only delays the runs of this agent. the admissions expire without
+ * heartbeat, so that the slots of a terminated instance are freed.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentAdmissionEngine {
+  public static final String SLOTS_METRIC = "timeagent.admission.slots";
+  public static final String USED_SLOTS_METRIC = "timeagent.admission.slots.used";
+  public static final String WAITING_METRIC = "timeagent.admission.waiting";
+  public static final String WAIT_METRIC = "timeagent.admission.wait";
+  static final double MIN_WEIGHT = 0.01;
+
+  private TimeAgentValues agentValues;
+  private TimeAgentAdmissionRepository admissionRepository;
+  private TimeAgentLeaseEngine leaseEngine;
+  private ThreadPoolTaskScheduler scheduler;
+  private TimeAgentMessages messages;
+
+  // last seen occupancy of the slots by all agents
+  private final AtomicInteger usedSlots = new AtomicInteger();
+  private final AtomicInteger waitingRuns = new AtomicInteger();
+  private final Timer waitTimer;
+  private final Set<Long> heldAdmissions = ConcurrentHashMap.newKeySet();
+  private ScheduledFuture<?> heartbeat;
+
+  public TimeAgentAdmissionEngine(TimeAgentValues agentValues, TimeAgentAdmissionRepository admissionRepository,
+      TimeAgentLeaseEngine leaseEngine, @Qualifier("heartbeatTaskScheduler") ThreadPoolTaskScheduler scheduler, MeterRegistry meterRegistry,
+      TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.admissionRepository = admissionRepository;
+    this.leaseEngine = leaseEngine;
+    this.scheduler = scheduler;
+    this.messages = messages;
+    Tags tags = Tags.of("agent", String.valueOf(agentValues.getAgentName()));
+    meterRegistry.gauge(SLOTS_METRIC, tags, agentValues, values -> values.getAdmission().getSlots());
+    meterRegistry.gauge(USED_SLOTS_METRIC, tags, usedSlots);
+    meterRegistry.gauge(WAITING_METRIC, tags, waitingRuns);
+    this.waitTimer = meterRegistry.timer(WAIT_METRIC, tags);
+  }
+
+  public List<TimeAgentAdmission> findAdmissions() {
+    return admissionRepository.findAllByOrderByVirtualFinishAscIdAsc();
+  }
+
+  /**
+   * waits until the run is admitted to a slot. returns null at once, when the
+   * admission is not enabled.
+   */
+  public TimeAgentAdmission acquireSlot() {
+    AdmissionValue admissionValue = agentValues.getAdmission();
+    if (!admissionValue.isEnabled()) {
+      return null;
+    }
+
+    long start = System.nanoTime();
+    TimeAgentAdmission admission = enqueue(admissionValue);
+    try {
+      while (!tryAdmit(admission, admissionValue.getSlots())) {
+        Thread.sleep(admissionValue.getPollInterval());
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      abandonSlot(admission);
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ADMISSION_INTERRUPTED,
+          "the run was interrupted while waiting for a slot");
+    } catch (RuntimeException exception) {
+      // a waiting admission left behind would be the next one forever
+      abandonSlot(admission);
+      throw exception;
+    }
+
+    long waitTime = System.nanoTime() - start;
+    waitTimer.record(waitTime, TimeUnit.NANOSECONDS);
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.admission.admit", admission.getId(), admission.getSlot(),
+          TimeUnit.NANOSECONDS.toMillis(waitTime)));
+    }
+    return admission;
+  }
+
+  public void releaseSlot(TimeAgentAdmission admission) {
+    if (admission == null) {
+      return;
+    }
+    // without the heartbeat the admission expires, even when the delete fails
+    heldAdmissions.remove(admission.getId());
+    stopHeartbeat();
+    admissionRepository.deleteAdmission(admission.getId());
+    if (admission.isAdmitted()) {
+      usedSlots.updateAndGet(slots -> Math.max(0, slots - 1));
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.admission.release", admission.getId(), admission.getSlot()));
+    }
+  }
+
+  /**
+   * returns the waiting admission to admit next or null, when all slots are
+   * used. the admissions are given in the order of their virtual finish.
+   */
+  static TimeAgentAdmission nextAdmission(List<TimeAgentAdmission> admissions, int slots) {
+    Map<String, Integer> admittedByAgent = new HashMap<>();
+    int admitted = 0;
+    for (TimeAgentAdmission admission : admissions) {
+      if (admission.isAdmitted()) {
+        admittedByAgent.merge(admission.getAgentName(), 1, Integer::sum);
+        admitted++;
+      }
+    }
+    if (admitted >= slots) {
+      return null;
+    }
+
+    TimeAgentAdmission next = null;
+    for (TimeAgentAdmission admission : admissions) {
+      if (admission.isAdmitted()) {
+        continue;
+      }
+      if (admittedByAgent.getOrDefault(admission.getAgentName(), 0) < admission.getReservation()) {
+        // the reserved slots of an agent go before the fair queue
+        return admission;
+      }
+      if (next == null) {
+        next = admission;
+      }
+    }
+    return next;
+  }
+
+  private TimeAgentAdmission enqueue(AdmissionValue admissionValue) {
+    LocalDateTime now = LocalDateTime.now();
+    admissionRepository.deleteExpired(now);
+
+    // the virtual time is the virtual finish of the last admitted run or else of the first waiting run
+    List<TimeAgentAdmission> admissions = admissionRepository.findAllByOrderByVirtualFinishAscIdAsc();
+    double virtualTime = admissions.stream().filter(TimeAgentAdmission::isAdmitted)
+        .mapToDouble(TimeAgentAdmission::getVirtualFinish).max()
+        .orElse(admissions.isEmpty() ? 0 : admissions.get(0).getVirtualFinish());
+    double lastFinish = admissions.stream().filter(other -> other.getAgentName().equals(agentValues.getAgentName()))
+        .mapToDouble(TimeAgentAdmission::getVirtualFinish).max().orElse(0);
+
+    double weight = Math.max(admissionValue.getWeight(), MIN_WEIGHT);
+    double virtualFinish = Math.max(virtualTime, lastFinish) + 1 / weight;
+    TimeAgentAdmission admission = admissionRepository.save(new TimeAgentAdmission(agentValues.getAgentName(),
+        leaseEngine.getInstanceId(), weight, admissionValue.getReservation(), virtualFinish,
+        now.plusNanos(admissionValue.getDuration() * 1_000_000)));
+    heldAdmissions.add(admission.getId());
+    startHeartbeat(admissionValue);
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.admission.wait", admission.getId(), virtualFinish));
+    }
+    return admission;
+  }
+
+  private boolean tryAdmit(TimeAgentAdmission admission, int slots) {
+    LocalDateTime now = LocalDateTime.now();
+    admissionRepository.deleteExpired(now);
+    List<TimeAgentAdmission> admissions = admissionRepository.findAllByOrderByVirtualFinishAscIdAsc();
+    BitSet usedSlotNumbers = new BitSet(slots);
+    admissions.stream().filter(TimeAgentAdmission::isAdmitted).forEach(other -> usedSlotNumbers.set(other.getSlot()));
+    usedSlots.set(usedSlotNumbers.cardinality());
+    waitingRuns.set(admissions.size() - usedSlotNumbers.cardinality());
+
+    TimeAgentAdmission next = nextAdmission(admissions, slots);
+    if (next == null || !next.getId().equals(admission.getId())) {
+      return false;
+    }
+    int slot = usedSlotNumbers.nextClearBit(0);
+    try {
+      if (admissionRepository.admit(admission.getId(), slot, now) == 0) {
+        return false;
+      }
+    } catch (DataIntegrityViolationException exception) {
+      // the slot was taken by a run of another instance at the same time
+      return false;
+    }
+    admission.setSlot(slot);
+    admission.setAdmittedAt(now);
+    usedSlots.incrementAndGet();
+    waitingRuns.decrementAndGet();
+    return true;
+  }
+
+  private void abandonSlot(TimeAgentAdmission admission) {
+    try {
+      releaseSlot(admission);
+    } catch (RuntimeException exception) {
+      log.warn(messages.getMessage("log.admission.release.failed", admission.getId()), exception);
+    }
+  }
+
+  private synchronized void startHeartbeat(AdmissionValue admissionValue) {
+    if (heartbeat != null) {
+      return;
+    }
+    heartbeat = scheduler.scheduleAtFixedRate(this::renewAdmissions,
+        Date.from(LocalDateTime.now().plusNanos(admissionValue.getHeartbeat() * 1_000_000).atZone(ZoneId.systemDefault())
+            .toInstant()),
+        admissionValue.getHeartbeat());
+  }
+
+  private synchronized void stopHeartbeat() {
+    if (heldAdmissions.isEmpty() && heartbeat != null) {
+      heartbeat.cancel(false);
+      heartbeat = null;
+    }
+  }
+
+  private void renewAdmissions() {
+    List<Long> ids = new ArrayList<>(heldAdmissions);
+    if (ids.isEmpty()) {
+      return;
+    }
+    try {
+      // only the admissions of the runs waiting or running here are renewed
+      admissionRepository.renewAdmissions(ids, LocalDateTime.now().plusNanos(agentValues.getAdmission().getDuration() * 1_000_000));
+    } catch (RuntimeException exception) {
+      // the next heartbeat tries again before the admissions expire
+      log.warn(messages.getMessage("log.admission.renew.failed", heldAdmissions.size()), exception);
+    }
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.transaction.Transactional;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.storage.TimeAgentArchiveSegment;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to move the finished infos older than the retention days from the
+ * storage into archive segments and to search the segments. the segments,
+ * which may contain matches by their header, are scanned in parallel. the
+ * directory is shared by the instances and scanned again before every search,
+ * so that the segments of the other instances are found. the scheduled
+ * archiver is claimed on the lease, so that it runs on one instance only.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentArchiveEngine {
+  private TimeAgentValues agentValues;
+  private TimeAgentStorage storage;
+  private TimeAgentLeaseEngine leaseEngine;
+  private TimeAgentMessages messages;
+
+  private ExecutorService scanExecutor;
+  private final Map<Path, TimeAgentArchiveSegment> segments = new ConcurrentHashMap<>();
+
+  public TimeAgentArchiveEngine(TimeAgentValues agentValues, TimeAgentStorage storage, TimeAgentLeaseEngine leaseEngine,
+      TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.storage = storage;
+    this.leaseEngine = leaseEngine;
+    this.messages = messages;
+    this.scanExecutor = Executors.newFixedThreadPool(agentValues.getArchive().getScanThreads(),
+        new CustomizableThreadFactory("timeagent-archive"));
+  }
+
+  @PostConstruct
+  public void loadSegments() {
+    refreshSegments();
+    log.info(messages.getMessage("log.archive.open", segments.size(), agentValues.getArchive().getDirectory()));
+  }
+
+  /**
+   * opens the segments written by the other instances and forgets the removed
+   * ones.
+   */
+  public synchronized void refreshSegments() {
+    Path directory = Paths.get(agentValues.getArchive().getDirectory());
+    if (!Files.isDirectory(directory)) {
+      segments.clear();
+      return;
+    }
+    Set<Path> files = new HashSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TimeAgentArchiveSegment.FILE_EXTENSION)) {
+      for (Path file : stream) {
+        files.add(file);
+        if (!segments.containsKey(file)) {
+          TimeAgentArchiveSegment segment = TimeAgentArchiveSegment.open(file);
+          if (segment.getAgentName().equals(agentValues.getAgentName())) {
+            segments.put(file, segment);
+          }
+        }
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    segments.keySet().retainAll(files);
+  }
+
+  @PreDestroy
+  public void close() {
+    scanExecutor.shutdownNow();
+  }
+
+  public List<TimeAgentArchiveSegment> getSegments() {
+    return new ArrayList<>(segments.values());
+  }
+
+  /**
+   * claims the scheduled archiver at the time of its trigger. returns false,
+   * when another instance archives at this time.
+   */
+  public boolean claimArchive(LocalDateTime cronTime) {
+    if (leaseEngine.claimArchive(cronTime)) {
+      return true;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.archive.claimed", cronTime));
+    }
+    return false;
+  }
+
+  /**
+   * moves the next archivable infos into a new segment and returns their
+   * number. the segment is written before the infos are deleted, so that an
+   * info is never lost. the segment is removed again, when the deletion fails
+   * or is rolled back, so that its infos are archived by the next run.
+   */
+  @Transactional
+  public int archiveSegment() {
+    LocalDateTime finishedBefore = LocalDateTime.now().minusDays(agentValues.getArchive().getRetentionDays());
+    List<TimeAgentInfo> agentInfos = storage.findArchivable(agentValues.getAgentName(), finishedBefore,
+        agentValues.getArchive().getSegmentSize());
+    if (agentInfos.isEmpty()) {
+      return 0;
+    }
+
+    TimeAgentArchiveSegment segment;
+    try {
+      segment = TimeAgentArchiveSegment.write(Paths.get(agentValues.getArchive().getDirectory()), agentValues.getAgentName(),
+          agentInfos);
+    } catch (IOException exception) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ARCHIVE_FAILED,
+          String.format("archive segment could not be written: %s", exception.getMessage()));
+    }
+    segments.put(segment.getFile(), segment);
+    try {
+      storage.delete(agentInfos);
+    } catch (RuntimeException exception) {
+      dropSegment(segment);
+      throw exception;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status != STATUS_COMMITTED) {
+            dropSegment(segment);
+          }
+        }
+      });
+    }
+
+    log.info(messages.getMessage("log.archive.segment", agentInfos.size(), segment.getFile()));
+    return agentInfos.size();
+  }
+
+  /**
+   * returns the highest id of the archived infos or 0 without segments.
+   */
+  public long getMaxArchivedId() {
+    return segments.values().stream().mapToLong(TimeAgentArchiveSegment::getMaxId).max().orElse(0);
+  }
+
+  /**
+   * streams all archived infos matching the search model in the order of the
+   * segments. a segment is read, when the stream reaches it, so that only one
+   * segment is held in memory. only the ids of a segment overlapping the next
+   * one are kept to skip an info archived twice.
+   */
+  public Stream<TimeAgentInfo> streamAgentInfo(TimeAgentInfoSearch searchModel, boolean withProtocol) {
+    refreshSegments();
+    List<TimeAgentArchiveSegment> candidates = segments.values().stream()
+        .filter(segment -> segment.mayContain(agentValues.getAgentName(), searchModel))
+        .sorted(Comparator.comparingLong(TimeAgentArchiveSegment::getMinId))
+        .collect(Collectors.toList());
+    Set<Long> overlapping = new HashSet<>();
+    return IntStream.range(0, candidates.size()).boxed().flatMap(index -> {
+      long nextMinId = index + 1 < candidates.size() ? candidates.get(index + 1).getMinId() : Long.MAX_VALUE;
+      return export(candidates.get(index), searchModel, withProtocol).stream()
+          .filter(agentInfo -> !overlapping.contains(agentInfo.getId()))
+          .peek(agentInfo -> {
+            if (agentInfo.getId() >= nextMinId) {
+              overlapping.add(agentInfo.getId());
+            }
+          });
+    });
+  }
+
+  /**
+   * returns the archived infos matching the search model and the filter of the
+   * protocol, ordered by the last update descending and limited by the limit
+   * of the search model.
+   */
+  public List<TimeAgentInfo> searchAgentInfo(TimeAgentInfoSearch searchModel, Predicate<TimeAgentInfo> protocolFilter) {
+    refreshSegments();
+    List<TimeAgentArchiveSegment> candidates = segments.values().stream()
+        .filter(segment -> segment.mayContain(agentValues.getAgentName(), searchModel))
+        .collect(Collectors.toList());
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.archive.search", candidates.size(), segments.size()));
+    }
+    if (candidates.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<CompletableFuture<List<TimeAgentInfo>>> scans = candidates.stream()
+        .map(segment -> CompletableFuture.supplyAsync(() -> scan(segment, searchModel, protocolFilter), scanExecutor))
+        .collect(Collectors.toList());
+
+    try {
+      // an info archived twice is found once
+      Map<Long, TimeAgentInfo> found = new HashMap<>();
+      scans.forEach(scan -> scan.join().forEach(agentInfo -> found.putIfAbsent(agentInfo.getId(), agentInfo)));
+      return found.values().stream()
+          .sorted(TimeAgentArchiveSegment.BY_UPDATED_AT)
+          .limit(searchModel.getLimit())
+          .collect(Collectors.toList());
+    } catch (CompletionException exception) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ARCHIVE_FAILED,
+          String.format("archive segment could not be read: %s", exception.getCause().getMessage()));
+    }
+  }
+
+  private void dropSegment(TimeAgentArchiveSegment segment) {
+    segments.remove(segment.getFile());
+    try {
+      Files.deleteIfExists(segment.getFile());
+      log.warn(messages.getMessage("log.archive.dropped", segment.getFile()));
+    } catch (IOException exception) {
+      log.error(messages.getMessage("log.archive.dropped", segment.getFile()), exception);
+    }
+  }
+
+  private List<TimeAgentInfo> export(TimeAgentArchiveSegment segment, TimeAgentInfoSearch searchModel, boolean withProtocol) {
+    try {
+      return segment.export(searchModel, withProtocol);
+    } catch (IOException exception) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ARCHIVE_FAILED,
+          String.format("archive segment could not be read: %s", exception.getMessage()));
+    }
+  }
+
+  private List<TimeAgentInfo> scan(TimeAgentArchiveSegment segment, TimeAgentInfoSearch searchModel,
+      Predicate<TimeAgentInfo> protocolFilter) {
+    try {
+      return segment.search(searchModel, protocolFilter);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
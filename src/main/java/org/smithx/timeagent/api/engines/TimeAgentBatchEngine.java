@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the batches of runs. every batch gets an info of its own, which
+ * holds the outcome of the batch in its status and protocol, while the sub-runs
+ * write to their own infos linked to it. the handles of the running batches and
+ * of the latest finished batches are kept in memory, the progress of another
+ * batch is read from the stored infos.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentBatchEngine {
+  private TimeAgentValues agentValues;
+  private TimeAgentModelEngine modelEngine;
+  private TimeAgentStorage storage;
+  private TimeAgentMessages messages;
+
+  // guarded by itself, in the order of the start of the batches
+  private final Map<Long, TimeAgentBatch> batches = new LinkedHashMap<>();
+
+  public TimeAgentBatchEngine(TimeAgentValues agentValues, TimeAgentModelEngine modelEngine, TimeAgentStorage storage,
+      TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.modelEngine = modelEngine;
+    this.storage = storage;
+    this.messages = messages;
+  }
+
+  public TimeAgentBatch createBatch(int total, int parallelism) {
+    TimeAgentInfo parentInfo = modelEngine.createAgentInfo();
+    parentInfo.setStatus(TimeAgentStatus.RUNNING);
+    parentInfo.setStartTimeExecution(LocalDateTime.now());
+    parentInfo.addProtocol(messages.getMessage("protocol.batch.start", total, parallelism));
+    parentInfo = modelEngine.updateAgentInfo(parentInfo);
+
+    TimeAgentBatch batch = new TimeAgentBatch(parentInfo, total, parallelism);
+    synchronized (batches) {
+      batches.put(batch.getId(), batch);
+    }
+    log.info(messages.getMessage("log.batch.start", batch.getId(), total, parallelism));
+    return batch;
+  }
+
+  public TimeAgentBatch findBatch(Long id) {
+    TimeAgentBatch batch;
+    synchronized (batches) {
+      batch = batches.get(id);
+    }
+    if (batch == null) {
+      batch = loadBatch(id);
+    }
+    if (batch == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.BATCH_NOT_FOUND, "the batch " + id + " was not found");
+    }
+    return batch;
+  }
+
+  /**
+   * builds the progress of a batch started by another instance or evicted from
+   * memory from its stored infos. the sub-runs without info are pending, while
+   * the batch is running, and aborted afterwards.
+   */
+  private TimeAgentBatch loadBatch(Long id) {
+    List<TimeAgentInfo> agentInfos = storage.findBatch(id);
+    if (agentInfos.isEmpty()) {
+      return null;
+    }
+    TimeAgentInfo parentInfo = agentInfos.get(0);
+    if (!id.equals(parentInfo.getId()) || parentInfo.getParentId() != null
+        || !agentValues.getAgentName().equals(parentInfo.getAgentName())) {
+      return null;
+    }
+    List<TimeAgentInfo> subRunInfos = agentInfos.subList(1, agentInfos.size());
+    int[] start = parseStart(storage.findProtocolMessages(id));
+
+    TimeAgentBatch batch = new TimeAgentBatch(parentInfo, start == null ? subRunInfos.size() : Math.max(start[0], subRunInfos.size()),
+        start == null ? 0 : start[1]);
+    for (TimeAgentInfo subRunInfo : subRunInfos) {
+      batch.startSubRun();
+      if (TimeAgentStatus.finalValues().contains(subRunInfo.getStatus())) {
+        batch.finishSubRun(subRunInfo);
+      }
+    }
+    if (TimeAgentStatus.finalValues().contains(parentInfo.getStatus())) {
+      batch.cancelPending();
+      batch.setStatus(parentInfo.getStatus());
+      batch.setFinishTimeExecution(parentInfo.getFinishTimeExecution());
+    }
+    return batch;
+  }
+
+  /**
+   * reads the total and the parallelism from the first protocol line of the
+   * batch, null if it is not the start of a batch.
+   */
+  private int[] parseStart(List<String> protocol) {
+    if (protocol.isEmpty()) {
+      return null;
+    }
+    try {
+      // without arguments the message is the pattern
+      Object[] values = new MessageFormat(messages.getMessage("protocol.batch.start"), Locale.getDefault()).parse(protocol.get(0));
+      NumberFormat numberFormat = NumberFormat.getIntegerInstance(Locale.getDefault());
+      return new int[] { numberFormat.parse((String) values[0]).intValue(), numberFormat.parse((String) values[1]).intValue() };
+    } catch (ParseException | RuntimeException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * finishes the batch after its last sub-run and writes its outcome to its
+   * info.
+   */
+  public void finishBatch(TimeAgentBatch batch) {
+    LocalDateTime now = LocalDateTime.now();
+    batch.finish(now);
+    TimeAgentInfo parentInfo = batch.getParentInfo();
+    parentInfo.setStatus(batch.getStatus());
+    parentInfo.setFinishTimeExecution(now);
+    parentInfo.addProtocol(messages.getMessage("protocol.batch.finish", batch.getFinished(), batch.getTotal(),
+        batch.getAborted()));
+    batch.setParentInfo(modelEngine.updateAgentInfo(parentInfo));
+    log.info(messages.getMessage("log.batch.finish", batch.getId(), batch.getAborted(), batch.getTotal()));
+    evictBatches();
+  }
+
+  private void evictBatches() {
+    synchronized (batches) {
+      int finishedBatches = (int) batches.values().stream().filter(batch -> batch.getFinishTimeExecution() != null).count();
+      Iterator<TimeAgentBatch> iterator = batches.values().iterator();
+      while (finishedBatches > agentValues.getBatch().getRetention() && iterator.hasNext()) {
+        if (iterator.next().getFinishTimeExecution() != null) {
+          iterator.remove();
+          finishedBatches--;
+        }
+      }
+    }
+  }
+}
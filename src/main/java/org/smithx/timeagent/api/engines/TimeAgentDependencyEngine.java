@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentDependencyRepository;
+import org.smithx.timeagent.api.repositories.TimeAgentLeaseRepository;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the dependencies of the agent on its upstream agents. the
+ * dependencies of all agents sharing the database are checked for cycles,
+ * before the dependencies of the agent are saved. the check and the save hold
+ * the lock of the dependencies, so that two agents cannot close a cycle at the
+ * same time.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@Slf4j
+public class TimeAgentDependencyEngine {
+  // name of the lease row locking the dependencies of all agents
+  static final String DEPENDENCY_LOCK = "#dependencies";
+
+  private TimeAgentValues agentValues;
+  private TimeAgentDependencyRepository dependencyRepository;
+  private TimeAgentLeaseRepository leaseRepository;
+  private TimeAgentStorage storage;
+  private TimeAgentMessages messages;
+  private PlatformTransactionManager transactionManager;
+
+  public List<TimeAgentDependency> findDependencies() {
+    return dependencyRepository.findAllByAgentNameOrderByUpstreamName(agentValues.getAgentName());
+  }
+
+  /**
+   * replaces the upstream agents of the agent. the awaited runs of the kept
+   * upstream agents are not changed.
+   */
+  @Transactional
+  public List<TimeAgentDependency> saveDependencies(List<String> upstreamNames) {
+    String agentName = agentValues.getAgentName();
+    Set<String> upstream = new LinkedHashSet<>(upstreamNames == null ? Collections.emptyList() : upstreamNames);
+    if (upstream.stream().anyMatch(upstreamName -> StringUtils.isEmpty(upstreamName) || upstreamName.length() > 60)) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_DEPENDENCY,
+          String.format("invalid upstream agents: %s", upstreamNames));
+    }
+
+    lockDependencies();
+    Map<String, Set<String>> graph = new HashMap<>();
+    for (Object[] edge : dependencyRepository.findAllEdges()) {
+      graph.computeIfAbsent((String) edge[0], name -> new HashSet<>()).add((String) edge[1]);
+    }
+    graph.put(agentName, upstream);
+    List<String> cycle = findCycle(graph, agentName);
+    if (cycle != null) {
+      String path = String.join(" -> ", cycle);
+      log.warn(messages.getMessage("log.dependency.cycle", agentName, path));
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_DEPENDENCY,
+          String.format("cycle of dependencies: %s", path));
+    }
+
+    List<TimeAgentDependency> savedDependencies = findDependencies();
+    // all dependencies of the agent share the time of the last fire
+    LocalDateTime lastFireTime = savedDependencies.isEmpty() ? LocalDateTime.now() : savedDependencies.get(0).getLastFireTime();
+    dependencyRepository.deleteByAgentName(agentName);
+    List<TimeAgentDependency> dependencies = upstream.stream()
+        .map(upstreamName -> new TimeAgentDependency(agentName, upstreamName, lastFireTime))
+        .collect(Collectors.toList());
+    dependencyRepository.saveAll(dependencies);
+
+    log.info(messages.getMessage("log.dependency.save", agentName, upstream));
+    return dependencies;
+  }
+
+  /**
+   * returns the last ended run of every upstream agent after the last fire, or
+   * null as long as an upstream agent has not ended a run since then.
+   */
+  public List<TimeAgentInfo> findUpstreamRuns(List<TimeAgentDependency> dependencies) {
+    List<TimeAgentInfo> upstreamRuns = new ArrayList<>();
+    for (TimeAgentDependency dependency : dependencies) {
+      TimeAgentInfo upstreamRun = findLastEndedRun(dependency.getUpstreamName());
+      if (upstreamRun == null || !upstreamRun.getFinishTimeExecution().isAfter(dependency.getLastFireTime())) {
+        return null;
+      }
+      upstreamRuns.add(upstreamRun);
+    }
+    return upstreamRuns;
+  }
+
+  /**
+   * moves the time of the last fire of the dependencies. returns false, when
+   * another instance of the agent has fired them before.
+   */
+  public boolean markFired(List<TimeAgentDependency> dependencies, LocalDateTime fireTime) {
+    return dependencyRepository.markFired(agentValues.getAgentName(), dependencies.get(0).getLastFireTime(), fireTime) > 0;
+  }
+
+  /**
+   * locks the lease row of the dependencies until the end of the transaction.
+   * the row is created in a transaction of its own by the first save.
+   */
+  private void lockDependencies() {
+    if (leaseRepository.lockLease(DEPENDENCY_LOCK) > 0) {
+      return;
+    }
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      transaction.execute(status -> leaseRepository.save(new TimeAgentLease(DEPENDENCY_LOCK, DEPENDENCY_LOCK, 0, now, now)));
+    } catch (DataIntegrityViolationException exception) {
+      // the row was created by another agent at the same time
+    }
+    leaseRepository.lockLease(DEPENDENCY_LOCK);
+  }
+
+  private TimeAgentInfo findLastEndedRun(String agentName) {
+    TimeAgentInfo lastRun = null;
+    for (TimeAgentStatus status : TimeAgentStatus.finalValues()) {
+      TimeAgentInfo run = storage.findLatest(agentName, status);
+      if (run != null && run.getFinishTimeExecution() != null
+          && (lastRun == null || run.getFinishTimeExecution().isAfter(lastRun.getFinishTimeExecution()))) {
+        lastRun = run;
+      }
+    }
+    return lastRun;
+  }
+
+  /**
+   * returns the path from the agent over its upstream agents back to the agent
+   * or null, when there is none. the saved graph has no cycles, so every cycle
+   * passes the agent.
+   */
+  private List<String> findCycle(Map<String, Set<String>> graph, String agentName) {
+    Deque<String> path = new ArrayDeque<>();
+    return visit(graph, agentName, agentName, path, new HashSet<>()) ? new ArrayList<>(path) : null;
+  }
+
+  private boolean visit(Map<String, Set<String>> graph, String agentName, String current, Deque<String> path,
+      Set<String> visited) {
+    path.addLast(current);
+    for (String upstreamName : graph.getOrDefault(current, Collections.emptySet())) {
+      if (upstreamName.equals(agentName)) {
+        path.addLast(upstreamName);
+        return true;
+      }
+      if (visited.add(upstreamName) && visit(graph, agentName, upstreamName, path, visited)) {
+        return true;
+      }
+    }
+    path.removeLast();
+    return false;
+  }
+}
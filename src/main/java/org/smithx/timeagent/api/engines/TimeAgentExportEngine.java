@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentExportFormat;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to export the infos of an agent as ndjson or csv. the rows are
+ * streamed from a database cursor without being attached to the persistence
+ * context, so that the memory usage does not depend on the number of rows. the
+ * protocols are loaded for a batch of rows at once. the matching infos of the
+ * archive follow the rows of the database in the order of their ids, one
+ * segment at a time.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@Slf4j
+public class TimeAgentExportEngine {
+  public static final int PROTOCOL_BATCH_SIZE = 100;
+
+  private static final String[] CSV_HEADER = { "id", "agentName", "status", "executor", "crontrigger", "startTimeExecution",
+      "finishTimeExecution", "createdAt", "updatedAt" };
+
+  private TimeAgentValues agentValues;
+  private TimeAgentStorage storage;
+  private TimeAgentArchiveEngine archiveEngine;
+  private ObjectMapper mapper;
+  private TimeAgentMessages messages;
+
+  @Transactional(readOnly = true)
+  public long exportAgentInfo(TimeAgentInfoSearch searchModel, TimeAgentExportFormat format, boolean withProtocol,
+      OutputStream outputStream) throws IOException {
+    if (searchModel == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, "search model is null");
+    }
+    if (!StringUtils.isEmpty(searchModel.getProtocolText())) {
+      // the export is not limited, so it cannot verify the phrases of the candidates like the search
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_SEARCH_MODEL,
+          "protocol text is not supported by the export");
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.export.start", format, withProtocol, searchModel));
+    }
+
+    long rows;
+    try (Stream<TimeAgentInfo> stream = storage.stream(agentValues.getAgentName(), searchModel);
+        Stream<TimeAgentInfo> archived = archiveEngine.streamAgentInfo(searchModel, withProtocol)) {
+      Rows infos = new Rows(stream.iterator(), archived.iterator(), archiveEngine.getMaxArchivedId());
+      if (TimeAgentExportFormat.CSV.equals(format)) {
+        rows = writeCsv(infos, withProtocol, outputStream);
+      } else {
+        rows = writeNdjson(infos, withProtocol, outputStream);
+      }
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.export.end", rows));
+    }
+    return rows;
+  }
+
+  private long writeNdjson(Rows infos, boolean withProtocol, OutputStream outputStream) throws IOException {
+    JsonGenerator generator = mapper.getFactory().createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    long rows = writeRows(infos, withProtocol, (agentInfo, protocol) -> {
+      generator.writeStartObject();
+      generator.writeNumberField("id", agentInfo.getId());
+      writeField(generator, "agentName", agentInfo.getAgentName());
+      writeField(generator, "status", agentInfo.getStatus());
+      writeField(generator, "executor", agentInfo.getExecutor());
+      writeField(generator, "crontrigger", agentInfo.getCrontrigger());
+      writeField(generator, "startTimeExecution", agentInfo.getStartTimeExecution());
+      writeField(generator, "finishTimeExecution", agentInfo.getFinishTimeExecution());
+      writeField(generator, "createdAt", agentInfo.getCreatedAt());
+      writeField(generator, "updatedAt", agentInfo.getUpdatedAt());
+      if (protocol != null) {
+        generator.writeArrayFieldStart("protocol");
+        for (String message : protocol) {
+          generator.writeString(message);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    });
+    generator.flush();
+    return rows;
+  }
+
+  private long writeCsv(Rows infos, boolean withProtocol, OutputStream outputStream) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    writer.write(String.join(",", CSV_HEADER));
+    writer.write(withProtocol ? ",protocol\n" : "\n");
+
+    long rows = writeRows(infos, withProtocol, (agentInfo, protocol) -> {
+      writeCsvRow(writer, agentInfo.getId(), agentInfo.getAgentName(), agentInfo.getStatus(), agentInfo.getExecutor(),
+          agentInfo.getCrontrigger(), agentInfo.getStartTimeExecution(), agentInfo.getFinishTimeExecution(), agentInfo.getCreatedAt(),
+          agentInfo.getUpdatedAt());
+      if (protocol != null) {
+        writer.write(',');
+        writer.write(escapeCsv(String.join("\n", protocol)));
+      }
+      writer.write('\n');
+    });
+    writer.flush();
+    return rows;
+  }
+
+  private long writeRows(Rows infos, boolean withProtocol, RowWriter rowWriter) throws IOException {
+    long rows = 0;
+    List<TimeAgentInfo> batch = new ArrayList<>(PROTOCOL_BATCH_SIZE);
+    // stored infos in the range of the archive, which are skipped in the archive
+    Set<Long> storedIds = new HashSet<>();
+
+    while (infos.stored.hasNext()) {
+      TimeAgentInfo storedInfo = infos.stored.next();
+      batch.add(storedInfo);
+      if (storedInfo.getId() <= infos.maxArchivedId) {
+        storedIds.add(storedInfo.getId());
+      }
+      if (batch.size() == PROTOCOL_BATCH_SIZE || !infos.stored.hasNext()) {
+        Map<Long, List<String>> protocols = withProtocol
+            ? storage.findProtocolMessages(batch.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()))
+            : null;
+        for (TimeAgentInfo agentInfo : batch) {
+          rowWriter.write(agentInfo,
+              protocols == null ? null : protocols.getOrDefault(agentInfo.getId(), Collections.emptyList()));
+        }
+        rows = rows + batch.size();
+        batch.clear();
+      }
+    }
+
+    while (infos.archived.hasNext()) {
+      TimeAgentInfo agentInfo = infos.archived.next();
+      if (!storedIds.contains(agentInfo.getId())) {
+        rowWriter.write(agentInfo, withProtocol
+            ? agentInfo.getProtocol().stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList())
+            : null);
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  private void writeField(JsonGenerator generator, String name, Object value) throws IOException {
+    if (value == null) {
+      generator.writeNullField(name);
+    } else {
+      generator.writeStringField(name, value.toString());
+    }
+  }
+
+  private void writeCsvRow(Writer writer, Object... values) throws IOException {
+    for (int index = 0; index < values.length; index++) {
+      if (index > 0) {
+        writer.write(',');
+      }
+      writer.write(escapeCsv(Objects.toString(values[index], "")));
+    }
+  }
+
+  private String escapeCsv(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return String.format("\"%s\"", value.replace("\"", "\"\""));
+  }
+
+  /**
+   * infos of the storage followed by the infos of the archive.
+   */
+  @AllArgsConstructor
+  private static class Rows {
+    private final Iterator<TimeAgentInfo> stored;
+    private final Iterator<TimeAgentInfo> archived;
+    private final long maxArchivedId;
+  }
+
+  /**
+   * writer of an exported info with its protocol, which is null without
+   * protocol.
+   */
+  @FunctionalInterface
+  private interface RowWriter {
+    void write(TimeAgentInfo agentInfo, List<String> protocol) throws IOException;
+  }
+}
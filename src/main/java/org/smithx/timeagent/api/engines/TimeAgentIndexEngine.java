@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentProtocolToken;
+import org.smithx.timeagent.api.repositories.TimeAgentProtocolTokenRepository;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to maintain the inverted index over the protocol messages. only the
+ * protocol entries added since the last flush of the info are tokenized. the
+ * indexed lines and tokens are kept for the most recently flushed infos, so
+ * that concurrent runs do not reset the state of each other.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentIndexEngine {
+  public static final int MAX_TOKEN_LENGTH = 60;
+  public static final int MAX_INDEXED_INFOS = 64;
+
+  private TimeAgentProtocolTokenRepository tokenRepository;
+  private TimeAgentMessages messages;
+
+  private Map<Long, IndexedInfo> indexedInfos = new LinkedHashMap<>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, IndexedInfo> eldest) {
+      return size() > MAX_INDEXED_INFOS;
+    }
+  };
+
+  public TimeAgentIndexEngine(TimeAgentProtocolTokenRepository tokenRepository, TimeAgentMessages messages) {
+    this.tokenRepository = tokenRepository;
+    this.messages = messages;
+  }
+
+  public static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!word.isEmpty()) {
+        words.add(word.length() > MAX_TOKEN_LENGTH ? word.substring(0, MAX_TOKEN_LENGTH) : word);
+      }
+    }
+    return words;
+  }
+
+  public static Set<String> tokenize(String text) {
+    return new LinkedHashSet<>(words(text));
+  }
+
+  public static String normalize(String text) {
+    return String.join(" ", words(text));
+  }
+
+  public synchronized void indexProtocol(TimeAgentInfo agentInfo) {
+    if (agentInfo == null || agentInfo.getId() == null) {
+      return;
+    }
+
+    IndexedInfo indexedInfo = indexedInfos.get(agentInfo.getId());
+    if (indexedInfo == null || agentInfo.getProtocol().size() < indexedInfo.lines) {
+      indexedInfo = new IndexedInfo(new HashSet<>(tokenRepository.findTokensByInfoId(agentInfo.getId())));
+      indexedInfos.put(agentInfo.getId(), indexedInfo);
+    }
+
+    List<TimeAgentProtocolToken> newTokens = new ArrayList<>();
+    List<TimeAgentProtocol> protocol = agentInfo.getProtocol();
+    for (int line = indexedInfo.lines; line < protocol.size(); line++) {
+      for (String token : tokenize(protocol.get(line).getMessage())) {
+        if (indexedInfo.tokens.add(token)) {
+          newTokens.add(new TimeAgentProtocolToken(agentInfo.getId(), token));
+        }
+      }
+    }
+    indexedInfo.lines = protocol.size();
+
+    if (!newTokens.isEmpty()) {
+      tokenRepository.saveAll(newTokens);
+      if (log.isDebugEnabled()) {
+        log.debug(messages.getMessage("log.index.protocol", newTokens.size(), agentInfo.getId()));
+      }
+    }
+  }
+
+  public synchronized void deleteProtocol(Collection<Long> infoIds) {
+    if (infoIds.isEmpty()) {
+      return;
+    }
+    indexedInfos.keySet().removeAll(infoIds);
+    tokenRepository.deleteByInfoIds(infoIds);
+  }
+
+  private static class IndexedInfo {
+    private int lines;
+    private Set<String> tokens;
+
+    private IndexedInfo(Set<String> tokens) {
+      this.tokens = tokens;
+    }
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+import org.smithx.timeagent.api.configuration.LeaseValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.repositories.TimeAgentLeaseRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the lease of the agent, so that only one of the instances sharing
+ * the database runs the agent. the lease is renewed by heartbeats during the
+ * run and taken over by another instance after its expiry. the token of the
+ * lease fences the status writes: every write first updates the lease row
+ * conditionally on the token, so that the writes of a run are serialized on
+ * the lease row and a write after the takeover by another instance is
+ * rejected. the clocks of the instances are expected to differ by less than
+ * the duration of the lease.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentLeaseEngine {
+  private TimeAgentValues agentValues;
+  private TimeAgentLeaseRepository leaseRepository;
+  private ThreadPoolTaskScheduler scheduler;
+  private TimeAgentMessages messages;
+
+  @Getter
+  private final String instanceId;
+  private final Map<Long, ScheduledFuture<?>> heartbeats = new ConcurrentHashMap<>();
+
+  public TimeAgentLeaseEngine(TimeAgentValues agentValues, TimeAgentLeaseRepository leaseRepository,
+      @Qualifier("heartbeatTaskScheduler") ThreadPoolTaskScheduler scheduler, TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.leaseRepository = leaseRepository;
+    this.scheduler = scheduler;
+    this.messages = messages;
+    String configuredId = agentValues.getLease().getInstanceId();
+    this.instanceId = StringUtils.isEmpty(configuredId) ? createInstanceId() : configuredId;
+  }
+
+  /**
+   * acquires the lease for a run and starts its heartbeat. returns null, when
+   * the lease is held by another instance. without an enabled lease a local
+   * lease is returned at once.
+   */
+  public TimeAgentLease acquireLease() {
+    LeaseValue leaseValue = agentValues.getLease();
+    LocalDateTime now = LocalDateTime.now();
+    if (!leaseValue.isEnabled()) {
+      return new TimeAgentLease(agentValues.getAgentName(), instanceId, 0, now, null);
+    }
+
+    LocalDateTime expiresAt = now.plusNanos(leaseValue.getDuration() * 1_000_000);
+    if (leaseRepository.acquireLease(agentValues.getAgentName(), instanceId, now, expiresAt) == 0) {
+      try {
+        leaseRepository.save(new TimeAgentLease(agentValues.getAgentName(), instanceId, 1, now, expiresAt));
+      } catch (DataIntegrityViolationException exception) {
+        // the first lease was created by another instance at the same time
+      }
+    }
+
+    TimeAgentLease lease = leaseRepository.findByAgentName(agentValues.getAgentName());
+    if (lease == null || !instanceId.equals(lease.getOwner())) {
+      if (log.isDebugEnabled()) {
+        log.debug(messages.getMessage("log.lease.held", lease == null ? null : lease.getOwner(),
+            lease == null ? null : lease.getExpiresAt()));
+      }
+      return null;
+    }
+
+    ScheduledFuture<?> heartbeat = scheduler.scheduleAtFixedRate(() -> renewLease(lease),
+        Date.from(now.plusNanos(leaseValue.getHeartbeat() * 1_000_000).atZone(ZoneId.systemDefault()).toInstant()),
+        leaseValue.getHeartbeat());
+    if (heartbeat != null) {
+      heartbeats.put(lease.getToken(), heartbeat);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.lease.acquire", instanceId, lease.getToken(), expiresAt));
+    }
+    return lease;
+  }
+
+  public synchronized void renewLease(TimeAgentLease lease) {
+    if (!heartbeats.containsKey(lease.getToken())) {
+      // a heartbeat racing with the release must not extend the lease again
+      return;
+    }
+    LocalDateTime expiresAt = LocalDateTime.now().plusNanos(agentValues.getLease().getDuration() * 1_000_000);
+    try {
+      if (leaseRepository.renewLease(lease.getAgentName(), instanceId, lease.getToken(), expiresAt) > 0) {
+        return;
+      }
+      log.warn(messages.getMessage("log.lease.lost", lease.getToken()));
+      stopHeartbeat(lease);
+    } catch (RuntimeException exception) {
+      // the next heartbeat tries again before the lease expires
+      log.warn(messages.getMessage("log.lease.renew.failed", lease.getToken()), exception);
+    }
+  }
+
+  public synchronized void releaseLease(TimeAgentLease lease) {
+    if (!agentValues.getLease().isEnabled()) {
+      return;
+    }
+    stopHeartbeat(lease);
+    leaseRepository.renewLease(lease.getAgentName(), instanceId, lease.getToken(), LocalDateTime.now());
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.lease.release", instanceId, lease.getToken()));
+    }
+  }
+
+  /**
+   * throws LEASE_LOST, when another instance has taken over the lease of the
+   * given token. the token is checked by a conditional update, which locks the
+   * lease until the end of the calling transaction, so that the lease is not
+   * taken over before the write of the caller is committed.
+   */
+  public void checkFencingToken(Long token) {
+    if (!agentValues.getLease().isEnabled() || token == null) {
+      return;
+    }
+    if (leaseRepository.fenceLease(agentValues.getAgentName(), instanceId, token) == 0) {
+      TimeAgentLease lease = leaseRepository.findByAgentName(agentValues.getAgentName());
+      log.warn(messages.getMessage("log.lease.fenced", token, lease == null ? null : lease.getToken()));
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.LEASE_LOST,
+          String.format("the lease of the token %d was taken over by another instance", token));
+    }
+  }
+
+  /**
+   * claims the fire of the crontrigger of the info at the time of the
+   * crontrigger. returns false, when another instance has fired this time
+   * already. without an enabled lease every fire is claimed.
+   */
+  public boolean claimFire(LocalDateTime cronTime) {
+    return claim(cronTime, leaseRepository::claimFire, lease -> lease.setLastFireTime(cronTime));
+  }
+
+  /**
+   * claims the scheduled archiver at the time of its trigger like the fire of
+   * the crontrigger of the info.
+   */
+  public boolean claimArchive(LocalDateTime cronTime) {
+    return claim(cronTime, leaseRepository::claimArchive, lease -> lease.setLastArchiveTime(cronTime));
+  }
+
+  private boolean claim(LocalDateTime cronTime, ToIntBiFunction<String, LocalDateTime> update, Consumer<TimeAgentLease> firstClaim) {
+    if (!agentValues.getLease().isEnabled()) {
+      return true;
+    }
+    if (update.applyAsInt(agentValues.getAgentName(), cronTime) > 0) {
+      return true;
+    }
+    if (leaseRepository.findByAgentName(agentValues.getAgentName()) != null) {
+      return false;
+    }
+    try {
+      // the first claim creates the lease, which is expired at once
+      TimeAgentLease lease = new TimeAgentLease(agentValues.getAgentName(), instanceId, 0, null, LocalDateTime.now());
+      firstClaim.accept(lease);
+      leaseRepository.save(lease);
+      return true;
+    } catch (DataIntegrityViolationException exception) {
+      // the lease was created by another instance at the same time
+      return update.applyAsInt(agentValues.getAgentName(), cronTime) > 0;
+    }
+  }
+
+  /**
+   * returns true, when another instance holds the lease until now.
+   */
+  public boolean isLeaseHeldByOther() {
+    if (!agentValues.getLease().isEnabled()) {
+      return false;
+    }
+    TimeAgentLease lease = leaseRepository.findByAgentName(agentValues.getAgentName());
+    return lease != null && !instanceId.equals(lease.getOwner()) && lease.getExpiresAt().isAfter(LocalDateTime.now());
+  }
+
+  private void stopHeartbeat(TimeAgentLease lease) {
+    ScheduledFuture<?> heartbeat = heartbeats.remove(lease.getToken());
+    if (heartbeat != null) {
+      heartbeat.cancel(false);
+    }
+  }
+
+  private String createInstanceId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException exception) {
+      host = "localhost";
+    }
+    return String.format("%s-%s", host, UUID.randomUUID().toString().substring(0, 8));
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.smithx.timeagent.api.configuration.MailRecipientValue;
+import org.smithx.timeagent.api.configuration.MailValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the protocol mails of the runs. the ended runs are collected per
+ * recipient into digests, which are sent by the mail threads, so that the smtp
+ * server never delays a run. every mail thread takes a connected transport
+ * from the pool and returns it after the send, so that the connections to the
+ * smtp server are reused. a digest is dropped with a warning, when the queue
+ * of the mail threads is full.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentMailEngine {
+  public static final String MAIL_THREAD = "timeagent-mail";
+
+  private TimeAgentValues agentValues;
+  private JavaMailSenderImpl mailSender;
+  private ThreadPoolTaskScheduler scheduler;
+  private TimeAgentMessages messages;
+
+  // guarded by this
+  private final Map<String, Digest> digests = new HashMap<>();
+  private final ThreadPoolExecutor mailExecutor;
+  private final BlockingQueue<Transport> transports;
+
+  public TimeAgentMailEngine(TimeAgentValues agentValues, Optional<JavaMailSenderImpl> mailSender,
+      ThreadPoolTaskScheduler scheduler, TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.mailSender = mailSender.orElse(null);
+    this.scheduler = scheduler;
+    this.messages = messages;
+    MailValue mailValue = agentValues.getMail();
+    int poolSize = Math.max(1, mailValue.getPoolSize());
+    this.mailExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, mailValue.getQueueCapacity())), new CustomizableThreadFactory(MAIL_THREAD));
+    this.transports = new ArrayBlockingQueue<>(poolSize);
+  }
+
+  /**
+   * adds the ended run to the digests of its recipients. the protocol is
+   * copied, so that the next run can write to the info.
+   */
+  public void sendProtocol(TimeAgentInfo agentInfo) {
+    MailValue mailValue = agentValues.getMail();
+    if (!mailValue.isEnabled()) {
+      return;
+    }
+    if (mailSender == null) {
+      log.warn(messages.getMessage("log.mail.missing"));
+      return;
+    }
+
+    RunOutcome outcome = new RunOutcome(agentInfo);
+    for (MailRecipientValue recipient : mailValue.getRecipients()) {
+      if (recipient.getStatus().contains(outcome.status)) {
+        collect(recipient.getAddress(), outcome, mailValue);
+      }
+    }
+  }
+
+  /**
+   * sends the collected digests of all recipients at once.
+   */
+  public synchronized void flush() {
+    digests.values().forEach(this::send);
+    digests.clear();
+  }
+
+  @PreDestroy
+  public void close() {
+    flush();
+    mailExecutor.shutdown();
+    try {
+      mailExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+    Transport transport;
+    while ((transport = transports.poll()) != null) {
+      closeTransport(transport);
+    }
+  }
+
+  private synchronized void collect(String address, RunOutcome outcome, MailValue mailValue) {
+    Digest digest = digests.computeIfAbsent(address, Digest::new);
+    digest.outcomes.add(outcome);
+    if (digest.outcomes.size() >= mailValue.getDigestSize()) {
+      digests.remove(address);
+      send(digest);
+    } else if (digest.window == null && mailValue.getDigestWindow() > 0) {
+      digest.window = scheduler.schedule(() -> flush(digest),
+          new Date(System.currentTimeMillis() + mailValue.getDigestWindow()));
+    }
+  }
+
+  private synchronized void flush(Digest digest) {
+    if (digests.remove(digest.address, digest)) {
+      send(digest);
+    }
+  }
+
+  private void send(Digest digest) {
+    if (digest.window != null) {
+      digest.window.cancel(false);
+    }
+    try {
+      mailExecutor.execute(() -> deliver(digest));
+    } catch (RejectedExecutionException exception) {
+      log.warn(messages.getMessage("log.mail.rejected", digest.address, digest.outcomes.size()));
+    }
+  }
+
+  private void deliver(Digest digest) {
+    MimeMessage message;
+    try {
+      message = createMessage(digest);
+    } catch (MessagingException | IOException exception) {
+      log.error(messages.getMessage("log.mail.failed", digest.address), exception);
+      return;
+    }
+
+    for (int attempt = 1; attempt <= 2; attempt++) {
+      Transport transport = null;
+      try {
+        transport = borrowTransport();
+        transport.sendMessage(message, message.getAllRecipients());
+        if (!transports.offer(transport)) {
+          closeTransport(transport);
+        }
+        if (log.isDebugEnabled()) {
+          log.debug(messages.getMessage("log.mail.sent", digest.address, digest.outcomes.size()));
+        }
+        return;
+      } catch (MessagingException exception) {
+        // a pooled connection closed by the server is replaced once
+        closeTransport(transport);
+        if (attempt == 2) {
+          log.error(messages.getMessage("log.mail.failed", digest.address), exception);
+        }
+      }
+    }
+  }
+
+  private MimeMessage createMessage(Digest digest) throws MessagingException, IOException {
+    MailValue mailValue = agentValues.getMail();
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+    helper.setFrom(mailValue.getFrom());
+    helper.setTo(digest.address);
+    long failedRuns = digest.outcomes.stream().filter(outcome -> !TimeAgentStatus.FINISHED.equals(outcome.status)).count();
+    helper.setSubject(messages.getMessage("mail.subject", agentValues.getAgentName(), digest.outcomes.size(), failedRuns));
+
+    StringBuilder text = new StringBuilder();
+    for (RunOutcome outcome : digest.outcomes) {
+      text.append(messages.getMessage("mail.run", outcome.id, outcome.status, outcome.start, outcome.finish)).append('\n');
+      byte[] protocol = String.join("\n", outcome.protocol).getBytes(StandardCharsets.UTF_8);
+      if (protocol.length > mailValue.getAttachmentThreshold()) {
+        String fileName = String.format("protocol-%d.txt.gz", outcome.id);
+        helper.addAttachment(fileName, new ByteArrayResource(gzip(protocol)), "application/gzip");
+        text.append(messages.getMessage("mail.attached", fileName, outcome.protocol.size()));
+      } else {
+        text.append(new String(protocol, StandardCharsets.UTF_8));
+      }
+      text.append("\n\n");
+    }
+    helper.setText(text.toString());
+    message.saveChanges();
+    return message;
+  }
+
+  private Transport borrowTransport() throws MessagingException {
+    Transport transport = transports.poll();
+    if (transport != null && transport.isConnected()) {
+      return transport;
+    }
+    closeTransport(transport);
+    String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+    transport = mailSender.getSession().getTransport(protocol);
+    transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+    return transport;
+  }
+
+  private void closeTransport(Transport transport) {
+    if (transport == null) {
+      return;
+    }
+    try {
+      transport.close();
+    } catch (MessagingException exception) {
+      // the connection is gone anyway
+    }
+  }
+
+  private byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(data);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static class Digest {
+    private final String address;
+    private final List<RunOutcome> outcomes = new ArrayList<>();
+    private ScheduledFuture<?> window;
+
+    Digest(String address) {
+      this.address = address;
+    }
+  }
+
+  private static class RunOutcome {
+    private final Long id;
+    private final TimeAgentStatus status;
+    private final LocalDateTime start;
+    private final LocalDateTime finish;
+    private final List<String> protocol;
+
+    RunOutcome(TimeAgentInfo agentInfo) {
+      this.id = agentInfo.getId();
+      this.status = agentInfo.getStatus();
+      this.start = agentInfo.getStartTimeExecution();
+      this.finish = agentInfo.getFinishTimeExecution();
+      this.protocol = agentInfo.getProtocol().stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentMisfire;
+import org.smithx.timeagent.api.models.TimeAgentMisfireReason;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.repositories.TimeAgentMisfireRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to record the misfires of the triggers and to count them in the
+ * metrics 'timeagent.trigger.misfires' and 'timeagent.trigger.coalesced'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@Slf4j
+public class TimeAgentMisfireEngine {
+  public static final String MISFIRE_METRIC = "timeagent.trigger.misfires";
+  public static final String COALESCED_METRIC = "timeagent.trigger.coalesced";
+  public static final int MAX_MISSED_FIRES = 100_000;
+
+  private TimeAgentValues agentValues;
+  private TimeAgentMisfireRepository misfireRepository;
+  private MeterRegistry meterRegistry;
+  private TimeAgentMessages messages;
+
+  public TimeAgentMisfire recordMisfire(TimeAgentTrigger trigger, LocalDateTime scheduledTime, TimeAgentMisfireReason reason,
+      int fires) {
+    log.warn(messages.getMessage("log.trigger.misfire", triggerName(trigger), scheduledTime, reason, fires));
+    meterRegistry.counter(MISFIRE_METRIC, "agent", agentValues.getAgentName(), "trigger", triggerName(trigger), "reason",
+        reason.name()).increment(fires);
+    return misfireRepository.save(new TimeAgentMisfire(agentValues.getAgentName(), trigger.getName(), scheduledTime, reason, fires));
+  }
+
+  public void countCoalesced(TimeAgentTrigger trigger) {
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.trigger.coalesced", triggerName(trigger)));
+    }
+    meterRegistry.counter(COALESCED_METRIC, "agent", agentValues.getAgentName(), "trigger", triggerName(trigger)).increment();
+  }
+
+  public List<TimeAgentMisfire> findMisfires(int limit) {
+    int pageSize = Math.max(1, Math.min(limit, agentValues.getMaxLimitSearch()));
+    return misfireRepository.findByAgentNameOrderByScheduledTimeDesc(agentValues.getAgentName(), PageRequest.of(0, pageSize));
+  }
+
+  /**
+   * returns the fires of the trigger after its last fire and before the given
+   * time, at most MAX_MISSED_FIRES.
+   */
+  public List<LocalDateTime> findMissedFires(TimeAgentTrigger trigger, LocalDateTime now) {
+    List<LocalDateTime> missedFires = new ArrayList<>();
+    if (trigger.getLastFireTime() == null || !CronSequenceGenerator.isValidExpression(trigger.getCrontrigger())) {
+      return missedFires;
+    }
+
+    CronSequenceGenerator generator = new CronSequenceGenerator(trigger.getCrontrigger());
+    ZoneId zone = ZoneId.systemDefault();
+    Date end = Date.from(now.atZone(zone).toInstant());
+    Date next = generator.next(Date.from(trigger.getLastFireTime().atZone(zone).toInstant()));
+    while (next.before(end) && missedFires.size() < MAX_MISSED_FIRES) {
+      missedFires.add(LocalDateTime.ofInstant(next.toInstant(), zone));
+      next = generator.next(next);
+    }
+    return missedFires;
+  }
+
+  private String triggerName(TimeAgentTrigger trigger) {
+    return trigger.getName() == null ? "crontrigger" : trigger.getName();
+  }
+}
@@ -15,12 +15,17 @@
  */
 package org.smithx.timeagent.api.engines;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
 import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
-import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -39,20 +44,21 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TimeAgentModelEngine {
   private TimeAgentValues agentValues;
-  private TimeAgentInfoRepository agentInfoRepository;
+  private TimeAgentStorage storage;
+  private TimeAgentOutboxEngine outboxEngine;
+  private TimeAgentLeaseEngine leaseEngine;
   private TimeAgentMessages messages;
 
   public TimeAgentInfo nextAgentInfo() {
     // find info with status NOT_SET
-    TimeAgentInfo agentInfo = agentInfoRepository.findTop1ByAgentNameAndStatusOrderByUpdatedAtDesc(agentValues.getAgentName(),
-        TimeAgentStatus.NOT_SET);
+    TimeAgentInfo agentInfo = storage.findLatest(agentValues.getAgentName(), TimeAgentStatus.NOT_SET);
 
     if (log.isDebugEnabled()) {
       log.debug(messages.getMessage("log.next.agent.notSet", agentInfo));
     }
     if (agentInfo == null) {
       // find last info
-      agentInfo = agentInfoRepository.findTop1ByAgentNameOrderByUpdatedAtDesc(agentValues.getAgentName());
+      agentInfo = storage.findLatest(agentValues.getAgentName(), null);
       if (log.isDebugEnabled()) {
         log.debug(messages.getMessage("log.next.agent.lastEntry", agentInfo));
       }
@@ -80,6 +86,26 @@ public class TimeAgentModelEngine {
     return agentInfo;
   }
 
+  /**
+   * finalizes the infos left in status RUNNING by a previous process, which was
+   * terminated during the execution. they are found by one query over the index
+   * of agent name and status, so that the startup does not depend on the size of
+   * the history. every recovered run gets its abort event in the outbox.
+   */
+  @Transactional
+  public List<TimeAgentInfo> recoverAgentInfo() {
+    List<TimeAgentInfo> orphans = storage.findAll(agentValues.getAgentName(), TimeAgentStatus.RUNNING);
+
+    for (TimeAgentInfo agentInfo : orphans) {
+      agentInfo.setStatus(TimeAgentStatus.INTERRUPTED);
+      agentInfo.setFinishTimeExecution(LocalDateTime.now());
+      agentInfo.addProtocol(messages.getMessage("protocol.recovered"));
+      updateAgentInfo(agentInfo, TimeAgentEventType.ABORTED);
+      log.warn(messages.getMessage("log.recover.agent", agentInfo.getId(), agentInfo.getStartTimeExecution()));
+    }
+    return orphans;
+  }
+
   public TimeAgentInfo saveTriggerToAgentInfo(String trigger, TimeAgentInfo currentAgentInfo) {
     if (TimeAgentStatus.READY.equals(currentAgentInfo.getStatus())) {
       currentAgentInfo.setCrontrigger(trigger);
@@ -89,8 +115,7 @@ public class TimeAgentModelEngine {
       return updateAgentInfo(currentAgentInfo);
 
     } else {
-      TimeAgentInfo agentInfo = agentInfoRepository.findTop1ByAgentNameAndStatusOrderByUpdatedAtDesc(agentValues.getAgentName(),
-          TimeAgentStatus.NOT_SET);
+      TimeAgentInfo agentInfo = storage.findLatest(agentValues.getAgentName(), TimeAgentStatus.NOT_SET);
 
       if (agentInfo == null) {
         agentInfo = new TimeAgentInfo(agentValues.getAgentName(), TimeAgentStatus.NOT_SET);
@@ -105,10 +130,32 @@ public class TimeAgentModelEngine {
   }
 
   public TimeAgentInfo updateAgentInfo(TimeAgentInfo agentInfo) {
-    return agentInfoRepository.save(agentInfo);
+    return storage.save(agentInfo);
+  }
+
+  /**
+   * saves the info and writes the event of its new status to the outbox in the
+   * same transaction.
+   */
+  @Transactional
+  public TimeAgentInfo updateAgentInfo(TimeAgentInfo agentInfo, TimeAgentEventType eventType) {
+    TimeAgentInfo savedAgentInfo = storage.save(agentInfo);
+    outboxEngine.append(savedAgentInfo, eventType);
+    return savedAgentInfo;
+  }
+
+  /**
+   * saves the info of a run and the event of its new status, when it is given.
+   * the fencing token of the run is checked in the same transaction, so that a
+   * former holder of the lease cannot overwrite the infos of the new holder.
+   */
+  @Transactional
+  public TimeAgentInfo updateRunInfo(TimeAgentInfo agentInfo, TimeAgentEventType eventType) {
+    leaseEngine.checkFencingToken(agentInfo.getFencingToken());
+    return eventType == null ? updateAgentInfo(agentInfo) : updateAgentInfo(agentInfo, eventType);
   }
 
-  private TimeAgentInfo createAgentInfo() {
+  public TimeAgentInfo createAgentInfo() {
     return new TimeAgentInfo(agentValues.getAgentName(), TimeAgentStatus.READY);
   }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.smithx.timeagent.api.configuration.OutboxValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.repositories.TimeAgentOutboxRepository;
+import org.smithx.timeagent.api.sinks.TimeAgentEventSink;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the outbox of the lifecycle events of the runs. an event is
+ * written in the transaction of the status of the run, so that it is neither
+ * lost nor sent for a status, which was rolled back. a dispatcher thread
+ * delivers the pending events of the agent in batches and in the order of
+ * their ids to all sinks and deletes them afterwards. a failed batch is tried
+ * again with an exponential backoff before the later events, so that the
+ * order is kept, and parked after the last attempt. only the instance not
+ * locked out by the lease of another instance dispatches the events, and it
+ * claims a batch before its delivery. a batch claimed partly by another
+ * instance is released and left to that instance, so that the events are
+ * neither delivered twice nor out of order while the claim lasts.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentOutboxEngine {
+  public static final String OUTBOX_THREAD = "timeagent-outbox";
+  public static final String PENDING_METRIC = "timeagent.outbox.pending";
+  public static final String LAG_METRIC = "timeagent.outbox.lag";
+  public static final String DELIVERY_METRIC = "timeagent.outbox.delivery";
+  public static final String FAILURES_METRIC = "timeagent.outbox.failures";
+
+  private TimeAgentValues agentValues;
+  private TimeAgentOutboxRepository outboxRepository;
+  private TimeAgentLeaseEngine leaseEngine;
+  private List<TimeAgentEventSink> sinks;
+  private TimeAgentMessages messages;
+
+  // pending events and age of the oldest one in milliseconds at the last poll
+  private final AtomicLong pendingEvents = new AtomicLong();
+  private final AtomicLong lag = new AtomicLong();
+  private final Timer deliveryTimer;
+  private final Counter failureCounter;
+  private final Object monitor = new Object();
+  private boolean wakeUp;
+  private volatile boolean running;
+  private Thread dispatchThread;
+
+  public TimeAgentOutboxEngine(TimeAgentValues agentValues, TimeAgentOutboxRepository outboxRepository,
+      TimeAgentLeaseEngine leaseEngine, List<TimeAgentEventSink> sinks, MeterRegistry meterRegistry, TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.outboxRepository = outboxRepository;
+    this.leaseEngine = leaseEngine;
+    this.sinks = sinks;
+    this.messages = messages;
+    Tags tags = Tags.of("agent", String.valueOf(agentValues.getAgentName()));
+    meterRegistry.gauge(PENDING_METRIC, tags, pendingEvents);
+    meterRegistry.gauge(LAG_METRIC, tags, lag);
+    this.deliveryTimer = meterRegistry.timer(DELIVERY_METRIC, tags);
+    this.failureCounter = meterRegistry.counter(FAILURES_METRIC, tags);
+  }
+
+  /**
+   * writes the event of the run to the outbox. it joins the transaction of the
+   * caller and wakes up the dispatcher after its commit.
+   */
+  public void append(TimeAgentInfo agentInfo, TimeAgentEventType eventType) {
+    if (!agentValues.getOutbox().isEnabled()) {
+      return;
+    }
+    outboxRepository.save(new TimeAgentOutboxEvent(agentInfo, eventType));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          wakeUp();
+        }
+      });
+    } else {
+      wakeUp();
+    }
+  }
+
+  public List<TimeAgentOutboxEvent> findPendingEvents(int limit) {
+    int pageSize = Math.max(1, Math.min(limit, agentValues.getMaxLimitSearch()));
+    return outboxRepository.findByAgentNameAndParkedFalseOrderByIdAsc(agentValues.getAgentName(), PageRequest.of(0, pageSize));
+  }
+
+  /**
+   * delivers the next batch of pending events to all sinks and returns the
+   * number of delivered events.
+   */
+  public int dispatch() {
+    OutboxValue outboxValue = agentValues.getOutbox();
+    if (sinks.isEmpty() || leaseEngine.isLeaseHeldByOther()) {
+      return 0;
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    List<TimeAgentOutboxEvent> events = outboxRepository.findByAgentNameAndParkedFalseOrderByIdAsc(agentValues.getAgentName(),
+        PageRequest.of(0, Math.max(1, outboxValue.getBatchSize())));
+    updateLag(events, now);
+    if (events.isEmpty()) {
+      return 0;
+    }
+    TimeAgentOutboxEvent first = events.get(0);
+    if (first.getNextAttemptAt() != null && first.getNextAttemptAt().isAfter(now)) {
+      // the later events wait for the retry of the first one
+      return 0;
+    }
+
+    List<Long> ids = events.stream().map(TimeAgentOutboxEvent::getId).collect(Collectors.toList());
+    if (!claimEvents(ids, now, outboxValue)) {
+      return 0;
+    }
+    for (TimeAgentEventSink sink : sinks) {
+      try {
+        sink.deliver(events);
+      } catch (IOException | RuntimeException exception) {
+        retry(ids, first.getAttempts() + 1, sink, outboxValue, exception);
+        return 0;
+      }
+    }
+    outboxRepository.deleteEvents(ids);
+
+    LocalDateTime delivered = LocalDateTime.now();
+    for (TimeAgentOutboxEvent event : events) {
+      if (event.getCreatedAt() != null) {
+        deliveryTimer.record(Duration.between(event.getCreatedAt(), delivered));
+      }
+    }
+    pendingEvents.updateAndGet(pending -> Math.max(0, pending - events.size()));
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.outbox.delivered", events.size(), sinks.size()));
+    }
+    return events.size();
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!agentValues.getOutbox().isEnabled()) {
+      return;
+    }
+    if (sinks.isEmpty()) {
+      log.warn(messages.getMessage("log.outbox.nosink"));
+    }
+    running = true;
+    dispatchThread = new Thread(this::dispatchLoop, OUTBOX_THREAD);
+    dispatchThread.setDaemon(true);
+    dispatchThread.start();
+  }
+
+  @PreDestroy
+  public void close() {
+    running = false;
+    if (dispatchThread != null) {
+      dispatchThread.interrupt();
+      try {
+        dispatchThread.join(agentValues.getOutbox().getPollInterval());
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      dispatchThread = null;
+    }
+  }
+
+  private void dispatchLoop() {
+    long pollInterval = Math.max(1, agentValues.getOutbox().getPollInterval());
+    while (running) {
+      int delivered = 0;
+      try {
+        delivered = dispatch();
+      } catch (RuntimeException exception) {
+        log.error(messages.getMessage("log.outbox.failed"), exception);
+      }
+      if (delivered >= agentValues.getOutbox().getBatchSize()) {
+        // a full batch is followed by the next one at once
+        continue;
+      }
+      try {
+        synchronized (monitor) {
+          if (!wakeUp) {
+            monitor.wait(pollInterval);
+          }
+          wakeUp = false;
+        }
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void wakeUp() {
+    synchronized (monitor) {
+      wakeUp = true;
+      monitor.notifyAll();
+    }
+  }
+
+  private boolean claimEvents(List<Long> ids, LocalDateTime now, OutboxValue outboxValue) {
+    String owner = leaseEngine.getInstanceId();
+    int claimed = outboxRepository.claimEvents(ids, owner, now, now.plusNanos(outboxValue.getClaimDuration() * 1_000_000));
+    if (claimed == ids.size()) {
+      return true;
+    }
+    outboxRepository.releaseEvents(ids, owner);
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.outbox.claimed", ids.size() - claimed));
+    }
+    return false;
+  }
+
+  private void retry(List<Long> ids, int attempts, TimeAgentEventSink sink, OutboxValue outboxValue, Exception exception) {
+    failureCounter.increment();
+    boolean parked = attempts >= outboxValue.getMaxAttempts();
+    long backoff = Math.min(outboxValue.getBackoff() << Math.min(attempts - 1, 30), outboxValue.getMaxBackoff());
+    outboxRepository.retryEvents(ids, attempts, LocalDateTime.now().plusNanos(backoff * 1_000_000), parked);
+    if (parked) {
+      log.error(messages.getMessage("log.outbox.parked", ids.size(), sink.getName(), attempts), exception);
+    } else {
+      log.warn(messages.getMessage("log.outbox.retry", ids.size(), sink.getName(), attempts, backoff), exception);
+    }
+  }
+
+  private void updateLag(List<TimeAgentOutboxEvent> events, LocalDateTime now) {
+    if (events.isEmpty()) {
+      pendingEvents.set(0);
+      lag.set(0);
+      return;
+    }
+    pendingEvents.set(events.size() < agentValues.getOutbox().getBatchSize() ? events.size()
+        : outboxRepository.countByAgentNameAndParkedFalse(agentValues.getAgentName()));
+    LocalDateTime oldest = events.get(0).getCreatedAt();
+    lag.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, now).toMillis()));
+  }
+}
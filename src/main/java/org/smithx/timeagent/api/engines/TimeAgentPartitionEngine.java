@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentPartitionRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine for the partitions of the runs in the shared database. the claims of
+ * this instance are renewed by a heartbeat, an expired claim is claimed again
+ * by any instance until the attempts of the partition are exhausted.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentPartitionEngine {
+  static final int CLAIM_CANDIDATES = 5;
+  static final int MAX_RESULT_LENGTH = 2000;
+
+  private TimeAgentValues agentValues;
+  private TimeAgentPartitionRepository partitionRepository;
+  private TimeAgentLeaseEngine leaseEngine;
+  private ThreadPoolTaskScheduler scheduler;
+  private TimeAgentMessages messages;
+
+  // attempts of the claims held by this instance by the id of the partition
+  private final Map<Long, Integer> claims = new ConcurrentHashMap<>();
+  // guarded by this
+  private ScheduledFuture<?> heartbeat;
+
+  public TimeAgentPartitionEngine(TimeAgentValues agentValues, TimeAgentPartitionRepository partitionRepository,
+      TimeAgentLeaseEngine leaseEngine, @Qualifier("heartbeatTaskScheduler") ThreadPoolTaskScheduler scheduler, TimeAgentMessages messages) {
+    this.agentValues = agentValues;
+    this.partitionRepository = partitionRepository;
+    this.leaseEngine = leaseEngine;
+    this.scheduler = scheduler;
+    this.messages = messages;
+  }
+
+  public List<TimeAgentPartition> createPartitions(TimeAgentInfo agentInfo, List<String> partitionKeys,
+      TimeAgentArgument... arguments) {
+    List<TimeAgentPartition> partitions = partitionKeys.stream()
+        .map(partitionKey -> new TimeAgentPartition(agentInfo.getId(), agentValues.getAgentName(), partitionKey, arguments))
+        .collect(Collectors.toList());
+    List<TimeAgentPartition> savedPartitions = new ArrayList<>();
+    partitionRepository.saveAll(partitions).forEach(savedPartitions::add);
+    log.info(messages.getMessage("log.partition.create", savedPartitions.size(), agentInfo.getId()));
+    return savedPartitions;
+  }
+
+  /**
+   * claims the next partition of the run, returns null when no partition is
+   * left to claim.
+   */
+  public TimeAgentPartition claimPartition(Long infoId) {
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> candidates = partitionRepository.findClaimableByInfoId(infoId, now, agentValues.getPartition().getMaxAttempts(),
+        PageRequest.of(0, CLAIM_CANDIDATES));
+    for (Long partitionId : candidates) {
+      TimeAgentPartition partition = claim(partitionId, now);
+      if (partition != null) {
+        return partition;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * claims up to the given number of partitions of any run of the agent.
+   */
+  public List<TimeAgentPartition> claimPartitions(int limit) {
+    LocalDateTime now = LocalDateTime.now();
+    List<TimeAgentPartition> partitions = new ArrayList<>();
+    for (Long partitionId : partitionRepository.findClaimableByAgentName(agentValues.getAgentName(), now,
+        agentValues.getPartition().getMaxAttempts(), PageRequest.of(0, limit))) {
+      TimeAgentPartition partition = claim(partitionId, now);
+      if (partition != null) {
+        partitions.add(partition);
+      }
+    }
+    return partitions;
+  }
+
+  public boolean finishPartition(TimeAgentPartition partition, String result) {
+    return finish(partition, TimeAgentPartitionStatus.DONE, result);
+  }
+
+  /**
+   * releases the partition for another claim or fails it, when its attempts
+   * are exhausted.
+   */
+  public boolean failPartition(TimeAgentPartition partition, String error) {
+    TimeAgentPartitionStatus status = partition.getAttempts() >= agentValues.getPartition().getMaxAttempts()
+        ? TimeAgentPartitionStatus.FAILED
+        : TimeAgentPartitionStatus.PENDING;
+    log.warn(messages.getMessage("log.partition.failed", partition.getPartitionKey(), partition.getAttempts(), status, error));
+    return finish(partition, status, error);
+  }
+
+  /**
+   * returns the number of partitions of the run, which are pending or claimed.
+   */
+  public long countOpenPartitions(Long infoId) {
+    partitionRepository.failExhaustedClaims(infoId, LocalDateTime.now(), agentValues.getPartition().getMaxAttempts(),
+        messages.getMessage("protocol.partition.expired"));
+    return partitionRepository.countByInfoIdAndStatusIn(infoId,
+        EnumSet.of(TimeAgentPartitionStatus.PENDING, TimeAgentPartitionStatus.CLAIMED));
+  }
+
+  public List<TimeAgentPartition> findPartitions(Long infoId) {
+    return partitionRepository.findByInfoIdOrderById(infoId);
+  }
+
+  public int cancelPartitions(Long infoId) {
+    return partitionRepository.cancelPartitions(infoId, messages.getMessage("protocol.partition.cancelled"));
+  }
+
+  public void renewClaims() {
+    if (claims.isEmpty()) {
+      return;
+    }
+    PartitionValue partitionValue = agentValues.getPartition();
+    try {
+      partitionRepository.renewClaims(new ArrayList<>(claims.keySet()), leaseEngine.getInstanceId(),
+          LocalDateTime.now().plusNanos(partitionValue.getClaimDuration() * 1_000_000));
+    } catch (RuntimeException exception) {
+      // the next heartbeat tries again before the claims expire
+      log.warn(messages.getMessage("log.partition.renew.failed", claims.size()), exception);
+    }
+  }
+
+  private TimeAgentPartition claim(Long partitionId, LocalDateTime now) {
+    PartitionValue partitionValue = agentValues.getPartition();
+    LocalDateTime expiresAt = now.plusNanos(partitionValue.getClaimDuration() * 1_000_000);
+    if (partitionRepository.claimPartition(partitionId, leaseEngine.getInstanceId(), now, expiresAt,
+        partitionValue.getMaxAttempts()) == 0) {
+      // claimed by another instance
+      return null;
+    }
+    TimeAgentPartition partition = partitionRepository.findById(partitionId).orElse(null);
+    if (partition != null) {
+      claims.put(partitionId, partition.getAttempts());
+      startHeartbeat();
+      if (log.isDebugEnabled()) {
+        log.debug(messages.getMessage("log.partition.claim", partition.getPartitionKey(), partition.getInfoId(),
+            partition.getAttempts()));
+      }
+    }
+    return partition;
+  }
+
+  private boolean finish(TimeAgentPartition partition, TimeAgentPartitionStatus status, String result) {
+    claims.remove(partition.getId());
+    if (result != null && result.length() > MAX_RESULT_LENGTH) {
+      result = result.substring(0, MAX_RESULT_LENGTH);
+    }
+    if (partitionRepository.finishClaim(partition.getId(), leaseEngine.getInstanceId(), partition.getAttempts(), status,
+        result) == 0) {
+      log.warn(messages.getMessage("log.partition.lost", partition.getPartitionKey(), partition.getAttempts()));
+      return false;
+    }
+    partition.setStatus(status);
+    partition.setResult(result);
+    return true;
+  }
+
+  private synchronized void startHeartbeat() {
+    if (heartbeat == null) {
+      heartbeat = scheduler.scheduleAtFixedRate(this::renewClaims, agentValues.getPartition().getHeartbeat());
+    }
+  }
+}
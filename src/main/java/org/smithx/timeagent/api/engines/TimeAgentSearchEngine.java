@@ -15,7 +15,12 @@
  */
 package org.smithx.timeagent.api.engines;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
 import org.smithx.timeagent.api.configuration.TimeAgentValues;
@@ -23,9 +28,13 @@ import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
-import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
-import org.springframework.data.domain.PageRequest;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.storage.TimeAgentArchiveSegment;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -33,7 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * search engine for validating the search model and execute the search on the
- * database.
+ * database. the results are merged with the matching infos of the archive.
  *
  * @author norman schmidt {smithx}
  * @since 15.05.2020
@@ -45,81 +54,98 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TimeAgentSearchEngine {
   private TimeAgentValues agentValues;
-  private TimeAgentInfoRepository agentInfoRepository;
+  private TimeAgentStorage storage;
+  private TimeAgentArchiveEngine archiveEngine;
   private TimeAgentMessages messages;
+  private PlatformTransactionManager transactionManager;
 
+  /**
+   * searches in a read-only transaction with the search timeout. the timeout of
+   * the transaction is set as timeout of its statements, so that a search timed
+   * out by the service does not keep running in the database.
+   */
   public List<TimeAgentInfo> searchAgentInfo(TimeAgentInfoSearch searchModel) {
-    int searchFlag = validateSearchModel(searchModel);
-    String agentName = agentValues.getAgentName();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    transaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(agentValues.getQuery().getSearchTimeout() + 999)));
+    return transaction.execute(status -> search(searchModel));
+  }
 
-    PageRequest pagable = PageRequest.of(0, searchModel.getLimit());
+  private List<TimeAgentInfo> search(TimeAgentInfoSearch searchModel) {
+    validateSearchModel(searchModel);
+    String agentName = agentValues.getAgentName();
 
     if (log.isDebugEnabled()) {
-      log.debug(messages.getMessage("log.search.validate.end", searchModel, searchFlag));
+      log.debug(messages.getMessage("log.search.validate.end", searchModel, searchModel.getLimit()));
     }
 
-    if (searchFlag > 30) {
-      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
-          agentName, searchModel.getStatus(), searchModel.getExecutor(), searchModel.getFromStartTimeExecution(),
-          searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 28) {
-      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 26) {
-      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getStatus(), searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 24) {
-      return agentInfoRepository.findByAgentNameAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(agentName,
-          searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 22) {
-      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getStatus(), searchModel.getExecutor(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 20) {
-      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getExecutor(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 18) {
-      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(agentName,
-          searchModel.getStatus(), searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 16) {
-      return agentInfoRepository.findByAgentNameAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(agentName,
-          searchModel.getToStartTimeExecution(), pagable);
-    } else if (searchFlag > 14) {
-      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getStatus(), searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), pagable);
-    } else if (searchFlag > 12) {
-      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(
-          agentName,
-          searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), pagable);
-    } else if (searchFlag > 10) {
-      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionAfterOrderByUpdatedAtDesc(agentName,
-          searchModel.getStatus(), searchModel.getFromStartTimeExecution(), pagable);
-    } else if (searchFlag > 8) {
-      return agentInfoRepository.findByAgentNameAndStartTimeExecutionAfterOrderByUpdatedAtDesc(agentName,
-          searchModel.getFromStartTimeExecution(), pagable);
-    } else if (searchFlag > 6) {
-      return agentInfoRepository.findByAgentNameAndStatusAndExecutorOrderByUpdatedAtDesc(agentName,
-          searchModel.getStatus(),
-          searchModel.getExecutor(), pagable);
-    } else if (searchFlag > 4) {
-      return agentInfoRepository.findByAgentNameAndExecutorOrderByUpdatedAtDesc(agentName,
-          searchModel.getExecutor(),
-          pagable);
-    } else if (searchFlag > 2) {
-      return agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(agentName, searchModel.getStatus(),
-          pagable);
+    if (!StringUtils.isEmpty(searchModel.getProtocolText())) {
+      Set<String> tokens = TimeAgentIndexEngine.tokenize(searchModel.getProtocolText());
+      if (tokens.isEmpty()) {
+        return new ArrayList<>();
+      }
+      // the index only knows the tokens, so the order of a phrase is checked on
+      // the protocol of the candidates
+      String phrase = TimeAgentIndexEngine.normalize(searchModel.getProtocolText());
+      return mergeArchive(searchAgentInfoByProtocol(agentName, searchModel, tokens, phrase), searchModel,
+          agentInfo -> containsTokens(agentInfo, tokens) && (tokens.size() == 1 || containsPhrase(agentInfo, phrase)));
     }
 
-    return agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(agentName, pagable);
+    return mergeArchive(storage.search(agentName, searchModel), searchModel, null);
+  }
+
+  private List<TimeAgentInfo> mergeArchive(List<TimeAgentInfo> result, TimeAgentInfoSearch searchModel,
+      Predicate<TimeAgentInfo> protocolFilter) {
+    List<TimeAgentInfo> archived = archiveEngine.searchAgentInfo(searchModel, protocolFilter);
+    if (archived.isEmpty()) {
+      return result;
+    }
+
+    Set<Long> ids = result.stream().map(TimeAgentInfo::getId).collect(Collectors.toSet());
+    List<TimeAgentInfo> merged = new ArrayList<>(result);
+    archived.stream().filter(agentInfo -> !ids.contains(agentInfo.getId())).forEach(merged::add);
+    merged.sort(TimeAgentArchiveSegment.BY_UPDATED_AT);
+    return merged.size() > searchModel.getLimit() ? new ArrayList<>(merged.subList(0, searchModel.getLimit())) : merged;
+  }
+
+  private List<TimeAgentInfo> searchAgentInfoByProtocol(String agentName, TimeAgentInfoSearch searchModel, Set<String> tokens,
+      String phrase) {
+    List<TimeAgentInfo> result = new ArrayList<>();
+    List<TimeAgentInfo> candidates;
+    int page = 0;
+    do {
+      candidates = storage.searchByProtocolTokens(agentName, searchModel, tokens, page++);
+
+      for (TimeAgentInfo candidate : candidates) {
+        if (tokens.size() == 1 || containsPhrase(candidate, phrase)) {
+          result.add(candidate);
+          if (result.size() == searchModel.getLimit()) {
+            return result;
+          }
+        }
+      }
+    } while (candidates.size() == searchModel.getLimit());
+
+    return result;
+  }
+
+  private boolean containsTokens(TimeAgentInfo agentInfo, Set<String> tokens) {
+    Set<String> protocolTokens = agentInfo.getProtocol().stream()
+        .flatMap(protocol -> TimeAgentIndexEngine.tokenize(protocol.getMessage()).stream())
+        .collect(Collectors.toSet());
+    return protocolTokens.containsAll(tokens);
   }
 
-  private int validateSearchModel(TimeAgentInfoSearch searchModel) {
-    int searchFlag = 1;
+  private boolean containsPhrase(TimeAgentInfo agentInfo, String phrase) {
+    for (TimeAgentProtocol protocol : agentInfo.getProtocol()) {
+      if (String.format(" %s ", TimeAgentIndexEngine.normalize(protocol.getMessage())).contains(String.format(" %s ", phrase))) {
+        return true;
+      }
+    }
+    return false;
+  }
 
+  private void validateSearchModel(TimeAgentInfoSearch searchModel) {
     if (searchModel == null) {
       throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, "search model is null");
     }
@@ -131,34 +157,24 @@ public class TimeAgentSearchEngine {
       searchModel.setLimit(agentValues.getMaxLimitSearch());
     }
 
-    if (searchModel.getStatus() != null) {
-      searchFlag = searchFlag + 2;
-      if (log.isDebugEnabled()) {
-        log.debug(messages.getMessage("log.search.validate.status", searchModel.getStatus(), searchFlag));
-      }
+    if (searchModel.getStatus() != null && log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.search.validate.status", searchModel.getStatus()));
     }
 
-    if (searchModel.getExecutor() != null) {
-      searchFlag = searchFlag + 4;
-      if (log.isDebugEnabled()) {
-        log.debug(messages.getMessage("log.search.validate.executor", searchModel.getExecutor(), searchFlag));
-      }
+    if (searchModel.getExecutor() != null && log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.search.validate.executor", searchModel.getExecutor()));
     }
 
-    if (searchModel.getFromStartTimeExecution() != null) {
-      searchFlag = searchFlag + 8;
-      if (log.isDebugEnabled()) {
-        log.debug(messages.getMessage("log.search.validate.to.startTime", searchModel.getFromStartTimeExecution(), searchFlag));
-      }
+    if (searchModel.getFromStartTimeExecution() != null && log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.search.validate.to.startTime", searchModel.getFromStartTimeExecution()));
     }
 
-    if (searchModel.getToStartTimeExecution() != null) {
-      searchFlag = searchFlag + 16;
-      if (log.isDebugEnabled()) {
-        log.debug(messages.getMessage("log.search.validate.from.startTime", searchModel.getToStartTimeExecution(), searchFlag));
-      }
+    if (searchModel.getToStartTimeExecution() != null && log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.search.validate.from.startTime", searchModel.getToStartTimeExecution()));
     }
 
-    return searchFlag;
+    if (!StringUtils.isEmpty(searchModel.getProtocolText()) && log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.search.validate.protocolText", searchModel.getProtocolText()));
+    }
   }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to publish the snapshot of the current info. the info is serialized by
+ * the thread, which changed it, so that a request only reads the published
+ * bytes and never sees an info in the middle of a change. waiting requests are
+ * completed with the next published snapshot. the etag contains the start of
+ * the process, so that an etag of a previous process never matches.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@Slf4j
+public class TimeAgentSnapshotEngine {
+  private ObjectMapper mapper;
+  private TimeAgentMessages messages;
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final AtomicLong versions = new AtomicLong();
+  private final Set<CompletableFuture<TimeAgentInfoSnapshot>> waiting = ConcurrentHashMap.newKeySet();
+  private volatile TimeAgentInfoSnapshot snapshot;
+
+  public TimeAgentSnapshotEngine(ObjectMapper mapper, TimeAgentMessages messages) {
+    this.mapper = mapper;
+    this.messages = messages;
+  }
+
+  public synchronized TimeAgentInfoSnapshot publish(TimeAgentInfo agentInfo) {
+    try {
+      long version = versions.incrementAndGet();
+      String etag = String.format("\"%s-%d\"", epoch, version);
+      snapshot = new TimeAgentInfoSnapshot(version, etag, mapper.writeValueAsBytes(agentInfo));
+    } catch (JsonProcessingException exception) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.SNAPSHOT_FAILED,
+          String.format("error on serializing the info: %s", exception.getMessage()));
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.snapshot.publish", snapshot.getVersion(), snapshot.getJson().length));
+    }
+    for (CompletableFuture<TimeAgentInfoSnapshot> change : waiting) {
+      change.complete(snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * returns a future, which is completed with the next published snapshot, if
+   * the current snapshot matches the etags of 'If-None-Match', otherwise with
+   * the current snapshot. no thread is blocked while waiting.
+   */
+  public synchronized CompletableFuture<TimeAgentInfoSnapshot> awaitChange(String ifNoneMatch) {
+    if (snapshot == null || !snapshot.matches(ifNoneMatch)) {
+      return CompletableFuture.completedFuture(snapshot);
+    }
+    CompletableFuture<TimeAgentInfoSnapshot> change = new CompletableFuture<>();
+    waiting.add(change);
+    change.whenComplete((changed, error) -> waiting.remove(change));
+    return change;
+  }
+
+  public int getWaiting() {
+    return waiting.size();
+  }
+
+  public TimeAgentInfoSnapshot getSnapshot() {
+    return snapshot;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticBucket;
+import org.smithx.timeagent.api.models.TimeAgentStatisticSearch;
+import org.smithx.timeagent.api.repositories.TimeAgentStatisticRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to update the rollup buckets of the run statistics, when a run has
+ * reached its final status, and to search for them.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@Slf4j
+public class TimeAgentStatisticEngine {
+  private TimeAgentValues agentValues;
+  private TimeAgentStatisticRepository statisticRepository;
+  private TimeAgentMessages messages;
+
+  /**
+   * adds the duration of a finished run to its buckets. every bucket is updated
+   * in its own transaction, so that a bucket created by a concurrent run at the
+   * same time does not roll back a surrounding transaction.
+   */
+  @Transactional(TxType.NOT_SUPPORTED)
+  public void updateStatistic(TimeAgentInfo agentInfo) {
+    if (agentInfo.getStartTimeExecution() == null || agentInfo.getFinishTimeExecution() == null) {
+      return;
+    }
+    long duration = Duration.between(agentInfo.getStartTimeExecution(), agentInfo.getFinishTimeExecution()).toMillis();
+
+    for (TimeAgentStatisticBucket bucket : TimeAgentStatisticBucket.values()) {
+      addDuration(new TimeAgentStatistic(agentInfo.getAgentName(), bucket, bucket.truncate(agentInfo.getStartTimeExecution()),
+          agentInfo.getStatus(), agentInfo.getExecutor()), duration);
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.statistic.update", agentInfo.getStatus(), duration));
+    }
+  }
+
+  private void addDuration(TimeAgentStatistic statistic, long duration) {
+    if (incrementStatistic(statistic, duration) > 0) {
+      return;
+    }
+    statistic.addDuration(duration);
+    try {
+      statisticRepository.save(statistic);
+    } catch (DataIntegrityViolationException exception) {
+      // the bucket was created by a run of this or another instance at the same time
+      incrementStatistic(statistic, duration);
+    }
+  }
+
+  private int incrementStatistic(TimeAgentStatistic statistic, long duration) {
+    return statisticRepository.addDuration(statistic.getAgentName(), statistic.getBucket(), statistic.getBucketStart(),
+        statistic.getStatus(), TimeAgentStatistic.toExecutorKey(statistic.getExecutor()), duration, LocalDateTime.now());
+  }
+
+  public List<TimeAgentStatistic> searchStatistic(TimeAgentStatisticSearch searchModel) {
+    validateSearchModel(searchModel);
+
+    List<TimeAgentStatistic> statistics = new ArrayList<>();
+    for (TimeAgentStatistic statistic : statisticRepository.findByAgentNameAndBucketAndBucketStartBetweenOrderByBucketStartAsc(
+        agentValues.getAgentName(), searchModel.getBucket(), searchModel.getFrom(), searchModel.getTo())) {
+      if ((searchModel.getStatus() == null || searchModel.getStatus().equals(statistic.getStatus()))
+          && (searchModel.getExecutor() == null || searchModel.getExecutor().equals(statistic.getExecutor()))) {
+        statistics.add(statistic);
+      }
+    }
+
+    if (searchModel.isAggregated()) {
+      return aggregate(searchModel, statistics);
+    }
+    return statistics;
+  }
+
+  private List<TimeAgentStatistic> aggregate(TimeAgentStatisticSearch searchModel, List<TimeAgentStatistic> statistics) {
+    Map<String, TimeAgentStatistic> aggregated = new LinkedHashMap<>();
+
+    for (TimeAgentStatistic statistic : statistics) {
+      aggregated.computeIfAbsent(String.format("%s:%s", statistic.getStatus(), Objects.toString(statistic.getExecutor(), "")),
+          key -> new TimeAgentStatistic(statistic.getAgentName(), searchModel.getBucket(), searchModel.getFrom(),
+              statistic.getStatus(), statistic.getExecutor()))
+          .merge(statistic);
+    }
+    return new ArrayList<>(aggregated.values());
+  }
+
+  private void validateSearchModel(TimeAgentStatisticSearch searchModel) {
+    if (searchModel == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, "search model is null");
+    }
+
+    if (searchModel.getBucket() == null) {
+      searchModel.setBucket(TimeAgentStatisticBucket.DAILY);
+    }
+
+    if (searchModel.getTo() == null) {
+      searchModel.setTo(LocalDateTime.now());
+    }
+
+    if (searchModel.getFrom() == null) {
+      searchModel.setFrom(searchModel.getTo().minusDays(7));
+    }
+
+    if (searchModel.getFrom().isAfter(searchModel.getTo())) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, "from time is after to time");
+    }
+
+    searchModel.setFrom(searchModel.getBucket().truncate(searchModel.getFrom()));
+
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.statistic.search", searchModel));
+    }
+  }
+}
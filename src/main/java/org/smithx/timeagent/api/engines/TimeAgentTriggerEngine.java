@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.smithx.timeagent.api.models.TimeAgentMisfirePolicy;
+import org.smithx.timeagent.api.models.TimeAgentOverlapPolicy;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.repositories.TimeAgentTriggerRepository;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * engine to find, save or delete the named triggers of the agent.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@Slf4j
+public class TimeAgentTriggerEngine {
+  // number of the next times of a crontrigger, of which the shortest period is taken
+  private static final int PERIOD_FIRES = 100;
+
+  private TimeAgentValues agentValues;
+  private TimeAgentTriggerRepository triggerRepository;
+  private TimeAgentMessages messages;
+
+  public List<TimeAgentTrigger> findTriggers() {
+    return triggerRepository.findAllByAgentName(agentValues.getAgentName());
+  }
+
+  public TimeAgentTrigger findTrigger(String name) {
+    TimeAgentTrigger trigger = triggerRepository.findByAgentNameAndName(agentValues.getAgentName(), name);
+    if (trigger == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.TRIGGER_NOT_FOUND, String.format("trigger not found: %s", name));
+    }
+    return trigger;
+  }
+
+  public TimeAgentTrigger saveTrigger(String name, TimeAgentTrigger trigger) {
+    if (StringUtils.isEmpty(name) || trigger == null || !CronSequenceGenerator.isValidExpression(trigger.getCrontrigger())
+        || TimeAgentMisfirePolicy.CATCH_UP.equals(trigger.getMisfirePolicy()) && trigger.getCatchUpLimit() < 1
+        || trigger.getJitterWindow() < 0
+        // a fire delayed into the next time of the crontrigger would skip it
+        || trigger.getJitterMode() != null && !TimeAgentJitterMode.NONE.equals(trigger.getJitterMode())
+            && trigger.getJitterWindow() >= shortestPeriod(trigger.getCrontrigger())
+        // a random jitter would fire the instances sharing the lease at different times
+        || TimeAgentJitterMode.RANDOM.equals(trigger.getJitterMode()) && agentValues.getLease().isEnabled()) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_TRIGGER,
+          String.format("invalid trigger %s: %s", name, trigger == null ? null : trigger.getCrontrigger()));
+    }
+
+    TimeAgentTrigger savedTrigger = triggerRepository.findByAgentNameAndName(agentValues.getAgentName(), name);
+    if (savedTrigger == null) {
+      savedTrigger = new TimeAgentTrigger(agentValues.getAgentName(), name, null);
+    }
+    savedTrigger.setCrontrigger(trigger.getCrontrigger());
+    savedTrigger.setEnabled(trigger.isEnabled());
+    savedTrigger.setOverlapPolicy(trigger.getOverlapPolicy() == null ? TimeAgentOverlapPolicy.SKIP : trigger.getOverlapPolicy());
+    savedTrigger.setMisfirePolicy(trigger.getMisfirePolicy() == null ? TimeAgentMisfirePolicy.IGNORE : trigger.getMisfirePolicy());
+    savedTrigger.setCatchUpLimit(trigger.getCatchUpLimit());
+    savedTrigger.setJitterMode(trigger.getJitterMode());
+    savedTrigger.setJitterWindow(trigger.getJitterWindow());
+    savedTrigger.setArguments(trigger.getArguments() == null ? new ArrayList<>() : new ArrayList<>(trigger.getArguments()));
+
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.trigger.save", name, savedTrigger.getCrontrigger(), savedTrigger.isEnabled()));
+    }
+    return triggerRepository.save(savedTrigger);
+  }
+
+  /**
+   * returns the shortest period in milliseconds between the next times of the
+   * crontrigger.
+   */
+  private long shortestPeriod(String crontrigger) {
+    CronSequenceGenerator sequenceGenerator = new CronSequenceGenerator(crontrigger);
+    long period = Long.MAX_VALUE;
+    Date cronTime = sequenceGenerator.next(new Date());
+    for (int fire = 0; fire < PERIOD_FIRES; fire++) {
+      Date nextCronTime = sequenceGenerator.next(cronTime);
+      period = Math.min(period, nextCronTime.getTime() - cronTime.getTime());
+      cronTime = nextCronTime;
+    }
+    return period;
+  }
+
+  public void markFired(TimeAgentTrigger trigger, LocalDateTime fireTime) {
+    trigger.setLastFireTime(fireTime);
+    if (trigger.getId() != null) {
+      triggerRepository.updateLastFireTime(trigger.getId(), fireTime);
+    }
+  }
+
+  /**
+   * claims the fire of the trigger at the time of its crontrigger. returns
+   * false, when another instance has fired this time already.
+   */
+  public boolean claimFire(TimeAgentTrigger trigger, LocalDateTime cronTime) {
+    if (trigger.getId() != null && triggerRepository.claimFire(trigger.getId(), cronTime) == 0) {
+      return false;
+    }
+    trigger.setLastFireTime(cronTime);
+    return true;
+  }
+
+  public TimeAgentTrigger deleteTrigger(String name) {
+    TimeAgentTrigger trigger = findTrigger(name);
+    triggerRepository.delete(trigger);
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.trigger.delete", name));
+    }
+    return trigger;
+  }
+}
@@ -23,5 +23,7 @@ package org.smithx.timeagent.api.exceptions;
  * 
  */
 public enum TimeAgentExceptionCause {
-  INVALID_SEARCH_MODEL, ALREADY_RUNNING, INVALID_TRIGGER, CANCEL_TRIGGER
+  INVALID_SEARCH_MODEL, ALREADY_RUNNING, INVALID_TRIGGER, CANCEL_TRIGGER, QUERY_REJECTED, QUERY_TIMEOUT, ARCHIVE_FAILED, SNAPSHOT_FAILED,
+  TRIGGER_NOT_FOUND, LEASE_LOST, PARTITION_FAILED, INVALID_DEPENDENCY, ADMISSION_INTERRUPTED,
+  INVALID_BATCH, BATCH_NOT_FOUND, INVALID_FIELDS
 }
@@ -18,6 +18,7 @@ package org.smithx.timeagent.api.handler;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentError;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -41,12 +42,28 @@ public class TimeAgentExceptionHandler {
     case CANCEL_TRIGGER:
       return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
           .body(new TimeAgentError(HttpStatus.UNPROCESSABLE_ENTITY, exception));
+    case QUERY_REJECTED:
+    case QUERY_TIMEOUT:
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body(new TimeAgentError(HttpStatus.SERVICE_UNAVAILABLE, exception));
     case INVALID_TRIGGER:
+    case INVALID_DEPENDENCY:
+    case INVALID_BATCH:
+    case INVALID_FIELDS:
       return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
           .body(new TimeAgentError(HttpStatus.NOT_ACCEPTABLE, exception));
+    case TRIGGER_NOT_FOUND:
+    case BATCH_NOT_FOUND:
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body(new TimeAgentError(HttpStatus.NOT_FOUND, exception));
     default:
       return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
           .body(new TimeAgentError(HttpStatus.INTERNAL_SERVER_ERROR, exception));
     }
   }
+
+  @ExceptionHandler(TaskRejectedException.class)
+  public ResponseEntity<TimeAgentError> handleRejection(TaskRejectedException exception) {
+    return handleException(new TimeAgentRuntimeException(TimeAgentExceptionCause.QUERY_REJECTED, exception.getMessage()));
+  }
 }
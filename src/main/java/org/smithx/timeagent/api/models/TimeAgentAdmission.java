@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a run waiting for or holding one of the slots shared by all
+ * agents. the waiting runs are admitted in the order of their virtual finish,
+ * which grows slower for agents with a higher weight.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "run_admission", uniqueConstraints = @UniqueConstraint(columnNames = "slot"),
+    indexes = @Index(columnList = "virtualFinish"))
+@ApiModel(description = "model for a run waiting for or holding a slot")
+public class TimeAgentAdmission extends TimeAgentModel {
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(nullable = false, updatable = false, length = 100)
+  @ApiModelProperty(value = "id of the instance of the run", example = "host-1a2b3c4d", position = 5)
+  private String instanceId;
+
+  @ApiModelProperty(value = "weight of the agent", example = "1.0", position = 6)
+  private double weight;
+
+  @ApiModelProperty(value = "slots reserved for the agent", example = "0", position = 7)
+  private int reservation;
+
+  @ApiModelProperty(value = "virtual finish of the run, the waiting runs are admitted in its order", example = "12.5",
+      position = 8)
+  private double virtualFinish;
+
+  @ApiModelProperty(value = "slot held by the run or null, while it is waiting", example = "0", position = 9)
+  private Integer slot;
+
+  @ApiModelProperty(value = "time, when the run was admitted", example = "2020-01-01T12:00:00", position = 10)
+  private LocalDateTime admittedAt;
+
+  @ApiModelProperty(value = "time, when the admission expires without heartbeat", example = "2020-01-01T12:00:30", position = 11)
+  private LocalDateTime expiresAt;
+
+  public TimeAgentAdmission(String agentName, String instanceId, double weight, int reservation, double virtualFinish,
+      LocalDateTime expiresAt) {
+    this.agentName = agentName;
+    this.instanceId = instanceId;
+    this.weight = weight;
+    this.reservation = reservation;
+    this.virtualFinish = virtualFinish;
+    this.expiresAt = expiresAt;
+  }
+
+  @JsonIgnore
+  public boolean isAdmitted() {
+    return slot != null;
+  }
+}
@@ -15,6 +15,8 @@
  */
 package org.smithx.timeagent.api.models;
 
+import javax.persistence.Embeddable;
+
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.AllArgsConstructor;
@@ -22,7 +24,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * argument for a manual start of the agent.
+ * argument for a manual start of the agent or of a named trigger.
  *
  * @author norman schmidt {smithx}
  * @since 12.05.2020
@@ -31,6 +33,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Embeddable
 @ApiModel(description = "model for setting arguments for a manual run")
 public class TimeAgentArgument {
   @ApiModelProperty(value = "key of the argument", example = "file.name")
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * handle of a batch of runs, one sub-run for every argument set. the id is
+ * the id of the info of the batch, to which the infos of the sub-runs are
+ * linked by their parent id. the counters are updated by the threads of the
+ * sub-runs.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@ApiModel(description = "model for the progress of a batch of runs")
+public class TimeAgentBatch {
+  @ApiModelProperty(value = "id of the info of the batch", example = "1", position = 1)
+  private Long id;
+
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 2)
+  private String agentName;
+
+  @ApiModelProperty(value = "status of the batch", example = "RUNNING", position = 3)
+  private volatile TimeAgentStatus status;
+
+  @ApiModelProperty(value = "number of the sub-runs executed at the same time", example = "4", position = 4)
+  private int parallelism;
+
+  @ApiModelProperty(value = "number of all sub-runs", example = "500", position = 5)
+  private int total;
+
+  @ApiModelProperty(value = "sub-runs waiting for their start", example = "380", position = 6)
+  private volatile int pending;
+
+  @ApiModelProperty(value = "sub-runs being executed", example = "4", position = 7)
+  private volatile int running;
+
+  @ApiModelProperty(value = "sub-runs finished successfully", example = "114", position = 8)
+  private volatile int finished;
+
+  @ApiModelProperty(value = "sub-runs aborted", example = "2", position = 9)
+  private volatile int aborted;
+
+  @ApiModelProperty(value = "ids of the infos of the ended sub-runs", position = 10)
+  private List<Long> subRunIds = new CopyOnWriteArrayList<>();
+
+  @ApiModelProperty(value = "start time of the batch", example = "2020-01-01T12:00:00.000000", position = 11)
+  private LocalDateTime startTimeExecution;
+
+  @ApiModelProperty(value = "finish time of the batch", example = "2020-01-01T12:05:00.000000", position = 12)
+  private volatile LocalDateTime finishTimeExecution;
+
+  @JsonIgnore
+  @ToString.Exclude
+  @ApiModelProperty(hidden = true)
+  private TimeAgentInfo parentInfo;
+
+  public TimeAgentBatch(TimeAgentInfo parentInfo, int total, int parallelism) {
+    this.id = parentInfo.getId();
+    this.agentName = parentInfo.getAgentName();
+    this.status = TimeAgentStatus.RUNNING;
+    this.parallelism = parallelism;
+    this.total = total;
+    this.pending = total;
+    this.startTimeExecution = parentInfo.getStartTimeExecution();
+    this.parentInfo = parentInfo;
+  }
+
+  public synchronized void startSubRun() {
+    pending--;
+    running++;
+  }
+
+  /**
+   * counts the ended sub-run, it is aborted without an info or with another
+   * status than finished.
+   */
+  public synchronized void finishSubRun(TimeAgentInfo subRunInfo) {
+    running--;
+    if (subRunInfo != null && TimeAgentStatus.FINISHED.equals(subRunInfo.getStatus())) {
+      finished++;
+    } else {
+      aborted++;
+    }
+    if (subRunInfo != null && subRunInfo.getId() != null) {
+      subRunIds.add(subRunInfo.getId());
+    }
+  }
+
+  /**
+   * counts the sub-runs, which were not started, as aborted.
+   */
+  public synchronized void cancelPending() {
+    aborted += pending;
+    pending = 0;
+  }
+
+  public synchronized void finish(LocalDateTime finishTime) {
+    status = aborted == 0 ? TimeAgentStatus.FINISHED : TimeAgentStatus.ABORTED;
+    finishTimeExecution = finishTime;
+  }
+
+  @ApiModelProperty(value = "share of the ended sub-runs between 0 and 1", example = "0.232", position = 13)
+  public double getProgress() {
+    return total == 0 ? 1 : (double) (finished + aborted) / total;
+  }
+}
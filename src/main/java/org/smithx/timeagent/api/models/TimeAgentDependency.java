@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a dependency of an agent on an upstream agent. the agent runs,
+ * when all its upstream agents have finished a run since its last fire. the
+ * dependencies of all agents sharing the database form a graph without cycles.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "agent_dependency", uniqueConstraints = @UniqueConstraint(columnNames = { "agent_name", "upstream_name" }),
+    indexes = @Index(columnList = "upstream_name"))
+@ApiModel(description = "model for a dependency of the agent on an upstream agent")
+public class TimeAgentDependency extends TimeAgentModel {
+  @Column(name = "agent_name", nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(name = "upstream_name", nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent, which has to finish before", example = "my-upstream-agent", position = 5)
+  private String upstreamName;
+
+  @Column(nullable = false)
+  @ApiModelProperty(value = "time of the last fire, the runs of the upstream agents after it are awaited",
+      example = "2020-01-01T02:00:00", readOnly = true, position = 6)
+  private LocalDateTime lastFireTime;
+
+  public TimeAgentDependency(String agentName, String upstreamName, LocalDateTime lastFireTime) {
+    this.agentName = agentName;
+    this.upstreamName = upstreamName;
+    this.lastFireTime = lastFireTime;
+  }
+}
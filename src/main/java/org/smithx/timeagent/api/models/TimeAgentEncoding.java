@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import lombok.Getter;
+
+/**
+ * enumeration for the encodings of the infos in a response.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public enum TimeAgentEncoding {
+  JSON(MediaType.APPLICATION_JSON_VALUE, new JsonFactory()),
+  CBOR("application/cbor", new CBORFactory()),
+  SMILE("application/x-jackson-smile", new SmileFactory());
+
+  public static final String CBOR_VALUE = "application/cbor";
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  @Getter
+  private MediaType mediaType;
+
+  @Getter
+  private JsonFactory factory;
+
+  private TimeAgentEncoding(String mediaType, JsonFactory factory) {
+    this.mediaType = MediaType.parseMediaType(mediaType);
+    this.factory = factory;
+  }
+
+  /**
+   * transcodes json to this encoding token by token, so that the encoded info
+   * is equal to the json except for its representation.
+   */
+  public byte[] transcode(byte[] json) {
+    return this == JSON ? json : transcode(json, null);
+  }
+
+  /**
+   * transcodes json to this encoding and keeps only the tokens included by the
+   * filter, if it is given.
+   */
+  public byte[] transcode(byte[] json, TokenFilter filter) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 2 + 64);
+    try (JsonParser parser = filter == null ? JSON.getFactory().createParser(json)
+        : new FilteringParserDelegate(JSON.getFactory().createParser(json), filter, true, true);
+        JsonGenerator generator = getFactory().createGenerator(output)) {
+      while (parser.nextToken() != null) {
+        generator.copyCurrentEvent(parser);
+      }
+    } catch (IOException exception) {
+      throw new IllegalStateException(String.format("error on transcoding to %s: %s", name(), exception.getMessage()), exception);
+    }
+    return output.toByteArray();
+  }
+
+  public static List<MediaType> getMediaTypes() {
+    return Arrays.stream(values()).map(TimeAgentEncoding::getMediaType).collect(Collectors.toList());
+  }
+
+  /**
+   * returns the encoding preferred by the 'Accept' header, json if the header is
+   * missing, or null if no encoding is acceptable.
+   */
+  public static TimeAgentEncoding forAccept(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return JSON;
+    }
+    List<MediaType> acceptedTypes;
+    try {
+      acceptedTypes = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException exception) {
+      return null;
+    }
+    MediaType.sortBySpecificityAndQuality(acceptedTypes);
+    for (MediaType acceptedType : acceptedTypes) {
+      for (TimeAgentEncoding encoding : values()) {
+        if (acceptedType.getQualityValue() > 0 && acceptedType.includes(encoding.getMediaType())) {
+          return encoding;
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * enum for the lifecycle events of a run, which are written to the outbox.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of the lifecycle events of a run")
+public enum TimeAgentEventType {
+  STARTED, FINISHED, ABORTED;
+
+  /**
+   * returns the event for the final status of a run.
+   */
+  public static TimeAgentEventType forStatus(TimeAgentStatus status) {
+    return TimeAgentStatus.FINISHED.equals(status) ? FINISHED : ABORTED;
+  }
+}
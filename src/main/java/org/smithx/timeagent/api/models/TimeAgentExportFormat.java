@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import io.swagger.annotations.ApiModel;
+import lombok.Getter;
+
+/**
+ * enumeration for the formats of an export of the infos of an agent.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of valid export formats")
+public enum TimeAgentExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+  public static final String NDJSON_VALUE = "application/x-ndjson";
+  public static final String CSV_VALUE = "text/csv";
+
+  @Getter
+  private String contentType;
+
+  @Getter
+  private String fileExtension;
+
+  private TimeAgentExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * sparse fieldsets of the info given by the parameter 'fields'. only the
+ * getters of the requested fields are called, so that an omitted protocol is
+ * not serialized and an omitted next execution is not computed from the
+ * crontrigger.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public final class TimeAgentFields {
+  public static final String PROTOCOL = "protocol";
+
+  // the serialized properties of the info in the order of the json
+  public static final Set<String> NAMES = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("id", "createdAt",
+      "updatedAt", "agentName", "crontrigger", "executor", "startTimeExecution", "finishTimeExecution", "status", PROTOCOL,
+      "fencingToken", "parentId", "nextExecution")));
+
+  private TimeAgentFields() {
+  }
+
+  /**
+   * returns the requested fields of a comma separated list in the order of the
+   * json, or null, if all fields are requested.
+   */
+  public static Set<String> parse(String fields) {
+    if (!StringUtils.hasText(fields)) {
+      return null;
+    }
+    Set<String> requested = Arrays.stream(fields.split(",")).map(String::trim).filter(StringUtils::hasText)
+        .collect(Collectors.toSet());
+    requested.stream().filter(field -> !NAMES.contains(field)).findFirst().ifPresent(field -> {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_FIELDS,
+          String.format("unknown field '%s', valid fields are %s", field, NAMES));
+    });
+    return NAMES.stream().filter(requested::contains).collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  public static Map<String, Object> select(TimeAgentInfo agentInfo, Set<String> fields) {
+    BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(agentInfo);
+    Map<String, Object> selected = new LinkedHashMap<>();
+    for (String field : fields) {
+      selected.put(field, wrapper.getPropertyValue(field));
+    }
+    return selected;
+  }
+
+  public static List<Map<String, Object>> select(List<TimeAgentInfo> agentInfos, Set<String> fields) {
+    return agentInfos.stream().map(agentInfo -> select(agentInfo, fields)).collect(Collectors.toList());
+  }
+
+  /**
+   * returns a filter of the serialized info, which includes only the fields
+   * on the top level.
+   */
+  public static TokenFilter filter(Set<String> fields) {
+    return new TokenFilter() {
+      @Override
+      public TokenFilter includeProperty(String name) {
+        return fields.contains(name) ? TokenFilter.INCLUDE_ALL : null;
+      }
+    };
+  }
+}
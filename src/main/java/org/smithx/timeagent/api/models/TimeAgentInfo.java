@@ -28,11 +28,15 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.Lob;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 import org.springframework.scheduling.support.CronSequenceGenerator;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import io.swagger.annotations.ApiModel;
@@ -40,9 +44,12 @@ import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
- * entity of the status information of an agent.
+ * entity of the status information of an agent. the protocol is changed under
+ * the lock of the info, so that it can be serialized under the same lock
+ * while the run writes it.
  *
  * @author norman schmidt {smithx}
  * @since 07.05.2020
@@ -52,7 +59,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = false)
 @Entity
-@Table(name = "info")
+@Table(name = "info", indexes = { @Index(columnList = "agentName, status"), @Index(columnList = "parentId") })
 @ApiModel(description = "model for the info model of the agent")
 public class TimeAgentInfo extends TimeAgentModel {
   @Column(nullable = false, updatable = false, length = 60)
@@ -83,25 +90,80 @@ public class TimeAgentInfo extends TimeAgentModel {
   @ApiModelProperty(value = "protocol entries of the agent for a certain status", position = 10)
   private List<TimeAgentProtocol> protocol = new ArrayList<>();
 
+  @ApiModelProperty(value = "fencing token of the lease, which the run holds", example = "1", readOnly = true, position = 11)
+  private Long fencingToken;
+
+  @ApiModelProperty(value = "id of the info of the batch, which started the run as sub-run", example = "1", readOnly = true,
+      position = 12)
+  private Long parentId;
+
+  @Lob
+  @JsonIgnore
+  @ToString.Exclude
+  @ApiModelProperty(hidden = true)
+  private byte[] protocolData;
+
+  @Transient
+  @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @ApiModelProperty(hidden = true)
+  private LocalDateTime scheduledExecution;
+
   public TimeAgentInfo(String agentName, TimeAgentStatus status) {
     this.agentName = agentName;
     this.status = status;
   }
 
-  @ApiModelProperty(value = "next start time of execution of the agent, when a crontrigger is set")
+  public TimeAgentInfo(Long id, LocalDateTime createdAt, LocalDateTime updatedAt, String agentName, String crontrigger,
+      String executor, LocalDateTime startTimeExecution, LocalDateTime finishTimeExecution, TimeAgentStatus status) {
+    this(agentName, status);
+    setId(id);
+    setCreatedAt(createdAt);
+    setUpdatedAt(updatedAt);
+    this.crontrigger = crontrigger;
+    this.executor = executor;
+    this.startTimeExecution = startTimeExecution;
+    this.finishTimeExecution = finishTimeExecution;
+  }
+
+  public TimeAgentInfo(Long id, LocalDateTime createdAt, LocalDateTime updatedAt, String agentName, String crontrigger,
+      String executor, LocalDateTime startTimeExecution, LocalDateTime finishTimeExecution, TimeAgentStatus status,
+      Long fencingToken, Long parentId) {
+    this(id, createdAt, updatedAt, agentName, crontrigger, executor, startTimeExecution, finishTimeExecution, status);
+    this.fencingToken = fencingToken;
+    this.parentId = parentId;
+  }
+
+  @ApiModelProperty(value = "next start time of execution of the agent including the jitter, when a crontrigger is set")
   public LocalDateTime getNextExecution() {
     if (CronSequenceGenerator.isValidExpression(crontrigger)) {
+      if (scheduledExecution != null && scheduledExecution.isAfter(LocalDateTime.now())) {
+        // the time of the scheduled fire includes the jitter
+        return scheduledExecution;
+      }
       Date next = new CronSequenceGenerator(crontrigger).next(Calendar.getInstance().getTime());
       return next.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
     }
     return null;
   }
 
-  public void addProtocol(String message) {
-    protocol.add(new TimeAgentProtocol(this, message));
+  public synchronized void addProtocol(String message) {
+    // the time is kept by a storage without protocol rows
+    addProtocol(message, LocalDateTime.now());
+  }
+
+  /**
+   * adds a stored protocol line with the time of its creation.
+   */
+  public synchronized void addProtocol(String message, LocalDateTime createdAt) {
+    TimeAgentProtocol line = new TimeAgentProtocol(this, message);
+    line.setCreatedAt(createdAt);
+    line.setUpdatedAt(createdAt);
+    protocol.add(line);
   }
 
-  public void clearProtocol() {
+  public synchronized void clearProtocol() {
     protocol = new ArrayList<>();
   }
 
@@ -115,6 +177,9 @@ public class TimeAgentInfo extends TimeAgentModel {
     status = TimeAgentStatus.READY;
     startTimeExecution = null;
     finishTimeExecution = null;
+    fencingToken = null;
+    parentId = null;
+    protocolData = null;
     clearProtocol();
   }
 }
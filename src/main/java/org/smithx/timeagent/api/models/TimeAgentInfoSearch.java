@@ -16,6 +16,9 @@
 package org.smithx.timeagent.api.models;
 
 import java.time.LocalDateTime;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
@@ -45,4 +48,20 @@ public class TimeAgentInfoSearch {
 
   @ApiModelProperty(value = "status of the agent", example = "FINISHED", position = 2)
   private TimeAgentStatus status;
+
+  @ApiModelProperty(value = "token or phrase, which is contained in the protocol messages of the agent", example = "found 100 files", position = 6)
+  private String protocolText;
+
+  @JsonIgnore
+  @ApiModelProperty(hidden = true)
+  private Set<String> fields;
+
+  /**
+   * returns false, if only fields without the protocol are requested, so that
+   * the protocol does not have to be loaded.
+   */
+  @JsonIgnore
+  public boolean isWithProtocol() {
+    return fields == null || fields.contains(TimeAgentFields.PROTOCOL);
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Getter;
+
+/**
+ * immutable snapshot of the current info of the agent, which is serialized once
+ * when it is published. the gzip variant is compressed and the binary
+ * encodings are transcoded on the first request of each.
+ * the bytes are shared by all requests and must not be modified. the etag is
+ * unique for every published version of the info, the etag of every other
+ * variant is suffixed by the name of the encoding, the hash of the fieldset and
+ * the content coding, so that each variant has a strong etag of its own.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public final class TimeAgentInfoSnapshot {
+  @Getter
+  private final long version;
+  @Getter
+  private final String etag;
+  @Getter
+  private final byte[] json;
+  private volatile byte[] gzip;
+  private final Map<TimeAgentEncoding, byte[]> encoded = new ConcurrentHashMap<>();
+
+  public TimeAgentInfoSnapshot(long version, String etag, byte[] json) {
+    this.version = version;
+    this.etag = etag;
+    this.json = json;
+  }
+
+  public byte[] getGzip() {
+    byte[] compressed = gzip;
+    if (compressed == null) {
+      // concurrent first requests may compress twice, both results are equal
+      compressed = compress(json);
+      gzip = compressed;
+    }
+    return compressed;
+  }
+
+  public byte[] getEncoded(TimeAgentEncoding encoding) {
+    if (encoding == TimeAgentEncoding.JSON) {
+      return json;
+    }
+    return encoded.computeIfAbsent(encoding, binary -> binary.transcode(json));
+  }
+
+  /**
+   * returns the sparse fieldset of the info in the encoding. it is filtered
+   * from the json on every request, because the fieldsets are not bounded.
+   */
+  public byte[] getEncoded(TimeAgentEncoding encoding, Set<String> fields) {
+    if (fields == null) {
+      return getEncoded(encoding);
+    }
+    return encoding.transcode(json, TimeAgentFields.filter(fields));
+  }
+
+  public String getEtag(TimeAgentEncoding encoding) {
+    return getEtag(encoding, null, false);
+  }
+
+  /**
+   * returns the etag of the variant in the encoding, restricted to the fields
+   * and compressed by gzip.
+   */
+  public String getEtag(TimeAgentEncoding encoding, Set<String> fields, boolean gzip) {
+    if (encoding == TimeAgentEncoding.JSON && fields == null && !gzip) {
+      return etag;
+    }
+    StringBuilder variant = new StringBuilder(etag.substring(0, etag.length() - 1));
+    if (encoding != TimeAgentEncoding.JSON) {
+      variant.append('-').append(encoding.name().toLowerCase());
+    }
+    if (fields != null) {
+      // the fields are parsed in the order of their names
+      variant.append("-f").append(Integer.toHexString(String.join(",", fields).hashCode()));
+    }
+    if (gzip) {
+      variant.append("-gzip");
+    }
+    return variant.append('"').toString();
+  }
+
+  /**
+   * returns true, when the etag of any variant of this version is given.
+   */
+  public boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    // the quoted etag without its closing quote can only be continued by the suffixes of a variant
+    String tag = etag.substring(0, etag.length() - 1);
+    return ifNoneMatch.contains(etag) || ifNoneMatch.contains(tag + "-") || "*".equals(ifNoneMatch.trim());
+  }
+
+  private static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+      gzipOutput.write(bytes);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return output.toByteArray();
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * enumeration for the jitter, which delays the fires of a trigger within a
+ * window after the time of the crontrigger. HASH delays every fire by the same
+ * offset derived from the name of the agent and the trigger, RANDOM by a new
+ * random offset for every fire and SPREAD by an offset derived from the names
+ * and the time of the fire, so that all instances compute the same time, but
+ * the fires are spread over the whole window. RANDOM differs on every
+ * instance and is rejected, when the lease is enabled.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of valid jitter modes of a trigger")
+public enum TimeAgentJitterMode {
+  NONE, HASH, RANDOM, SPREAD;
+
+  /**
+   * returns the offset in milliseconds within the window for the fire at the
+   * given time of the crontrigger.
+   */
+  public long offset(long window, String seed, LocalDateTime fireTime) {
+    if (window <= 0) {
+      return 0;
+    }
+    switch (this) {
+    case HASH:
+      return Math.floorMod(mix(seed.hashCode()), window);
+    case RANDOM:
+      return ThreadLocalRandom.current().nextLong(window);
+    case SPREAD:
+      return Math.floorMod(mix(seed.hashCode() * 31L + fireTime.toEpochSecond(ZoneOffset.UTC)), window);
+    default:
+      return 0;
+    }
+  }
+
+  private static long mix(long value) {
+    // finalizer of splitmix64, so that similar names get distant offsets
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+}
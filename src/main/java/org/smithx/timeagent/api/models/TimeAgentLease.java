@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of the lease of an agent. the instance holding the lease until its
+ * expiry is the only one to run the agent. the token is increased with every
+ * new holder and fences the status writes of a former holder. the last fire
+ * time of the crontrigger of the info and the last time of the archiver are
+ * claimed on the lease, so that every time is fired by one instance only.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "agent_lease", uniqueConstraints = @UniqueConstraint(columnNames = "agentName"))
+@ApiModel(description = "model for the lease of an agent")
+public class TimeAgentLease extends TimeAgentModel {
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(name = "owner_id", nullable = false, length = 100)
+  @ApiModelProperty(value = "id of the instance holding the lease", example = "host-1a2b3c4d", position = 5)
+  private String owner;
+
+  @ApiModelProperty(value = "fencing token of the holder", example = "1", position = 6)
+  private long token;
+
+  @ApiModelProperty(value = "time, when the lease was acquired", example = "2020-01-01T12:00:00", position = 7)
+  private LocalDateTime acquiredAt;
+
+  @ApiModelProperty(value = "time, when the lease expires without heartbeat", example = "2020-01-01T12:00:30", position = 8)
+  private LocalDateTime expiresAt;
+
+  @ApiModelProperty(value = "time of the crontrigger of the info, which was fired last by one of the instances",
+      example = "2020-01-01T02:00:00", position = 9)
+  private LocalDateTime lastFireTime;
+
+  @ApiModelProperty(value = "time of the trigger of the archiver, which was fired last by one of the instances",
+      example = "2020-01-01T02:00:00", position = 10)
+  private LocalDateTime lastArchiveTime;
+
+  public TimeAgentLease(String agentName, String owner, long token, LocalDateTime acquiredAt, LocalDateTime expiresAt) {
+    this.agentName = agentName;
+    this.owner = owner;
+    this.token = token;
+    this.acquiredAt = acquiredAt;
+    this.expiresAt = expiresAt;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a misfire of a trigger, which did not start a run. the fires
+ * missed while the agent was down are recorded as one misfire.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "misfire", indexes = @Index(columnList = "agentName, scheduledTime"))
+@ApiModel(description = "model for a misfire of a trigger")
+public class TimeAgentMisfire extends TimeAgentModel {
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the trigger, empty for the crontrigger of the info", example = "nightly-full", position = 5)
+  private String triggerName;
+
+  @Column(nullable = false, updatable = false)
+  @ApiModelProperty(value = "time of the (first) fire", example = "2020-01-01T02:00:00", position = 6)
+  private LocalDateTime scheduledTime;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false, length = 20)
+  @ApiModelProperty(value = "reason of the misfire", example = "OVERLAP_SKIPPED", position = 7)
+  private TimeAgentMisfireReason reason;
+
+  @ApiModelProperty(value = "number of fires", example = "1", position = 8)
+  private int fires;
+
+  public TimeAgentMisfire(String agentName, String triggerName, LocalDateTime scheduledTime, TimeAgentMisfireReason reason,
+      int fires) {
+    this.agentName = agentName;
+    this.triggerName = triggerName;
+    this.scheduledTime = scheduledTime;
+    this.reason = reason;
+    this.fires = fires;
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * enumeration for the handling of the fires of a trigger, which were missed
+ * while the agent was down. IGNORE only records them, FIRE_ONCE fires once on
+ * startup and CATCH_UP fires up to the catch up limit of the trigger one after
+ * another.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of valid policies for the fires missed while the agent was down")
+public enum TimeAgentMisfirePolicy {
+  IGNORE, FIRE_ONCE, CATCH_UP
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a lifecycle event of a run in the outbox. it is written in the
+ * transaction of the status of the run and deleted, when it is delivered to
+ * all sinks. an instance claims a batch of events for its delivery, so that
+ * the other instances do not deliver it again.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "outbox_event", indexes = @Index(columnList = "agentName, parked, id"))
+@ApiModel(description = "model for a lifecycle event of a run waiting for its delivery")
+public class TimeAgentOutboxEvent extends TimeAgentModel {
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(nullable = false, updatable = false)
+  @ApiModelProperty(value = "id of the info of the run", example = "1", position = 5)
+  private Long infoId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false, length = 20)
+  @ApiModelProperty(value = "lifecycle event of the run", example = "FINISHED", position = 6)
+  private TimeAgentEventType eventType;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false, length = 20)
+  @ApiModelProperty(value = "status of the run at the event", example = "FINISHED", position = 7)
+  private TimeAgentStatus status;
+
+  @Column(updatable = false)
+  @ApiModelProperty(value = "start time of the run", example = "2020-01-01T12:00:00", position = 8)
+  private LocalDateTime startTimeExecution;
+
+  @Column(updatable = false)
+  @ApiModelProperty(value = "finish time of the run", example = "2020-01-01T12:05:00", position = 9)
+  private LocalDateTime finishTimeExecution;
+
+  @ApiModelProperty(value = "failed deliveries of the event", example = "0", position = 10)
+  private int attempts;
+
+  @ApiModelProperty(value = "time, before which the delivery is not tried again", example = "2020-01-01T12:05:01", position = 11)
+  private LocalDateTime nextAttemptAt;
+
+  @ApiModelProperty(value = "the event is parked after the last attempt and not delivered any more", example = "false",
+      position = 12)
+  private boolean parked;
+
+  @Column(name = "owner_id", length = 100)
+  @ApiModelProperty(value = "id of the instance of the last claim", example = "host-1a2b3c4d", position = 13)
+  private String owner;
+
+  @ApiModelProperty(value = "time, when the claim of the delivery expires", example = "2020-01-01T12:06:00", position = 14)
+  private LocalDateTime claimExpiresAt;
+
+  public TimeAgentOutboxEvent(TimeAgentInfo agentInfo, TimeAgentEventType eventType) {
+    this.agentName = agentInfo.getAgentName();
+    this.infoId = agentInfo.getId();
+    this.eventType = eventType;
+    this.status = agentInfo.getStatus();
+    this.startTimeExecution = agentInfo.getStartTimeExecution();
+    this.finishTimeExecution = agentInfo.getFinishTimeExecution();
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * enumeration for the handling of a fire of a trigger, while the agent is
+ * running. SKIP drops the fire as misfire, QUEUE_ONE keeps one fire of the
+ * trigger until the run has finished and drops further fires as misfires,
+ * COALESCE merges all fires into one pending run and CONCURRENT starts a run
+ * with its own info at once.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of valid policies for a fire while the agent is running")
+public enum TimeAgentOverlapPolicy {
+  SKIP, QUEUE_ONE, COALESCE, CONCURRENT
+}
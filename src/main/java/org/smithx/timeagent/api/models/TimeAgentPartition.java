@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a partition of a run. the partitions are created by the instance
+ * running the agent and claimed by any instance sharing the database. the
+ * number of attempts fences the result of a claim, which was taken over after
+ * its expiry.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "agent_partition", indexes = { @Index(columnList = "infoId, status"), @Index(columnList = "agentName, status") })
+@ApiModel(description = "model for a partition of a run")
+public class TimeAgentPartition extends TimeAgentModel {
+  @Column(nullable = false, updatable = false)
+  @ApiModelProperty(value = "id of the info of the run", example = "1", position = 4)
+  private Long infoId;
+
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 5)
+  private String agentName;
+
+  @Column(nullable = false, updatable = false, length = 200)
+  @ApiModelProperty(value = "key of the partition given by the agent", example = "customers-a-f", position = 6)
+  private String partitionKey;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @ApiModelProperty(value = "status of the partition", example = "DONE", position = 7)
+  private TimeAgentPartitionStatus status = TimeAgentPartitionStatus.PENDING;
+
+  @Column(name = "owner_id", length = 100)
+  @ApiModelProperty(value = "id of the instance of the last claim", example = "host-1a2b3c4d", position = 8)
+  private String owner;
+
+  @ApiModelProperty(value = "time, when the claim expires without heartbeat", example = "2020-01-01T12:00:30", position = 9)
+  private LocalDateTime claimExpiresAt;
+
+  @ApiModelProperty(value = "number of claims", example = "1", position = 10)
+  private int attempts;
+
+  @Column(length = 2000)
+  @ApiModelProperty(value = "result or error reported by the last claim", example = "1000 customers processed", position = 11)
+  private String result;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "agent_partition_argument", joinColumns = @JoinColumn(name = "partition_id"))
+  @OrderColumn(name = "argument_index")
+  @AttributeOverrides({
+      @AttributeOverride(name = "key", column = @Column(name = "argument_key", length = 60)),
+      @AttributeOverride(name = "value", column = @Column(name = "argument_value"))
+  })
+  @ApiModelProperty(value = "arguments of the run", position = 12)
+  private List<TimeAgentArgument> arguments = new ArrayList<>();
+
+  public TimeAgentPartition(Long infoId, String agentName, String partitionKey, TimeAgentArgument... arguments) {
+    this.infoId = infoId;
+    this.agentName = agentName;
+    this.partitionKey = partitionKey;
+    this.arguments = new ArrayList<>(Arrays.asList(arguments));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * compressed protocol lines of a running info, which are appended on every
+ * save. the chunks are packed into the protocol data of the info, when the
+ * run has ended.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "protocol_chunk", indexes = @Index(columnList = "info_id"))
+public class TimeAgentProtocolChunk {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "info_id", nullable = false, updatable = false)
+  private Long infoId;
+
+  @Column(nullable = false, updatable = false)
+  private int firstLine;
+
+  @Column(nullable = false, updatable = false)
+  private int lines;
+
+  @Lob
+  @ToString.Exclude
+  @Column(nullable = false, updatable = false)
+  private byte[] data;
+
+  public TimeAgentProtocolChunk(Long infoId, int firstLine, int lines, byte[] data) {
+    this.infoId = infoId;
+    this.firstLine = firstLine;
+    this.lines = lines;
+    this.data = data;
+  }
+}
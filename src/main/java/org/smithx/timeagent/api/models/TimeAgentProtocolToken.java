@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * entry of the inverted index over the protocol messages. it holds only the id
+ * of the info, so that the index rows stay as small as possible.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "protocol_token", uniqueConstraints = @UniqueConstraint(columnNames = { "token", "info_id" }),
+    indexes = @Index(columnList = "info_id"))
+public class TimeAgentProtocolToken {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "info_id", nullable = false, updatable = false)
+  private Long infoId;
+
+  @Column(nullable = false, updatable = false, length = 60)
+  private String token;
+
+  public TimeAgentProtocolToken(Long infoId, String token) {
+    this.infoId = infoId;
+    this.token = token;
+  }
+}
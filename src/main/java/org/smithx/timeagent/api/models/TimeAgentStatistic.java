@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a rollup bucket with the statistics of the finished runs of an
+ * agent. the runs without executor are stored with an empty executor, so that
+ * the unique constraint of the bucket also applies to them.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "statistic", uniqueConstraints = @UniqueConstraint(columnNames = { "agentName", "bucket", "bucketStart", "status",
+    "executor" }), indexes = @Index(columnList = "agentName, bucket, bucketStart"))
+@ApiModel(description = "model for the run statistics of the agent")
+public class TimeAgentStatistic extends TimeAgentModel {
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false, length = 20)
+  @ApiModelProperty(value = "time bucket of the statistic", example = "DAILY", position = 5)
+  private TimeAgentStatisticBucket bucket;
+
+  @Column(nullable = false, updatable = false)
+  @ApiModelProperty(value = "start time of the bucket", example = "2020-01-01T00:00:00", position = 6)
+  private LocalDateTime bucketStart;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false, length = 20)
+  @ApiModelProperty(value = "final status of the runs", example = "ABORTED", position = 7)
+  private TimeAgentStatus status;
+
+  @Column(nullable = false, updatable = false, length = 30)
+  @ApiModelProperty(value = "user, who executed the agent", example = "x123456", position = 8)
+  private String executor;
+
+  @ApiModelProperty(value = "number of runs", example = "24", position = 9)
+  private long count;
+
+  @ApiModelProperty(value = "sum of the durations of the runs in milliseconds", example = "48000", position = 10)
+  private long sumDuration;
+
+  @ApiModelProperty(value = "minimal duration of a run in milliseconds", example = "1000", position = 11)
+  private long minDuration;
+
+  @ApiModelProperty(value = "maximal duration of a run in milliseconds", example = "3000", position = 12)
+  private long maxDuration;
+
+  public TimeAgentStatistic(String agentName, TimeAgentStatisticBucket bucket, LocalDateTime bucketStart, TimeAgentStatus status,
+      String executor) {
+    this.agentName = agentName;
+    this.bucket = bucket;
+    this.bucketStart = bucketStart;
+    this.status = status;
+    this.executor = toExecutorKey(executor);
+  }
+
+  public static String toExecutorKey(String executor) {
+    return executor == null ? "" : executor;
+  }
+
+  public String getExecutor() {
+    return executor == null || executor.isEmpty() ? null : executor;
+  }
+
+  @ApiModelProperty(value = "average duration of a run in milliseconds", example = "2000")
+  public long getAverageDuration() {
+    return count == 0 ? 0 : sumDuration / count;
+  }
+
+  public void addDuration(long duration) {
+    minDuration = count == 0 ? duration : Math.min(minDuration, duration);
+    maxDuration = count == 0 ? duration : Math.max(maxDuration, duration);
+    sumDuration = sumDuration + duration;
+    count++;
+  }
+
+  public void merge(TimeAgentStatistic statistic) {
+    if (statistic.getCount() == 0) {
+      return;
+    }
+    minDuration = count == 0 ? statistic.getMinDuration() : Math.min(minDuration, statistic.getMinDuration());
+    maxDuration = count == 0 ? statistic.getMaxDuration() : Math.max(maxDuration, statistic.getMaxDuration());
+    sumDuration = sumDuration + statistic.getSumDuration();
+    count = count + statistic.getCount();
+  }
+}
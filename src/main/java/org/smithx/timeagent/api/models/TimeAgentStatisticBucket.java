@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * enumeration for the time buckets of the run statistics.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@ApiModel(description = "enum of valid time buckets of the statistics")
+public enum TimeAgentStatisticBucket {
+  HOURLY(ChronoUnit.HOURS), DAILY(ChronoUnit.DAYS);
+
+  private ChronoUnit unit;
+
+  private TimeAgentStatisticBucket(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  public LocalDateTime truncate(LocalDateTime time) {
+    return time.truncatedTo(unit);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+/**
+ * class to search for the run statistics of an agent.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@ApiModel(description = "search model for the run statistics of the agent")
+public class TimeAgentStatisticSearch {
+  @ApiModelProperty(value = "time bucket of the statistics (default is DAILY)", example = "DAILY", position = 1)
+  private TimeAgentStatisticBucket bucket;
+
+  @ApiModelProperty(value = "from start time of the buckets (default is seven days before the to time)", example = "2020-01-01T00:00:00", position = 2)
+  private LocalDateTime from;
+
+  @ApiModelProperty(value = "to start time of the buckets (default is now)", example = "2020-01-08T00:00:00", position = 3)
+  private LocalDateTime to;
+
+  @ApiModelProperty(value = "final status of the runs", example = "ABORTED", position = 4)
+  private TimeAgentStatus status;
+
+  @ApiModelProperty(value = "user, who executed the agent", example = "x123456", position = 5)
+  private String executor;
+
+  @ApiModelProperty(value = "merge all buckets of the time range into one statistic per status and executor", example = "true", position = 6)
+  private boolean aggregated;
+}
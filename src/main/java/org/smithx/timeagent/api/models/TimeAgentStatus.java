@@ -15,6 +15,9 @@
  */
 package org.smithx.timeagent.api.models;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -26,5 +29,12 @@ import io.swagger.annotations.ApiModel;
  */
 @ApiModel(description = "enum of valid status of the agent")
 public enum TimeAgentStatus {
-  NOT_SET, READY, RUNNING, FINISHED, ABORTED;
+  NOT_SET, READY, RUNNING, FINISHED, ABORTED, INTERRUPTED;
+
+  /**
+   * returns the status of a run, which has ended.
+   */
+  public static Set<TimeAgentStatus> finalValues() {
+    return EnumSet.of(FINISHED, ABORTED, INTERRUPTED);
+  }
 }
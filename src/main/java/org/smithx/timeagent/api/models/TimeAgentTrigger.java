@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.UniqueConstraint;
+
+import org.springframework.scheduling.support.CronSequenceGenerator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * entity of a named trigger of an agent, which starts the agent with its own
+ * arguments. an agent can hold any number of triggers. the policies define the
+ * handling of a fire while the agent is running and of the fires missed while
+ * the agent was down, which are found by the time of the last fire. the
+ * jitter delays the fires within a window to flatten the load of the triggers
+ * of many agents with the same crontrigger.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "agent_trigger", uniqueConstraints = @UniqueConstraint(columnNames = { "agent_name", "name" }))
+@ApiModel(description = "model for a named trigger of the agent")
+public class TimeAgentTrigger extends TimeAgentModel {
+  @Column(name = "agent_name", nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the agent set by the property 'timeagent.values.agent-name'", example = "my-first-agent", position = 4)
+  private String agentName;
+
+  @Column(nullable = false, updatable = false, length = 60)
+  @ApiModelProperty(value = "name of the trigger", example = "nightly-full", position = 5)
+  private String name;
+
+  @Column(nullable = false, length = 30)
+  @ApiModelProperty(value = "crontrigger for scheduling the execution of the agent", example = "0 0 2 * * ?", position = 6)
+  private String crontrigger;
+
+  @ApiModelProperty(value = "only an enabled trigger is scheduled", example = "true", position = 7)
+  private boolean enabled = true;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @ApiModelProperty(value = "handling of a fire while the agent is running", example = "QUEUE_ONE", position = 8)
+  private TimeAgentOverlapPolicy overlapPolicy = TimeAgentOverlapPolicy.SKIP;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  @ApiModelProperty(value = "handling of the fires missed while the agent was down", example = "CATCH_UP", position = 9)
+  private TimeAgentMisfirePolicy misfirePolicy = TimeAgentMisfirePolicy.IGNORE;
+
+  @ApiModelProperty(value = "maximal number of missed fires, which are caught up on startup", example = "3", position = 10)
+  private int catchUpLimit = 1;
+
+  @ApiModelProperty(value = "time of the crontrigger of the last fire, which is fired by one of the instances only",
+      example = "2020-01-01T02:00:00", readOnly = true, position = 11)
+  private LocalDateTime lastFireTime;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "agent_trigger_argument", joinColumns = @JoinColumn(name = "trigger_id"))
+  @OrderColumn(name = "argument_index")
+  @AttributeOverrides({
+      @AttributeOverride(name = "key", column = @Column(name = "argument_key", length = 60)),
+      @AttributeOverride(name = "value", column = @Column(name = "argument_value"))
+  })
+  @ApiModelProperty(value = "arguments of the runs started by the trigger", position = 12)
+  private List<TimeAgentArgument> arguments = new ArrayList<>();
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 20)
+  @ApiModelProperty(value = "jitter of the fires, the default jitter is used when it is not set", example = "HASH", position = 13)
+  private TimeAgentJitterMode jitterMode;
+
+  @ApiModelProperty(value = "window of the jitter in milliseconds after the time of the crontrigger", example = "300000",
+      position = 14)
+  private long jitterWindow;
+
+  @Transient
+  @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ApiModelProperty(hidden = true)
+  private LocalDateTime scheduledExecution;
+
+  public TimeAgentTrigger(String agentName, String name, String crontrigger, TimeAgentArgument... arguments) {
+    this.agentName = agentName;
+    this.name = name;
+    this.crontrigger = crontrigger;
+    this.arguments = new ArrayList<>(Arrays.asList(arguments));
+  }
+
+  @ApiModelProperty(value = "next start time of execution by the trigger including the jitter, when it is enabled")
+  public LocalDateTime getNextExecution() {
+    if (enabled && CronSequenceGenerator.isValidExpression(crontrigger)) {
+      if (scheduledExecution != null && scheduledExecution.isAfter(LocalDateTime.now())) {
+        return scheduledExecution;
+      }
+      Date next = new CronSequenceGenerator(crontrigger).next(Calendar.getInstance().getTime());
+      return next.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the runs waiting for or holding a slot. a slot is held by
+ * one run at most, which is ensured by the unique constraint on the slot.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentAdmissionRepository extends CrudRepository<TimeAgentAdmission, Long> {
+  public List<TimeAgentAdmission> findAllByOrderByVirtualFinishAscIdAsc();
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentAdmission a set a.slot = :slot, a.admittedAt = :now where a.id = :id and a.slot is null")
+  public int admit(@Param("id") Long id, @Param("slot") int slot, @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentAdmission a set a.expiresAt = :expiresAt where a.id in :ids")
+  public int renewAdmissions(@Param("ids") Collection<Long> ids, @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying
+  @Query("delete from TimeAgentAdmission a where a.id = :id")
+  public int deleteAdmission(@Param("id") Long id);
+
+  @Transactional
+  @Modifying
+  @Query("delete from TimeAgentAdmission a where a.expiresAt < :now")
+  public int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the dependencies of the agents sharing the database.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentDependencyRepository extends CrudRepository<TimeAgentDependency, Long> {
+  public List<TimeAgentDependency> findAllByAgentNameOrderByUpstreamName(String agentName);
+
+  @Query("select d.agentName, d.upstreamName from TimeAgentDependency d")
+  public List<Object[]> findAllEdges();
+
+  @Modifying
+  @Query("delete from TimeAgentDependency d where d.agentName = :agentName")
+  public int deleteByAgentName(@Param("agentName") String agentName);
+
+  // only one instance of the agent moves the time of the last fire
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentDependency d set d.lastFireTime = :fireTime "
+      + "where d.agentName = :agentName and d.lastFireTime = :lastFireTime")
+  public int markFired(@Param("agentName") String agentName, @Param("lastFireTime") LocalDateTime lastFireTime,
+      @Param("fireTime") LocalDateTime fireTime);
+}
@@ -16,13 +16,22 @@
 package org.smithx.timeagent.api.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * repository for the info table of the agent.
@@ -33,6 +42,8 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface TimeAgentInfoRepository extends CrudRepository<TimeAgentInfo, Long> {
+  public static final String EXPORT_FETCH_SIZE = "500";
+
   public List<TimeAgentInfo> findByAgentNameOrderByUpdatedAtDesc(String agentName, Pageable pagable);
 
   public List<TimeAgentInfo> findByAgentNameAndStatusOrderByUpdatedAtDesc(String agentName, TimeAgentStatus status, Pageable pagable);
@@ -79,7 +90,82 @@ public interface TimeAgentInfoRepository extends CrudRepository<TimeAgentInfo, L
       TimeAgentStatus status, String lastExecutor, LocalDateTime fromStartTimeLastExecution, LocalDateTime toStartTimeLastExecution,
       Pageable pagable);
 
-  public TimeAgentInfo findTop1ByAgentNameOrderByUpdatedAtDesc(String agentName);
-
-  public TimeAgentInfo findTop1ByAgentNameAndStatusOrderByUpdatedAtDesc(String agentName, TimeAgentStatus status);
+  @Query("select i from TimeAgentInfo i where i.agentName = :agentName"
+      + " and (:status is null or i.status = :status)"
+      + " and (:executor is null or i.executor = :executor)"
+      + " and (:fromStartTime is null or i.startTimeExecution > :fromStartTime)"
+      + " and (:toStartTime is null or i.startTimeExecution < :toStartTime)"
+      + " and i.id in (select t.infoId from TimeAgentProtocolToken t where t.token in :tokens"
+      + " group by t.infoId having count(t.token) = :tokenCount)"
+      + " order by i.updatedAt desc")
+  public List<TimeAgentInfo> findByAgentNameAndProtocolTokens(@Param("agentName") String agentName,
+      @Param("status") TimeAgentStatus status, @Param("executor") String executor,
+      @Param("fromStartTime") LocalDateTime fromStartTime, @Param("toStartTime") LocalDateTime toStartTime,
+      @Param("tokens") Collection<String> tokens, @Param("tokenCount") long tokenCount, Pageable pagable);
+
+  // like the derived queries, a range of both times includes its bounds
+  @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+  @Query("select new org.smithx.timeagent.api.models.TimeAgentInfo(i.id, i.createdAt, i.updatedAt, i.agentName, i.crontrigger,"
+      + " i.executor, i.startTimeExecution, i.finishTimeExecution, i.status, i.fencingToken, i.parentId) from TimeAgentInfo i"
+      + " where i.agentName = :agentName"
+      + " and (:status is null or i.status = :status)"
+      + " and (:executor is null or i.executor = :executor)"
+      + " and (:fromStartTime is null or i.startTimeExecution > :fromStartTime"
+      + " or (:toStartTime is not null and i.startTimeExecution = :fromStartTime))"
+      + " and (:toStartTime is null or i.startTimeExecution < :toStartTime"
+      + " or (:fromStartTime is not null and i.startTimeExecution = :toStartTime))"
+      + " order by i.updatedAt desc")
+  public List<TimeAgentInfo> searchWithoutProtocol(@Param("agentName") String agentName, @Param("status") TimeAgentStatus status,
+      @Param("executor") String executor, @Param("fromStartTime") LocalDateTime fromStartTime,
+      @Param("toStartTime") LocalDateTime toStartTime, Pageable pagable);
+
+  @QueryHints({ @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true") })
+  @Query("select new org.smithx.timeagent.api.models.TimeAgentInfo(i.id, i.createdAt, i.updatedAt, i.agentName, i.crontrigger,"
+      + " i.executor, i.startTimeExecution, i.finishTimeExecution, i.status) from TimeAgentInfo i where i.agentName = :agentName"
+      + " and (:status is null or i.status = :status)"
+      + " and (:executor is null or i.executor = :executor)"
+      + " and (:fromStartTime is null or i.startTimeExecution > :fromStartTime"
+      + " or (:toStartTime is not null and i.startTimeExecution = :fromStartTime))"
+      + " and (:toStartTime is null or i.startTimeExecution < :toStartTime"
+      + " or (:fromStartTime is not null and i.startTimeExecution = :toStartTime))"
+      + " order by i.id")
+  public Stream<TimeAgentInfo> streamByAgentName(@Param("agentName") String agentName, @Param("status") TimeAgentStatus status,
+      @Param("executor") String executor, @Param("fromStartTime") LocalDateTime fromStartTime,
+      @Param("toStartTime") LocalDateTime toStartTime);
+
+  @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+  @Query("select new org.smithx.timeagent.api.models.TimeAgentInfo(i.id, i.createdAt, i.updatedAt, i.agentName, i.crontrigger,"
+      + " i.executor, i.startTimeExecution, i.finishTimeExecution, i.status, i.fencingToken, i.parentId) from TimeAgentInfo i"
+      + " where i.id = :id or i.parentId = :id order by i.id")
+  public List<TimeAgentInfo> findBatchWithoutProtocol(@Param("id") Long id);
+
+  @Query("select p.message from TimeAgentProtocol p where p.info.id = :infoId order by p.id")
+  public List<String> findProtocolMessagesByInfoId(@Param("infoId") Long infoId);
+
+  @Query("select p.info.id, p.message from TimeAgentProtocol p where p.info.id in :infoIds order by p.id")
+  public List<Object[]> findProtocolMessagesByInfoIds(@Param("infoIds") Collection<Long> infoIds);
+
+  @Query("select i.protocolData from TimeAgentInfo i where i.id = :infoId")
+  public byte[] findProtocolDataById(@Param("infoId") Long infoId);
+
+  @Query("select i.id, i.protocolData from TimeAgentInfo i where i.id in :infoIds")
+  public List<Object[]> findProtocolDataByIds(@Param("infoIds") Collection<Long> infoIds);
+
+  @Transactional
+  @Modifying
+  @Query("delete from TimeAgentProtocol p where p.info.id in :infoIds")
+  public int deleteProtocolByInfoIds(@Param("infoIds") Collection<Long> infoIds);
+
+  @Transactional
+  @Modifying
+  @Query("delete from TimeAgentInfo i where i.id in :infoIds")
+  public int deleteByIds(@Param("infoIds") Collection<Long> infoIds);
+
+  public List<TimeAgentInfo> findByAgentNameAndStatusInAndFinishTimeExecutionBeforeOrderByIdAsc(String agentName,
+      Collection<TimeAgentStatus> status, LocalDateTime finishTimeExecution, Pageable pagable);
+
+  public TimeAgentInfo findTop1ByAgentNameAndParentIdIsNullOrderByUpdatedAtDesc(String agentName);
+
+  public TimeAgentInfo findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(String agentName, TimeAgentStatus status);
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the leases of the agents. the lease is taken over and renewed
+ * by conditional updates, so that only one instance succeeds.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentLeaseRepository extends CrudRepository<TimeAgentLease, Long> {
+  public TimeAgentLease findByAgentName(String agentName);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.owner = :owner, l.token = l.token + 1, l.acquiredAt = :now, l.expiresAt = :expiresAt "
+      + "where l.agentName = :agentName and (l.expiresAt < :now or l.owner = :owner)")
+  public int acquireLease(@Param("agentName") String agentName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.expiresAt = :expiresAt "
+      + "where l.agentName = :agentName and l.owner = :owner and l.token = :token")
+  public int renewLease(@Param("agentName") String agentName, @Param("owner") String owner, @Param("token") long token,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  /**
+   * updates the lease without changing it, when it is held by the owner with the
+   * token. the lease is locked until the end of the calling transaction.
+   */
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.token = l.token where l.agentName = :agentName and l.owner = :owner and l.token = :token")
+  public int fenceLease(@Param("agentName") String agentName, @Param("owner") String owner, @Param("token") long token);
+
+  /**
+   * updates the lease without changing it. the lease is locked until the end of
+   * the calling transaction.
+   */
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.token = l.token where l.agentName = :agentName")
+  public int lockLease(@Param("agentName") String agentName);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.lastFireTime = :cronTime "
+      + "where l.agentName = :agentName and (l.lastFireTime is null or l.lastFireTime < :cronTime)")
+  public int claimFire(@Param("agentName") String agentName, @Param("cronTime") LocalDateTime cronTime);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentLease l set l.lastArchiveTime = :cronTime "
+      + "where l.agentName = :agentName and (l.lastArchiveTime is null or l.lastArchiveTime < :cronTime)")
+  public int claimArchive(@Param("agentName") String agentName, @Param("cronTime") LocalDateTime cronTime);
+}
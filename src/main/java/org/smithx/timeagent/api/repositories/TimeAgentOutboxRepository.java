@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the lifecycle events in the outbox. the pending events of an
+ * agent are read in the order of their ids, which is the order of their
+ * transactions for the runs of one agent. a batch is claimed by a conditional
+ * update, which only takes the events without a claim of another instance.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentOutboxRepository extends CrudRepository<TimeAgentOutboxEvent, Long> {
+  public List<TimeAgentOutboxEvent> findByAgentNameAndParkedFalseOrderByIdAsc(String agentName, Pageable pageable);
+
+  public long countByAgentNameAndParkedFalse(String agentName);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentOutboxEvent e set e.owner = :owner, e.claimExpiresAt = :expiresAt where e.id in :ids "
+      + "and (e.owner is null or e.owner = :owner or e.claimExpiresAt is null or e.claimExpiresAt < :now)")
+  public int claimEvents(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentOutboxEvent e set e.owner = null, e.claimExpiresAt = null where e.id in :ids and e.owner = :owner")
+  public int releaseEvents(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentOutboxEvent e set e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, e.parked = :parked, "
+      + "e.owner = null, e.claimExpiresAt = null where e.id in :ids")
+  public int retryEvents(@Param("ids") Collection<Long> ids, @Param("attempts") int attempts,
+      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("parked") boolean parked);
+
+  @Transactional
+  @Modifying
+  @Query("delete from TimeAgentOutboxEvent e where e.id in :ids")
+  public int deleteEvents(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the partitions of the runs. a partition is claimed by a
+ * conditional update, so that only one instance succeeds, and its result is
+ * only accepted from the instance and the attempt of the current claim.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentPartitionRepository extends CrudRepository<TimeAgentPartition, Long> {
+  String CLAIMABLE = "(p.status = 'PENDING' or (p.status = 'CLAIMED' and p.claimExpiresAt < :now)) "
+      + "and p.attempts < :maxAttempts";
+
+  public List<TimeAgentPartition> findByInfoIdOrderById(Long infoId);
+
+  public long countByInfoIdAndStatusIn(Long infoId, Collection<TimeAgentPartitionStatus> status);
+
+  @Query("select p.id from TimeAgentPartition p where p.agentName = :agentName and " + CLAIMABLE + " order by p.id")
+  public List<Long> findClaimableByAgentName(@Param("agentName") String agentName, @Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+  @Query("select p.id from TimeAgentPartition p where p.infoId = :infoId and " + CLAIMABLE + " order by p.id")
+  public List<Long> findClaimableByInfoId(@Param("infoId") Long infoId, @Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentPartition p set p.status = 'CLAIMED', p.owner = :owner, p.claimExpiresAt = :expiresAt, "
+      + "p.attempts = p.attempts + 1 where p.id = :id and " + CLAIMABLE)
+  public int claimPartition(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+      @Param("expiresAt") LocalDateTime expiresAt, @Param("maxAttempts") int maxAttempts);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentPartition p set p.claimExpiresAt = :expiresAt "
+      + "where p.id in :ids and p.owner = :owner and p.status = 'CLAIMED'")
+  public int renewClaims(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+      @Param("expiresAt") LocalDateTime expiresAt);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentPartition p set p.status = :status, p.result = :result, p.claimExpiresAt = null "
+      + "where p.id = :id and p.owner = :owner and p.attempts = :attempts and p.status = 'CLAIMED'")
+  public int finishClaim(@Param("id") Long id, @Param("owner") String owner, @Param("attempts") int attempts,
+      @Param("status") TimeAgentPartitionStatus status, @Param("result") String result);
+
+  // the expired claims without attempts left are not claimed again
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentPartition p set p.status = 'FAILED', p.result = :result where p.infoId = :infoId "
+      + "and p.status = 'CLAIMED' and p.claimExpiresAt < :now and p.attempts >= :maxAttempts")
+  public int failExhaustedClaims(@Param("infoId") Long infoId, @Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts, @Param("result") String result);
+
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentPartition p set p.status = 'FAILED', p.result = :result where p.infoId = :infoId "
+      + "and p.status in ('PENDING', 'CLAIMED')")
+  public int cancelPartitions(@Param("infoId") Long infoId, @Param("result") String result);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentProtocolToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * repository for the inverted index over the protocol messages.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentProtocolTokenRepository extends CrudRepository<TimeAgentProtocolToken, Long> {
+  @Query("select t.token from TimeAgentProtocolToken t where t.infoId = :infoId")
+  public List<String> findTokensByInfoId(@Param("infoId") Long infoId);
+
+  @Modifying
+  @Query("delete from TimeAgentProtocolToken t where t.infoId in :infoIds")
+  public int deleteByInfoIds(@Param("infoIds") Collection<Long> infoIds);
+}
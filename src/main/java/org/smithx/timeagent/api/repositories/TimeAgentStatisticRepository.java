@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticBucket;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the statistic table of the agent. the buckets are incremented
+ * by conditional updates, so that concurrent runs never lose an update.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentStatisticRepository extends CrudRepository<TimeAgentStatistic, Long> {
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentStatistic s set s.count = s.count + 1, s.sumDuration = s.sumDuration + :duration, "
+      + "s.minDuration = case when s.minDuration < :duration then s.minDuration else :duration end, "
+      + "s.maxDuration = case when s.maxDuration > :duration then s.maxDuration else :duration end, s.updatedAt = :now "
+      + "where s.agentName = :agentName and s.bucket = :bucket and s.bucketStart = :bucketStart and s.status = :status "
+      + "and s.executor = :executor")
+  public int addDuration(@Param("agentName") String agentName, @Param("bucket") TimeAgentStatisticBucket bucket,
+      @Param("bucketStart") LocalDateTime bucketStart, @Param("status") TimeAgentStatus status, @Param("executor") String executor,
+      @Param("duration") long duration, @Param("now") LocalDateTime now);
+
+  public List<TimeAgentStatistic> findByAgentNameAndBucketAndBucketStartBetweenOrderByBucketStartAsc(String agentName,
+      TimeAgentStatisticBucket bucket, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * repository for the named triggers of the agent. the triggers are loaded with
+ * their arguments by one query.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Repository
+public interface TimeAgentTriggerRepository extends CrudRepository<TimeAgentTrigger, Long> {
+  @Query("select distinct t from TimeAgentTrigger t left join fetch t.arguments where t.agentName = :agentName order by t.name")
+  public List<TimeAgentTrigger> findAllByAgentName(@Param("agentName") String agentName);
+
+  public TimeAgentTrigger findByAgentNameAndName(String agentName, String name);
+
+  // only the time is updated, so that a concurrent change of the trigger is kept
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentTrigger t set t.lastFireTime = :lastFireTime where t.id = :id")
+  public int updateLastFireTime(@Param("id") Long id, @Param("lastFireTime") LocalDateTime lastFireTime);
+
+  // only one of the instances sets a time of the crontrigger
+  @Transactional
+  @Modifying
+  @Query("update TimeAgentTrigger t set t.lastFireTime = :cronTime "
+      + "where t.id = :id and (t.lastFireTime is null or t.lastFireTime < :cronTime)")
+  public int claimFire(@Param("id") Long id, @Param("cronTime") LocalDateTime cronTime);
+}
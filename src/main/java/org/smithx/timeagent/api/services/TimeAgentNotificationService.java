@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import java.util.List;
+
+import org.smithx.timeagent.api.engines.TimeAgentMailEngine;
+import org.smithx.timeagent.api.engines.TimeAgentOutboxEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.springframework.stereotype.Service;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * service for the notifications about the runs by the protocol mail and the
+ * events of the outbox.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Service
+@AllArgsConstructor
+public class TimeAgentNotificationService {
+  private TimeAgentMailEngine mailEngine;
+  private TimeAgentOutboxEngine outboxEngine;
+
+  public void sendProtocol(TimeAgentInfo runInfo) {
+    mailEngine.sendProtocol(runInfo);
+  }
+
+  public List<TimeAgentOutboxEvent> getOutboxEvents(int limit) {
+    return outboxEngine.findPendingEvents(limit);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentException;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.threads.TimeAgentPartitionWorker;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+/**
+ * service for running the partitions of a run on the instances sharing the
+ * database.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Service
+public class TimeAgentPartitionService {
+  private TimeAgent agent;
+  private TimeAgentPartitionEngine partitionEngine;
+  private ThreadPoolTaskScheduler scheduler;
+  private TimeAgentValues agentValues;
+
+  private TimeAgentPartitionWorker partitionWorker;
+
+  public TimeAgentPartitionService(TimeAgent agent, TimeAgentPartitionEngine partitionEngine, ThreadPoolTaskScheduler scheduler,
+      TimeAgentValues agentValues) {
+    this.agent = agent;
+    this.partitionEngine = partitionEngine;
+    this.scheduler = scheduler;
+    this.agentValues = agentValues;
+  }
+
+  /**
+   * creates the worker, which writes the results to the infos of the service,
+   * and polls the partitions of the other instances when the partitions are
+   * enabled.
+   */
+  public void open(TimeAgentService service) {
+    PartitionValue partitionValue = agentValues.getPartition();
+    partitionWorker = new TimeAgentPartitionWorker(service, agent, partitionEngine, partitionValue.getWorkers(),
+        partitionValue.getPollInterval());
+    if (partitionValue.isEnabled()) {
+      scheduler.scheduleWithFixedDelay(partitionWorker::poll, partitionValue.getPollInterval());
+    }
+  }
+
+  /**
+   * runs the partitions of the run and waits until all of them are done.
+   */
+  public void runPartitions(TimeAgentInfo runInfo, List<String> partitionKeys, TimeAgentArgument... arguments)
+      throws TimeAgentException {
+    partitionWorker.runPartitions(runInfo, partitionKeys, arguments);
+  }
+
+  public List<TimeAgentPartition> getPartitions(Long infoId) {
+    return partitionEngine.findPartitions(infoId);
+  }
+
+  public void cancelPartitions(Long infoId) {
+    partitionEngine.cancelPartitions(infoId);
+  }
+
+  @PreDestroy
+  protected void close() {
+    if (partitionWorker != null) {
+      partitionWorker.close();
+    }
+  }
+
+}
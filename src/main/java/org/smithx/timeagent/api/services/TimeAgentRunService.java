@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.transaction.Transactional;
+
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.agent.TimeAgentRuntime;
+import org.smithx.timeagent.api.configuration.BatchValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentAdmissionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentBatchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMisfireEngine;
+import org.smithx.timeagent.api.engines.TimeAgentModelEngine;
+import org.smithx.timeagent.api.engines.TimeAgentStatisticEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentMisfire;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.threads.TimeAgentTriggerRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * service for the orchestration of the runs: the lease, the admission, the
+ * misfires and the batches of sub-runs.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Service
+public class TimeAgentRunService {
+  private TimeAgent agent;
+  private TimeAgentModelEngine modelEngine;
+  private TimeAgentStatisticEngine statisticEngine;
+  private TimeAgentTriggerEngine triggerEngine;
+  private TimeAgentMisfireEngine misfireEngine;
+  private TimeAgentLeaseEngine leaseEngine;
+  private TimeAgentAdmissionEngine admissionEngine;
+  private TimeAgentBatchEngine batchEngine;
+  private TimeAgentPartitionService partitionService;
+  private TimeAgentNotificationService notificationService;
+  private TimeAgentValues agentValues;
+
+  private TimeAgentRuntime agentRuntime;
+  private TimeAgentTriggerRunner triggerRunner;
+
+  public TimeAgentRunService(TimeAgent agent, TimeAgentModelEngine modelEngine, TimeAgentStatisticEngine statisticEngine,
+      TimeAgentTriggerEngine triggerEngine, TimeAgentMisfireEngine misfireEngine, TimeAgentLeaseEngine leaseEngine,
+      TimeAgentAdmissionEngine admissionEngine, TimeAgentBatchEngine batchEngine, TimeAgentPartitionService partitionService,
+      TimeAgentNotificationService notificationService, TimeAgentValues agentValues) {
+    this.agent = agent;
+    this.modelEngine = modelEngine;
+    this.statisticEngine = statisticEngine;
+    this.triggerEngine = triggerEngine;
+    this.misfireEngine = misfireEngine;
+    this.leaseEngine = leaseEngine;
+    this.admissionEngine = admissionEngine;
+    this.batchEngine = batchEngine;
+    this.partitionService = partitionService;
+    this.notificationService = notificationService;
+    this.agentValues = agentValues;
+  }
+
+  /**
+   * creates the runtime and the runner of the agent, which write to the infos
+   * of the service.
+   */
+  public void open(TimeAgentService service) {
+    agentRuntime = new TimeAgentRuntime(service, notificationService, agent);
+    triggerRunner = new TimeAgentTriggerRunner(service, agentRuntime, triggerEngine, misfireEngine, leaseEngine, admissionEngine,
+        agentValues);
+  }
+
+  public void run(TimeAgentArgument... arguments) {
+    triggerRunner.run(arguments);
+  }
+
+  /**
+   * runs the agent on the calling thread.
+   */
+  public void runAgent(TimeAgentArgument... arguments) {
+    agentRuntime.run(arguments);
+  }
+
+  public boolean fire(TimeAgentTrigger trigger) {
+    return triggerRunner.fire(trigger);
+  }
+
+  public void fire(TimeAgentTrigger trigger, LocalDateTime cronTime) {
+    triggerRunner.fire(trigger, cronTime);
+  }
+
+  public void fireMissed(TimeAgentTrigger trigger, LocalDateTime now) {
+    triggerRunner.fireMissed(trigger, now);
+  }
+
+  /**
+   * returns true, while the agent is running or a run is waiting.
+   */
+  public boolean isBusy() {
+    return triggerRunner.isActive() || triggerRunner.getPendingRuns() > 0;
+  }
+
+  /**
+   * starts a sub-run for every argument set besides the other runs of the agent
+   * and returns the handle of the batch at once.
+   */
+  public TimeAgentBatch runBatch(List<List<TimeAgentArgument>> argumentSets, Integer parallelism) {
+    BatchValue batchValue = agentValues.getBatch();
+    if (argumentSets == null || argumentSets.isEmpty() || argumentSets.size() > batchValue.getMaxSize()) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_BATCH,
+          String.format("the batch must have 1 to %d argument sets", batchValue.getMaxSize()));
+    }
+    int workers = parallelism == null ? batchValue.getParallelism() : parallelism;
+    if (workers < 1 || workers > batchValue.getMaxParallelism()) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_BATCH,
+          String.format("the parallelism must be between 1 and %d", batchValue.getMaxParallelism()));
+    }
+
+    List<TimeAgentArgument[]> subRuns = argumentSets.stream()
+        .map(arguments -> arguments == null ? new TimeAgentArgument[0] : arguments.toArray(new TimeAgentArgument[0]))
+        .collect(Collectors.toList());
+    TimeAgentBatch batch = batchEngine.createBatch(subRuns.size(), Math.min(workers, subRuns.size()));
+    try {
+      triggerRunner.runBatch(batch, subRuns, batchEngine::finishBatch);
+    } catch (TimeAgentRuntimeException exception) {
+      batch.cancelPending();
+      batchEngine.finishBatch(batch);
+      throw exception;
+    }
+    return batch;
+  }
+
+  public TimeAgentBatch getBatch(Long id) {
+    return batchEngine.findBatch(id);
+  }
+
+  public List<TimeAgentAdmission> getAdmissions() {
+    return admissionEngine.findAdmissions();
+  }
+
+  public List<TimeAgentMisfire> getMisfires(int limit) {
+    return misfireEngine.findMisfires(limit);
+  }
+
+  @Transactional
+  public void recoverAgentInfo() {
+    if (leaseEngine.isLeaseHeldByOther()) {
+      // the running info belongs to the run of another instance
+      return;
+    }
+    for (TimeAgentInfo recoveredInfo : modelEngine.recoverAgentInfo()) {
+      partitionService.cancelPartitions(recoveredInfo.getId());
+      statisticEngine.updateStatistic(recoveredInfo);
+    }
+  }
+
+  @PreDestroy
+  protected void close() {
+    if (triggerRunner != null) {
+      triggerRunner.close();
+    }
+  }
+
+}
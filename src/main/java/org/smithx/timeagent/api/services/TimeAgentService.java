@@ -15,27 +15,64 @@
  */
 package org.smithx.timeagent.api.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
 
-import org.smithx.timeagent.api.agent.TimeAgent;
-import org.smithx.timeagent.api.agent.TimeAgentRuntime;
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.configuration.WatchValue;
+import org.smithx.timeagent.api.engines.TimeAgentArchiveEngine;
+import org.smithx.timeagent.api.engines.TimeAgentDependencyEngine;
+import org.smithx.timeagent.api.engines.TimeAgentExportEngine;
 import org.smithx.timeagent.api.engines.TimeAgentModelEngine;
 import org.smithx.timeagent.api.engines.TimeAgentSearchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentSnapshotEngine;
+import org.smithx.timeagent.api.engines.TimeAgentStatisticEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentException;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentExportFormat;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.smithx.timeagent.api.models.TimeAgentOverlapPolicy;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticSearch;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
-import org.smithx.timeagent.api.threads.TimeAgentRunnable;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.threads.TimeAgentFileWatcher;
+import org.smithx.timeagent.api.threads.TimeAgentJitterTrigger;
+import org.smithx.timeagent.api.threads.TimeAgentTimerWheelScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.support.CronSequenceGenerator;
-import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -52,34 +89,88 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class TimeAgentService {
-  private TimeAgent agent;
-  private TimeAgentInfo agentInfo;
+  public static final String DEPENDENCY_TRIGGER = "upstream";
+  public static final String FILE_TRIGGER = "files";
+
+  // current info, which is changed and published under its own lock
+  private volatile TimeAgentInfo agentInfo;
   private TimeAgentModelEngine modelEngine;
   private TimeAgentSearchEngine searchEngine;
+  private TimeAgentStatisticEngine statisticEngine;
+  private TimeAgentExportEngine exportEngine;
+  private TimeAgentArchiveEngine archiveEngine;
+  private TimeAgentSnapshotEngine snapshotEngine;
+  private TimeAgentTriggerEngine triggerEngine;
+  private TimeAgentDependencyEngine dependencyEngine;
+  private TimeAgentRunService runService;
+  private TimeAgentPartitionService partitionService;
+  private TimeAgentValues agentValues;
 
   @Getter
   private TimeAgentMessages messages;
 
-  private TimeAgentRunnable agentRunnable;
+  private TimeAgentFileWatcher fileWatcher;
+  // info of a concurrent run, which is bound to the pooled thread of the run and removed after it
+  private final ThreadLocal<TimeAgentInfo> concurrentInfo = new ThreadLocal<>();
   private ThreadPoolTaskScheduler scheduler;
+  // scheduler of the triggers, the timer wheel when it is configured
+  private TaskScheduler triggerScheduler;
   private ScheduledFuture<?> future;
+  private Map<String, ScheduledFuture<?>> triggerFutures = new ConcurrentHashMap<>();
+  // times of the next fires including the jitter
+  private volatile LocalDateTime scheduledExecution;
+  private Map<String, LocalDateTime> scheduledExecutions = new ConcurrentHashMap<>();
+  private ThreadPoolTaskExecutor queryExecutor;
 
-  public TimeAgentService(TimeAgent agent, TimeAgentModelEngine modelEngine, TimeAgentSearchEngine searchEngine,
-      ThreadPoolTaskScheduler scheduler, TimeAgentMessages messages) {
-    this.agent = agent;
+  public TimeAgentService(TimeAgentModelEngine modelEngine, TimeAgentSearchEngine searchEngine,
+      TimeAgentStatisticEngine statisticEngine, TimeAgentExportEngine exportEngine, TimeAgentArchiveEngine archiveEngine,
+      TimeAgentSnapshotEngine snapshotEngine, TimeAgentTriggerEngine triggerEngine, TimeAgentDependencyEngine dependencyEngine,
+      TimeAgentRunService runService, TimeAgentPartitionService partitionService, ThreadPoolTaskScheduler scheduler,
+      Optional<TimeAgentTimerWheelScheduler> timerWheelScheduler, @Qualifier("queryTaskExecutor") ThreadPoolTaskExecutor queryExecutor,
+      TimeAgentValues agentValues, TimeAgentMessages messages) {
     this.modelEngine = modelEngine;
     this.searchEngine = searchEngine;
+    this.statisticEngine = statisticEngine;
+    this.exportEngine = exportEngine;
+    this.archiveEngine = archiveEngine;
+    this.snapshotEngine = snapshotEngine;
+    this.triggerEngine = triggerEngine;
+    this.dependencyEngine = dependencyEngine;
+    this.runService = runService;
+    this.partitionService = partitionService;
     this.scheduler = scheduler;
+    this.triggerScheduler = timerWheelScheduler.isPresent() ? timerWheelScheduler.get() : scheduler;
+    this.queryExecutor = queryExecutor;
+    this.agentValues = agentValues;
     this.messages = messages;
   }
 
   public TimeAgentInfo getAgentInfo() {
-    return agentInfo;
+    TimeAgentInfo runInfo = concurrentInfo.get();
+    return runInfo == null ? agentInfo : runInfo;
+  }
+
+  public TimeAgentInfoSnapshot getAgentInfoSnapshot() {
+    return snapshotEngine.getSnapshot();
+  }
+
+  public CompletableFuture<TimeAgentInfoSnapshot> awaitAgentInfoSnapshot(String ifNoneMatch, long wait) {
+    long timeout = Math.min(Math.max(wait, 0), agentValues.getQuery().getMaxPollWait());
+    TimeAgentInfoSnapshot current = snapshotEngine.getSnapshot();
+    // an unchanged snapshot after the timeout is answered with 304 by its etag
+    return snapshotEngine.awaitChange(ifNoneMatch).completeOnTimeout(current, timeout, TimeUnit.MILLISECONDS);
   }
 
   public TimeAgentInfo updateAgentInfo() {
-    agentInfo = modelEngine.updateAgentInfo(agentInfo);
-    return agentInfo;
+    return updateAgentInfo(runInfo -> modelEngine.updateRunInfo(runInfo, null));
+  }
+
+  /**
+   * updates the info with a new status of the run and writes its event to the
+   * outbox.
+   */
+  public TimeAgentInfo updateAgentInfo(TimeAgentEventType eventType) {
+    return updateAgentInfo(runInfo -> modelEngine.updateRunInfo(runInfo, eventType));
   }
 
   public List<TimeAgentInfo> searchInfo(TimeAgentInfoSearch searchModel) {
@@ -89,12 +180,59 @@ public class TimeAgentService {
     return searchEngine.searchAgentInfo(searchModel);
   }
 
+  public CompletableFuture<List<TimeAgentInfo>> searchInfoAsync(TimeAgentInfoSearch searchModel) {
+    long timeout = agentValues.getQuery().getSearchTimeout();
+    try {
+      return CompletableFuture.supplyAsync(() -> searchInfo(searchModel), queryExecutor)
+          .orTimeout(timeout, TimeUnit.MILLISECONDS)
+          .exceptionally(error -> {
+            if (error instanceof TimeoutException) {
+              log.warn(messages.getMessage("log.query.timeout", searchModel, timeout));
+              throw new TimeAgentRuntimeException(TimeAgentExceptionCause.QUERY_TIMEOUT,
+                  String.format("search did not finish within %d ms", timeout));
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+          });
+    } catch (TaskRejectedException exception) {
+      log.warn(messages.getMessage("log.query.rejected", searchModel));
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.QUERY_REJECTED, "too many searches are running, try again later");
+    }
+  }
+
+  public long exportInfo(TimeAgentInfoSearch searchModel, TimeAgentExportFormat format, boolean withProtocol, OutputStream outputStream)
+      throws IOException {
+    return exportEngine.exportAgentInfo(searchModel, format, withProtocol, outputStream);
+  }
+
+  public int archiveInfo() {
+    int archived = 0;
+    int rows;
+    // every segment is archived in its own transaction
+    while ((rows = archiveEngine.archiveSegment()) > 0) {
+      archived += rows;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.archive.end", archived));
+    }
+    return archived;
+  }
+
+  public void updateStatistic() {
+    statisticEngine.updateStatistic(getAgentInfo());
+  }
+
+  public List<TimeAgentStatistic> searchStatistic(TimeAgentStatisticSearch searchModel) {
+    return statisticEngine.searchStatistic(searchModel);
+  }
+
   public TimeAgentInfo deleteTrigger() {
     if (cancelTriggerOk()) {
       if (log.isDebugEnabled()) {
         log.debug(messages.getMessage("log.delete.trigger"));
       }
-      return modelEngine.saveTriggerToAgentInfo(null, this.agentInfo);
+      TimeAgentInfo triggerInfo = saveTriggerToAgentInfo(null);
+      publishAgentInfo();
+      return triggerInfo;
     }
     throw new TimeAgentRuntimeException(TimeAgentExceptionCause.CANCEL_TRIGGER, "error on trigger cancellation");
   }
@@ -103,39 +241,294 @@ public class TimeAgentService {
     if (CronSequenceGenerator.isValidExpression(trigger)) {
       if (cancelTriggerOk()) {
         scheduleTrigger(trigger);
-        return modelEngine.saveTriggerToAgentInfo(trigger, this.agentInfo);
+        TimeAgentInfo triggerInfo = saveTriggerToAgentInfo(trigger);
+        publishAgentInfo();
+        return triggerInfo;
       }
     }
     throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_TRIGGER, String.format("invalid trigger: ", trigger));
   }
 
+  public List<TimeAgentTrigger> getTriggers() {
+    return triggerEngine.findTriggers().stream().map(this::withScheduledExecution).collect(Collectors.toList());
+  }
+
+  public TimeAgentTrigger getTrigger(String name) {
+    return withScheduledExecution(triggerEngine.findTrigger(name));
+  }
+
+  public synchronized TimeAgentTrigger saveTrigger(String name, TimeAgentTrigger trigger) {
+    TimeAgentTrigger savedTrigger = triggerEngine.saveTrigger(name, trigger);
+    scheduleTrigger(savedTrigger);
+    return withScheduledExecution(savedTrigger);
+  }
+
+  public synchronized TimeAgentTrigger deleteTrigger(String name) {
+    TimeAgentTrigger trigger = triggerEngine.deleteTrigger(name);
+    cancelTrigger(name);
+    return trigger;
+  }
+
   public void run(TimeAgentArgument... arguments) {
     isAlreadyRunning();
-    agentRunnable.setArguments(arguments);
-    new Thread(agentRunnable).start();
+    runService.run(arguments);
+  }
+
+  /**
+   * runs the partitions of the current run on the instances sharing the
+   * database and waits until all of them are done.
+   */
+  public void runPartitions(List<String> partitionKeys, TimeAgentArgument... arguments) throws TimeAgentException {
+    partitionService.runPartitions(getAgentInfo(), partitionKeys, arguments);
+  }
+
+  public List<TimeAgentDependency> getDependencies() {
+    return dependencyEngine.findDependencies();
+  }
+
+  public List<TimeAgentDependency> saveDependencies(List<String> upstreamNames) {
+    return dependencyEngine.saveDependencies(upstreamNames);
+  }
+
+  /**
+   * fires the agent, when all its upstream agents have ended a run since the
+   * last fire. the run is skipped and saved as aborted, when one of the
+   * upstream runs has not finished, so that the skip reaches the agents further
+   * downstream.
+   */
+  public void fireDependencies() {
+    List<TimeAgentDependency> dependencies = dependencyEngine.findDependencies();
+    if (dependencies.isEmpty()) {
+      return;
+    }
+    List<TimeAgentInfo> upstreamRuns = dependencyEngine.findUpstreamRuns(dependencies);
+    if (upstreamRuns == null || !dependencyEngine.markFired(dependencies, LocalDateTime.now())) {
+      return;
+    }
+
+    List<TimeAgentInfo> failedRuns = upstreamRuns.stream()
+        .filter(upstreamRun -> !TimeAgentStatus.FINISHED.equals(upstreamRun.getStatus()))
+        .collect(Collectors.toList());
+    if (failedRuns.isEmpty()) {
+      String upstream = upstreamRuns.stream()
+          .map(upstreamRun -> upstreamRun.getAgentName() + ":" + upstreamRun.getId())
+          .collect(Collectors.joining(","));
+      log.info(messages.getMessage("log.dependency.fire", upstream));
+      TimeAgentTrigger dependencyTrigger = new TimeAgentTrigger(agentValues.getAgentName(), DEPENDENCY_TRIGGER, null,
+          new TimeAgentArgument(DEPENDENCY_TRIGGER, upstream));
+      dependencyTrigger.setOverlapPolicy(TimeAgentOverlapPolicy.QUEUE_ONE);
+      runService.fire(dependencyTrigger);
+    } else {
+      skipDependencies(failedRuns);
+    }
+  }
+
+  /**
+   * fires the agent with the arrived files as arguments. returns false, while
+   * the agent is running or when the run is not accepted, so that the files are
+   * kept for the next batch.
+   */
+  public boolean fireFiles(List<Path> files) {
+    if (runService.isBusy()) {
+      return false;
+    }
+    String argumentKey = agentValues.getWatch().getArgumentKey();
+    TimeAgentTrigger fileTrigger = new TimeAgentTrigger(agentValues.getAgentName(), FILE_TRIGGER, null, files.stream()
+        .map(file -> new TimeAgentArgument(argumentKey, file.toAbsolutePath().toString()))
+        .toArray(TimeAgentArgument[]::new));
+    // a run started by another trigger in between takes the files afterwards
+    fileTrigger.setOverlapPolicy(TimeAgentOverlapPolicy.QUEUE_ONE);
+    return runService.fire(fileTrigger);
+  }
+
+  /**
+   * runs the agent with its own info besides the current run. the info is bound
+   * to the thread of the run, so that the agent writes to it by getAgentInfo.
+   */
+  public TimeAgentInfo runConcurrently(Long fencingToken, TimeAgentArgument... arguments) {
+    return runConcurrently(fencingToken, null, arguments);
+  }
+
+  /**
+   * runs the agent concurrently as sub-run of the batch with the parent id and
+   * returns the info of the run.
+   */
+  public TimeAgentInfo runConcurrently(Long fencingToken, Long parentId, TimeAgentArgument... arguments) {
+    TimeAgentInfo runInfo = modelEngine.createAgentInfo();
+    runInfo.setFencingToken(fencingToken);
+    runInfo.setParentId(parentId);
+    concurrentInfo.set(runInfo);
+    try {
+      runService.runAgent(arguments);
+      return concurrentInfo.get();
+    } finally {
+      concurrentInfo.remove();
+    }
+  }
+
+  /**
+   * drops the info of a run fenced by the lease without writing it, because the
+   * new holder of the lease owns the stored infos. the current info is prepared
+   * for the next run in memory, the info of a concurrent run is marked as
+   * interrupted.
+   */
+  public void dropAgentInfo() {
+    if (concurrentInfo.get() != null) {
+      concurrentInfo.get().setStatus(TimeAgentStatus.INTERRUPTED);
+      return;
+    }
+    TimeAgentInfo currentInfo = agentInfo;
+    synchronized (currentInfo) {
+      currentInfo.init();
+    }
+    publishAgentInfo();
   }
 
   @Transactional
   public void initAgentInfo() {
+    if (concurrentInfo.get() != null) {
+      // only the current run prepares the next info
+      return;
+    }
     agentInfo = modelEngine.nextAgentInfo();
     scheduleTrigger(agentInfo.getCrontrigger());
+    publishAgentInfo();
     if (log.isDebugEnabled()) {
       log.debug(messages.getMessage("log.init.agent", agentInfo));
     }
   }
 
   public void isAlreadyRunning() {
-    if (TimeAgentStatus.RUNNING.equals(agentInfo.getStatus())) {
+    if (TimeAgentStatus.RUNNING.equals(getAgentInfo().getStatus())) {
       log.warn("agent is already running");
       throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ALREADY_RUNNING,
-          "the agent is already running since " + agentInfo.getStartTimeExecution());
+          "the agent is already running since " + getAgentInfo().getStartTimeExecution());
     }
   }
 
   @PostConstruct
   protected void initAgent() {
-    agentRunnable = new TimeAgentRunnable(new TimeAgentRuntime(this, agent));
+    if (TimeAgentJitterMode.RANDOM.equals(agentValues.getJitter().getMode()) && agentValues.getLease().isEnabled()) {
+      // the instances sharing the lease must compute the same fires
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_TRIGGER,
+          "the random jitter cannot be the default jitter, when the lease is enabled");
+    }
+    runService.open(this);
+    partitionService.open(this);
+    runService.recoverAgentInfo();
     initAgentInfo();
+    scheduleTriggers();
+    scheduleArchive();
+    scheduleDependencies();
+    watchFiles();
+  }
+
+  @PreDestroy
+  protected void closeAgent() {
+    if (fileWatcher != null) {
+      fileWatcher.close();
+    }
+  }
+
+  private void scheduleDependencies() {
+    if (!agentValues.getDependency().getUpstream().isEmpty()) {
+      try {
+        saveDependencies(agentValues.getDependency().getUpstream());
+      } catch (TimeAgentRuntimeException exception) {
+        log.error(messages.getMessage("log.dependency.failed"), exception);
+      }
+    }
+    if (agentValues.getDependency().getPollInterval() > 0) {
+      scheduler.scheduleWithFixedDelay(() -> {
+        try {
+          fireDependencies();
+        } catch (RuntimeException exception) {
+          log.error(messages.getMessage("log.dependency.failed"), exception);
+        }
+      }, agentValues.getDependency().getPollInterval());
+    }
+  }
+
+  private void watchFiles() {
+    WatchValue watchValue = agentValues.getWatch();
+    if (!watchValue.isEnabled()) {
+      return;
+    }
+    fileWatcher = new TimeAgentFileWatcher(Paths.get(watchValue.getDirectory()), watchValue.getPattern(),
+        watchValue.getDebounce(), watchValue.getMaxWait(), watchValue.getMaxBatch(), this::fireFiles, messages);
+    try {
+      fileWatcher.start();
+    } catch (IOException exception) {
+      log.error(messages.getMessage("log.watch.failed", watchValue.getDirectory()), exception);
+      fileWatcher = null;
+    }
+  }
+
+  private void skipDependencies(List<TimeAgentInfo> failedRuns) {
+    LocalDateTime now = LocalDateTime.now();
+    TimeAgentInfo skippedInfo = modelEngine.createAgentInfo();
+    skippedInfo.setStatus(TimeAgentStatus.ABORTED);
+    skippedInfo.setStartTimeExecution(now);
+    skippedInfo.setFinishTimeExecution(now);
+    for (TimeAgentInfo failedRun : failedRuns) {
+      skippedInfo.addProtocol(messages.getMessage("protocol.dependency.skipped", failedRun.getAgentName(), failedRun.getId(),
+          failedRun.getStatus()));
+    }
+    skippedInfo = modelEngine.updateAgentInfo(skippedInfo);
+    statisticEngine.updateStatistic(skippedInfo);
+    log.warn(messages.getMessage("log.dependency.skip", failedRuns.size()));
+  }
+
+  private void scheduleArchive() {
+    if (agentValues.getArchive().isEnabled()) {
+      // the archiver runs on the query executor to keep the scheduler free for the trigger
+      TimeAgentJitterTrigger archiveTrigger = new TimeAgentJitterTrigger(agentValues.getArchive().getTrigger(),
+          TimeAgentJitterMode.NONE, 0, agentValues.getAgentName(), null);
+      triggerScheduler.schedule(() -> {
+        LocalDateTime cronTime = archiveTrigger.getCronTime();
+        queryExecutor.execute(() -> {
+          if (archiveEngine.claimArchive(cronTime)) {
+            archiveInfo();
+          }
+        });
+      }, archiveTrigger);
+    }
+  }
+
+  private void scheduleTriggers() {
+    // all triggers are loaded with their arguments by one query
+    List<TimeAgentTrigger> triggers = triggerEngine.findTriggers();
+    LocalDateTime now = LocalDateTime.now();
+    for (TimeAgentTrigger trigger : triggers) {
+      if (trigger.isEnabled()) {
+        runService.fireMissed(trigger, now);
+      }
+      scheduleTrigger(trigger);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.trigger.schedule", triggers.size(), triggerFutures.size()));
+    }
+  }
+
+  private void scheduleTrigger(TimeAgentTrigger trigger) {
+    cancelTrigger(trigger.getName());
+    if (trigger.isEnabled()) {
+      TimeAgentJitterTrigger jitterTrigger = jitterTrigger(trigger.getCrontrigger(), trigger.getJitterMode(),
+          trigger.getJitterWindow(), trigger.getName(), fireTime -> scheduledExecutions.put(trigger.getName(), fireTime));
+      ScheduledFuture<?> triggerFuture = triggerScheduler.schedule(() -> runService.fire(trigger, jitterTrigger.getCronTime()),
+          jitterTrigger);
+      if (triggerFuture != null) {
+        triggerFutures.put(trigger.getName(), triggerFuture);
+      }
+    }
+  }
+
+  private void cancelTrigger(String name) {
+    ScheduledFuture<?> triggerFuture = triggerFutures.remove(name);
+    scheduledExecutions.remove(name);
+    if (triggerFuture != null) {
+      triggerFuture.cancel(false);
+    }
   }
 
   private boolean cancelTriggerOk() {
@@ -144,7 +537,68 @@ public class TimeAgentService {
 
   private void scheduleTrigger(String trigger) {
     if (!StringUtils.isEmpty(trigger)) {
-      future = scheduler.schedule(agentRunnable, new CronTrigger(trigger));
+      // the next info schedules the same crontrigger again
+      cancelTriggerOk();
+      TimeAgentTrigger infoTrigger = new TimeAgentTrigger(agentValues.getAgentName(), null, trigger);
+      // the snapshot holds the next execution, so every scheduled fire publishes it again
+      TimeAgentJitterTrigger jitterTrigger = jitterTrigger(trigger, null, 0, null, fireTime -> {
+        scheduledExecution = fireTime;
+        publishAgentInfo();
+      });
+      future = triggerScheduler.schedule(() -> runService.fire(infoTrigger, jitterTrigger.getCronTime()), jitterTrigger);
+    }
+  }
+
+  private TimeAgentJitterTrigger jitterTrigger(String crontrigger, TimeAgentJitterMode jitterMode, long jitterWindow, String name,
+      Consumer<LocalDateTime> listener) {
+    if (jitterMode == null) {
+      // a trigger without its own jitter uses the default jitter
+      jitterMode = agentValues.getJitter().getMode();
+      jitterWindow = agentValues.getJitter().getWindow();
+    }
+    // the seed is the same on all instances, so that they compute the same fires
+    String seed = name == null ? agentValues.getAgentName() : agentValues.getAgentName() + ":" + name;
+    return new TimeAgentJitterTrigger(crontrigger, jitterMode, jitterWindow, seed, listener);
+  }
+
+  private TimeAgentTrigger withScheduledExecution(TimeAgentTrigger trigger) {
+    trigger.setScheduledExecution(scheduledExecutions.get(trigger.getName()));
+    return trigger;
+  }
+
+  private TimeAgentInfo updateAgentInfo(UnaryOperator<TimeAgentInfo> update) {
+    if (concurrentInfo.get() != null) {
+      TimeAgentInfo runInfo = update.apply(concurrentInfo.get());
+      concurrentInfo.set(runInfo);
+      return runInfo;
+    }
+    TimeAgentInfo currentInfo = agentInfo;
+    synchronized (currentInfo) {
+      agentInfo = update.apply(currentInfo);
+    }
+    publishAgentInfo();
+    return agentInfo;
+  }
+
+  private TimeAgentInfo saveTriggerToAgentInfo(String trigger) {
+    TimeAgentInfo currentInfo = agentInfo;
+    synchronized (currentInfo) {
+      return modelEngine.saveTriggerToAgentInfo(trigger, currentInfo);
+    }
+  }
+
+  /**
+   * serializes the current info under its lock, so that neither the run nor a
+   * request changes it meanwhile.
+   */
+  private void publishAgentInfo() {
+    TimeAgentInfo currentInfo = agentInfo;
+    if (currentInfo == null) {
+      return;
+    }
+    synchronized (currentInfo) {
+      currentInfo.setScheduledExecution(scheduledExecution);
+      snapshotEngine.publish(currentInfo);
     }
   }
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.sinks;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+
+/**
+ * sink for the lifecycle events of the runs from the outbox. every bean of
+ * this type gets the events, the delivery of a batch is tried again, as long
+ * as one of the sinks fails. so a sink can get an event more than once.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public interface TimeAgentEventSink {
+  /**
+   * returns the name of the sink for the log.
+   */
+  public String getName();
+
+  /**
+   * delivers the events of one agent in the order of the list.
+   */
+  public void deliver(List<TimeAgentOutboxEvent> events) throws IOException;
+}
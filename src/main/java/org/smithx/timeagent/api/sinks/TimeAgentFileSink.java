@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * sink appending the events as ndjson to the file set by the property
+ * 'timeagent.values.outbox.file-path'. a batch is written by one write and
+ * forced to the disk, before the events are deleted from the outbox.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@ConditionalOnProperty(prefix = "timeagent.values.outbox", name = "file-path")
+public class TimeAgentFileSink implements TimeAgentEventSink {
+  private final Path file;
+  private final ObjectMapper mapper;
+
+  public TimeAgentFileSink(TimeAgentValues agentValues, ObjectMapper mapper) {
+    this.file = Paths.get(agentValues.getOutbox().getFilePath());
+    this.mapper = mapper;
+  }
+
+  @Override
+  public String getName() {
+    return file.toString();
+  }
+
+  @Override
+  public synchronized void deliver(List<TimeAgentOutboxEvent> events) throws IOException {
+    ByteArrayOutputStream lines = new ByteArrayOutputStream();
+    for (TimeAgentOutboxEvent event : events) {
+      lines.write(mapper.writeValueAsBytes(event));
+      lines.write('\n');
+    }
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND)) {
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+  }
+}
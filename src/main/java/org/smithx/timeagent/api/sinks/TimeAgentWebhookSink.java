@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.sinks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.smithx.timeagent.api.configuration.OutboxValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * sink posting a batch of events as json array to the webhook set by the
+ * property 'timeagent.values.outbox.webhook-url'. every answer other than 2xx
+ * fails the delivery.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@ConditionalOnProperty(prefix = "timeagent.values.outbox", name = "webhook-url")
+public class TimeAgentWebhookSink implements TimeAgentEventSink {
+  private final URI webhookUrl;
+  private final Duration timeout;
+  private final ObjectMapper mapper;
+  private final HttpClient httpClient;
+
+  public TimeAgentWebhookSink(TimeAgentValues agentValues, ObjectMapper mapper) {
+    OutboxValue outboxValue = agentValues.getOutbox();
+    this.webhookUrl = URI.create(outboxValue.getWebhookUrl());
+    this.timeout = Duration.ofMillis(outboxValue.getWebhookTimeout());
+    this.mapper = mapper;
+    this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+  }
+
+  @Override
+  public String getName() {
+    return webhookUrl.toString();
+  }
+
+  @Override
+  public void deliver(List<TimeAgentOutboxEvent> events) throws IOException {
+    HttpRequest request = HttpRequest.newBuilder(webhookUrl)
+        .timeout(timeout)
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(events)))
+        .build();
+    HttpResponse<Void> response;
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("the delivery to the webhook was interrupted", exception);
+    }
+    if (response.statusCode() / 100 != 2) {
+      throw new IOException(String.format("the webhook answered with status %d", response.statusCode()));
+    }
+  }
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * immutable segment file of archived infos. the values are stored column by
+ * column and every column is compressed on its own, so that a search only
+ * inflates the columns of its filter, before the other columns are read for
+ * the matching rows. the uncompressed header holds the agent name, the range
+ * of ids and start times and the contained status to skip a segment without
+ * reading its columns. the columns added later are appended, so that they are
+ * read as empty from an older segment. the ids of the protocol lines are not
+ * kept, the lines keep their time of creation.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Getter
+public class TimeAgentArchiveSegment {
+  public static final String FILE_EXTENSION = ".tas";
+
+  public static final Comparator<TimeAgentInfo> BY_UPDATED_AT = Comparator
+      .comparing(TimeAgentInfo::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(TimeAgentInfo::getId, Comparator.nullsFirst(Comparator.naturalOrder())).reversed();
+
+  private static final int MAGIC = 0x54415331;
+
+  private Path file;
+  private String agentName;
+  private int rows;
+  private long minId;
+  private long maxId;
+  private int statusMask;
+  private LocalDateTime minStartTime;
+  private LocalDateTime maxStartTime;
+  @Getter(AccessLevel.NONE)
+  private long[] columnOffsets;
+  @Getter(AccessLevel.NONE)
+  private int[] columnLengths;
+
+  private TimeAgentArchiveSegment() {
+  }
+
+  /**
+   * writes the infos ordered by id into a new segment file of the directory.
+   * the file is written under a unique temporary name and moved into place at
+   * last, so that an incomplete segment is never opened.
+   */
+  public static TimeAgentArchiveSegment write(Path directory, String agentName, List<TimeAgentInfo> agentInfos) throws IOException {
+    long minId = agentInfos.get(0).getId();
+    long maxId = agentInfos.get(agentInfos.size() - 1).getId();
+    int statusMask = 0;
+    LocalDateTime minStartTime = null;
+    LocalDateTime maxStartTime = null;
+    for (TimeAgentInfo agentInfo : agentInfos) {
+      statusMask |= 1 << agentInfo.getStatus().ordinal();
+      LocalDateTime startTime = agentInfo.getStartTimeExecution();
+      if (startTime != null) {
+        minStartTime = minStartTime == null || startTime.isBefore(minStartTime) ? startTime : minStartTime;
+        maxStartTime = maxStartTime == null || startTime.isAfter(maxStartTime) ? startTime : maxStartTime;
+      }
+    }
+
+    List<byte[]> columns = new ArrayList<>();
+    for (Column column : Column.values()) {
+      columns.add(compress(column, agentInfos));
+    }
+
+    Files.createDirectories(directory);
+    Path file = directory.resolve(String.format("%s-%d-%d%s", agentName, minId, maxId, FILE_EXTENSION));
+    Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(temporaryFile))) {
+      output.writeInt(MAGIC);
+      writeString(output, agentName);
+      output.writeInt(agentInfos.size());
+      output.writeLong(minId);
+      output.writeLong(maxId);
+      output.writeInt(statusMask);
+      writeTime(output, minStartTime);
+      writeTime(output, maxStartTime);
+      output.writeInt(columns.size());
+      for (byte[] column : columns) {
+        output.writeInt(column.length);
+      }
+      for (byte[] column : columns) {
+        output.write(column);
+      }
+    }
+    Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+    return open(file);
+  }
+
+  /**
+   * reads the header of the segment file.
+   */
+  public static TimeAgentArchiveSegment open(Path file) throws IOException {
+    TimeAgentArchiveSegment segment = new TimeAgentArchiveSegment();
+    segment.file = file;
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException(String.format("%s is no archive segment", file));
+      }
+      segment.agentName = readString(input);
+      segment.rows = input.readInt();
+      segment.minId = input.readLong();
+      segment.maxId = input.readLong();
+      segment.statusMask = input.readInt();
+      segment.minStartTime = readTime(input);
+      segment.maxStartTime = readTime(input);
+
+      int columnCount = input.readInt();
+      segment.columnLengths = new int[columnCount];
+      for (int column = 0; column < columnCount; column++) {
+        segment.columnLengths[column] = input.readInt();
+      }
+
+      // the columns follow the header in their order
+      long offset = Files.size(file);
+      for (int length : segment.columnLengths) {
+        offset -= length;
+      }
+      segment.columnOffsets = new long[columnCount];
+      for (int column = 0; column < columnCount; column++) {
+        segment.columnOffsets[column] = offset;
+        offset += segment.columnLengths[column];
+      }
+    }
+    return segment;
+  }
+
+  /**
+   * returns false, if the header shows that no info of the segment can match
+   * the search model.
+   */
+  public boolean mayContain(String agentName, TimeAgentInfoSearch searchModel) {
+    if (!this.agentName.equals(agentName)) {
+      return false;
+    }
+    if (searchModel.getStatus() != null && (statusMask & 1 << searchModel.getStatus().ordinal()) == 0) {
+      return false;
+    }
+    LocalDateTime from = searchModel.getFromStartTimeExecution();
+    LocalDateTime to = searchModel.getToStartTimeExecution();
+    if ((from != null || to != null) && minStartTime == null) {
+      return false;
+    }
+    return (from == null || !maxStartTime.isBefore(from)) && (to == null || !minStartTime.isAfter(to));
+  }
+
+  /**
+   * returns the infos of the segment matching the search model and the filter
+   * of the protocol, ordered by the last update descending and limited by the
+   * limit of the search model.
+   */
+  public List<TimeAgentInfo> search(TimeAgentInfoSearch searchModel, Predicate<TimeAgentInfo> protocolFilter) throws IOException {
+    // the protocol is only inflated for its filter or the requested fields
+    boolean withProtocol = protocolFilter != null || searchModel.isWithProtocol();
+    try (RandomAccessFile input = new RandomAccessFile(file.toFile(), "r")) {
+      Map<Column, Object[]> values = new HashMap<>();
+      List<TimeAgentInfo> result = new ArrayList<>();
+      for (int row : match(input, searchModel, values)) {
+        TimeAgentInfo agentInfo = row(input, values, row, withProtocol);
+        if (protocolFilter == null || protocolFilter.test(agentInfo)) {
+          result.add(agentInfo);
+        }
+      }
+      result.sort(BY_UPDATED_AT);
+      return result.size() > searchModel.getLimit() ? new ArrayList<>(result.subList(0, searchModel.getLimit())) : result;
+    }
+  }
+
+  /**
+   * returns all infos of the segment matching the search model in the order of
+   * their ids without limit. the protocol is only read, when it is exported.
+   */
+  public List<TimeAgentInfo> export(TimeAgentInfoSearch searchModel, boolean withProtocol) throws IOException {
+    try (RandomAccessFile input = new RandomAccessFile(file.toFile(), "r")) {
+      Map<Column, Object[]> values = new HashMap<>();
+      List<TimeAgentInfo> result = new ArrayList<>();
+      for (int row : match(input, searchModel, values)) {
+        result.add(row(input, values, row, withProtocol));
+      }
+      return result;
+    }
+  }
+
+  private List<Integer> match(RandomAccessFile input, TimeAgentInfoSearch searchModel, Map<Column, Object[]> values)
+      throws IOException {
+    // like the derived queries, a range of both times includes its bounds
+    boolean inclusive = searchModel.getFromStartTimeExecution() != null && searchModel.getToStartTimeExecution() != null;
+    List<Integer> matches = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      matches.add(row);
+    }
+
+    if (searchModel.getStatus() != null) {
+      Object[] status = column(input, Column.STATUS, values);
+      matches.removeIf(row -> !searchModel.getStatus().equals(status[row]));
+    }
+    if (searchModel.getExecutor() != null && !matches.isEmpty()) {
+      Object[] executor = column(input, Column.EXECUTOR, values);
+      matches.removeIf(row -> !searchModel.getExecutor().equals(executor[row]));
+    }
+    if ((searchModel.getFromStartTimeExecution() != null || searchModel.getToStartTimeExecution() != null) && !matches.isEmpty()) {
+      Object[] startTime = column(input, Column.START_TIME, values);
+      matches.removeIf(row -> !matchesStartTime((LocalDateTime) startTime[row], searchModel, inclusive));
+    }
+    return matches;
+  }
+
+  private boolean matchesStartTime(LocalDateTime startTime, TimeAgentInfoSearch searchModel, boolean inclusive) {
+    LocalDateTime from = searchModel.getFromStartTimeExecution();
+    LocalDateTime to = searchModel.getToStartTimeExecution();
+    if (startTime == null) {
+      return false;
+    }
+    if (from != null && (startTime.isBefore(from) || !inclusive && startTime.isEqual(from))) {
+      return false;
+    }
+    return to == null || startTime.isBefore(to) || inclusive && startTime.isEqual(to);
+  }
+
+  /**
+   * returns the info of the row, the columns are read at the first row.
+   */
+  @SuppressWarnings("unchecked")
+  private TimeAgentInfo row(RandomAccessFile input, Map<Column, Object[]> values, int row, boolean withProtocol) throws IOException {
+    TimeAgentInfo agentInfo = new TimeAgentInfo((Long) column(input, Column.ID, values)[row],
+        (LocalDateTime) column(input, Column.CREATED_AT, values)[row], (LocalDateTime) column(input, Column.UPDATED_AT, values)[row],
+        agentName, (String) column(input, Column.CRONTRIGGER, values)[row], (String) column(input, Column.EXECUTOR, values)[row],
+        (LocalDateTime) column(input, Column.START_TIME, values)[row], (LocalDateTime) column(input, Column.FINISH_TIME, values)[row],
+        (TimeAgentStatus) column(input, Column.STATUS, values)[row], (Long) column(input, Column.FENCING_TOKEN, values)[row],
+        (Long) column(input, Column.PARENT_ID, values)[row]);
+    if (withProtocol) {
+      List<String> messages = (List<String>) column(input, Column.PROTOCOL, values)[row];
+      List<LocalDateTime> times = (List<LocalDateTime>) column(input, Column.PROTOCOL_TIME, values)[row];
+      for (int line = 0; line < messages.size(); line++) {
+        agentInfo.addProtocol(messages.get(line), times == null ? null : times.get(line));
+      }
+    }
+    return agentInfo;
+  }
+
+  private Object[] column(RandomAccessFile input, Column column, Map<Column, Object[]> values) throws IOException {
+    Object[] columnValues = values.get(column);
+    if (columnValues == null && column.ordinal() >= columnLengths.length) {
+      // a column added after the segment was written
+      columnValues = new Object[rows];
+      values.put(column, columnValues);
+    }
+    if (columnValues == null) {
+      byte[] bytes = new byte[columnLengths[column.ordinal()]];
+      input.seek(columnOffsets[column.ordinal()]);
+      input.readFully(bytes);
+      try (DataInputStream columnInput = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+        columnValues = column.read(columnInput, rows);
+      }
+      values.put(column, columnValues);
+    }
+    return columnValues;
+  }
+
+  private static byte[] compress(Column column, List<TimeAgentInfo> agentInfos) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+      column.write(output, agentInfos);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeTime(DataOutputStream output, LocalDateTime time) throws IOException {
+    output.writeBoolean(time != null);
+    if (time != null) {
+      output.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(time.getNano());
+    }
+  }
+
+  private static LocalDateTime readTime(DataInputStream input) throws IOException {
+    if (!input.readBoolean()) {
+      return null;
+    }
+    return LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+  }
+
+  private static void writeNumber(DataOutputStream output, Long value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeLong(value);
+    }
+  }
+
+  private static Object[] readNumbers(DataInputStream input, int rows) throws IOException {
+    Object[] values = new Object[rows];
+    for (int row = 0; row < rows; row++) {
+      values[row] = input.readBoolean() ? input.readLong() : null;
+    }
+    return values;
+  }
+
+  private static void writeDictionary(DataOutputStream output, List<String> values) throws IOException {
+    Map<String, Integer> dictionary = new HashMap<>();
+    List<String> words = new ArrayList<>();
+    for (String value : values) {
+      if (value != null && !dictionary.containsKey(value)) {
+        dictionary.put(value, words.size());
+        words.add(value);
+      }
+    }
+    output.writeInt(words.size());
+    for (String word : words) {
+      writeString(output, word);
+    }
+    for (String value : values) {
+      output.writeInt(value == null ? -1 : dictionary.get(value));
+    }
+  }
+
+  private static Object[] readDictionary(DataInputStream input, int rows) throws IOException {
+    String[] words = new String[input.readInt()];
+    for (int word = 0; word < words.length; word++) {
+      words[word] = readString(input);
+    }
+    Object[] values = new Object[rows];
+    for (int row = 0; row < rows; row++) {
+      int word = input.readInt();
+      values[row] = word < 0 ? null : words[word];
+    }
+    return values;
+  }
+
+  /**
+   * columns of a segment in the order of the file. the ids are stored as
+   * deltas and the strings with few distinct values as dictionary.
+   */
+  private enum Column {
+    ID {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        long previous = 0;
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          output.writeLong(agentInfo.getId() - previous);
+          previous = agentInfo.getId();
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        Object[] values = new Object[rows];
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+          previous += input.readLong();
+          values[row] = previous;
+        }
+        return values;
+      }
+    },
+    CREATED_AT {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeTime(output, agentInfo.getCreatedAt());
+        }
+      }
+    },
+    UPDATED_AT {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeTime(output, agentInfo.getUpdatedAt());
+        }
+      }
+    },
+    START_TIME {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeTime(output, agentInfo.getStartTimeExecution());
+        }
+      }
+    },
+    FINISH_TIME {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeTime(output, agentInfo.getFinishTimeExecution());
+        }
+      }
+    },
+    STATUS {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          output.writeByte(agentInfo.getStatus().ordinal());
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        Object[] values = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+          values[row] = TimeAgentStatus.values()[input.readByte()];
+        }
+        return values;
+      }
+    },
+    EXECUTOR {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        List<String> values = new ArrayList<>();
+        agentInfos.forEach(agentInfo -> values.add(agentInfo.getExecutor()));
+        writeDictionary(output, values);
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        return readDictionary(input, rows);
+      }
+    },
+    CRONTRIGGER {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        List<String> values = new ArrayList<>();
+        agentInfos.forEach(agentInfo -> values.add(agentInfo.getCrontrigger()));
+        writeDictionary(output, values);
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        return readDictionary(input, rows);
+      }
+    },
+    PROTOCOL {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          output.writeInt(agentInfo.getProtocol().size());
+          for (int line = 0; line < agentInfo.getProtocol().size(); line++) {
+            writeString(output, agentInfo.getProtocol().get(line).getMessage());
+          }
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        Object[] values = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+          int lines = input.readInt();
+          List<String> protocol = new ArrayList<>(lines);
+          for (int line = 0; line < lines; line++) {
+            protocol.add(readString(input));
+          }
+          values[row] = protocol;
+        }
+        return values;
+      }
+    },
+    FENCING_TOKEN {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeNumber(output, agentInfo.getFencingToken());
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        return readNumbers(input, rows);
+      }
+    },
+    PARENT_ID {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          writeNumber(output, agentInfo.getParentId());
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        return readNumbers(input, rows);
+      }
+    },
+    PROTOCOL_TIME {
+      @Override
+      void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException {
+        for (TimeAgentInfo agentInfo : agentInfos) {
+          output.writeInt(agentInfo.getProtocol().size());
+          for (int line = 0; line < agentInfo.getProtocol().size(); line++) {
+            writeTime(output, agentInfo.getProtocol().get(line).getCreatedAt());
+          }
+        }
+      }
+
+      @Override
+      Object[] read(DataInputStream input, int rows) throws IOException {
+        Object[] values = new Object[rows];
+        for (int row = 0; row < rows; row++) {
+          int lines = input.readInt();
+          List<LocalDateTime> times = new ArrayList<>(lines);
+          for (int line = 0; line < lines; line++) {
+            times.add(readTime(input));
+          }
+          values[row] = times;
+        }
+        return values;
+      }
+    };
+
+    abstract void write(DataOutputStream output, List<TimeAgentInfo> agentInfos) throws IOException;
+
+    /**
+     * reads the column of time values, if not overridden.
+     */
+    Object[] read(DataInputStream input, int rows) throws IOException {
+      Object[] values = new Object[rows];
+      for (int row = 0; row < rows; row++) {
+        values[row] = readTime(input);
+      }
+      return values;
+    }
+  }
+}
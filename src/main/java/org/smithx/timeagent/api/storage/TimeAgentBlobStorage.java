@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentProtocolChunk;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.smithx.timeagent.api.repositories.TimeAgentProtocolChunkRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * storage of the infos in the database by jpa, which keeps the protocol of an
+ * info as compressed blob on the info row instead of one row per line. while
+ * an info is running, a save, which only adds protocol lines, is kept in memory
+ * until the lines reach the chunk lines and are appended as compressed chunk.
+ * so the lines of a running info after the last chunk are lost on a crash. the
+ * chunks are packed into the blob, when the info is saved with another status.
+ * the protocol is decompressed, when an info is read, infos with protocol rows
+ * of the jpa storage are migrated on their next save. a line read from the blob
+ * keeps its time of creation to the millisecond, but has no id.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@ConditionalOnProperty(prefix = "timeagent.values.storage", name = "type", havingValue = "blob")
+public class TimeAgentBlobStorage extends TimeAgentJpaStorage {
+  private TimeAgentProtocolChunkRepository chunkRepository;
+  private EntityManager entityManager;
+  private int chunkLines;
+
+  // lines stored as chunks and the last saved header per running info
+  private final Map<Long, Integer> chunkedLines = new ConcurrentHashMap<>();
+  private final Map<Long, List<Object>> savedHeaders = new ConcurrentHashMap<>();
+
+  public TimeAgentBlobStorage(TimeAgentInfoRepository agentInfoRepository, TimeAgentIndexEngine indexEngine,
+      TimeAgentProtocolChunkRepository chunkRepository, EntityManager entityManager, TimeAgentValues agentValues) {
+    super(agentInfoRepository, indexEngine);
+    this.chunkRepository = chunkRepository;
+    this.entityManager = entityManager;
+    this.chunkLines = agentValues.getStorage().getChunkLines();
+  }
+
+  @Override
+  public TimeAgentInfo save(TimeAgentInfo agentInfo) {
+    List<TimeAgentProtocol> protocol = agentInfo.getProtocol();
+    List<TimeAgentProtocol> lines = new ArrayList<>(protocol);
+    boolean running = TimeAgentStatus.RUNNING.equals(agentInfo.getStatus());
+    List<Object> header = header(agentInfo);
+
+    if (running && agentInfo.getId() != null && header.equals(savedHeaders.get(agentInfo.getId()))
+        && lines.size() >= chunkedLines.getOrDefault(agentInfo.getId(), 0)) {
+      appendChunk(agentInfo, lines);
+      return agentInfo;
+    }
+
+    // no protocol row is cascaded, rows of the jpa storage are removed as orphans
+    agentInfo.setProtocol(new ArrayList<>());
+    agentInfo.setProtocolData(running || lines.isEmpty() ? null : TimeAgentProtocolCodec.compress(lines));
+    TimeAgentInfo savedAgentInfo;
+    try {
+      savedAgentInfo = getAgentInfoRepository().save(agentInfo);
+    } finally {
+      agentInfo.setProtocol(protocol);
+    }
+    detach(savedAgentInfo);
+    savedAgentInfo.setProtocol(protocol);
+
+    Long infoId = savedAgentInfo.getId();
+    if (running) {
+      if (lines.size() < chunkedLines.getOrDefault(infoId, 0)) {
+        chunkRepository.deleteByInfoIds(Collections.singletonList(infoId));
+        chunkedLines.remove(infoId);
+      }
+      savedHeaders.put(infoId, header);
+      appendChunk(savedAgentInfo, lines);
+    } else {
+      savedHeaders.remove(infoId);
+      if (chunkedLines.remove(infoId) != null) {
+        chunkRepository.deleteByInfoIds(Collections.singletonList(infoId));
+      }
+      getIndexEngine().indexProtocol(savedAgentInfo);
+    }
+    return savedAgentInfo;
+  }
+
+  private void appendChunk(TimeAgentInfo agentInfo, List<TimeAgentProtocol> lines) {
+    int storedLines = chunkedLines.getOrDefault(agentInfo.getId(), 0);
+    if (chunkLines > 0 && lines.size() - storedLines >= chunkLines) {
+      chunkRepository.save(new TimeAgentProtocolChunk(agentInfo.getId(), storedLines, lines.size() - storedLines,
+          TimeAgentProtocolCodec.compress(lines.subList(storedLines, lines.size()))));
+      chunkedLines.put(agentInfo.getId(), lines.size());
+      getIndexEngine().indexProtocol(agentInfo);
+    }
+  }
+
+  private List<Object> header(TimeAgentInfo agentInfo) {
+    return Arrays.asList(agentInfo.getStatus(), agentInfo.getExecutor(), agentInfo.getCrontrigger(),
+        agentInfo.getStartTimeExecution(), agentInfo.getFinishTimeExecution());
+  }
+
+  @Override
+  public TimeAgentInfo findLatest(String agentName, TimeAgentStatus status) {
+    TimeAgentInfo agentInfo = super.findLatest(agentName, status);
+    return agentInfo == null ? null : load(agentInfo);
+  }
+
+  @Override
+  public List<TimeAgentInfo> findAll(String agentName, TimeAgentStatus status) {
+    return load(super.findAll(agentName, status));
+  }
+
+  @Override
+  public List<TimeAgentInfo> search(String agentName, TimeAgentInfoSearch searchModel) {
+    List<TimeAgentInfo> agentInfos = super.search(agentName, searchModel);
+    return searchModel.isWithProtocol() ? load(agentInfos) : agentInfos;
+  }
+
+  @Override
+  public List<TimeAgentInfo> searchByProtocolTokens(String agentName, TimeAgentInfoSearch searchModel, Set<String> tokens,
+      int page) {
+    return load(super.searchByProtocolTokens(agentName, searchModel, tokens, page));
+  }
+
+  @Override
+  public List<TimeAgentInfo> findArchivable(String agentName, LocalDateTime finishedBefore, int limit) {
+    return load(super.findArchivable(agentName, finishedBefore, limit));
+  }
+
+  @Override
+  public List<String> findProtocolMessages(Long infoId) {
+    byte[] protocolData = getAgentInfoRepository().findProtocolDataById(infoId);
+    List<String> messages = protocolData == null ? super.findProtocolMessages(infoId) : TimeAgentProtocolCodec.decompressMessages(protocolData);
+    for (TimeAgentProtocolChunk chunk : chunkRepository.findByInfoIdOrderByFirstLineAsc(infoId)) {
+      messages.addAll(TimeAgentProtocolCodec.decompressMessages(chunk.getData()));
+    }
+    return messages;
+  }
+
+  @Override
+  public Map<Long, List<String>> findProtocolMessages(Collection<Long> infoIds) {
+    if (infoIds.isEmpty()) {
+      return new HashMap<>();
+    }
+    Map<Long, byte[]> protocolData = new HashMap<>();
+    for (Object[] data : getAgentInfoRepository().findProtocolDataByIds(infoIds)) {
+      if (data[1] != null) {
+        protocolData.put((Long) data[0], (byte[]) data[1]);
+      }
+    }
+    // the infos without blob are running or saved as rows by the jpa storage
+    Map<Long, List<String>> protocols = super.findProtocolMessages(
+        infoIds.stream().filter(infoId -> !protocolData.containsKey(infoId)).collect(Collectors.toList()));
+    protocolData.forEach((infoId, data) -> protocols.put(infoId, TimeAgentProtocolCodec.decompressMessages(data)));
+    for (TimeAgentProtocolChunk chunk : chunkRepository.findByInfoIdInOrderByFirstLineAsc(infoIds)) {
+      protocols.get(chunk.getInfoId()).addAll(TimeAgentProtocolCodec.decompressMessages(chunk.getData()));
+    }
+    return protocols;
+  }
+
+  @Override
+  public void delete(List<TimeAgentInfo> agentInfos) {
+    List<Long> infoIds = agentInfos.stream().map(TimeAgentInfo::getId).collect(Collectors.toList());
+    getIndexEngine().deleteProtocol(infoIds);
+    chunkRepository.deleteByInfoIds(infoIds);
+    getAgentInfoRepository().deleteProtocolByInfoIds(infoIds);
+    getAgentInfoRepository().deleteByIds(infoIds);
+    infoIds.forEach(chunkedLines::remove);
+    infoIds.forEach(savedHeaders::remove);
+  }
+
+  private List<TimeAgentInfo> load(List<TimeAgentInfo> agentInfos) {
+    agentInfos.forEach(this::load);
+    return agentInfos;
+  }
+
+  private void detach(TimeAgentInfo agentInfo) {
+    // the protocol of a managed info must not be flushed as rows
+    if (entityManager.contains(agentInfo)) {
+      entityManager.detach(agentInfo);
+    }
+  }
+
+  private TimeAgentInfo load(TimeAgentInfo agentInfo) {
+    detach(agentInfo);
+
+    if (agentInfo.getProtocolData() != null) {
+      agentInfo.clearProtocol();
+      TimeAgentProtocolCodec.decompress(agentInfo.getProtocolData())
+          .forEach(line -> agentInfo.addProtocol(line.getMessage(), line.getCreatedAt()));
+    }
+    if (TimeAgentStatus.RUNNING.equals(agentInfo.getStatus())) {
+      int lines = 0;
+      for (TimeAgentProtocolChunk chunk : chunkRepository.findByInfoIdOrderByFirstLineAsc(agentInfo.getId())) {
+        TimeAgentProtocolCodec.decompress(chunk.getData())
+            .forEach(line -> agentInfo.addProtocol(line.getMessage(), line.getCreatedAt()));
+        lines = chunk.getFirstLine() + chunk.getLines();
+      }
+      if (lines > 0) {
+        chunkedLines.put(agentInfo.getId(), lines);
+      }
+    }
+    return agentInfo;
+  }
+}
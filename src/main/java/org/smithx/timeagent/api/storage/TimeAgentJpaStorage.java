@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * storage of the infos in the database by jpa. the protocol of a saved info is
+ * added to the inverted index of the protocol search.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Data
+@AllArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "timeagent.values.storage", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class TimeAgentJpaStorage implements TimeAgentStorage {
+  private TimeAgentInfoRepository agentInfoRepository;
+  private TimeAgentIndexEngine indexEngine;
+
+  @Override
+  public TimeAgentInfo save(TimeAgentInfo agentInfo) {
+    TimeAgentInfo savedAgentInfo = agentInfoRepository.save(agentInfo);
+    indexEngine.indexProtocol(savedAgentInfo);
+    return savedAgentInfo;
+  }
+
+  @Override
+  public TimeAgentInfo findLatest(String agentName, TimeAgentStatus status) {
+    if (status == null) {
+      return agentInfoRepository.findTop1ByAgentNameAndParentIdIsNullOrderByUpdatedAtDesc(agentName);
+    }
+    return agentInfoRepository.findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(agentName, status);
+  }
+
+  @Override
+  public List<TimeAgentInfo> findAll(String agentName, TimeAgentStatus status) {
+    return agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(agentName, status, Pageable.unpaged());
+  }
+
+  @Override
+  public List<TimeAgentInfo> search(String agentName, TimeAgentInfoSearch searchModel) {
+    int searchFlag = searchFlag(searchModel);
+    PageRequest pagable = PageRequest.of(0, searchModel.getLimit());
+
+    if (!searchModel.isWithProtocol()) {
+      // the infos are selected without joining the protocol
+      return agentInfoRepository.searchWithoutProtocol(agentName, searchModel.getStatus(), searchModel.getExecutor(),
+          searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
+    }
+
+    if (searchFlag > 30) {
+      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
+          agentName, searchModel.getStatus(), searchModel.getExecutor(), searchModel.getFromStartTimeExecution(),
+          searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 28) {
+      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 26) {
+      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getStatus(), searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 24) {
+      return agentInfoRepository.findByAgentNameAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(agentName,
+          searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 22) {
+      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getStatus(), searchModel.getExecutor(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 20) {
+      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getExecutor(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 18) {
+      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(agentName,
+          searchModel.getStatus(), searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 16) {
+      return agentInfoRepository.findByAgentNameAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(agentName,
+          searchModel.getToStartTimeExecution(), pagable);
+    } else if (searchFlag > 14) {
+      return agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getStatus(), searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), pagable);
+    } else if (searchFlag > 12) {
+      return agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(
+          agentName,
+          searchModel.getExecutor(), searchModel.getFromStartTimeExecution(), pagable);
+    } else if (searchFlag > 10) {
+      return agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionAfterOrderByUpdatedAtDesc(agentName,
+          searchModel.getStatus(), searchModel.getFromStartTimeExecution(), pagable);
+    } else if (searchFlag > 8) {
+      return agentInfoRepository.findByAgentNameAndStartTimeExecutionAfterOrderByUpdatedAtDesc(agentName,
+          searchModel.getFromStartTimeExecution(), pagable);
+    } else if (searchFlag > 6) {
+      return agentInfoRepository.findByAgentNameAndStatusAndExecutorOrderByUpdatedAtDesc(agentName,
+          searchModel.getStatus(),
+          searchModel.getExecutor(), pagable);
+    } else if (searchFlag > 4) {
+      return agentInfoRepository.findByAgentNameAndExecutorOrderByUpdatedAtDesc(agentName,
+          searchModel.getExecutor(),
+          pagable);
+    } else if (searchFlag > 2) {
+      return agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(agentName, searchModel.getStatus(),
+          pagable);
+    }
+
+    return agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(agentName, pagable);
+  }
+
+  @Override
+  public List<TimeAgentInfo> searchByProtocolTokens(String agentName, TimeAgentInfoSearch searchModel, Set<String> tokens,
+      int page) {
+    return agentInfoRepository.findByAgentNameAndProtocolTokens(agentName, searchModel.getStatus(), searchModel.getExecutor(),
+        searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution(), tokens, tokens.size(),
+        PageRequest.of(page, searchModel.getLimit()));
+  }
+
+  @Override
+  public Stream<TimeAgentInfo> stream(String agentName, TimeAgentInfoSearch searchModel) {
+    return agentInfoRepository.streamByAgentName(agentName, searchModel.getStatus(), searchModel.getExecutor(),
+        searchModel.getFromStartTimeExecution(), searchModel.getToStartTimeExecution());
+  }
+
+  @Override
+  public List<TimeAgentInfo> findBatch(Long id) {
+    return agentInfoRepository.findBatchWithoutProtocol(id);
+  }
+
+  @Override
+  public List<String> findProtocolMessages(Long infoId) {
+    return agentInfoRepository.findProtocolMessagesByInfoId(infoId);
+  }
+
+  @Override
+  public Map<Long, List<String>> findProtocolMessages(Collection<Long> infoIds) {
+    Map<Long, List<String>> protocols = new LinkedHashMap<>();
+    infoIds.forEach(infoId -> protocols.put(infoId, new ArrayList<>()));
+    if (!infoIds.isEmpty()) {
+      for (Object[] message : agentInfoRepository.findProtocolMessagesByInfoIds(infoIds)) {
+        protocols.get(message[0]).add((String) message[1]);
+      }
+    }
+    return protocols;
+  }
+
+  @Override
+  public List<TimeAgentInfo> findArchivable(String agentName, LocalDateTime finishedBefore, int limit) {
+    return agentInfoRepository.findByAgentNameAndStatusInAndFinishTimeExecutionBeforeOrderByIdAsc(agentName,
+        TimeAgentStatus.finalValues(), finishedBefore, PageRequest.of(0, limit));
+  }
+
+  @Override
+  public void delete(List<TimeAgentInfo> agentInfos) {
+    indexEngine.deleteProtocol(agentInfos.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+    agentInfoRepository.deleteAll(agentInfos);
+  }
+
+  private int searchFlag(TimeAgentInfoSearch searchModel) {
+    int searchFlag = 1;
+    if (searchModel.getStatus() != null) {
+      searchFlag = searchFlag + 2;
+    }
+    if (searchModel.getExecutor() != null) {
+      searchFlag = searchFlag + 4;
+    }
+    if (searchModel.getFromStartTimeExecution() != null) {
+      searchFlag = searchFlag + 8;
+    }
+    if (searchModel.getToStartTimeExecution() != null) {
+      searchFlag = searchFlag + 16;
+    }
+    return searchFlag;
+  }
+}
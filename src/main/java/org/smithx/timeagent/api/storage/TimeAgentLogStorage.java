@@ -0,0 +1,684 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * embedded storage of the infos in an append-only log, which is mapped into
+ * memory. every save appends the header of the info and only the protocol
+ * lines added since the last save, a delete appends a tombstone of the info.
+ * the headers are kept in memory and indexed by agent name, status and start
+ * time, the protocol is read from the log on demand. on startup the log is
+ * replayed up to the first incomplete record.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Component
+@ConditionalOnProperty(prefix = "timeagent.values.storage", name = "type", havingValue = "log")
+@Slf4j
+public class TimeAgentLogStorage implements TimeAgentStorage {
+  private static final byte INFO_RECORD = 1;
+  private static final byte PROTOCOL_RECORD = 2;
+  private static final byte DELETE_RECORD = 3;
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private static final Comparator<Entry> BY_UPDATED_AT = Comparator.comparing((Entry entry) -> entry.updatedAt)
+      .thenComparing(entry -> entry.id).reversed();
+  private static final Comparator<Entry> BY_START_TIME = Comparator.comparing((Entry entry) -> entry.startTimeExecution)
+      .thenComparing(entry -> entry.id);
+
+  private Path file;
+  private int initialSize;
+  private TimeAgentMessages messages;
+
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int position;
+  private long nextId = 1;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final Map<String, NavigableSet<Entry>> entriesByAgent = new HashMap<>();
+  private final Map<String, Map<TimeAgentStatus, NavigableSet<Entry>>> entriesByStatus = new HashMap<>();
+  private final Map<String, NavigableSet<Entry>> entriesByStartTime = new HashMap<>();
+
+  @Autowired
+  public TimeAgentLogStorage(TimeAgentValues agentValues, TimeAgentMessages messages) {
+    this(Paths.get(agentValues.getStorage().getFile()), agentValues.getStorage().getInitialSize(), messages);
+  }
+
+  public TimeAgentLogStorage(Path file, int initialSize, TimeAgentMessages messages) {
+    this.file = file;
+    this.initialSize = initialSize;
+    this.messages = messages;
+  }
+
+  @PostConstruct
+  public void open() {
+    lock.writeLock().lock();
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), initialSize));
+      replay();
+      log.info(messages.getMessage("log.storage.log.open", file, entries.size(), position));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      if (channel != null) {
+        buffer.force();
+        channel.close();
+        channel = null;
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public TimeAgentInfo save(TimeAgentInfo agentInfo) {
+    lock.writeLock().lock();
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      if (agentInfo.getId() == null) {
+        agentInfo.setId(nextId);
+        agentInfo.setCreatedAt(now);
+      }
+      agentInfo.setUpdatedAt(now);
+
+      Entry previous = entries.get(agentInfo.getId());
+      int previousLines = previous == null ? 0 : previous.protocolLines;
+      Entry entry = new Entry(agentInfo);
+      append(writeInfo(entry));
+      apply(entry);
+
+      // the protocol is only appended, a shorter protocol replaces the old one
+      List<TimeAgentProtocol> protocol = agentInfo.getProtocol();
+      if (protocol.size() != previousLines) {
+        int offset = protocol.size() < previousLines ? 0 : previousLines;
+        int recordPosition = append(writeProtocol(entry.id, offset, protocol.subList(offset, protocol.size())));
+        applyProtocol(entry, recordPosition, offset, protocol.size() - offset);
+      }
+      return agentInfo;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public TimeAgentInfo findLatest(String agentName, TimeAgentStatus status) {
+    lock.readLock().lock();
+    try {
+      NavigableSet<Entry> candidates = status == null ? entriesByAgent.get(agentName)
+          : entriesByStatus.getOrDefault(agentName, new HashMap<>()).get(status);
+      if (candidates == null) {
+        return null;
+      }
+      return candidates.stream().filter(entry -> entry.parentId == null).findFirst().map(entry -> load(entry, true)).orElse(null);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<TimeAgentInfo> findAll(String agentName, TimeAgentStatus status) {
+    lock.readLock().lock();
+    try {
+      NavigableSet<Entry> candidates = entriesByStatus.getOrDefault(agentName, new HashMap<>()).get(status);
+      return candidates == null ? new ArrayList<>()
+          : candidates.stream().map(entry -> load(entry, true)).collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<TimeAgentInfo> search(String agentName, TimeAgentInfoSearch searchModel) {
+    // like the derived queries, a range of both times includes its bounds
+    boolean inclusive = searchModel.getFromStartTimeExecution() != null && searchModel.getToStartTimeExecution() != null;
+
+    lock.readLock().lock();
+    try {
+      return candidates(agentName, searchModel)
+          .filter(entry -> matches(entry, searchModel, inclusive))
+          .limit(searchModel.getLimit())
+          .map(entry -> load(entry, searchModel.isWithProtocol()))
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * the log has no index of the tokens, so every page is an unindexed full scan
+   * of the matching infos, which reads the protocol of each of them.
+   */
+  @Override
+  public List<TimeAgentInfo> searchByProtocolTokens(String agentName, TimeAgentInfoSearch searchModel, Set<String> tokens,
+      int page) {
+    lock.readLock().lock();
+    try {
+      return candidates(agentName, searchModel)
+          .filter(entry -> matches(entry, searchModel, false))
+          .map(entry -> load(entry, true))
+          .filter(agentInfo -> containsTokens(agentInfo, tokens))
+          .skip((long) page * searchModel.getLimit())
+          .limit(searchModel.getLimit())
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Stream<TimeAgentInfo> stream(String agentName, TimeAgentInfoSearch searchModel) {
+    boolean inclusive = searchModel.getFromStartTimeExecution() != null && searchModel.getToStartTimeExecution() != null;
+
+    long[] ids;
+    lock.readLock().lock();
+    try {
+      ids = candidates(agentName, searchModel)
+          .filter(entry -> matches(entry, searchModel, inclusive))
+          .mapToLong(entry -> entry.id)
+          .sorted()
+          .toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+    // only the ids are taken at once, each info is loaded, when the stream reaches it.
+    // an info deleted in the meantime is skipped
+    return Arrays.stream(ids).mapToObj(this::load).filter(Objects::nonNull);
+  }
+
+  @Override
+  public List<TimeAgentInfo> findBatch(Long id) {
+    lock.readLock().lock();
+    try {
+      if (!entries.containsKey(id)) {
+        return new ArrayList<>();
+      }
+      return entries.values().stream()
+          .filter(entry -> id.equals(entry.id) || id.equals(entry.parentId))
+          .sorted(Comparator.comparing(entry -> entry.id))
+          .map(entry -> load(entry, false))
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<String> findProtocolMessages(Long infoId) {
+    lock.readLock().lock();
+    try {
+      Entry entry = entries.get(infoId);
+      return entry == null ? new ArrayList<>() : readProtocol(entry);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Map<Long, List<String>> findProtocolMessages(Collection<Long> infoIds) {
+    Map<Long, List<String>> protocols = new HashMap<>();
+    lock.readLock().lock();
+    try {
+      for (Long infoId : infoIds) {
+        Entry entry = entries.get(infoId);
+        protocols.put(infoId, entry == null ? new ArrayList<>() : readProtocol(entry));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return protocols;
+  }
+
+  @Override
+  public List<TimeAgentInfo> findArchivable(String agentName, LocalDateTime finishedBefore, int limit) {
+    Set<TimeAgentStatus> finalStatus = TimeAgentStatus.finalValues();
+    lock.readLock().lock();
+    try {
+      return entriesByAgent.getOrDefault(agentName, new TreeSet<>(BY_UPDATED_AT)).stream()
+          .filter(entry -> finalStatus.contains(entry.status) && entry.finishTimeExecution != null
+              && entry.finishTimeExecution.isBefore(finishedBefore))
+          .sorted(Comparator.comparing(entry -> entry.id))
+          .limit(limit)
+          .map(entry -> load(entry, true))
+          .collect(Collectors.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void delete(List<TimeAgentInfo> agentInfos) {
+    lock.writeLock().lock();
+    try {
+      for (TimeAgentInfo agentInfo : agentInfos) {
+        if (entries.containsKey(agentInfo.getId())) {
+          append(writeDelete(agentInfo.getId()));
+          remove(agentInfo.getId());
+        }
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Stream<Entry> candidates(String agentName, TimeAgentInfoSearch searchModel) {
+    if (searchModel.getFromStartTimeExecution() != null || searchModel.getToStartTimeExecution() != null) {
+      NavigableSet<Entry> byStartTime = entriesByStartTime.getOrDefault(agentName, new TreeSet<>(BY_START_TIME));
+      NavigableSet<Entry> range = byStartTime;
+      if (searchModel.getFromStartTimeExecution() != null) {
+        range = range.tailSet(Entry.bound(searchModel.getFromStartTimeExecution(), Long.MIN_VALUE), true);
+      }
+      if (searchModel.getToStartTimeExecution() != null) {
+        range = range.headSet(Entry.bound(searchModel.getToStartTimeExecution(), Long.MAX_VALUE), true);
+      }
+      return range.stream().sorted(BY_UPDATED_AT);
+    }
+
+    NavigableSet<Entry> candidates = searchModel.getStatus() == null ? entriesByAgent.get(agentName)
+        : entriesByStatus.getOrDefault(agentName, new HashMap<>()).get(searchModel.getStatus());
+    return candidates == null ? Stream.empty() : candidates.stream();
+  }
+
+  private boolean matches(Entry entry, TimeAgentInfoSearch searchModel, boolean inclusive) {
+    if (searchModel.getStatus() != null && !searchModel.getStatus().equals(entry.status)) {
+      return false;
+    }
+    if (searchModel.getExecutor() != null && !searchModel.getExecutor().equals(entry.executor)) {
+      return false;
+    }
+    LocalDateTime from = searchModel.getFromStartTimeExecution();
+    LocalDateTime to = searchModel.getToStartTimeExecution();
+    if (from != null && (entry.startTimeExecution == null || entry.startTimeExecution.isBefore(from)
+        || !inclusive && entry.startTimeExecution.isEqual(from))) {
+      return false;
+    }
+    return to == null || entry.startTimeExecution != null && (entry.startTimeExecution.isBefore(to)
+        || inclusive && entry.startTimeExecution.isEqual(to));
+  }
+
+  private boolean containsTokens(TimeAgentInfo agentInfo, Set<String> tokens) {
+    Set<String> protocolTokens = agentInfo.getProtocol().stream()
+        .flatMap(protocol -> TimeAgentIndexEngine.tokenize(protocol.getMessage()).stream())
+        .collect(Collectors.toSet());
+    return protocolTokens.containsAll(tokens);
+  }
+
+  private TimeAgentInfo load(long id) {
+    lock.readLock().lock();
+    try {
+      Entry entry = entries.get(id);
+      return entry == null ? null : load(entry, false);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private TimeAgentInfo load(Entry entry, boolean withProtocol) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(entry.id, entry.createdAt, entry.updatedAt, entry.agentName, entry.crontrigger,
+        entry.executor, entry.startTimeExecution, entry.finishTimeExecution, entry.status, entry.fencingToken, entry.parentId);
+    if (withProtocol) {
+      readProtocol(entry).forEach(agentInfo::addProtocol);
+    }
+    return agentInfo;
+  }
+
+  private List<String> readProtocol(Entry entry) {
+    List<String> protocol = new ArrayList<>();
+    try {
+      for (int recordPosition : entry.protocolPositions) {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(read(recordPosition)));
+        input.readByte();
+        input.readLong();
+        int offset = input.readInt();
+        int count = input.readInt();
+        protocol.subList(Math.min(offset, protocol.size()), protocol.size()).clear();
+        for (int line = 0; line < count; line++) {
+          protocol.add(readString(input));
+        }
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return protocol;
+  }
+
+  private void replay() throws IOException {
+    position = 0;
+    while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+        break;
+      }
+      byte[] payload = read(position);
+      if (checksum(payload) != buffer.getInt(position + 4)) {
+        log.warn(messages.getMessage("log.storage.log.truncated", file, position));
+        clear(position, RECORD_HEADER_SIZE + length);
+        break;
+      }
+
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+      byte type = input.readByte();
+      if (type == INFO_RECORD) {
+        apply(readInfo(input));
+      } else if (type == DELETE_RECORD) {
+        remove(input.readLong());
+      } else {
+        Entry entry = entries.get(input.readLong());
+        int offset = input.readInt();
+        if (entry != null) {
+          applyProtocol(entry, position, offset, input.readInt());
+        }
+      }
+      position += RECORD_HEADER_SIZE + length;
+    }
+  }
+
+  private void apply(Entry entry) {
+    Entry previous = entries.put(entry.id, entry);
+    if (previous != null) {
+      entry.protocolPositions = previous.protocolPositions;
+      entry.protocolLines = previous.protocolLines;
+      entriesByAgent.get(previous.agentName).remove(previous);
+      entriesByStatus.get(previous.agentName).get(previous.status).remove(previous);
+      if (previous.startTimeExecution != null) {
+        entriesByStartTime.get(previous.agentName).remove(previous);
+      }
+    }
+
+    entriesByAgent.computeIfAbsent(entry.agentName, key -> new TreeSet<>(BY_UPDATED_AT)).add(entry);
+    entriesByStatus.computeIfAbsent(entry.agentName, key -> new HashMap<>())
+        .computeIfAbsent(entry.status, key -> new TreeSet<>(BY_UPDATED_AT)).add(entry);
+    if (entry.startTimeExecution != null) {
+      entriesByStartTime.computeIfAbsent(entry.agentName, key -> new TreeSet<>(BY_START_TIME)).add(entry);
+    }
+    nextId = Math.max(nextId, entry.id + 1);
+  }
+
+  private void remove(long id) {
+    Entry entry = entries.remove(id);
+    if (entry != null) {
+      entriesByAgent.get(entry.agentName).remove(entry);
+      entriesByStatus.get(entry.agentName).get(entry.status).remove(entry);
+      if (entry.startTimeExecution != null) {
+        entriesByStartTime.get(entry.agentName).remove(entry);
+      }
+    }
+  }
+
+  private void applyProtocol(Entry entry, int recordPosition, int offset, int count) {
+    if (offset == 0) {
+      entry.protocolPositions = new ArrayList<>();
+    }
+    entry.protocolPositions.add(recordPosition);
+    entry.protocolLines = offset + count;
+  }
+
+  private int append(byte[] payload) throws IOException {
+    int recordPosition = position;
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (recordPosition + recordSize + RECORD_HEADER_SIZE > buffer.capacity()) {
+      long capacity = Math.max((long) buffer.capacity() * 2, (long) recordPosition + recordSize + RECORD_HEADER_SIZE);
+      if (capacity > Integer.MAX_VALUE) {
+        throw new IOException(String.format("log storage %s is full", file));
+      }
+      buffer.force();
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // the length is written last, so that an incomplete record is never replayed
+    ByteBuffer record = buffer.duplicate();
+    record.position(recordPosition + 4);
+    record.putInt(checksum(payload));
+    record.put(payload);
+    buffer.putInt(recordPosition, payload.length);
+    position += recordSize;
+    return recordPosition;
+  }
+
+  private byte[] read(int recordPosition) {
+    byte[] payload = new byte[buffer.getInt(recordPosition)];
+    ByteBuffer record = buffer.duplicate();
+    record.position(recordPosition + RECORD_HEADER_SIZE);
+    record.get(payload);
+    return payload;
+  }
+
+  private void clear(int from, int length) {
+    for (int index = from; index < Math.min(from + length, buffer.capacity()); index++) {
+      buffer.put(index, (byte) 0);
+    }
+  }
+
+  private int checksum(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  private byte[] writeInfo(Entry entry) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeByte(INFO_RECORD);
+    output.writeLong(entry.id);
+    writeTime(output, entry.createdAt);
+    writeTime(output, entry.updatedAt);
+    writeString(output, entry.agentName);
+    writeString(output, entry.crontrigger);
+    writeString(output, entry.executor);
+    writeTime(output, entry.startTimeExecution);
+    writeTime(output, entry.finishTimeExecution);
+    writeString(output, entry.status.name());
+    writeId(output, entry.fencingToken);
+    writeId(output, entry.parentId);
+    return bytes.toByteArray();
+  }
+
+  private Entry readInfo(DataInputStream input) throws IOException {
+    Entry entry = new Entry();
+    entry.id = input.readLong();
+    entry.createdAt = readTime(input);
+    entry.updatedAt = readTime(input);
+    entry.agentName = readString(input);
+    entry.crontrigger = readString(input);
+    entry.executor = readString(input);
+    entry.startTimeExecution = readTime(input);
+    entry.finishTimeExecution = readTime(input);
+    entry.status = TimeAgentStatus.valueOf(readString(input));
+    // the fields added to the record later are missing in older logs
+    if (input.available() > 0) {
+      entry.fencingToken = readId(input);
+    }
+    if (input.available() > 0) {
+      entry.parentId = readId(input);
+    }
+    return entry;
+  }
+
+  private byte[] writeProtocol(long id, int offset, List<TimeAgentProtocol> protocol) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeByte(PROTOCOL_RECORD);
+    output.writeLong(id);
+    output.writeInt(offset);
+    output.writeInt(protocol.size());
+    for (TimeAgentProtocol line : protocol) {
+      writeString(output, line.getMessage());
+    }
+    return bytes.toByteArray();
+  }
+
+  private byte[] writeDelete(long id) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeByte(DELETE_RECORD);
+    output.writeLong(id);
+    return bytes.toByteArray();
+  }
+
+  private void writeString(DataOutputStream output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void writeId(DataOutputStream output, Long id) throws IOException {
+    output.writeBoolean(id != null);
+    if (id != null) {
+      output.writeLong(id);
+    }
+  }
+
+  private Long readId(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readLong() : null;
+  }
+
+  private void writeTime(DataOutputStream output, LocalDateTime time) throws IOException {
+    output.writeBoolean(time != null);
+    if (time != null) {
+      output.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(time.getNano());
+    }
+  }
+
+  private LocalDateTime readTime(DataInputStream input) throws IOException {
+    if (!input.readBoolean()) {
+      return null;
+    }
+    return LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+  }
+
+  /**
+   * header of an info in memory with the positions of its protocol records.
+   */
+  private static class Entry {
+    private long id;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String agentName;
+    private String crontrigger;
+    private String executor;
+    private LocalDateTime startTimeExecution;
+    private LocalDateTime finishTimeExecution;
+    private TimeAgentStatus status;
+    private Long fencingToken;
+    private Long parentId;
+    private List<Integer> protocolPositions = new ArrayList<>();
+    private int protocolLines;
+
+    private Entry() {
+    }
+
+    private Entry(TimeAgentInfo agentInfo) {
+      id = agentInfo.getId();
+      createdAt = agentInfo.getCreatedAt();
+      updatedAt = agentInfo.getUpdatedAt();
+      agentName = agentInfo.getAgentName();
+      crontrigger = agentInfo.getCrontrigger();
+      executor = agentInfo.getExecutor();
+      startTimeExecution = agentInfo.getStartTimeExecution();
+      finishTimeExecution = agentInfo.getFinishTimeExecution();
+      status = agentInfo.getStatus();
+      fencingToken = agentInfo.getFencingToken();
+      parentId = agentInfo.getParentId();
+    }
+
+    private static Entry bound(LocalDateTime startTimeExecution, long id) {
+      Entry entry = new Entry();
+      entry.startTimeExecution = startTimeExecution;
+      entry.id = id;
+      return entry;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+
+/**
+ * codec to pack protocol lines into one deflated byte array. every line keeps
+ * its time of creation to the millisecond as varint of the difference to the
+ * previous line, the ids of the lines are not kept. the lines of an older
+ * array without times are read without time.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public final class TimeAgentProtocolCodec {
+  // marker before the count of lines with times, an older array starts with the count
+  private static final int WITH_TIMES = -2;
+
+  private TimeAgentProtocolCodec() {
+  }
+
+  public static byte[] compress(List<TimeAgentProtocol> lines) {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(data, deflater))) {
+      output.writeInt(WITH_TIMES);
+      output.writeInt(lines.size());
+      long previous = 0;
+      for (TimeAgentProtocol line : lines) {
+        String message = line.getMessage();
+        byte[] bytes = message == null ? null : message.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+          output.write(bytes);
+        }
+        if (line.getCreatedAt() == null) {
+          writeVarint(output, 0);
+        } else {
+          long time = line.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+          long delta = time - previous;
+          // zigzag, so that a line older than the previous one stays short
+          writeVarint(output, ((delta << 1) ^ (delta >> 63)) + 1);
+          previous = time;
+        }
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      deflater.end();
+    }
+    return data.toByteArray();
+  }
+
+  /**
+   * returns the lines without their info.
+   */
+  public static List<TimeAgentProtocol> decompress(byte[] data) {
+    try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+      int count = input.readInt();
+      boolean withTimes = count == WITH_TIMES;
+      if (withTimes) {
+        count = input.readInt();
+      }
+      List<TimeAgentProtocol> lines = new ArrayList<>(count);
+      long previous = 0;
+      for (int line = 0; line < count; line++) {
+        int length = input.readInt();
+        String message = null;
+        if (length >= 0) {
+          byte[] bytes = new byte[length];
+          input.readFully(bytes);
+          message = new String(bytes, StandardCharsets.UTF_8);
+        }
+        TimeAgentProtocol protocol = new TimeAgentProtocol(null, message);
+        long encoded = withTimes ? readVarint(input) : 0;
+        if (encoded > 0) {
+          long zigzag = encoded - 1;
+          previous += (zigzag >>> 1) ^ -(zigzag & 1);
+          LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(previous, 1000),
+              (int) Math.floorMod(previous, 1000) * 1_000_000, ZoneOffset.UTC);
+          protocol.setCreatedAt(createdAt);
+          protocol.setUpdatedAt(createdAt);
+        }
+        lines.add(protocol);
+      }
+      return lines;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  public static List<String> decompressMessages(byte[] data) {
+    return decompress(data).stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList());
+  }
+
+  private static void writeVarint(DataOutputStream output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte((int) value);
+  }
+
+  private static long readVarint(DataInputStream input) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int next = input.readUnsignedByte();
+      value |= (long) (next & 0x7F) << shift;
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("varint of the protocol is too long");
+  }
+}
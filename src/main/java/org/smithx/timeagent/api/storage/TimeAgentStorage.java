@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+/**
+ * storage for the infos of an agent. the implementation is selected by the
+ * property 'timeagent.values.storage.type'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public interface TimeAgentStorage {
+  /**
+   * saves the info with its protocol and returns the saved info.
+   */
+  public TimeAgentInfo save(TimeAgentInfo agentInfo);
+
+  /**
+   * returns the last updated info of the agent with the status or of any
+   * status, if the status is null. the sub-runs of batches are left out.
+   */
+  public TimeAgentInfo findLatest(String agentName, TimeAgentStatus status);
+
+  /**
+   * returns all infos of the agent with the status, ordered by the last update
+   * descending.
+   */
+  public List<TimeAgentInfo> findAll(String agentName, TimeAgentStatus status);
+
+  /**
+   * returns the infos matching the validated search model, ordered by the last
+   * update descending and limited by the limit of the search model.
+   */
+  public List<TimeAgentInfo> search(String agentName, TimeAgentInfoSearch searchModel);
+
+  /**
+   * returns a page of the infos matching the search model, whose protocol
+   * contains all tokens.
+   */
+  public List<TimeAgentInfo> searchByProtocolTokens(String agentName, TimeAgentInfoSearch searchModel, Set<String> tokens, int page);
+
+  /**
+   * streams all infos matching the search model without their protocol,
+   * ordered by id. the time range has the bounds of the search. the stream has
+   * to be closed.
+   */
+  public Stream<TimeAgentInfo> stream(String agentName, TimeAgentInfoSearch searchModel);
+
+  /**
+   * returns the info with the id and the infos of the sub-runs linked to it by
+   * their parent id without their protocol, ordered by id. so the info of a
+   * batch comes first, the list is empty without an info with the id.
+   */
+  public List<TimeAgentInfo> findBatch(Long id);
+
+  /**
+   * returns the protocol messages of the info in the order of their creation.
+   */
+  public List<String> findProtocolMessages(Long infoId);
+
+  /**
+   * returns the protocol messages of the infos by their id, each in the order of
+   * their creation. an info without protocol is mapped to an empty list.
+   */
+  public Map<Long, List<String>> findProtocolMessages(Collection<Long> infoIds);
+
+  /**
+   * returns up to limit infos of the agent with a final status, which have
+   * finished before the time, with their protocol and ordered by id.
+   */
+  public List<TimeAgentInfo> findArchivable(String agentName, LocalDateTime finishedBefore, int limit);
+
+  /**
+   * deletes the infos with their protocol.
+   */
+  public void delete(List<TimeAgentInfo> agentInfos);
+}
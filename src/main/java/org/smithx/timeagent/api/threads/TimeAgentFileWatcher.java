@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * watcher of a directory for arriving files. the arrived files are collected,
+ * until no event has come for the debounce or the first file has waited for
+ * the max wait, and passed as one batch to the consumer. the consumer returns
+ * false, when it cannot take the batch yet, so that the files are kept for the
+ * next try. the files in the directory on start are taken as arrived.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+public class TimeAgentFileWatcher {
+  public static final String WATCH_THREAD = "timeagent-watch";
+
+  private Path directory;
+  private String pattern;
+  private PathMatcher matcher;
+  private long debounce;
+  private long maxWait;
+  private int maxBatch;
+  private Predicate<List<Path>> consumer;
+  private TimeAgentMessages messages;
+
+  // used by the watch thread only
+  private final Set<Path> arrivedFiles = new LinkedHashSet<>();
+  private long firstArrival;
+  private long deadline;
+
+  private WatchService watchService;
+  private Thread watchThread;
+
+  public TimeAgentFileWatcher(Path directory, String pattern, long debounce, long maxWait, int maxBatch,
+      Predicate<List<Path>> consumer, TimeAgentMessages messages) {
+    this.directory = directory;
+    this.pattern = pattern;
+    this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    this.debounce = debounce;
+    this.maxWait = maxWait;
+    this.maxBatch = Math.max(1, maxBatch);
+    this.consumer = consumer;
+    this.messages = messages;
+  }
+
+  public void start() throws IOException {
+    watchService = directory.getFileSystem().newWatchService();
+    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    scan();
+    watchThread = new Thread(this::watch, WATCH_THREAD);
+    watchThread.setDaemon(true);
+    watchThread.start();
+    log.info(messages.getMessage("log.watch.start", directory, pattern));
+  }
+
+  public void close() {
+    if (watchThread != null) {
+      watchThread.interrupt();
+    }
+    try {
+      if (watchService != null) {
+        watchService.close();
+      }
+    } catch (IOException exception) {
+      log.warn(messages.getMessage("log.watch.failed", directory), exception);
+    }
+  }
+
+  private void watch() {
+    while (!Thread.currentThread().isInterrupted()) {
+      WatchKey key;
+      try {
+        key = arrivedFiles.isEmpty() ? watchService.take()
+            : watchService.poll(Math.max(1, nextFlush() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException | ClosedWatchServiceException exception) {
+        return;
+      }
+
+      if (key != null) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (StandardWatchEventKinds.OVERFLOW.equals(event.kind())) {
+            // the lost events are made up by the files in the directory
+            scan();
+          } else {
+            arrive(directory.resolve((Path) event.context()));
+          }
+        }
+        if (!key.reset()) {
+          log.error(messages.getMessage("log.watch.failed", directory));
+          return;
+        }
+        // the debounce starts again with every event
+        deadline = System.currentTimeMillis() + debounce;
+      }
+      if (!arrivedFiles.isEmpty() && (arrivedFiles.size() >= maxBatch || System.currentTimeMillis() >= nextFlush())) {
+        flush();
+      }
+    }
+  }
+
+  private long nextFlush() {
+    return Math.min(deadline, firstArrival + maxWait);
+  }
+
+  private void arrive(Path file) {
+    if (!matcher.matches(file.getFileName())) {
+      return;
+    }
+    if (arrivedFiles.isEmpty()) {
+      firstArrival = System.currentTimeMillis();
+    }
+    arrivedFiles.add(file);
+  }
+
+  private void scan() {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        if (Files.isRegularFile(file)) {
+          arrive(file);
+        }
+      }
+    } catch (IOException exception) {
+      log.warn(messages.getMessage("log.watch.failed", directory), exception);
+    }
+    deadline = System.currentTimeMillis() + debounce;
+  }
+
+  private void flush() {
+    List<Path> batch = new ArrayList<>();
+    Iterator<Path> files = arrivedFiles.iterator();
+    while (files.hasNext() && batch.size() < maxBatch) {
+      Path file = files.next();
+      if (Files.isRegularFile(file)) {
+        batch.add(file);
+      } else {
+        // the file was removed again or is a directory
+        files.remove();
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    boolean taken;
+    try {
+      taken = consumer.test(batch);
+    } catch (RuntimeException exception) {
+      log.error(messages.getMessage("log.watch.failed", directory), exception);
+      taken = false;
+    }
+    if (taken) {
+      arrivedFiles.removeAll(batch);
+      log.info(messages.getMessage("log.watch.batch", batch.size(), arrivedFiles.size()));
+    } else if (log.isDebugEnabled()) {
+      log.debug(messages.getMessage("log.watch.busy", arrivedFiles.size()));
+    }
+    // the kept files are tried again after the debounce
+    firstArrival = System.currentTimeMillis();
+    deadline = firstArrival + debounce;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+
+/**
+ * trigger delaying the fires of a crontrigger by the jitter. the next fire is
+ * computed from the previous time of the crontrigger, so that a delayed fire
+ * never skips or repeats a time of the crontrigger. the listener is told the
+ * actual time of every scheduled fire.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentJitterTrigger implements Trigger {
+  private final CronSequenceGenerator sequenceGenerator;
+  private final TimeAgentJitterMode mode;
+  private final long window;
+  private final String seed;
+  private final Consumer<LocalDateTime> listener;
+
+  // time of the crontrigger of the last scheduled fire, guarded by this
+  private Date lastCronTime;
+
+  public TimeAgentJitterTrigger(String crontrigger, TimeAgentJitterMode mode, long window, String seed,
+      Consumer<LocalDateTime> listener) {
+    this.sequenceGenerator = new CronSequenceGenerator(crontrigger);
+    this.mode = mode == null ? TimeAgentJitterMode.NONE : mode;
+    this.window = window;
+    this.seed = seed;
+    this.listener = listener;
+  }
+
+  /**
+   * returns the time of the crontrigger of the last scheduled fire, which is
+   * the fire running until the next one is scheduled.
+   */
+  public synchronized LocalDateTime getCronTime() {
+    return lastCronTime == null ? null : LocalDateTime.ofInstant(lastCronTime.toInstant(), ZoneId.systemDefault());
+  }
+
+  @Override
+  public synchronized Date nextExecutionTime(TriggerContext triggerContext) {
+    Date now = new Date();
+    Date cronTime = lastCronTime == null ? null : sequenceGenerator.next(lastCronTime);
+    if (cronTime == null || cronTime.before(now)) {
+      // the first fire or a run longer than the period of the crontrigger
+      cronTime = sequenceGenerator.next(now);
+    }
+    lastCronTime = cronTime;
+
+    ZoneId zone = ZoneId.systemDefault();
+    long offset = mode.offset(window, seed, LocalDateTime.ofInstant(cronTime.toInstant(), zone));
+    Date fireTime = new Date(cronTime.getTime() + offset);
+    if (listener != null) {
+      listener.accept(LocalDateTime.ofInstant(fireTime.toInstant(), zone));
+    }
+    return fireTime;
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentException;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.smithx.timeagent.api.services.TimeAgentService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * worker for the partitions of the runs. the instance running the agent
+ * creates the partitions, works on them itself and waits until all of them are
+ * done. the workers of the other instances claim the partitions by the poll.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+public class TimeAgentPartitionWorker {
+  private TimeAgentService service;
+  private TimeAgent agent;
+  private TimeAgentPartitionEngine partitionEngine;
+  private int workers;
+  private long pollInterval;
+
+  private final ExecutorService workerExecutor;
+  private final AtomicInteger busyWorkers = new AtomicInteger();
+
+  public TimeAgentPartitionWorker(TimeAgentService service, TimeAgent agent, TimeAgentPartitionEngine partitionEngine,
+      int workers, long pollInterval) {
+    this.service = service;
+    this.agent = agent;
+    this.partitionEngine = partitionEngine;
+    this.workers = workers;
+    this.pollInterval = pollInterval;
+    this.workerExecutor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("timeagent-partition"));
+  }
+
+  /**
+   * claims partitions for the idle workers.
+   */
+  public void poll() {
+    int idleWorkers = workers - busyWorkers.get();
+    if (idleWorkers <= 0) {
+      return;
+    }
+    List<TimeAgentPartition> partitions;
+    try {
+      partitions = partitionEngine.claimPartitions(idleWorkers);
+    } catch (RuntimeException exception) {
+      // a failed poll must not end the polling of the scheduler
+      log.warn(service.getMessages().getMessage("log.partition.poll.failed"), exception);
+      return;
+    }
+    for (TimeAgentPartition partition : partitions) {
+      busyWorkers.incrementAndGet();
+      workerExecutor.execute(() -> {
+        try {
+          execute(partition);
+        } finally {
+          busyWorkers.decrementAndGet();
+        }
+      });
+    }
+  }
+
+  /**
+   * creates the partitions of the run and returns, when all of them are done or
+   * failed. the results are added to the protocol of the run.
+   */
+  public void runPartitions(TimeAgentInfo agentInfo, List<String> partitionKeys, TimeAgentArgument... arguments)
+      throws TimeAgentException {
+    partitionEngine.createPartitions(agentInfo, partitionKeys, arguments);
+    try {
+      while (partitionEngine.countOpenPartitions(agentInfo.getId()) > 0) {
+        TimeAgentPartition partition = partitionEngine.claimPartition(agentInfo.getId());
+        if (partition == null) {
+          // the left partitions are claimed by other instances
+          Thread.sleep(pollInterval);
+        } else {
+          execute(partition);
+        }
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new TimeAgentException(TimeAgentExceptionCause.PARTITION_FAILED, "the run was interrupted");
+    }
+
+    List<TimeAgentPartition> partitions = partitionEngine.findPartitions(agentInfo.getId());
+    long failed = 0;
+    for (TimeAgentPartition partition : partitions) {
+      agentInfo.addProtocol(service.getMessages().getMessage("protocol.partition.result", partition.getPartitionKey(),
+          partition.getStatus(), partition.getOwner(), partition.getAttempts(), partition.getResult()));
+      if (!TimeAgentPartitionStatus.DONE.equals(partition.getStatus())) {
+        failed++;
+      }
+    }
+    service.updateAgentInfo();
+    if (failed > 0) {
+      throw new TimeAgentException(TimeAgentExceptionCause.PARTITION_FAILED,
+          String.format("%d of %d partitions failed", failed, partitions.size()));
+    }
+  }
+
+  public void close() {
+    workerExecutor.shutdownNow();
+  }
+
+  private void execute(TimeAgentPartition partition) {
+    TimeAgentArgument[] arguments = partition.getArguments().toArray(new TimeAgentArgument[0]);
+    try {
+      partitionEngine.finishPartition(partition, agent.executePartition(service, partition.getPartitionKey(), arguments));
+    } catch (TimeAgentException exception) {
+      partitionEngine.failPartition(partition, exception.getFullErrorMessage());
+    } catch (RuntimeException exception) {
+      log.error(service.getMessages().getMessage("log.exception.runtime.aborted"), exception);
+      partitionEngine.failPartition(partition, exception.toString());
+    }
+  }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.smithx.timeagent.api.configuration.SchedulerValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * scheduler based on a hierarchical timer wheel. a task is inserted into the
+ * slot of its tick and cancelled in constant time, the tasks in the slots of a
+ * higher level are moved down, when the lower level wraps around. the tick
+ * thread only moves the tasks between the slots, the due tasks are handed off
+ * to the fire executor, so that a slow task never delays the other fires.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+public class TimeAgentTimerWheelScheduler implements TaskScheduler {
+  static final int LEVELS = 4;
+
+  private final long tickDuration;
+  private final int wheelBits;
+  private final long wheelMask;
+  private final Slot[][] wheels;
+  private final long startTime;
+  private final TimeAgentMessages messages;
+
+  // the queues hand the insertions and cancellations over to the tick thread
+  private final Queue<Timeout> insertions = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+  private final ExecutorService fireExecutor;
+  private final Thread tickThread;
+  private volatile boolean running = true;
+  private volatile int scheduledTasks;
+
+  // next tick to process, only used by the tick thread
+  private long nextTick;
+
+  public TimeAgentTimerWheelScheduler(SchedulerValue schedulerValue, TimeAgentMessages messages) {
+    this.tickDuration = Math.max(1, schedulerValue.getTickDuration());
+    this.wheelBits = 32 - Integer.numberOfLeadingZeros(Math.max(2, schedulerValue.getWheelSize()) - 1);
+    this.wheelMask = (1L << wheelBits) - 1;
+    this.messages = messages;
+    this.wheels = new Slot[LEVELS][1 << wheelBits];
+    for (Slot[] wheel : wheels) {
+      for (int index = 0; index < wheel.length; index++) {
+        wheel[index] = new Slot();
+      }
+    }
+    this.fireExecutor = Executors.newFixedThreadPool(Math.max(1, schedulerValue.getFireThreads()),
+        new CustomizableThreadFactory("timeagent-fire"));
+    this.startTime = System.currentTimeMillis();
+    this.tickThread = new CustomizableThreadFactory("timeagent-tick").newThread(this::tick);
+    this.tickThread.setDaemon(true);
+    this.tickThread.start();
+    log.info(messages.getMessage("log.scheduler.start", 1 << wheelBits, tickDuration, LEVELS));
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+    SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+    Date firstTime = trigger.nextExecutionTime(triggerContext);
+    if (firstTime == null) {
+      return null;
+    }
+    return insert(new Timeout(task, trigger, triggerContext, 0, firstTime.getTime()));
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+    return insert(new Timeout(task, null, null, 0, startTime.getTime()));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+    return insert(new Timeout(task, null, null, checkPeriod(period), startTime.getTime()));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+    return insert(new Timeout(task, null, null, checkPeriod(period), System.currentTimeMillis()));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+    return insert(new Timeout(task, null, null, -checkPeriod(delay), startTime.getTime()));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+    return insert(new Timeout(task, null, null, -checkPeriod(delay), System.currentTimeMillis()));
+  }
+
+  /**
+   * returns the number of tasks waiting in the slots of the wheel.
+   */
+  public int getScheduledTasks() {
+    return scheduledTasks;
+  }
+
+  public void shutdown() {
+    running = false;
+    tickThread.interrupt();
+    fireExecutor.shutdownNow();
+  }
+
+  private long checkPeriod(long period) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("the period must be positive: " + period);
+    }
+    return period;
+  }
+
+  private Timeout insert(Timeout timeout) {
+    if (!running) {
+      throw new TaskRejectedException("the timer wheel is shut down");
+    }
+    insertions.offer(timeout);
+    return timeout;
+  }
+
+  private void tick() {
+    while (running) {
+      long sleep = startTime + nextTick * tickDuration - System.currentTimeMillis();
+      if (sleep > 0) {
+        try {
+          Thread.sleep(sleep);
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      unlinkCancelled();
+      placeInserted();
+      advance();
+    }
+  }
+
+  private void unlinkCancelled() {
+    Timeout timeout;
+    while ((timeout = cancellations.poll()) != null) {
+      if (timeout.slot != null) {
+        timeout.slot.remove(timeout);
+        scheduledTasks--;
+      }
+    }
+  }
+
+  private void placeInserted() {
+    Timeout timeout;
+    while ((timeout = insertions.poll()) != null) {
+      if (!timeout.cancelled) {
+        // the tick is rounded up, so that a task never fires too early
+        timeout.deadlineTick = Math.max(0, (timeout.deadline - startTime + tickDuration - 1) / tickDuration);
+        place(timeout);
+      }
+    }
+  }
+
+  private void advance() {
+    long tick = nextTick;
+    if ((tick & wheelMask) == 0) {
+      // the lower level wraps around, so the next slot of the higher level is moved down
+      for (int level = 1; level < LEVELS; level++) {
+        int index = (int) ((tick >>> (level * wheelBits)) & wheelMask);
+        cascade(wheels[level][index]);
+        if (index != 0) {
+          break;
+        }
+      }
+    }
+    nextTick = tick + 1;
+    Slot slot = wheels[0][(int) (tick & wheelMask)];
+    Timeout timeout;
+    while ((timeout = slot.poll()) != null) {
+      scheduledTasks--;
+      fire(timeout);
+    }
+  }
+
+  private void cascade(Slot slot) {
+    Timeout timeout;
+    while ((timeout = slot.poll()) != null) {
+      scheduledTasks--;
+      place(timeout);
+    }
+  }
+
+  private void place(Timeout timeout) {
+    long ticks = timeout.deadlineTick - nextTick;
+    if (ticks < 0) {
+      fire(timeout);
+      return;
+    }
+    long slotTick = timeout.deadlineTick;
+    int level = 0;
+    while (level < LEVELS - 1 && ticks >= 1L << ((level + 1) * wheelBits)) {
+      level++;
+    }
+    if (ticks >= 1L << (LEVELS * wheelBits)) {
+      // beyond the wheel the task waits in the last slot and is placed again
+      slotTick = nextTick + (1L << (LEVELS * wheelBits)) - 1;
+    }
+    wheels[level][(int) ((slotTick >>> (level * wheelBits)) & wheelMask)].add(timeout);
+    scheduledTasks++;
+  }
+
+  private void fire(Timeout timeout) {
+    if (!timeout.cancelled) {
+      fireExecutor.execute(timeout);
+    }
+  }
+
+  /**
+   * doubly linked list of the tasks in a slot, only used by the tick thread.
+   */
+  private static final class Slot {
+    private Timeout head;
+
+    void add(Timeout timeout) {
+      timeout.slot = this;
+      timeout.previous = null;
+      timeout.next = head;
+      if (head != null) {
+        head.previous = timeout;
+      }
+      head = timeout;
+    }
+
+    void remove(Timeout timeout) {
+      if (timeout.previous == null) {
+        head = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.slot = null;
+      timeout.previous = null;
+      timeout.next = null;
+    }
+
+    Timeout poll() {
+      Timeout timeout = head;
+      if (timeout != null) {
+        remove(timeout);
+      }
+      return timeout;
+    }
+  }
+
+  /**
+   * task in the wheel and its future. a repeated task is placed again with its
+   * next deadline after each run.
+   */
+  private final class Timeout implements ScheduledFuture<Object>, Runnable {
+    private final Runnable task;
+    private final Trigger trigger;
+    private final SimpleTriggerContext triggerContext;
+    // positive for a fixed rate, negative for a fixed delay
+    private final long period;
+    private volatile long deadline;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    // only used by the tick thread
+    private long deadlineTick;
+    private Slot slot;
+    private Timeout previous;
+    private Timeout next;
+
+    Timeout(Runnable task, Trigger trigger, SimpleTriggerContext triggerContext, long period, long deadline) {
+      this.task = task;
+      this.trigger = trigger;
+      this.triggerContext = triggerContext;
+      this.period = period;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void run() {
+      if (cancelled) {
+        return;
+      }
+      Date actualTime = new Date();
+      try {
+        task.run();
+      } catch (RuntimeException exception) {
+        // a failed run must not end the schedule of the task
+        log.error(messages.getMessage("log.scheduler.task.failed"), exception);
+      }
+      Date completionTime = new Date();
+
+      long nextDeadline = -1;
+      if (trigger != null) {
+        triggerContext.update(new Date(deadline), actualTime, completionTime);
+        Date nextTime = trigger.nextExecutionTime(triggerContext);
+        nextDeadline = nextTime == null ? -1 : nextTime.getTime();
+      } else if (period > 0) {
+        nextDeadline = deadline + period;
+      } else if (period < 0) {
+        nextDeadline = completionTime.getTime() - period;
+      }
+
+      if (nextDeadline < 0 || cancelled || !running) {
+        finish();
+      } else {
+        deadline = nextDeadline;
+        insertions.offer(this);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (done) {
+        return false;
+      }
+      cancelled = true;
+      cancellations.offer(this);
+      finish();
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public synchronized Object get() throws InterruptedException {
+      while (!done) {
+        wait();
+      }
+      return result();
+    }
+
+    @Override
+    public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+      long end = System.nanoTime() + unit.toNanos(timeout);
+      while (!done) {
+        long wait = end - System.nanoTime();
+        if (wait <= 0) {
+          throw new TimeoutException();
+        }
+        TimeUnit.NANOSECONDS.timedWait(this, wait);
+      }
+      return result();
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized void finish() {
+      done = true;
+      notifyAll();
+    }
+
+    private Object result() {
+      if (cancelled) {
+        throw new CancellationException();
+      }
+      return null;
+    }
+  }
+}
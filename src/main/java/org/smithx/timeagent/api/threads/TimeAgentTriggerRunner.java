@@ -0,0 +1,474 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.smithx.timeagent.api.agent.TimeAgentRuntime;
+import org.smithx.timeagent.api.configuration.SchedulerValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentAdmissionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMisfireEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentMisfireReason;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.services.TimeAgentService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * runner of the manual runs and the fires of the triggers. only one run of the
+ * agent is active at a time, a fire during the run is handled by the overlap
+ * policy of its trigger. the runs are started on the bounded run executor, so
+ * that the scheduler is free to see the next fire. pending runs are started one
+ * after another by the thread of the active run. the lease of the agent is held from
+ * the first start until the last run of this instance has finished. every run
+ * waits for a slot shared by all agents, before it is executed. the sub-runs
+ * of a batch are executed besides the other runs by the workers of the batch,
+ * which share the threads of the batch executor.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+public class TimeAgentTriggerRunner {
+  public static final String RUN_THREAD = "timeagent-run-";
+  public static final String BATCH_THREAD = "timeagent-batch-";
+
+  private enum Admission {
+    START, CONCURRENT, QUEUED, COALESCED, SKIPPED, QUEUE_FULL
+  }
+
+  private TimeAgentService service;
+  private TimeAgentRuntime workflow;
+  private TimeAgentTriggerEngine triggerEngine;
+  private TimeAgentMisfireEngine misfireEngine;
+  private TimeAgentLeaseEngine leaseEngine;
+  private TimeAgentAdmissionEngine admissionEngine;
+  private final ThreadPoolExecutor runExecutor;
+  private final ExecutorService batchExecutor;
+
+  // guarded by this
+  private boolean active;
+  private final Deque<TimeAgentTrigger> pendingRuns = new ArrayDeque<>();
+  private TimeAgentLease lease;
+  private int leaseUsers;
+
+  public TimeAgentTriggerRunner(TimeAgentService service, TimeAgentRuntime workflow, TimeAgentTriggerEngine triggerEngine,
+      TimeAgentMisfireEngine misfireEngine, TimeAgentLeaseEngine leaseEngine, TimeAgentAdmissionEngine admissionEngine,
+      TimeAgentValues agentValues) {
+    this.service = service;
+    this.workflow = workflow;
+    this.triggerEngine = triggerEngine;
+    this.misfireEngine = misfireEngine;
+    this.leaseEngine = leaseEngine;
+    this.admissionEngine = admissionEngine;
+    SchedulerValue schedulerValue = agentValues.getScheduler();
+    int runThreads = Math.max(1, schedulerValue.getRunThreads());
+    this.runExecutor = new ThreadPoolExecutor(runThreads, runThreads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, schedulerValue.getRunQueueCapacity())), new CustomizableThreadFactory(RUN_THREAD));
+    this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, agentValues.getBatch().getMaxParallelism()),
+        new CustomizableThreadFactory(BATCH_THREAD));
+  }
+
+  public void run(TimeAgentArgument... arguments) {
+    synchronized (this) {
+      if (active) {
+        throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ALREADY_RUNNING, "the agent is already running");
+      }
+      active = true;
+    }
+    TimeAgentLease runLease = useLease();
+    if (runLease == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ALREADY_RUNNING,
+          "the agent is already running on another instance");
+    }
+    if (!start(runLease, arguments)) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ALREADY_RUNNING, "the run executor is busy, try again later");
+    }
+  }
+
+  /**
+   * runs the argument sets of the batch as concurrent sub-runs by the given
+   * number of workers. the last worker finishes the batch.
+   */
+  public void runBatch(TimeAgentBatch batch, List<TimeAgentArgument[]> argumentSets, Consumer<TimeAgentBatch> finisher) {
+    TimeAgentLease runLease = useLease();
+    if (runLease == null) {
+      throw new TimeAgentRuntimeException(TimeAgentExceptionCause.ALREADY_RUNNING,
+          "the agent is already running on another instance");
+    }
+    Queue<TimeAgentArgument[]> pendingSubRuns = new ConcurrentLinkedQueue<>(argumentSets);
+    AtomicInteger workers = new AtomicInteger(batch.getParallelism());
+    for (int worker = 0; worker < batch.getParallelism(); worker++) {
+      batchExecutor.execute(() -> {
+        try {
+          TimeAgentArgument[] arguments;
+          while ((arguments = pendingSubRuns.poll()) != null) {
+            executeSubRun(runLease, batch, arguments);
+          }
+        } finally {
+          if (workers.decrementAndGet() == 0) {
+            finishBatch(batch, finisher);
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * fires the trigger now. returns true, when a run with the arguments of the
+   * trigger is started or queued, and false, when the fire is coalesced or
+   * dropped.
+   */
+  public boolean fire(TimeAgentTrigger trigger) {
+    LocalDateTime fireTime = LocalDateTime.now();
+    triggerEngine.markFired(trigger, fireTime);
+    return handle(trigger, fireTime);
+  }
+
+  /**
+   * fires the trigger at the time of its crontrigger, when no other instance
+   * sharing the database has fired this time already.
+   */
+  public void fire(TimeAgentTrigger trigger, LocalDateTime cronTime) {
+    if (!claimFire(trigger, cronTime)) {
+      if (log.isDebugEnabled()) {
+        log.debug(service.getMessages().getMessage("log.trigger.claimed", triggerName(trigger), cronTime));
+      }
+      return;
+    }
+    handle(trigger, LocalDateTime.now());
+  }
+
+  private boolean handle(TimeAgentTrigger trigger, LocalDateTime fireTime) {
+    // the database and the threads are used outside of the lock
+    switch (admit(trigger)) {
+    case START:
+      TimeAgentLease runLease = useLease();
+      if (runLease == null) {
+        recordLeaseHeld(trigger, fireTime, 1);
+        return false;
+      }
+      if (!start(runLease, arguments(trigger))) {
+        log.warn(service.getMessages().getMessage("log.trigger.rejected", trigger.getName()));
+        misfireEngine.recordMisfire(trigger, fireTime, TimeAgentMisfireReason.QUEUE_FULL, 1);
+        return false;
+      }
+      return true;
+    case CONCURRENT:
+      TimeAgentLease concurrentLease = useLease();
+      if (concurrentLease == null) {
+        recordLeaseHeld(trigger, fireTime, 1);
+        return false;
+      }
+      if (!startConcurrently(concurrentLease, arguments(trigger))) {
+        log.warn(service.getMessages().getMessage("log.trigger.rejected", trigger.getName()));
+        misfireEngine.recordMisfire(trigger, fireTime, TimeAgentMisfireReason.QUEUE_FULL, 1);
+        return false;
+      }
+      return true;
+    case QUEUED:
+      return true;
+    case COALESCED:
+      misfireEngine.countCoalesced(trigger);
+      return false;
+    case SKIPPED:
+      misfireEngine.recordMisfire(trigger, fireTime, TimeAgentMisfireReason.OVERLAP_SKIPPED, 1);
+      return false;
+    case QUEUE_FULL:
+      misfireEngine.recordMisfire(trigger, fireTime, TimeAgentMisfireReason.QUEUE_FULL, 1);
+      return false;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * handles the fires of the trigger missed while the agent was down by its
+   * misfire policy. the caught up fires are run one after another.
+   */
+  public void fireMissed(TimeAgentTrigger trigger, LocalDateTime now) {
+    List<LocalDateTime> missedFires = misfireEngine.findMissedFires(trigger, now);
+    if (missedFires.isEmpty()) {
+      return;
+    }
+
+    int fires;
+    switch (trigger.getMisfirePolicy()) {
+    case FIRE_ONCE:
+      fires = 1;
+      break;
+    case CATCH_UP:
+      fires = Math.min(trigger.getCatchUpLimit(), missedFires.size());
+      break;
+    default:
+      fires = 0;
+    }
+    // the missed fires are handled only once by one of the instances
+    if (!claimFire(trigger, missedFires.get(missedFires.size() - 1))) {
+      return;
+    }
+    log.info(service.getMessages().getMessage("log.trigger.missed", trigger.getName(), missedFires.size(), fires));
+    if (missedFires.size() > fires) {
+      misfireEngine.recordMisfire(trigger, missedFires.get(fires), TimeAgentMisfireReason.MISSED, missedFires.size() - fires);
+    }
+    if (fires > 0) {
+      TimeAgentArgument[] arguments;
+      synchronized (this) {
+        for (int fire = 0; fire < fires; fire++) {
+          pendingRuns.add(trigger);
+        }
+        if (active) {
+          return;
+        }
+        active = true;
+        arguments = arguments(pendingRuns.poll());
+      }
+      TimeAgentLease runLease = useLease();
+      if (runLease == null) {
+        recordLeaseHeld(trigger, now, fires);
+      } else if (!start(runLease, arguments)) {
+        log.warn(service.getMessages().getMessage("log.trigger.rejected", trigger.getName()));
+        misfireEngine.recordMisfire(trigger, now, TimeAgentMisfireReason.QUEUE_FULL, fires);
+      }
+    }
+  }
+
+  private void recordLeaseHeld(TimeAgentTrigger trigger, LocalDateTime fireTime, int fires) {
+    log.warn(service.getMessages().getMessage("log.trigger.leaseheld", trigger.getName()));
+    misfireEngine.recordMisfire(trigger, fireTime, TimeAgentMisfireReason.LEASE_HELD, fires);
+  }
+
+  /**
+   * stops the run and batch executors. the running runs are interrupted.
+   */
+  public void close() {
+    runExecutor.shutdownNow();
+    batchExecutor.shutdownNow();
+  }
+
+  public synchronized boolean isActive() {
+    return active;
+  }
+
+  public synchronized int getPendingRuns() {
+    return pendingRuns.size();
+  }
+
+  /**
+   * claims the time of the crontrigger for this instance. the crontrigger of
+   * the info has no row of its own and is claimed on the lease.
+   */
+  private boolean claimFire(TimeAgentTrigger trigger, LocalDateTime cronTime) {
+    if (trigger.getName() == null) {
+      trigger.setLastFireTime(cronTime);
+      return leaseEngine.claimFire(cronTime);
+    }
+    return triggerEngine.claimFire(trigger, cronTime);
+  }
+
+  private String triggerName(TimeAgentTrigger trigger) {
+    return trigger.getName() == null ? "crontrigger" : trigger.getName();
+  }
+
+  private synchronized Admission admit(TimeAgentTrigger trigger) {
+    if (!active) {
+      active = true;
+      return Admission.START;
+    }
+
+    boolean pending = pendingRuns.stream().anyMatch(pendingRun -> Objects.equals(pendingRun.getName(), trigger.getName()));
+    switch (trigger.getOverlapPolicy()) {
+    case CONCURRENT:
+      return Admission.CONCURRENT;
+    case QUEUE_ONE:
+      if (pending) {
+        return Admission.QUEUE_FULL;
+      }
+      pendingRuns.add(trigger);
+      return Admission.QUEUED;
+    case COALESCE:
+      if (pending) {
+        return Admission.COALESCED;
+      }
+      pendingRuns.add(trigger);
+      return Admission.QUEUED;
+    default:
+      return Admission.SKIPPED;
+    }
+  }
+
+  private synchronized TimeAgentArgument[] next() {
+    TimeAgentTrigger pendingRun = pendingRuns.poll();
+    if (pendingRun == null) {
+      active = false;
+      return null;
+    }
+    return arguments(pendingRun);
+  }
+
+  /**
+   * starts the active run and the pending runs after it. when the run executor
+   * is busy, the runs are dropped and false is returned.
+   */
+  private boolean start(TimeAgentLease runLease, TimeAgentArgument[] arguments) {
+    try {
+      runExecutor.execute(() -> {
+        try {
+          TimeAgentArgument[] next = arguments;
+          while (next != null) {
+            execute(runLease, next);
+            next = next();
+          }
+        } finally {
+          returnLease();
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException exception) {
+      synchronized (this) {
+        pendingRuns.clear();
+        active = false;
+      }
+      returnLease();
+      return false;
+    }
+  }
+
+  private boolean startConcurrently(TimeAgentLease runLease, TimeAgentArgument[] arguments) {
+    try {
+      runExecutor.execute(() -> runConcurrently(runLease, arguments));
+      return true;
+    } catch (RejectedExecutionException exception) {
+      returnLease();
+      return false;
+    }
+  }
+
+  private void runConcurrently(TimeAgentLease runLease, TimeAgentArgument[] arguments) {
+    TimeAgentAdmission admission = null;
+    try {
+      admission = admissionEngine.acquireSlot();
+      service.runConcurrently(runLease.getToken(), arguments);
+    } catch (RuntimeException exception) {
+      log.error(service.getMessages().getMessage("log.exception.runtime.aborted"), exception);
+    } finally {
+      admissionEngine.releaseSlot(admission);
+      returnLease();
+    }
+  }
+
+  private void execute(TimeAgentLease runLease, TimeAgentArgument[] arguments) {
+    TimeAgentRunnable runnable = new TimeAgentRunnable(workflow);
+    runnable.setArguments(arguments);
+    TimeAgentAdmission admission = null;
+    try {
+      admission = admissionEngine.acquireSlot();
+      service.getAgentInfo().setFencingToken(runLease.getToken());
+      runnable.run();
+    } catch (RuntimeException exception) {
+      log.error(service.getMessages().getMessage("log.exception.runtime.aborted"), exception);
+    } finally {
+      admissionEngine.releaseSlot(admission);
+    }
+  }
+
+  private void executeSubRun(TimeAgentLease runLease, TimeAgentBatch batch, TimeAgentArgument[] arguments) {
+    TimeAgentAdmission admission = null;
+    TimeAgentInfo subRunInfo = null;
+    batch.startSubRun();
+    try {
+      admission = admissionEngine.acquireSlot();
+      subRunInfo = service.runConcurrently(runLease.getToken(), batch.getId(), arguments);
+    } catch (RuntimeException exception) {
+      log.error(service.getMessages().getMessage("log.exception.runtime.aborted"), exception);
+    } finally {
+      admissionEngine.releaseSlot(admission);
+      batch.finishSubRun(subRunInfo);
+    }
+  }
+
+  private void finishBatch(TimeAgentBatch batch, Consumer<TimeAgentBatch> finisher) {
+    try {
+      finisher.accept(batch);
+    } catch (RuntimeException exception) {
+      log.error(service.getMessages().getMessage("log.exception.runtime.aborted"), exception);
+    } finally {
+      returnLease();
+    }
+  }
+
+  /**
+   * returns the lease held by this instance or acquires it. when it is held by
+   * another instance, the pending runs are dropped and null is returned.
+   */
+  private synchronized TimeAgentLease useLease() {
+    if (lease == null) {
+      lease = leaseEngine.acquireLease();
+    }
+    if (lease == null) {
+      if (leaseUsers == 0) {
+        pendingRuns.clear();
+        active = false;
+      }
+      return null;
+    }
+    leaseUsers++;
+    return lease;
+  }
+
+  private void returnLease() {
+    TimeAgentLease releasedLease = null;
+    synchronized (this) {
+      if (--leaseUsers == 0) {
+        releasedLease = lease;
+        lease = null;
+      }
+    }
+    if (releasedLease != null) {
+      leaseEngine.releaseLease(releasedLease);
+    }
+  }
+
+  private TimeAgentArgument[] arguments(TimeAgentTrigger trigger) {
+    return trigger.getArguments().toArray(new TimeAgentArgument[0]);
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.engines.TimeAgentDependencyEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentModelEngine;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.repositories.TimeAgentLeaseRepository;
+import org.smithx.timeagent.api.services.TimeAgentRunService;
+import org.smithx.timeagent.api.services.TimeAgentService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * testing the lease, the fires and the partitions with two instances of the application
+ * sharing one database.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentClusterTest {
+  static final String JDBC_URL = "jdbc:h2:mem:db_lease_cluster;DB_CLOSE_DELAY=-1";
+
+  ConfigurableApplicationContext nodeA;
+  ConfigurableApplicationContext nodeB;
+
+  @BeforeEach
+  void beforeEach() {
+    // the heartbeat of node a is too slow to keep its lease
+    nodeA = startNode("node-a", 60_000);
+    nodeB = startNode("node-b", 100);
+  }
+
+  @AfterEach
+  void afterEach() {
+    nodeB.close();
+    nodeA.close();
+  }
+
+  @Test
+  void testLeaseHandOverAndFencing() throws Exception {
+    TimeAgentLeaseEngine leaseA = nodeA.getBean(TimeAgentLeaseEngine.class);
+    TimeAgentLeaseEngine leaseB = nodeB.getBean(TimeAgentLeaseEngine.class);
+
+    TimeAgentLease leaseOfA = leaseA.acquireLease();
+    assertNotNull(leaseOfA);
+    assertNull(leaseB.acquireLease());
+
+    // the lease of node a expires and is handed over to node b
+    Thread.sleep(1500);
+    TimeAgentLease leaseOfB = leaseB.acquireLease();
+    assertNotNull(leaseOfB);
+    assertEquals(leaseOfA.getToken() + 1, leaseOfB.getToken());
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> leaseA.checkFencingToken(leaseOfA.getToken()));
+    assertEquals(TimeAgentExceptionCause.LEASE_LOST, exception.getErrorCause());
+    leaseB.checkFencingToken(leaseOfB.getToken());
+
+    // node b keeps the lease by its heartbeat, so node a must not run the agent
+    Thread.sleep(1500);
+    TimeAgentRuntimeException runException = assertThrows(TimeAgentRuntimeException.class,
+        () -> nodeA.getBean(TimeAgentService.class).run());
+    assertAll("check lease of node b",
+        () -> assertEquals(TimeAgentExceptionCause.ALREADY_RUNNING, runException.getErrorCause()),
+        () -> assertNull(leaseA.acquireLease()));
+
+    leaseB.releaseLease(leaseOfB);
+    assertNotNull(leaseA.acquireLease());
+  }
+
+  @Test
+  void testFencedWriteRejected() throws Exception {
+    TimeAgentLease leaseOfA = nodeA.getBean(TimeAgentLeaseEngine.class).acquireLease();
+    Thread.sleep(1500);
+    TimeAgentLease leaseOfB = nodeB.getBean(TimeAgentLeaseEngine.class).acquireLease();
+    assertNotNull(leaseOfB);
+
+    // the run of node a started before the hand over must not write its status
+    TimeAgentInfo infoOfA = new TimeAgentInfo("dummy-agent", TimeAgentStatus.RUNNING);
+    infoOfA.setFencingToken(leaseOfA.getToken());
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> nodeA.getBean(TimeAgentModelEngine.class).updateRunInfo(infoOfA, TimeAgentEventType.FINISHED));
+    TimeAgentInfo infoOfB = new TimeAgentInfo("dummy-agent", TimeAgentStatus.RUNNING);
+    infoOfB.setFencingToken(leaseOfB.getToken());
+    TimeAgentInfo savedInfoOfB = nodeB.getBean(TimeAgentModelEngine.class).updateRunInfo(infoOfB, TimeAgentEventType.STARTED);
+
+    assertAll("check fenced write",
+        () -> assertEquals(TimeAgentExceptionCause.LEASE_LOST, exception.getErrorCause()),
+        () -> assertNull(infoOfA.getId()),
+        () -> assertNotNull(savedInfoOfB.getId()));
+  }
+
+  @Test
+  void testCronFireRunsOnce() throws Exception {
+    nodeA.getBean(TimeAgentService.class).saveTrigger("nightly", new TimeAgentTrigger(null, null, "0 0 2 * * ?"));
+    TimeAgentRunService runsA = nodeA.getBean(TimeAgentRunService.class);
+    TimeAgentRunService runsB = nodeB.getBean(TimeAgentRunService.class);
+    LocalDateTime cronTime = LocalDateTime.now().withNano(0);
+
+    // node b fires the same time of the crontrigger after the run of node a has ended
+    runsA.fire(nodeA.getBean(TimeAgentTriggerEngine.class).findTrigger("nightly"), cronTime);
+    awaitIdle(runsA);
+    runsB.fire(nodeB.getBean(TimeAgentTriggerEngine.class).findTrigger("nightly"), cronTime);
+    awaitIdle(runsB);
+
+    // the crontrigger of the info is claimed on the lease
+    runsB.fire(new TimeAgentTrigger("dummy-agent", null, "0 0 2 * * ?"), cronTime);
+    awaitIdle(runsB);
+    runsA.fire(new TimeAgentTrigger("dummy-agent", null, "0 0 2 * * ?"), cronTime);
+    awaitIdle(runsA);
+
+    // every run acquires the lease once
+    TimeAgentLease lease = nodeA.getBean(TimeAgentLeaseRepository.class).findByAgentName("dummy-agent");
+    assertAll("check single runs",
+        () -> assertEquals(2, lease.getToken()),
+        () -> assertEquals(cronTime, lease.getLastFireTime()),
+        () -> assertEquals(cronTime, nodeB.getBean(TimeAgentTriggerEngine.class).findTrigger("nightly").getLastFireTime()));
+  }
+
+  @Test
+  void testPartitionClaimsAndRetry() throws Exception {
+    TimeAgentPartitionEngine partitionsA = nodeA.getBean(TimeAgentPartitionEngine.class);
+    TimeAgentPartitionEngine partitionsB = nodeB.getBean(TimeAgentPartitionEngine.class);
+    TimeAgentInfo agentInfo = new TimeAgentInfo("dummy-agent", TimeAgentStatus.RUNNING);
+    agentInfo.setId(4711L);
+    partitionsA.createPartitions(agentInfo, Arrays.asList("a-m", "n-z"));
+
+    TimeAgentPartition claimOfA = partitionsA.claimPartition(4711L);
+    TimeAgentPartition claimOfB = partitionsB.claimPartition(4711L);
+    assertAll("check disjoint claims",
+        () -> assertNotNull(claimOfA),
+        () -> assertNotNull(claimOfB),
+        () -> assertFalse(claimOfA.getId().equals(claimOfB.getId())),
+        () -> assertNull(partitionsA.claimPartition(4711L)));
+
+    // the claim of node a expires and the partition is claimed again by node b
+    Thread.sleep(1500);
+    TimeAgentPartition retryOfB = partitionsB.claimPartition(4711L);
+    assertAll("check retry of node b",
+        () -> assertEquals(claimOfA.getId(), retryOfB.getId()),
+        () -> assertEquals(2, retryOfB.getAttempts()));
+
+    // the late result of node a is rejected
+    assertFalse(partitionsA.finishPartition(claimOfA, "late"));
+    assertTrue(partitionsB.finishPartition(claimOfB, "done"));
+    assertTrue(partitionsB.finishPartition(retryOfB, "done"));
+    assertEquals(0, partitionsA.countOpenPartitions(4711L));
+  }
+
+  @Test
+  void testDependenciesSavedUnderLock() {
+    TimeAgentDependencyEngine dependenciesA = nodeA.getBean(TimeAgentDependencyEngine.class);
+    TimeAgentDependencyEngine dependenciesB = nodeB.getBean(TimeAgentDependencyEngine.class);
+
+    // the first save creates the lock, the next ones take it
+    dependenciesA.saveDependencies(Arrays.asList("upstream-a"));
+    dependenciesB.saveDependencies(Arrays.asList("upstream-a", "upstream-b"));
+
+    assertEquals(2, dependenciesA.findDependencies().size());
+    assertNotNull(nodeA.getBean(TimeAgentLeaseRepository.class).findByAgentName("#dependencies"));
+  }
+
+  private void awaitIdle(TimeAgentRunService runService) throws InterruptedException {
+    long end = System.currentTimeMillis() + 10_000;
+    while (runService.isBusy() && System.currentTimeMillis() < end) {
+      Thread.sleep(20);
+    }
+    assertFalse(runService.isBusy());
+  }
+
+  private ConfigurableApplicationContext startNode(String instanceId, long heartbeat) {
+    return new SpringApplicationBuilder(DummyApplication.class).properties(
+        "server.port=0",
+        "spring.jmx.enabled=false",
+        "timeagent.datasource.write.jdbcUrl=" + JDBC_URL,
+        "timeagent.datasource.read.jdbcUrl=" + JDBC_URL,
+        "timeagent.values.lease.enabled=true",
+        "timeagent.values.lease.duration=1000",
+        "timeagent.values.lease.heartbeat=" + heartbeat,
+        "timeagent.values.partition.claim-duration=1000",
+        "timeagent.values.partition.heartbeat=" + heartbeat,
+        "timeagent.values.lease.instance-id=" + instanceId).run();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.agent;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.smithx.timeagent.api.engines.TimeAgentMailEngine;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.services.TimeAgentService;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+/**
+ * testing the TimeAgentRuntime with the dummy agent against the storage, which
+ * replaces the info on every save.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@SpringBootTest(properties = "timeagent.datasource.jdbcUrl = jdbc:h2:mem:db_timeagent_runtime;DB_CLOSE_DELAY=-1")
+public class TimeAgentRuntimeStorageTest {
+  static final long WAIT = 5000;
+
+  @Autowired
+  TimeAgentService service;
+
+  @Autowired
+  TimeAgentStorage storage;
+
+  @MockBean
+  TimeAgentMailEngine mailEngine;
+
+  @Test
+  void testRunSendsSavedInfo() {
+    service.run(new TimeAgentArgument("mode", "full"));
+
+    ArgumentCaptor<TimeAgentInfo> runInfo = ArgumentCaptor.forClass(TimeAgentInfo.class);
+    verify(mailEngine, timeout(WAIT)).sendProtocol(runInfo.capture());
+    List<String> protocol = runInfo.getValue().getProtocol().stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList());
+    assertAll("check sent info",
+        () -> assertEquals(TimeAgentStatus.FINISHED, runInfo.getValue().getStatus()),
+        () -> assertNotNull(runInfo.getValue().getFinishTimeExecution()),
+        () -> assertTrue(protocol.contains("mode: full")),
+        () -> assertTrue(protocol.contains("i'm a dummy agent")),
+        () -> assertEquals(protocol, storage.findProtocolMessages(runInfo.getValue().getId())),
+        () -> assertNotEquals(runInfo.getValue().getId(), service.getAgentInfo().getId()));
+  }
+}
@@ -16,9 +16,17 @@
 package org.smithx.timeagent.api.agent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -26,9 +34,12 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
 import org.smithx.timeagent.api.exceptions.TimeAgentException;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.services.TimeAgentNotificationService;
 import org.smithx.timeagent.api.services.TimeAgentService;
 
 /**
@@ -45,6 +56,9 @@ public class TimeAgentRuntimeTest {
   @Mock
   TimeAgentService service;
 
+  @Mock
+  TimeAgentNotificationService notificationService;
+
   @Mock
   TimeAgent agent;
 
@@ -55,7 +69,7 @@ public class TimeAgentRuntimeTest {
 
   @BeforeEach
   void beforeEach() {
-    classUnderTest = new TimeAgentRuntime(service, agent);
+    classUnderTest = new TimeAgentRuntime(service, notificationService, agent);
     agentInfo = new TimeAgentInfo();
 
     when(service.getMessages()).thenReturn(messages);
@@ -64,13 +78,61 @@ public class TimeAgentRuntimeTest {
 
   @Test
   void testRunWithArguments() {
+    TimeAgentInfo savedInfo = new TimeAgentInfo();
+    when(service.updateAgentInfo(any(TimeAgentEventType.class)))
+        .thenAnswer(invocation -> TimeAgentEventType.FINISHED.equals(invocation.getArgument(0)) ? savedInfo : agentInfo);
+
     classUnderTest.run(new TimeAgentArgument("key", "value"));
+    verify(service).updateAgentInfo(TimeAgentEventType.STARTED);
+    verify(service).updateAgentInfo(TimeAgentEventType.FINISHED);
+    // the protocol is sent with the saved info of the run
+    verify(notificationService).sendProtocol(savedInfo);
+  }
+
+  @Test
+  void testRunPartitions() throws TimeAgentException {
+    TimeAgentArgument argument = new TimeAgentArgument("key", "value");
+    when(agent.partition(service, argument)).thenReturn(Arrays.asList("a-m", "n-z"));
+
+    classUnderTest.run(argument);
+
+    verify(service).runPartitions(Arrays.asList("a-m", "n-z"), argument);
+    verify(agent, never()).execute(service, argument);
+    assertEquals(TimeAgentStatus.FINISHED, agentInfo.getStatus());
   }
 
   @Test
   void testExceptionOnExecution() throws TimeAgentException {
+    TimeAgentInfo savedInfo = new TimeAgentInfo();
+    List<String> savedProtocol = new ArrayList<>();
     doThrow(new TimeAgentException(TimeAgentExceptionCause.ALREADY_RUNNING, "already running")).when(agent).execute(service);
+    when(service.updateAgentInfo(any(TimeAgentEventType.class))).thenAnswer(invocation -> {
+      if (!TimeAgentEventType.ABORTED.equals(invocation.getArgument(0))) {
+        return agentInfo;
+      }
+      agentInfo.getProtocol().forEach(protocol -> savedProtocol.add(protocol.getMessage()));
+      return savedInfo;
+    });
+
     classUnderTest.run();
     assertEquals(TimeAgentStatus.ABORTED, agentInfo.getStatus());
+    verify(service).updateAgentInfo(TimeAgentEventType.ABORTED);
+    verify(service).updateStatistic();
+    verify(notificationService).sendProtocol(savedInfo);
+    // the exception is saved with the aborted status
+    assertTrue(savedProtocol.get(savedProtocol.size() - 1).endsWith("already running"));
+  }
+
+  @Test
+  void testLeaseLostOnStart() {
+    doThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.LEASE_LOST, "lease lost")).when(service)
+        .updateAgentInfo(TimeAgentEventType.STARTED);
+
+    classUnderTest.run();
+
+    // the fenced run is dropped without writing its status
+    verify(service).dropAgentInfo();
+    verify(service, never()).updateAgentInfo(TimeAgentEventType.ABORTED);
+    verify(notificationService, never()).sendProtocol(agentInfo);
   }
 }
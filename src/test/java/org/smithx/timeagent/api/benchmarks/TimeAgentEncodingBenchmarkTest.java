@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.smithx.timeagent.api.models.TimeAgentEncoding;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * benchmark of the payload size and the serialization time of a search result
+ * with large protocols encoded as json, gzip compressed json and the binary
+ * encodings on the classpath. it is only executed with the system property
+ * 'timeagent.benchmark=true', the number of protocol lines per info can be set
+ * by 'timeagent.benchmark.lines'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "timeagent.benchmark", matches = "true")
+public class TimeAgentEncodingBenchmarkTest {
+  static final int INFOS = 50;
+  static final int ROUNDS = 20;
+
+  @Test
+  void benchmarkEncoding() throws Exception {
+    int lines = Integer.getInteger("timeagent.benchmark.lines", 1000);
+    List<TimeAgentInfo> infos = new ArrayList<>();
+    for (int run = 0; run < INFOS; run++) {
+      TimeAgentInfo agentInfo = new TimeAgentInfo("dummy-agent", TimeAgentStatus.FINISHED);
+      agentInfo.setId((long) run);
+      for (int line = 0; line < lines; line++) {
+        agentInfo.addProtocol(String.format("run %d processed file number %d of batch %d", run, line, run % 10));
+      }
+      infos.add(agentInfo);
+    }
+
+    byte[] json = benchmark("json", new JsonFactory(), infos, false);
+    benchmark("json gzip", new JsonFactory(), infos, true);
+    for (TimeAgentEncoding encoding : new TimeAgentEncoding[] { TimeAgentEncoding.CBOR, TimeAgentEncoding.SMILE }) {
+      byte[] encoded = benchmark(encoding.name().toLowerCase(), encoding.getFactory(), infos, false);
+      assertTrue(encoded.length < json.length);
+      benchmark(encoding.name().toLowerCase() + " gzip", encoding.getFactory(), infos, true);
+    }
+  }
+
+  private byte[] benchmark(String name, JsonFactory factory, List<TimeAgentInfo> infos, boolean gzip) throws IOException {
+    // configured like the json of spring boot
+    ObjectMapper mapper = new ObjectMapper(factory).findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    byte[] payload = null;
+
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      if (gzip) {
+        try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+          mapper.writeValue(gzipOutput, infos);
+        }
+      } else {
+        mapper.writeValue(output, infos);
+      }
+      payload = output.toByteArray();
+    }
+    log.info("{} encoded {} infos to {} bytes in {} ms per search", name, infos.size(), payload.length,
+        (System.nanoTime() - start) / 1_000_000 / ROUNDS);
+    return payload;
+  }
+}
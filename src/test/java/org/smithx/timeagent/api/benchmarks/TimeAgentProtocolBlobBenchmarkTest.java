@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.smithx.timeagent.api.storage.TimeAgentBlobStorage;
+import org.smithx.timeagent.api.storage.TimeAgentJpaStorage;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * benchmark of the stored bytes and the statements to write the protocol as
+ * one row per line compared to the compressed blob. it is only executed with the
+ * system property 'timeagent.benchmark=true', the number of runs can be set by
+ * 'timeagent.benchmark.runs'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+@SpringBootTest(properties = { "timeagent.values.max-limit-search=50", "timeagent.values.storage.type=blob",
+    "spring.jpa.properties.hibernate.generate_statistics=true" })
+@EnabledIfSystemProperty(named = "timeagent.benchmark", matches = "true")
+public class TimeAgentProtocolBlobBenchmarkTest {
+  static final int LINES_PER_RUN = 50;
+
+  @Autowired
+  TimeAgentBlobStorage blobStorage;
+
+  @Autowired
+  TimeAgentInfoRepository agentInfoRepository;
+
+  @Autowired
+  TimeAgentIndexEngine indexEngine;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  void benchmarkProtocolBlob() {
+    int runs = Integer.getInteger("timeagent.benchmark.runs", 500);
+
+    benchmark("rows", new TimeAgentJpaStorage(agentInfoRepository, indexEngine), "rows-agent", runs);
+    benchmark("blob", blobStorage, "blob-agent", runs);
+  }
+
+  private void benchmark(String name, TimeAgentStorage storage, String agentName, int runs) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    // every run is saved like by the runtime: start, each protocol line, finish
+    long start = System.nanoTime();
+    for (int run = 0; run < runs; run++) {
+      TimeAgentInfo agentInfo = storage.save(new TimeAgentInfo(agentName, TimeAgentStatus.RUNNING));
+      for (int line = 0; line < LINES_PER_RUN; line++) {
+        agentInfo.addProtocol(String.format("run %d processed file number %d of batch %d", run, line, run % 100));
+        agentInfo = storage.save(agentInfo);
+      }
+      agentInfo.setStatus(TimeAgentStatus.FINISHED);
+      storage.save(agentInfo);
+    }
+    long writeNanos = System.nanoTime() - start;
+
+    log.info("{} protocol: {} runs of {} lines in {} ms, {} statements ({} inserts, {} deletes), {} kb of protocol", name,
+        runs, LINES_PER_RUN, writeNanos / 1_000_000, statistics.getPrepareStatementCount(), statistics.getEntityInsertCount(),
+        statistics.getEntityDeleteCount(), protocolBytes(agentName) / 1024);
+
+    TimeAgentInfo latest = storage.findLatest(agentName, TimeAgentStatus.FINISHED);
+    assertEquals(LINES_PER_RUN, latest.getProtocol().size());
+  }
+
+  // the payload and the estimated overhead of 40 bytes per row
+  private long protocolBytes(String agentName) {
+    return jdbcTemplate.queryForObject("select coalesce(sum(octet_length(p.message) + 40), 0) from protocol p"
+        + " join info i on i.id = p.info_id where i.agent_name = ?", Long.class, agentName)
+        + jdbcTemplate.queryForObject("select coalesce(sum(octet_length(protocol_data)), 0) from info where agent_name = ?",
+            Long.class, agentName);
+  }
+}
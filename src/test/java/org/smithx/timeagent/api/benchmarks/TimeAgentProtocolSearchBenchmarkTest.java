@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.engines.TimeAgentSearchEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * benchmark of the full-text search over the protocol messages compared to a
+ * like scan over the protocol table. it is only executed with the system
+ * property 'timeagent.benchmark=true', the number of protocol lines can be set
+ * by 'timeagent.benchmark.lines'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+@SpringBootTest(properties = "timeagent.values.max-limit-search=50")
+@EnabledIfSystemProperty(named = "timeagent.benchmark", matches = "true")
+public class TimeAgentProtocolSearchBenchmarkTest {
+  static final int LINES_PER_RUN = 100;
+  static final int SEARCHES = 20;
+
+  @Autowired
+  TimeAgentInfoRepository agentInfoRepository;
+
+  @Autowired
+  TimeAgentIndexEngine indexEngine;
+
+  @Autowired
+  TimeAgentSearchEngine searchEngine;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Test
+  void benchmarkProtocolSearch() {
+    int lines = Integer.getInteger("timeagent.benchmark.lines", 1_000_000);
+    int runs = lines / LINES_PER_RUN;
+
+    long start = System.nanoTime();
+    for (int run = 0; run < runs; run++) {
+      TimeAgentInfo agentInfo = new TimeAgentInfo("dummy-agent", TimeAgentStatus.FINISHED);
+      for (int line = 0; line < LINES_PER_RUN; line++) {
+        agentInfo.addProtocol(String.format("run %d processed file number %d of batch %d", run, line, run % 1000));
+      }
+      indexEngine.indexProtocol(agentInfoRepository.save(agentInfo));
+    }
+    log.info("inserted and indexed {} protocol lines in {} ms", lines, (System.nanoTime() - start) / 1_000_000);
+
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(50);
+    searchModel.setProtocolText("processed file number 42 of batch 142");
+
+    start = System.nanoTime();
+    List<TimeAgentInfo> result = null;
+    for (int search = 0; search < SEARCHES; search++) {
+      result = searchEngine.searchAgentInfo(searchModel);
+    }
+    log.info("index search found {} runs in {} ms per search", result.size(), (System.nanoTime() - start) / 1_000_000 / SEARCHES);
+    assertFalse(result.isEmpty());
+
+    start = System.nanoTime();
+    List<?> scanResult = null;
+    for (int search = 0; search < SEARCHES; search++) {
+      scanResult = entityManager
+          .createQuery("select distinct p.info.id from TimeAgentProtocol p where lower(p.message) like :text")
+          .setParameter("text", "%number 42 of batch 142%")
+          .setMaxResults(50)
+          .getResultList();
+    }
+    log.info("like scan found {} runs in {} ms per search", scanResult.size(), (System.nanoTime() - start) / 1_000_000 / SEARCHES);
+  }
+}
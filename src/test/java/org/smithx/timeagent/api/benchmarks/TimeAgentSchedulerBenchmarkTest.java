@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.smithx.timeagent.api.configuration.SchedulerValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.threads.TimeAgentTimerWheelScheduler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * benchmark of the timer wheel compared to the thread pool scheduler. it
+ * measures the rescheduling of the triggers, which cancels the scheduled fire
+ * and schedules the next one, and the delay of many fires at the same time. it
+ * is only executed with the system property 'timeagent.benchmark=true', the
+ * number of triggers can be set by 'timeagent.benchmark.triggers'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "timeagent.benchmark", matches = "true")
+public class TimeAgentSchedulerBenchmarkTest {
+  static final int ROUNDS = 5;
+
+  @Test
+  void benchmarkScheduler() throws Exception {
+    int triggers = Integer.getInteger("timeagent.benchmark.triggers", 100_000);
+
+    ThreadPoolTaskScheduler poolScheduler = new ThreadPoolTaskScheduler();
+    poolScheduler.setPoolSize(1);
+    poolScheduler.setRemoveOnCancelPolicy(true);
+    poolScheduler.initialize();
+    try {
+      benchmark("pool", poolScheduler, triggers);
+    } finally {
+      poolScheduler.shutdown();
+    }
+
+    TimeAgentTimerWheelScheduler wheelScheduler = new TimeAgentTimerWheelScheduler(new SchedulerValue(),
+        Mockito.mock(TimeAgentMessages.class));
+    try {
+      benchmark("wheel", wheelScheduler, triggers);
+    } finally {
+      wheelScheduler.shutdown();
+    }
+  }
+
+  private void benchmark(String name, TaskScheduler scheduler, int triggers) throws InterruptedException {
+    ScheduledFuture<?>[] futures = new ScheduledFuture<?>[triggers];
+    long start = System.nanoTime();
+    for (int round = 0; round < ROUNDS; round++) {
+      for (int trigger = 0; trigger < triggers; trigger++) {
+        if (futures[trigger] != null) {
+          futures[trigger].cancel(false);
+        }
+        long delay = ThreadLocalRandom.current().nextLong(60_000, 3_600_000);
+        futures[trigger] = scheduler.schedule(() -> {}, new Date(System.currentTimeMillis() + delay));
+      }
+    }
+    long nanos = System.nanoTime() - start;
+    log.info("{}: {} reschedules per second", name, (long) ROUNDS * triggers * 1_000_000_000L / nanos);
+    for (ScheduledFuture<?> future : futures) {
+      future.cancel(false);
+    }
+
+    int fires = Math.min(triggers, 10_000);
+    CountDownLatch fired = new CountDownLatch(fires);
+    AtomicLong delays = new AtomicLong();
+    long fireTime = System.currentTimeMillis() + 1000;
+    for (int fire = 0; fire < fires; fire++) {
+      scheduler.schedule(() -> {
+        delays.addAndGet(System.currentTimeMillis() - fireTime);
+        fired.countDown();
+      }, new Date(fireTime));
+    }
+    assertTrue(fired.await(60, TimeUnit.SECONDS));
+    log.info("{}: {} fires at the same time with a mean delay of {} ms", name, fires, delays.get() / fires);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentJpaStorage;
+import org.smithx.timeagent.api.storage.TimeAgentLogStorage;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * benchmark of the write and search throughput of the jpa storage compared to
+ * the log storage. it is only executed with the system property
+ * 'timeagent.benchmark=true', the number of runs can be set by
+ * 'timeagent.benchmark.runs'.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@Slf4j
+@SpringBootTest(properties = "timeagent.values.max-limit-search=50")
+@EnabledIfSystemProperty(named = "timeagent.benchmark", matches = "true")
+public class TimeAgentStorageBenchmarkTest {
+  static final String AGENTNAME = "benchmark-agent";
+  static final int LINES_PER_RUN = 10;
+  static final int SEARCHES = 200;
+
+  @Autowired
+  TimeAgentJpaStorage jpaStorage;
+
+  @Autowired
+  TimeAgentMessages messages;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void benchmarkStorage() {
+    int runs = Integer.getInteger("timeagent.benchmark.runs", 2_000);
+
+    TimeAgentLogStorage logStorage = new TimeAgentLogStorage(directory.resolve("info.log"), 16 * 1024 * 1024, messages);
+    logStorage.open();
+    try {
+      benchmark("jpa", jpaStorage, runs);
+      benchmark("log", logStorage, runs);
+    } finally {
+      logStorage.close();
+    }
+  }
+
+  private void benchmark(String name, TimeAgentStorage storage, int runs) {
+    // every run is saved like by the runtime: start, each protocol line, finish
+    int saves = 0;
+    long start = System.nanoTime();
+    for (int run = 0; run < runs; run++) {
+      TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+      agentInfo.setExecutor(run % 10 == 0 ? "admin" : "user");
+      agentInfo.setStartTimeExecution(LocalDateTime.now());
+      agentInfo = storage.save(agentInfo);
+      for (int line = 0; line < LINES_PER_RUN; line++) {
+        agentInfo.addProtocol(String.format("run %d processed file number %d", run, line));
+        agentInfo = storage.save(agentInfo);
+      }
+      agentInfo.setFinishTimeExecution(LocalDateTime.now());
+      agentInfo.setStatus(run % 5 == 0 ? TimeAgentStatus.ABORTED : TimeAgentStatus.FINISHED);
+      storage.save(agentInfo);
+      saves += LINES_PER_RUN + 2;
+    }
+    long writeNanos = System.nanoTime() - start;
+    log.info("{} storage: {} saves in {} ms, {} saves/s", name, saves, writeNanos / 1_000_000,
+        saves * 1_000_000_000L / writeNanos);
+
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(50);
+    searchModel.setStatus(TimeAgentStatus.ABORTED);
+    searchModel.setExecutor("admin");
+
+    start = System.nanoTime();
+    for (int search = 0; search < SEARCHES; search++) {
+      assertEquals(Math.min(50, (runs + 9) / 10), storage.search(AGENTNAME, searchModel).size());
+    }
+    long searchNanos = System.nanoTime() - start;
+    log.info("{} storage: {} searches in {} ms, {} searches/s", name, SEARCHES, searchNanos / 1_000_000,
+        SEARCHES * 1_000_000_000L / searchNanos);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * testing the TimeAgentCompressionFilter.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentCompressionFilterTest {
+  TimeAgentCompressionFilter classUnderTest;
+
+  EncodingValue encodingValue;
+
+  MockHttpServletRequest request;
+
+  MockHttpServletResponse response;
+
+  @BeforeEach
+  void beforeEach() {
+    encodingValue = new EncodingValue();
+    encodingValue.setCompressionThreshold(100);
+    classUnderTest = new TimeAgentCompressionFilter(encodingValue);
+    request = new MockHttpServletRequest("POST", "/timeagent/info/search");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+    response = new MockHttpServletResponse();
+  }
+
+  @Test
+  void testCompressAboveThreshold() throws Exception {
+    byte[] body = "[{\"agentName\":\"agent\"}]".repeat(10).getBytes(StandardCharsets.UTF_8);
+    classUnderTest.doFilter(request, response, (filterRequest, filterResponse) -> filterResponse.getOutputStream().write(body));
+
+    assertAll("check compressed response",
+        () -> assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING)),
+        () -> assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY)),
+        () -> assertArrayEquals(body,
+            new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes()));
+  }
+
+  @Test
+  void testKeepBelowThreshold() throws Exception {
+    byte[] body = "[{\"agentName\":\"agent\"}]".getBytes(StandardCharsets.UTF_8);
+    classUnderTest.doFilter(request, response, (filterRequest, filterResponse) -> filterResponse.getOutputStream().write(body));
+
+    assertAll("check uncompressed response",
+        () -> assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING)),
+        () -> assertArrayEquals(body, response.getContentAsByteArray()));
+  }
+
+  @Test
+  void testKeepWithoutAcceptEncoding() throws Exception {
+    request.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+    byte[] body = new byte[1000];
+    classUnderTest.doFilter(request, response, (filterRequest, filterResponse) -> filterResponse.getOutputStream().write(body));
+
+    assertAll("check uncompressed response",
+        () -> assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING)),
+        () -> assertEquals(1000, response.getContentAsByteArray().length));
+  }
+
+  @Test
+  void testKeepErrorAndDisabled() throws Exception {
+    byte[] body = new byte[1000];
+    classUnderTest.doFilter(request, response, (filterRequest, filterResponse) -> {
+      ((HttpServletResponse) filterResponse).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      filterResponse.getOutputStream().write(body);
+    });
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+    encodingValue.setCompression(false);
+    MockHttpServletResponse disabledResponse = new MockHttpServletResponse();
+    classUnderTest.doFilter(request, disabledResponse,
+        (filterRequest, filterResponse) -> filterResponse.getOutputStream().write(body));
+    assertAll("check disabled compression",
+        () -> assertNull(disabledResponse.getHeader(HttpHeaders.CONTENT_ENCODING)),
+        () -> assertEquals(1000, disabledResponse.getContentAsByteArray().length));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.engines.TimeAgentSearchEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * testing the read and write pools against two separate databases. the write
+ * pool is configured by the keys of older configurations.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@SpringBootTest(properties = { "timeagent.values.max-limit-search = 50",
+    "timeagent.datasource.jdbcUrl = jdbc:h2:mem:db_timeagent_primary;DB_CLOSE_DELAY=-1",
+    "timeagent.datasource.read.jdbcUrl = jdbc:h2:mem:db_timeagent_replica;DB_CLOSE_DELAY=-1" })
+public class TimeAgentReadPoolTest {
+  static final String AGENTNAME = "dummy-agent";
+
+  @Autowired
+  TimeAgentStorage storage;
+
+  @Autowired
+  TimeAgentSearchEngine searchEngine;
+
+  @Autowired
+  @Qualifier("writeDataSource")
+  DataSource writeDataSource;
+
+  @Autowired
+  @Qualifier("readDataSource")
+  DataSource readDataSource;
+
+  @Test
+  void testSearchHitsReadPool() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    agentInfo.addProtocol("written to the primary");
+    Long infoId = storage.save(agentInfo).getId();
+
+    replicate(false);
+    assertTrue(search().stream().noneMatch(info -> infoId.equals(info.getId())));
+
+    replicate(true);
+    assertTrue(search().stream().anyMatch(info -> infoId.equals(info.getId())));
+  }
+
+  @Test
+  void testWriteGoesToWritePool() {
+    replicate(false);
+    TimeAgentInfo agentInfo = storage.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED));
+
+    assertEquals(agentInfo.getId(), storage.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getId());
+    assertTrue(search().isEmpty());
+  }
+
+  @Test
+  void testWritePoolSizedByThreads() {
+    // 4 run threads, 16 batch threads, 2 pool threads, 1 heartbeat thread and 1 request thread
+    assertEquals(24, ((HikariDataSource) writeDataSource).getMaximumPoolSize());
+    assertEquals(8, ((HikariDataSource) readDataSource).getMaximumPoolSize());
+  }
+
+  private List<TimeAgentInfo> search() {
+    return searchEngine.searchAgentInfo(new TimeAgentInfoSearch());
+  }
+
+  /**
+   * copies the primary into the replica, with or without the rows.
+   */
+  private void replicate(boolean withData) {
+    List<String> script = new JdbcTemplate(writeDataSource).queryForList(withData ? "SCRIPT" : "SCRIPT NODATA", String.class);
+    JdbcTemplate replica = new JdbcTemplate(readDataSource);
+    replica.execute("DROP ALL OBJECTS");
+    script.forEach(replica::execute);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * testing the TimeAgentRoutingDataSource.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentRoutingDataSourceTest {
+  TimeAgentRoutingDataSource classUnderTest;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentRoutingDataSource();
+  }
+
+  @AfterEach
+  void afterEach() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  void testWriteRoute() {
+    assertEquals(TimeAgentRoutingDataSource.Route.WRITE, classUnderTest.determineCurrentLookupKey());
+  }
+
+  @Test
+  void testReadRoute() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    assertEquals(TimeAgentRoutingDataSource.Route.READ, classUnderTest.determineCurrentLookupKey());
+  }
+}
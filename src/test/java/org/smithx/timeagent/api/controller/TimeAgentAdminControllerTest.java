@@ -15,22 +15,50 @@
  */
 package org.smithx.timeagent.api.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
 import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentMisfire;
+import org.smithx.timeagent.api.models.TimeAgentMisfireReason;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.services.TimeAgentNotificationService;
+import org.smithx.timeagent.api.services.TimeAgentPartitionService;
+import org.smithx.timeagent.api.services.TimeAgentRunService;
 import org.smithx.timeagent.api.services.TimeAgentService;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+
 /**
  * testing the TimeAgentAdminController.
  *
@@ -43,6 +71,15 @@ public class TimeAgentAdminControllerTest extends TimeAgentControllerTest {
   @MockBean
   TimeAgentService service;
 
+  @MockBean
+  TimeAgentRunService runService;
+
+  @MockBean
+  TimeAgentPartitionService partitionService;
+
+  @MockBean
+  TimeAgentNotificationService notificationService;
+
   @Test
   void testRunWithArguments() throws Exception {
     TimeAgentArgument[] arguments = { new TimeAgentArgument("test", "123") };
@@ -65,6 +102,13 @@ public class TimeAgentAdminControllerTest extends TimeAgentControllerTest {
         .andExpect(status().isUnprocessableEntity());
   }
 
+  @Test
+  void testArchive() throws Exception {
+    when(service.archiveInfo()).thenReturn(42);
+
+    mvc.perform(post("/timeagent/admin/archive")).andExpect(status().is2xxSuccessful()).andExpect(content().string("42"));
+  }
+
   @Test
   void testSetTrigger() throws Exception {
     mvc.perform(post("/timeagent/admin/trigger").contentType(MediaType.TEXT_PLAIN).content("trigger"))
@@ -84,4 +128,140 @@ public class TimeAgentAdminControllerTest extends TimeAgentControllerTest {
     mvc.perform(delete("/timeagent/admin/trigger")).andExpect(status().is2xxSuccessful());
   }
 
+  @Test
+  void testGetTriggers() throws Exception {
+    when(service.getTriggers()).thenReturn(Arrays.asList(new TimeAgentTrigger("agent", "nightly", "0 0 2 * * ?",
+        new TimeAgentArgument("mode", "full")), new TimeAgentTrigger("agent", "hourly", "0 0 * * * ?")));
+
+    String response = mvc.perform(get("/timeagent/admin/triggers")).andExpect(status().is2xxSuccessful()).andReturn().getResponse()
+        .getContentAsString();
+    List<TimeAgentTrigger> triggers = mapper.readValue(response, new TypeReference<List<TimeAgentTrigger>>() {});
+    assertEquals(2, triggers.size());
+    assertEquals(Arrays.asList(new TimeAgentArgument("mode", "full")), triggers.get(0).getArguments());
+  }
+
+  @Test
+  void testGetTriggerNotFound() throws Exception {
+    when(service.getTrigger("unknown"))
+        .thenThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.TRIGGER_NOT_FOUND, "trigger not found"));
+    mvc.perform(get("/timeagent/admin/triggers/unknown")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testSaveNamedTrigger() throws Exception {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 2 * * ?", new TimeAgentArgument("mode", "full"));
+    when(service.saveTrigger(eq("nightly"), any(TimeAgentTrigger.class))).thenReturn(trigger);
+
+    mvc.perform(put("/timeagent/admin/triggers/nightly").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .content(mapper.writeValueAsString(trigger))).andExpect(status().is2xxSuccessful());
+  }
+
+  @Test
+  void testSaveInvalidNamedTrigger() throws Exception {
+    when(service.saveTrigger(eq("nightly"), any(TimeAgentTrigger.class)))
+        .thenThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_TRIGGER, "invalid trigger"));
+
+    mvc.perform(put("/timeagent/admin/triggers/nightly").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .content(mapper.writeValueAsString(new TimeAgentTrigger(null, null, "xyz")))).andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  void testDeleteNamedTrigger() throws Exception {
+    mvc.perform(delete("/timeagent/admin/triggers/nightly")).andExpect(status().is2xxSuccessful());
+  }
+
+  @Test
+  void testGetMisfires() throws Exception {
+    when(runService.getMisfires(5)).thenReturn(Arrays.asList(new TimeAgentMisfire("agent", "nightly", LocalDateTime.now(),
+        TimeAgentMisfireReason.OVERLAP_SKIPPED, 1)));
+
+    String response = mvc.perform(get("/timeagent/admin/misfires").param("limit", "5")).andExpect(status().is2xxSuccessful())
+        .andReturn().getResponse().getContentAsString();
+    List<TimeAgentMisfire> misfires = mapper.readValue(response, new TypeReference<List<TimeAgentMisfire>>() {});
+    assertEquals(TimeAgentMisfireReason.OVERLAP_SKIPPED, misfires.get(0).getReason());
+  }
+
+  @Test
+  void testGetPartitions() throws Exception {
+    TimeAgentPartition partition = new TimeAgentPartition(1L, "agent", "a-m", new TimeAgentArgument("mode", "full"));
+    partition.setStatus(TimeAgentPartitionStatus.DONE);
+    when(partitionService.getPartitions(1L)).thenReturn(Arrays.asList(partition));
+
+    String response = mvc.perform(get("/timeagent/admin/partitions/1")).andExpect(status().is2xxSuccessful())
+        .andReturn().getResponse().getContentAsString();
+    List<TimeAgentPartition> partitions = mapper.readValue(response, new TypeReference<List<TimeAgentPartition>>() {});
+    assertEquals(TimeAgentPartitionStatus.DONE, partitions.get(0).getStatus());
+  }
+
+  @Test
+  void testGetAdmissions() throws Exception {
+    TimeAgentAdmission admission = new TimeAgentAdmission("agent", "instance", 2, 1, 0.5, LocalDateTime.now());
+    admission.setSlot(3);
+    when(runService.getAdmissions()).thenReturn(Arrays.asList(admission));
+
+    String response = mvc.perform(get("/timeagent/admin/admissions")).andExpect(status().is2xxSuccessful())
+        .andReturn().getResponse().getContentAsString();
+    List<TimeAgentAdmission> admissions = mapper.readValue(response, new TypeReference<List<TimeAgentAdmission>>() {});
+    assertEquals(3, admissions.get(0).getSlot());
+  }
+
+  @Test
+  void testRunBatch() throws Exception {
+    List<List<TimeAgentArgument>> argumentSets = Arrays.asList(Arrays.asList(new TimeAgentArgument("customer", "1")),
+        Arrays.asList(new TimeAgentArgument("customer", "2")));
+    TimeAgentInfo parentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    parentInfo.setId(9L);
+    when(runService.runBatch(argumentSets, 2)).thenReturn(new TimeAgentBatch(parentInfo, 2, 2));
+
+    mvc.perform(post("/timeagent/admin/batches").param("parallelism", "2").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .content(mapper.writeValueAsString(argumentSets))).andExpect(status().is2xxSuccessful())
+        .andExpect(jsonPath("$.id").value(9)).andExpect(jsonPath("$.pending").value(2))
+        .andExpect(jsonPath("$.parentInfo").doesNotExist());
+  }
+
+  @Test
+  void testGetBatchNotFound() throws Exception {
+    when(runService.getBatch(9L))
+        .thenThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.BATCH_NOT_FOUND, "batch not found"));
+    mvc.perform(get("/timeagent/admin/batches/9")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void testGetOutboxEvents() throws Exception {
+    TimeAgentOutboxEvent event = new TimeAgentOutboxEvent(new TimeAgentInfo("agent", TimeAgentStatus.FINISHED),
+        TimeAgentEventType.FINISHED);
+    event.setAttempts(2);
+    when(notificationService.getOutboxEvents(10)).thenReturn(Arrays.asList(event));
+
+    String response = mvc.perform(get("/timeagent/admin/outbox").param("limit", "10")).andExpect(status().is2xxSuccessful())
+        .andReturn().getResponse().getContentAsString();
+    List<TimeAgentOutboxEvent> events = mapper.readValue(response, new TypeReference<List<TimeAgentOutboxEvent>>() {});
+    assertEquals(TimeAgentEventType.FINISHED, events.get(0).getEventType());
+    assertEquals(2, events.get(0).getAttempts());
+  }
+
+  @Test
+  void testSaveDependencies() throws Exception {
+    List<String> upstreamNames = Arrays.asList("upstream-a", "upstream-b");
+    when(service.saveDependencies(upstreamNames)).thenReturn(Arrays.asList(
+        new TimeAgentDependency("agent", "upstream-a", LocalDateTime.now()),
+        new TimeAgentDependency("agent", "upstream-b", LocalDateTime.now())));
+
+    String response = mvc.perform(put("/timeagent/admin/dependencies").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .content(mapper.writeValueAsString(upstreamNames))).andExpect(status().is2xxSuccessful())
+        .andReturn().getResponse().getContentAsString();
+    List<TimeAgentDependency> dependencies = mapper.readValue(response, new TypeReference<List<TimeAgentDependency>>() {});
+    assertEquals("upstream-b", dependencies.get(1).getUpstreamName());
+  }
+
+  @Test
+  void testSaveDependenciesCycle() throws Exception {
+    List<String> upstreamNames = Arrays.asList("upstream-a");
+    when(service.saveDependencies(upstreamNames))
+        .thenThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.INVALID_DEPENDENCY, "cycle"));
+
+    mvc.perform(put("/timeagent/admin/dependencies").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .content(mapper.writeValueAsString(upstreamNames))).andExpect(status().isNotAcceptable());
+  }
+
 }
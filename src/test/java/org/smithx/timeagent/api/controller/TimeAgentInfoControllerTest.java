@@ -17,27 +17,56 @@ package org.smithx.timeagent.api.controller;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentEncoding;
+import org.smithx.timeagent.api.models.TimeAgentExportFormat;
+import org.smithx.timeagent.api.models.TimeAgentFields;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticBucket;
+import org.smithx.timeagent.api.models.TimeAgentStatisticSearch;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
 import org.smithx.timeagent.api.services.TimeAgentService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 /**
  * testing the TimeAgentInfoController.
@@ -51,6 +80,9 @@ public class TimeAgentInfoControllerTest extends TimeAgentControllerTest {
   @MockBean
   TimeAgentService service;
 
+  @Autowired
+  Jackson2ObjectMapperBuilder objectMapperBuilder;
+
   TimeAgentInfo info;
 
   @BeforeEach
@@ -66,7 +98,7 @@ public class TimeAgentInfoControllerTest extends TimeAgentControllerTest {
 
   @Test
   void testGetInfo() throws Exception {
-    when(service.getAgentInfo()).thenReturn(info);
+    when(service.getAgentInfoSnapshot()).thenReturn(new TimeAgentInfoSnapshot(1, "\"1\"", mapper.writeValueAsBytes(info)));
 
     MockHttpServletResponse response = mvc.perform(get("/timeagent/info")).andExpect(status().is2xxSuccessful()).andReturn().getResponse();
     TimeAgentInfo mappedResponse = mapper.reader().forType(TimeAgentInfo.class).readValue(response.getContentAsString());
@@ -80,17 +112,198 @@ public class TimeAgentInfoControllerTest extends TimeAgentControllerTest {
         () -> assertEquals(info.getNextExecution(), mappedResponse.getNextExecution()));
   }
 
+  @Test
+  void testGetInfoGzip() throws Exception {
+    when(service.getAgentInfoSnapshot()).thenReturn(new TimeAgentInfoSnapshot(1, "\"1\"", mapper.writeValueAsBytes(info)));
+
+    MockHttpServletResponse response = mvc.perform(get("/timeagent/info").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().is2xxSuccessful()).andReturn().getResponse();
+    TimeAgentInfo mappedResponse = mapper.reader().forType(TimeAgentInfo.class)
+        .readValue(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+    assertAll("check gzip info",
+        () -> assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING)),
+        () -> assertEquals("\"1-gzip\"", response.getHeader(HttpHeaders.ETAG)),
+        () -> assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY)),
+        () -> assertEquals(info.getAgentName(), mappedResponse.getAgentName()));
+  }
+
+  @Test
+  void testGetInfoBinary() throws Exception {
+    when(service.getAgentInfoSnapshot()).thenReturn(new TimeAgentInfoSnapshot(1, "\"a-1\"", mapper.writeValueAsBytes(info)));
+
+    mvc.perform(get("/timeagent/info").accept(MediaType.APPLICATION_XML)).andExpect(status().isNotAcceptable());
+    MockHttpServletResponse response = mvc.perform(get("/timeagent/info").accept(TimeAgentEncoding.CBOR_VALUE))
+        .andExpect(status().is2xxSuccessful()).andReturn().getResponse();
+    TimeAgentInfo mappedResponse = objectMapperBuilder.factory(new CBORFactory()).build().readValue(response.getContentAsByteArray(), TimeAgentInfo.class);
+    assertAll("check cbor info",
+        () -> assertEquals(TimeAgentEncoding.CBOR_VALUE, response.getContentType()),
+        () -> assertEquals("\"a-1-cbor\"", response.getHeader(HttpHeaders.ETAG)),
+        () -> assertEquals(info.getAgentName(), mappedResponse.getAgentName()),
+        () -> assertEquals(info.getStartTimeExecution(), mappedResponse.getStartTimeExecution()));
+  }
+
+  @Test
+  void testGetInfoFields() throws Exception {
+    when(service.getAgentInfoSnapshot()).thenReturn(new TimeAgentInfoSnapshot(1, "\"a-1\"", mapper.writeValueAsBytes(info)));
+
+    MockHttpServletResponse response = mvc.perform(get("/timeagent/info").param("fields", "status,nextExecution"))
+        .andExpect(status().is2xxSuccessful()).andReturn().getResponse();
+    JsonNode mappedResponse = mapper.readTree(response.getContentAsByteArray());
+    assertAll("check sparse info",
+        () -> assertEquals(2, mappedResponse.size()),
+        () -> assertEquals("RUNNING", mappedResponse.get("status").asText()),
+        () -> assertTrue(response.getHeader(HttpHeaders.ETAG).matches("\"a-1-f[0-9a-f]+\"")));
+
+    // the same fields in another order are the same variant
+    mvc.perform(get("/timeagent/info").param("fields", "nextExecution,status")
+        .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG))).andExpect(status().isNotModified());
+    mvc.perform(get("/timeagent/info").param("fields", "status")
+        .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG))).andExpect(status().is2xxSuccessful());
+
+    mvc.perform(get("/timeagent/info").param("fields", "status,unknown")).andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  void testGetInfoNotModified() throws Exception {
+    when(service.getAgentInfoSnapshot()).thenReturn(new TimeAgentInfoSnapshot(1, "\"a-1\"", mapper.writeValueAsBytes(info)));
+
+    mvc.perform(get("/timeagent/info").header(HttpHeaders.IF_NONE_MATCH, "\"a-1\"")).andExpect(status().isNotModified());
+    // the identity is another variant than the binary encoding
+    mvc.perform(get("/timeagent/info").header(HttpHeaders.IF_NONE_MATCH, "\"a-1-cbor\"")).andExpect(status().is2xxSuccessful());
+    mvc.perform(get("/timeagent/info").header(HttpHeaders.IF_NONE_MATCH, "\"a-0\""))
+        .andExpect(status().is2xxSuccessful())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"a-1\""));
+  }
+
+  @Test
+  void testAwaitInfo() throws Exception {
+    TimeAgentInfoSnapshot changed = new TimeAgentInfoSnapshot(2, "\"a-2\"", mapper.writeValueAsBytes(info));
+    when(service.awaitAgentInfoSnapshot("\"a-1\"", 5000)).thenReturn(CompletableFuture.completedFuture(changed));
+
+    MvcResult result = mvc.perform(get("/timeagent/info").param("wait", "5000").header(HttpHeaders.IF_NONE_MATCH, "\"a-1\""))
+        .andExpect(request().asyncStarted()).andReturn();
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful()).andReturn()
+        .getResponse();
+    assertAll("check changed info",
+        () -> assertEquals("\"a-2\"", response.getHeader(HttpHeaders.ETAG)),
+        () -> assertEquals("agent", mapper.readValue(response.getContentAsString(), TimeAgentInfo.class).getAgentName()));
+  }
+
+  @Test
+  void testAwaitInfoNotModified() throws Exception {
+    TimeAgentInfoSnapshot unchanged = new TimeAgentInfoSnapshot(1, "\"a-1\"", mapper.writeValueAsBytes(info));
+    when(service.awaitAgentInfoSnapshot("\"a-1\"", 10)).thenReturn(CompletableFuture.completedFuture(unchanged));
+
+    MvcResult result = mvc.perform(get("/timeagent/info").param("wait", "10").header(HttpHeaders.IF_NONE_MATCH, "\"a-1\""))
+        .andExpect(request().asyncStarted()).andReturn();
+    mvc.perform(asyncDispatch(result)).andExpect(status().isNotModified());
+  }
+
   @Test
   void testSearch() throws Exception {
     TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
-    when(service.searchInfo(searchModel)).thenReturn(Arrays.asList(new TimeAgentInfo()));
+    when(service.searchInfoAsync(searchModel)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(new TimeAgentInfo())));
 
-    MockHttpServletResponse response = mvc
+    MvcResult result = mvc
         .perform(
             post("/timeagent/info/search").contentType(MediaType.APPLICATION_JSON_VALUE).content(mapper.writeValueAsString(searchModel)))
-        .andExpect(status().is2xxSuccessful()).andReturn().getResponse();
+        .andExpect(request().asyncStarted()).andReturn();
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful()).andReturn()
+        .getResponse();
     List<TimeAgentInfo> mappedResponse = mapper.readValue(response.getContentAsString(), new TypeReference<List<TimeAgentInfo>>() {});
     assertEquals(1, mappedResponse.size());
   }
 
+  @Test
+  void testSearchFields() throws Exception {
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    TimeAgentInfoSearch sparseSearchModel = new TimeAgentInfoSearch();
+    sparseSearchModel.setFields(TimeAgentFields.parse("status,nextExecution"));
+    when(service.searchInfoAsync(sparseSearchModel)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(info)));
+
+    MvcResult result = mvc.perform(post("/timeagent/info/search").param("fields", "nextExecution,status")
+        .contentType(MediaType.APPLICATION_JSON_VALUE).content(mapper.writeValueAsString(searchModel)))
+        .andExpect(request().asyncStarted()).andReturn();
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful()).andReturn()
+        .getResponse();
+    JsonNode mappedResponse = mapper.readTree(response.getContentAsByteArray()).get(0);
+    List<String> fieldNames = new ArrayList<>();
+    mappedResponse.fieldNames().forEachRemaining(fieldNames::add);
+    assertAll("check sparse search",
+        () -> assertEquals(Arrays.asList("status", "nextExecution"), fieldNames),
+        () -> assertEquals("RUNNING", mappedResponse.get("status").asText()),
+        () -> assertTrue(mappedResponse.hasNonNull("nextExecution")));
+  }
+
+  @Test
+  void testSearchBinary() throws Exception {
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    when(service.searchInfoAsync(searchModel)).thenReturn(CompletableFuture.completedFuture(Arrays.asList(info)));
+
+    MvcResult result = mvc.perform(post("/timeagent/info/search").contentType(MediaType.APPLICATION_JSON_VALUE)
+        .accept(TimeAgentEncoding.SMILE_VALUE).content(mapper.writeValueAsString(searchModel)))
+        .andExpect(request().asyncStarted()).andReturn();
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful()).andReturn()
+        .getResponse();
+    List<TimeAgentInfo> mappedResponse = objectMapperBuilder.factory(new SmileFactory()).build()
+        .readValue(response.getContentAsByteArray(), new TypeReference<List<TimeAgentInfo>>() {});
+    assertAll("check smile search",
+        () -> assertEquals(TimeAgentEncoding.SMILE_VALUE, response.getContentType()),
+        () -> assertEquals(info.getStartTimeExecution(), mappedResponse.get(0).getStartTimeExecution()));
+  }
+
+  @Test
+  void testSearchTimeout() throws Exception {
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    CompletableFuture<List<TimeAgentInfo>> future = new CompletableFuture<>();
+    future.completeExceptionally(new TimeAgentRuntimeException(TimeAgentExceptionCause.QUERY_TIMEOUT, "timeout"));
+    when(service.searchInfoAsync(searchModel)).thenReturn(future);
+
+    MvcResult result = mvc
+        .perform(
+            post("/timeagent/info/search").contentType(MediaType.APPLICATION_JSON_VALUE).content(mapper.writeValueAsString(searchModel)))
+        .andExpect(request().asyncStarted()).andReturn();
+    mvc.perform(asyncDispatch(result)).andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void testStatistic() throws Exception {
+    TimeAgentStatisticSearch searchModel = new TimeAgentStatisticSearch();
+    TimeAgentStatistic statistic = new TimeAgentStatistic("agent", TimeAgentStatisticBucket.DAILY, LocalDateTime.of(2020, 1, 1, 0, 0),
+        TimeAgentStatus.ABORTED, "user");
+    statistic.addDuration(1000);
+    when(service.searchStatistic(searchModel)).thenReturn(Arrays.asList(statistic));
+
+    MockHttpServletResponse response = mvc
+        .perform(
+            post("/timeagent/info/stats").contentType(MediaType.APPLICATION_JSON_VALUE).content(mapper.writeValueAsString(searchModel)))
+        .andExpect(status().is2xxSuccessful()).andReturn().getResponse();
+    List<TimeAgentStatistic> mappedResponse = mapper.readValue(response.getContentAsString(),
+        new TypeReference<List<TimeAgentStatistic>>() {});
+    assertAll("check statistic",
+        () -> assertEquals(1, mappedResponse.size()),
+        () -> assertEquals(1, mappedResponse.get(0).getCount()),
+        () -> assertEquals(TimeAgentStatus.ABORTED, mappedResponse.get(0).getStatus()));
+  }
+
+  @Test
+  void testExport() throws Exception {
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    when(service.exportInfo(eq(searchModel), eq(TimeAgentExportFormat.CSV), eq(true), any())).thenAnswer(invocation -> {
+      invocation.getArgument(3, OutputStream.class).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    });
+
+    MvcResult result = mvc
+        .perform(post("/timeagent/info/export").param("format", "CSV").param("protocol", "true")
+            .contentType(MediaType.APPLICATION_JSON_VALUE).content(mapper.writeValueAsString(searchModel)))
+        .andExpect(request().asyncStarted()).andReturn();
+    MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andExpect(status().is2xxSuccessful()).andReturn()
+        .getResponse();
+    assertAll("check export",
+        () -> assertEquals(TimeAgentExportFormat.CSV_VALUE, response.getContentType()),
+        () -> assertEquals("attachment; filename=\"timeagent-info.csv\"", response.getHeader(HttpHeaders.CONTENT_DISPOSITION)),
+        () -> assertEquals("id\n1\n", response.getContentAsString()));
+  }
+
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.AdmissionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.smithx.timeagent.api.repositories.TimeAgentAdmissionRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * testing the TimeAgentAdmissionEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentAdmissionEngineTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentAdmissionEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentAdmissionRepository admissionRepository;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  ThreadPoolTaskScheduler scheduler;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  SimpleMeterRegistry meterRegistry;
+
+  AdmissionValue admissionValue;
+
+  // the table of the admissions shared by the agents
+  List<TimeAgentAdmission> admissions;
+
+  @BeforeEach
+  void beforeEach() {
+    admissionValue = new AdmissionValue();
+    admissionValue.setEnabled(true);
+    admissionValue.setSlots(2);
+    admissionValue.setPollInterval(10);
+    admissions = new ArrayList<>();
+    AtomicLong ids = new AtomicLong();
+    meterRegistry = new SimpleMeterRegistry();
+
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getAdmission()).thenReturn(admissionValue);
+    when(leaseEngine.getInstanceId()).thenReturn("instance");
+    when(admissionRepository.findAllByOrderByVirtualFinishAscIdAsc()).thenAnswer(invocation -> admissions.stream()
+        .sorted(Comparator.comparingDouble(TimeAgentAdmission::getVirtualFinish).thenComparing(TimeAgentAdmission::getId))
+        .collect(Collectors.toList()));
+    when(admissionRepository.save(any(TimeAgentAdmission.class))).thenAnswer(invocation -> {
+      TimeAgentAdmission admission = invocation.getArgument(0);
+      admission.setId(ids.incrementAndGet());
+      admissions.add(admission);
+      return admission;
+    });
+    when(admissionRepository.admit(anyLong(), anyInt(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+      admissions.stream().filter(admission -> admission.getId().equals(invocation.getArgument(0))).findFirst().get()
+          .setSlot(invocation.getArgument(1));
+      return 1;
+    });
+    classUnderTest = new TimeAgentAdmissionEngine(agentValues, admissionRepository, leaseEngine, scheduler, meterRegistry,
+        messages);
+  }
+
+  @Test
+  void testAcquireSlotDisabled() {
+    admissionValue.setEnabled(false);
+
+    assertNull(classUnderTest.acquireSlot());
+    verify(admissionRepository, never()).save(any(TimeAgentAdmission.class));
+  }
+
+  @Test
+  void testAcquireSlot() {
+    TimeAgentAdmission admission = classUnderTest.acquireSlot();
+
+    assertEquals(0, admission.getSlot());
+    assertEquals(1.0, admission.getVirtualFinish());
+    assertEquals(1, meterRegistry.get(TimeAgentAdmissionEngine.WAIT_METRIC).timer().count());
+    assertEquals(1.0, meterRegistry.get(TimeAgentAdmissionEngine.USED_SLOTS_METRIC).gauge().value());
+
+    classUnderTest.releaseSlot(admission);
+    verify(admissionRepository).deleteAdmission(admission.getId());
+    assertEquals(0.0, meterRegistry.get(TimeAgentAdmissionEngine.USED_SLOTS_METRIC).gauge().value());
+  }
+
+  @Test
+  void testAcquireSlotBeforeFloodOfOtherAgent() {
+    // the other agent holds a slot and has queued a flood of runs
+    admissions.add(admission(100L, "flood", 1.0, 0, 0));
+    for (long run = 1; run <= 20; run++) {
+      admissions.add(admission(100L + run, "flood", 1.0 + run, 0, null));
+    }
+    admissionValue.setWeight(2);
+
+    TimeAgentAdmission admission = classUnderTest.acquireSlot();
+
+    assertEquals(1.5, admission.getVirtualFinish());
+    assertEquals(1, admission.getSlot());
+  }
+
+  @Test
+  void testAcquireSlotTakenByOtherInstance() {
+    when(admissionRepository.admit(anyLong(), anyInt(), any(LocalDateTime.class)))
+        .thenThrow(new DataIntegrityViolationException("slot"))
+        .thenReturn(1);
+
+    TimeAgentAdmission admission = classUnderTest.acquireSlot();
+    assertEquals(0, admission.getSlot());
+  }
+
+  @Test
+  void testAcquireSlotFailedReleasesAdmission() {
+    when(admissionRepository.admit(anyLong(), anyInt(), any(LocalDateTime.class)))
+        .thenThrow(new QueryTimeoutException("write pool"));
+    ScheduledFuture<?> heartbeat = mock(ScheduledFuture.class);
+    doReturn(heartbeat).when(scheduler).scheduleAtFixedRate(any(Runnable.class), any(Date.class), anyLong());
+
+    assertThrows(QueryTimeoutException.class, () -> classUnderTest.acquireSlot());
+
+    // the waiting admission must not stay the next one of the queue
+    verify(admissionRepository).deleteAdmission(1L);
+    verify(heartbeat).cancel(false);
+  }
+
+  @Test
+  void testHeartbeatRenewsHeldAdmissions() {
+    ArgumentCaptor<Runnable> heartbeat = ArgumentCaptor.forClass(Runnable.class);
+    TimeAgentAdmission admission = classUnderTest.acquireSlot();
+    verify(scheduler).scheduleAtFixedRate(heartbeat.capture(), any(Date.class), anyLong());
+
+    heartbeat.getValue().run();
+    verify(admissionRepository).renewAdmissions(eq(Collections.singletonList(admission.getId())), any(LocalDateTime.class));
+
+    classUnderTest.releaseSlot(admission);
+    heartbeat.getValue().run();
+    verify(admissionRepository).renewAdmissions(anyCollection(), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testNextAdmissionAllSlotsUsed() {
+    List<TimeAgentAdmission> queue = Arrays.asList(admission(1L, "a", 1, 0, 0), admission(2L, "b", 2, 0, 1),
+        admission(3L, "c", 3, 0, null));
+
+    assertNull(TimeAgentAdmissionEngine.nextAdmission(queue, 2));
+  }
+
+  @Test
+  void testNextAdmissionByVirtualFinish() {
+    List<TimeAgentAdmission> queue = Arrays.asList(admission(1L, "a", 1, 0, 0), admission(2L, "a", 2, 0, null),
+        admission(3L, "b", 3, 0, null));
+
+    assertSame(queue.get(1), TimeAgentAdmissionEngine.nextAdmission(queue, 2));
+  }
+
+  @Test
+  void testNextAdmissionReservation() {
+    List<TimeAgentAdmission> queue = Arrays.asList(admission(1L, "a", 1, 0, 0), admission(2L, "a", 2, 0, null),
+        admission(3L, "b", 3, 1, null));
+
+    // the agent b is below its reservation and goes before the fair queue
+    assertSame(queue.get(2), TimeAgentAdmissionEngine.nextAdmission(queue, 3));
+  }
+
+  private TimeAgentAdmission admission(Long id, String agentName, double virtualFinish, int reservation, Integer slot) {
+    TimeAgentAdmission admission = new TimeAgentAdmission(agentName, "other", 1, reservation, virtualFinish,
+        LocalDateTime.now().plusSeconds(30));
+    admission.setId(id);
+    admission.setSlot(slot);
+    return admission;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.ArchiveValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentArchiveSegment;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * testing the TimeAgentArchiveEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentArchiveEngineTest {
+  static final String AGENTNAME = "agent";
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+  @TempDir
+  Path directory;
+
+  TimeAgentArchiveEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentInfoSearch searchModel;
+
+  @BeforeEach
+  void beforeEach() {
+    ArchiveValue archiveValue = new ArchiveValue();
+    archiveValue.setDirectory(directory.toString());
+    archiveValue.setSegmentSize(3);
+
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getArchive()).thenReturn(archiveValue);
+
+    classUnderTest = new TimeAgentArchiveEngine(agentValues, storage, leaseEngine, messages);
+    classUnderTest.loadSegments();
+    searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(4);
+  }
+
+  @AfterEach
+  void afterEach() {
+    classUnderTest.close();
+  }
+
+  @Test
+  void testArchiveSegment() {
+    List<TimeAgentInfo> agentInfos = infos(1, 3);
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(agentInfos);
+
+    assertEquals(3, classUnderTest.archiveSegment());
+    verify(storage).delete(agentInfos);
+    assertEquals(1, classUnderTest.getSegments().size());
+    assertEquals(3L, classUnderTest.getSegments().get(0).getMaxId());
+  }
+
+  @Test
+  void testArchiveSegmentWithoutInfos() {
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), anyInt())).thenReturn(new ArrayList<>());
+
+    assertEquals(0, classUnderTest.archiveSegment());
+    assertTrue(classUnderTest.getSegments().isEmpty());
+  }
+
+  @Test
+  void testSearchMergesSegments() {
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(infos(1, 3)).thenReturn(infos(4, 6));
+    classUnderTest.archiveSegment();
+    classUnderTest.archiveSegment();
+
+    // the segments are found again after a restart
+    classUnderTest.close();
+    classUnderTest = new TimeAgentArchiveEngine(agentValues, storage, leaseEngine, messages);
+    classUnderTest.loadSegments();
+
+    assertEquals(Arrays.asList(6L, 5L, 4L, 3L), ids(classUnderTest.searchAgentInfo(searchModel, null)));
+
+    searchModel.setToStartTimeExecution(START.plusDays(3));
+    assertEquals(Arrays.asList(2L, 1L), ids(classUnderTest.searchAgentInfo(searchModel, null)));
+  }
+
+  @Test
+  void testArchiveSegmentDeleteFailed() {
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(infos(1, 3));
+    doThrow(new QueryTimeoutException("timeout")).when(storage).delete(anyList());
+
+    assertThrows(QueryTimeoutException.class, () -> classUnderTest.archiveSegment());
+    assertTrue(classUnderTest.getSegments().isEmpty());
+    assertTrue(classUnderTest.searchAgentInfo(searchModel, null).isEmpty());
+  }
+
+  @Test
+  void testClaimArchive() {
+    LocalDateTime cronTime = START.withHour(2);
+    when(leaseEngine.claimArchive(cronTime)).thenReturn(true, false);
+
+    assertTrue(classUnderTest.claimArchive(cronTime));
+    assertFalse(classUnderTest.claimArchive(cronTime));
+  }
+
+  @Test
+  void testSearchFindsSegmentsOfOtherInstance() {
+    TimeAgentArchiveEngine otherInstance = new TimeAgentArchiveEngine(agentValues, storage, leaseEngine, messages);
+    otherInstance.loadSegments();
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(infos(1, 3));
+    otherInstance.archiveSegment();
+    otherInstance.close();
+
+    assertEquals(Arrays.asList(3L, 2L, 1L), ids(classUnderTest.searchAgentInfo(searchModel, null)));
+  }
+
+  @Test
+  void testInfoArchivedTwice() throws Exception {
+    TimeAgentArchiveSegment.write(directory, AGENTNAME, infos(1, 3));
+    TimeAgentArchiveSegment.write(directory, AGENTNAME, infos(3, 5));
+
+    assertEquals(Arrays.asList(5L, 4L, 3L, 2L), ids(classUnderTest.searchAgentInfo(searchModel, null)));
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L),
+        ids(classUnderTest.streamAgentInfo(searchModel, false).collect(Collectors.toList())));
+  }
+
+  @Test
+  void testStreamSegments() {
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(infos(4, 6));
+    classUnderTest.archiveSegment();
+    when(storage.findArchivable(eq(AGENTNAME), any(LocalDateTime.class), eq(3))).thenReturn(infos(1, 3));
+    classUnderTest.archiveSegment();
+
+    // all matches in the order of the ids without the limit of the search, a single bound is exclusive
+    searchModel.setFromStartTimeExecution(START.plusDays(2));
+    assertEquals(Arrays.asList(3L, 4L, 5L, 6L),
+        ids(classUnderTest.streamAgentInfo(searchModel, false).collect(Collectors.toList())));
+    assertEquals(6L, classUnderTest.getMaxArchivedId());
+  }
+
+  private List<TimeAgentInfo> infos(long from, long to) {
+    List<TimeAgentInfo> agentInfos = new ArrayList<>();
+    for (long id = from; id <= to; id++) {
+      agentInfos.add(new TimeAgentInfo(id, START, START.plusDays(id), AGENTNAME, null, "user", START.plusDays(id),
+          START.plusDays(id).plusMinutes(1), TimeAgentStatus.FINISHED));
+    }
+    return agentInfos;
+  }
+
+  private List<Long> ids(List<TimeAgentInfo> agentInfos) {
+    return agentInfos.stream().map(TimeAgentInfo::getId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.BatchValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+
+/**
+ * testing the TimeAgentBatchEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentBatchEngineTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentBatchEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentModelEngine modelEngine;
+
+  @Mock
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  BatchValue batchValue;
+
+  long nextId;
+
+  @BeforeEach
+  void beforeEach() {
+    batchValue = new BatchValue();
+    when(agentValues.getBatch()).thenReturn(batchValue);
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(modelEngine.createAgentInfo()).thenAnswer(invocation -> new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+    when(modelEngine.updateAgentInfo(any(TimeAgentInfo.class))).thenAnswer(invocation -> {
+      TimeAgentInfo agentInfo = invocation.getArgument(0);
+      if (agentInfo.getId() == null) {
+        agentInfo.setId(++nextId);
+      }
+      return agentInfo;
+    });
+    when(messages.getMessage("protocol.batch.finish", 1, 2, 1)).thenReturn("1 of 2 sub-runs finished, 1 aborted");
+    when(messages.getMessage("protocol.batch.start")).thenReturn("{0} argument sets are run as sub-runs with a parallelism of {1}");
+    classUnderTest = new TimeAgentBatchEngine(agentValues, modelEngine, storage, messages);
+  }
+
+  @Test
+  void testCreateBatch() {
+    TimeAgentBatch batch = classUnderTest.createBatch(500, 4);
+
+    assertEquals(TimeAgentStatus.RUNNING, batch.getStatus());
+    assertEquals(TimeAgentStatus.RUNNING, batch.getParentInfo().getStatus());
+    assertEquals(500, batch.getPending());
+    assertEquals(0.0, batch.getProgress());
+    assertSame(batch, classUnderTest.findBatch(batch.getId()));
+  }
+
+  @Test
+  void testFinishBatch() {
+    TimeAgentBatch batch = classUnderTest.createBatch(2, 2);
+    batch.startSubRun();
+    batch.startSubRun();
+    batch.finishSubRun(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED));
+    batch.finishSubRun(null);
+
+    classUnderTest.finishBatch(batch);
+
+    // one aborted sub-run aborts the batch
+    assertEquals(TimeAgentStatus.ABORTED, batch.getStatus());
+    assertEquals(TimeAgentStatus.ABORTED, batch.getParentInfo().getStatus());
+    assertEquals("1 of 2 sub-runs finished, 1 aborted", batch.getParentInfo().getProtocol().get(1).getMessage());
+    assertEquals(1.0, batch.getProgress());
+  }
+
+  @Test
+  void testFinishedBatchesEvicted() {
+    batchValue.setRetention(1);
+    TimeAgentBatch first = classUnderTest.createBatch(1, 1);
+    TimeAgentBatch second = classUnderTest.createBatch(1, 1);
+    TimeAgentBatch running = classUnderTest.createBatch(1, 1);
+
+    classUnderTest.finishBatch(first);
+    classUnderTest.finishBatch(second);
+
+    assertSame(second, classUnderTest.findBatch(second.getId()));
+    assertSame(running, classUnderTest.findBatch(running.getId()));
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.findBatch(first.getId()));
+    assertEquals(TimeAgentExceptionCause.BATCH_NOT_FOUND, exception.getErrorCause());
+  }
+
+  @Test
+  void testFindStoredBatch() {
+    // the batch was started by another instance
+    when(storage.findBatch(7L)).thenReturn(Arrays.asList(info(7L, null, TimeAgentStatus.RUNNING),
+        info(8L, 7L, TimeAgentStatus.FINISHED), info(9L, 7L, TimeAgentStatus.ABORTED), info(10L, 7L, TimeAgentStatus.RUNNING)));
+    when(storage.findProtocolMessages(7L))
+        .thenReturn(Collections.singletonList("10 argument sets are run as sub-runs with a parallelism of 2"));
+
+    TimeAgentBatch batch = classUnderTest.findBatch(7L);
+
+    assertAll("check batch",
+        () -> assertEquals(TimeAgentStatus.RUNNING, batch.getStatus()),
+        () -> assertEquals(10, batch.getTotal()),
+        () -> assertEquals(2, batch.getParallelism()),
+        () -> assertEquals(7, batch.getPending()),
+        () -> assertEquals(1, batch.getRunning()),
+        () -> assertEquals(1, batch.getFinished()),
+        () -> assertEquals(1, batch.getAborted()),
+        () -> assertEquals(Arrays.asList(8L, 9L), batch.getSubRunIds()),
+        () -> assertEquals(0.2, batch.getProgress()));
+  }
+
+  @Test
+  void testFindStoredFinishedBatch() {
+    TimeAgentInfo parentInfo = info(7L, null, TimeAgentStatus.ABORTED);
+    parentInfo.setFinishTimeExecution(LocalDateTime.now());
+    when(storage.findBatch(7L)).thenReturn(Arrays.asList(parentInfo, info(8L, 7L, TimeAgentStatus.FINISHED)));
+    when(storage.findProtocolMessages(7L))
+        .thenReturn(Collections.singletonList("3 argument sets are run as sub-runs with a parallelism of 1"));
+
+    TimeAgentBatch batch = classUnderTest.findBatch(7L);
+
+    // the sub-runs without info were not started
+    assertAll("check batch",
+        () -> assertEquals(TimeAgentStatus.ABORTED, batch.getStatus()),
+        () -> assertEquals(parentInfo.getFinishTimeExecution(), batch.getFinishTimeExecution()),
+        () -> assertEquals(0, batch.getPending()),
+        () -> assertEquals(2, batch.getAborted()),
+        () -> assertEquals(1.0, batch.getProgress()));
+  }
+
+  @Test
+  void testFindStoredSubRun() {
+    when(storage.findBatch(8L)).thenReturn(Collections.singletonList(info(8L, 7L, TimeAgentStatus.FINISHED)));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class, () -> classUnderTest.findBatch(8L));
+    assertEquals(TimeAgentExceptionCause.BATCH_NOT_FOUND, exception.getErrorCause());
+  }
+
+  private TimeAgentInfo info(Long id, Long parentId, TimeAgentStatus status) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, status);
+    agentInfo.setId(id);
+    agentInfo.setParentId(parentId);
+    return agentInfo;
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentDependencyRepository;
+import org.smithx.timeagent.api.repositories.TimeAgentLeaseRepository;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * testing the TimeAgentDependencyEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentDependencyEngineTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentDependencyEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentDependencyRepository dependencyRepository;
+
+  @Mock
+  TimeAgentLeaseRepository leaseRepository;
+
+  @Mock
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void beforeEach() {
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(leaseRepository.lockLease(TimeAgentDependencyEngine.DEPENDENCY_LOCK)).thenReturn(1);
+    classUnderTest = new TimeAgentDependencyEngine(agentValues, dependencyRepository, leaseRepository, storage, messages,
+        transactionManager);
+  }
+
+  @Test
+  void testSaveDependencies() {
+    LocalDateTime lastFireTime = LocalDateTime.now().minusHours(1);
+    when(dependencyRepository.findAllByAgentNameOrderByUpstreamName(AGENTNAME))
+        .thenReturn(Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", lastFireTime)));
+    when(dependencyRepository.findAllEdges()).thenReturn(Collections.singletonList(new Object[] { "upstream-a", "root" }));
+
+    List<TimeAgentDependency> result = classUnderTest.saveDependencies(Arrays.asList("upstream-a", "upstream-b", "upstream-a"));
+
+    // the kept upstream agents do not lose the runs they have ended since the last fire
+    assertEquals(2, result.size());
+    assertEquals("upstream-b", result.get(1).getUpstreamName());
+    assertEquals(lastFireTime, result.get(1).getLastFireTime());
+    verify(dependencyRepository).deleteByAgentName(AGENTNAME);
+    verify(dependencyRepository).saveAll(result);
+  }
+
+  @Test
+  void testSaveDependenciesUnderLock() {
+    classUnderTest.saveDependencies(Arrays.asList("upstream-a"));
+
+    // the edges are read after the lock
+    InOrder inOrder = inOrder(leaseRepository, dependencyRepository);
+    inOrder.verify(leaseRepository).lockLease(TimeAgentDependencyEngine.DEPENDENCY_LOCK);
+    inOrder.verify(dependencyRepository).findAllEdges();
+    inOrder.verify(dependencyRepository).saveAll(any());
+    verify(leaseRepository, never()).save(any());
+  }
+
+  @Test
+  void testSaveDependenciesCreatesLock() {
+    when(leaseRepository.lockLease(TimeAgentDependencyEngine.DEPENDENCY_LOCK)).thenReturn(0, 1);
+
+    classUnderTest.saveDependencies(Arrays.asList("upstream-a"));
+
+    verify(leaseRepository)
+        .save(argThat((TimeAgentLease lease) -> TimeAgentDependencyEngine.DEPENDENCY_LOCK.equals(lease.getAgentName())));
+    verify(transactionManager).commit(any());
+    verify(leaseRepository, times(2)).lockLease(TimeAgentDependencyEngine.DEPENDENCY_LOCK);
+  }
+
+  @Test
+  void testSaveDependenciesRejectsCycle() {
+    when(dependencyRepository.findAllEdges()).thenReturn(Arrays.asList(new Object[] { "upstream-b", "upstream-a" },
+        new Object[] { "upstream-a", AGENTNAME }));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveDependencies(Arrays.asList("upstream-b")));
+    assertEquals(TimeAgentExceptionCause.INVALID_DEPENDENCY, exception.getErrorCause());
+    assertTrue(exception.getErrorMessage().contains("agent -> upstream-b -> upstream-a -> agent"));
+    verify(dependencyRepository, never()).deleteByAgentName(AGENTNAME);
+  }
+
+  @Test
+  void testSaveDependenciesRejectsSelf() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveDependencies(Arrays.asList(AGENTNAME)));
+    assertEquals(TimeAgentExceptionCause.INVALID_DEPENDENCY, exception.getErrorCause());
+  }
+
+  @Test
+  void testSaveDependenciesRejectsEmptyName() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveDependencies(Arrays.asList("")));
+    assertEquals(TimeAgentExceptionCause.INVALID_DEPENDENCY, exception.getErrorCause());
+  }
+
+  @Test
+  void testFindUpstreamRuns() {
+    LocalDateTime lastFireTime = LocalDateTime.now().minusHours(1);
+    List<TimeAgentDependency> dependencies = Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", lastFireTime),
+        new TimeAgentDependency(AGENTNAME, "upstream-b", lastFireTime));
+    TimeAgentInfo finishedRun = endedRun("upstream-a", TimeAgentStatus.FINISHED, lastFireTime.plusMinutes(10));
+    TimeAgentInfo abortedRun = endedRun("upstream-b", TimeAgentStatus.ABORTED, lastFireTime.plusMinutes(20));
+    when(storage.findLatest("upstream-a", TimeAgentStatus.FINISHED)).thenReturn(finishedRun);
+    when(storage.findLatest("upstream-a", TimeAgentStatus.ABORTED))
+        .thenReturn(endedRun("upstream-a", TimeAgentStatus.ABORTED, lastFireTime.plusMinutes(5)));
+    when(storage.findLatest("upstream-b", TimeAgentStatus.FINISHED))
+        .thenReturn(endedRun("upstream-b", TimeAgentStatus.FINISHED, lastFireTime.minusMinutes(5)));
+    when(storage.findLatest("upstream-b", TimeAgentStatus.ABORTED)).thenReturn(abortedRun);
+
+    List<TimeAgentInfo> result = classUnderTest.findUpstreamRuns(dependencies);
+    assertSame(finishedRun, result.get(0));
+    assertSame(abortedRun, result.get(1));
+  }
+
+  @Test
+  void testFindUpstreamRunsWaits() {
+    LocalDateTime lastFireTime = LocalDateTime.now().minusHours(1);
+    List<TimeAgentDependency> dependencies = Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", lastFireTime),
+        new TimeAgentDependency(AGENTNAME, "upstream-b", lastFireTime));
+    when(storage.findLatest("upstream-a", TimeAgentStatus.FINISHED))
+        .thenReturn(endedRun("upstream-a", TimeAgentStatus.FINISHED, lastFireTime.plusMinutes(10)));
+    when(storage.findLatest("upstream-b", TimeAgentStatus.FINISHED))
+        .thenReturn(endedRun("upstream-b", TimeAgentStatus.FINISHED, lastFireTime.minusMinutes(10)));
+
+    assertNull(classUnderTest.findUpstreamRuns(dependencies));
+  }
+
+  @Test
+  void testMarkFired() {
+    LocalDateTime lastFireTime = LocalDateTime.now().minusHours(1);
+    LocalDateTime fireTime = LocalDateTime.now();
+    List<TimeAgentDependency> dependencies = Collections
+        .singletonList(new TimeAgentDependency(AGENTNAME, "upstream-a", lastFireTime));
+    when(dependencyRepository.markFired(AGENTNAME, lastFireTime, fireTime)).thenReturn(1);
+
+    assertTrue(classUnderTest.markFired(dependencies, fireTime));
+    assertFalse(classUnderTest.markFired(dependencies, fireTime.plusSeconds(1)));
+    verify(dependencyRepository, times(2)).markFired(eq(AGENTNAME), eq(lastFireTime), any(LocalDateTime.class));
+  }
+
+  private TimeAgentInfo endedRun(String agentName, TimeAgentStatus status, LocalDateTime finishTime) {
+    TimeAgentInfo run = new TimeAgentInfo(agentName, status);
+    run.setFinishTimeExecution(finishTime);
+    return run;
+  }
+}
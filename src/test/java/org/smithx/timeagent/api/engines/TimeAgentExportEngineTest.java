@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentExportFormat;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * testing the TimeAgentExportEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentExportEngineTest {
+  static final String AGENTNAME = "agent";
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 30);
+
+  TimeAgentExportEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentArchiveEngine archiveEngine;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  ObjectMapper mapper = new ObjectMapper();
+
+  TimeAgentInfoSearch searchModel;
+
+  ByteArrayOutputStream outputStream;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentExportEngine(agentValues, storage, archiveEngine, mapper, messages);
+    searchModel = new TimeAgentInfoSearch();
+    outputStream = new ByteArrayOutputStream();
+
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(storage.stream(AGENTNAME, searchModel))
+        .thenAnswer(invocation -> Stream.of(info(1L, "user"), info(2L, "user, \"admin\"")));
+    Map<Long, List<String>> protocols = new HashMap<>();
+    protocols.put(1L, Arrays.asList("first", "second"));
+    protocols.put(2L, Arrays.asList());
+    when(storage.findProtocolMessages(Arrays.asList(1L, 2L))).thenReturn(protocols);
+    when(archiveEngine.streamAgentInfo(eq(searchModel), anyBoolean())).thenAnswer(invocation -> Stream.empty());
+  }
+
+  @Test
+  void testExportNdjson() throws Exception {
+    long rows = classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.NDJSON, false, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+    JsonNode first = mapper.readTree(lines[0]);
+    JsonNode second = mapper.readTree(lines[1]);
+    assertAll("check ndjson export",
+        () -> assertEquals(2, rows),
+        () -> assertEquals(2, lines.length),
+        () -> assertEquals(1L, first.get("id").asLong()),
+        () -> assertEquals(AGENTNAME, first.get("agentName").asText()),
+        () -> assertEquals("FINISHED", first.get("status").asText()),
+        () -> assertEquals(START.toString(), first.get("startTimeExecution").asText()),
+        () -> assertEquals("user, \"admin\"", second.get("executor").asText()),
+        () -> assertEquals(null, first.get("protocol")));
+    verify(storage, never()).findProtocolMessages(anyCollection());
+  }
+
+  @Test
+  void testExportNdjsonWithProtocol() throws Exception {
+    classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.NDJSON, true, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+    JsonNode first = mapper.readTree(lines[0]);
+    JsonNode second = mapper.readTree(lines[1]);
+    assertAll("check ndjson export with protocol",
+        () -> assertEquals(2, first.get("protocol").size()),
+        () -> assertEquals("second", first.get("protocol").get(1).asText()),
+        () -> assertEquals(0, second.get("protocol").size()));
+  }
+
+  @Test
+  void testExportCsv() throws Exception {
+    long rows = classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.CSV, true, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+    assertAll("check csv export",
+        () -> assertEquals(2, rows),
+        () -> assertEquals("id,agentName,status,executor,crontrigger,startTimeExecution,finishTimeExecution,createdAt,updatedAt,protocol",
+            lines[0]),
+        () -> assertEquals("1,agent,FINISHED,user,,2020-01-01T12:30,2020-01-01T12:31,,,\"first", lines[1]),
+        () -> assertEquals("second\"", lines[2]),
+        () -> assertEquals("2,agent,FINISHED,\"user, \"\"admin\"\"\",,2020-01-01T12:30,2020-01-01T12:31,,,", lines[3]));
+  }
+
+  @Test
+  void testExportLoadsProtocolsPerBatch() throws Exception {
+    int infos = TimeAgentExportEngine.PROTOCOL_BATCH_SIZE + 1;
+    when(storage.stream(AGENTNAME, searchModel))
+        .thenAnswer(invocation -> LongStream.rangeClosed(1, infos).mapToObj(id -> info(id, "user")));
+    when(storage.findProtocolMessages(anyCollection())).thenReturn(new HashMap<>());
+
+    long rows = classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.NDJSON, true, outputStream);
+
+    assertEquals(infos, rows);
+    verify(storage, times(2)).findProtocolMessages(anyCollection());
+    verify(storage, never()).findProtocolMessages(anyLong());
+  }
+
+  @Test
+  void testExportWithArchive() throws Exception {
+    // the info 2 is still stored after a failed deletion of its archived copy
+    TimeAgentInfo archived = info(0L, "archive");
+    archived.addProtocol("archived");
+    when(archiveEngine.getMaxArchivedId()).thenReturn(2L);
+    when(archiveEngine.streamAgentInfo(searchModel, true)).thenAnswer(invocation -> Stream.of(archived, info(2L, "archive")));
+
+    long rows = classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.NDJSON, true, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+    JsonNode last = mapper.readTree(lines[2]);
+    assertAll("check export with archive",
+        () -> assertEquals(3, rows),
+        () -> assertEquals(3, lines.length),
+        () -> assertEquals(0L, last.get("id").asLong()),
+        () -> assertEquals("archived", last.get("protocol").get(0).asText()),
+        () -> assertEquals("user, \"admin\"", mapper.readTree(lines[1]).get("executor").asText()));
+  }
+
+  @Test
+  void testExportWithProtocolText() {
+    searchModel.setProtocolText("found");
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.exportAgentInfo(searchModel, TimeAgentExportFormat.NDJSON, false, outputStream));
+    assertEquals(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, exception.getErrorCause());
+  }
+
+  @Test
+  void testExportInvalidSearchModel() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.exportAgentInfo(null, TimeAgentExportFormat.CSV, false, outputStream));
+    assertEquals(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, exception.getErrorCause());
+  }
+
+  private TimeAgentInfo info(Long id, String executor) {
+    return new TimeAgentInfo(id, null, null, AGENTNAME, null, executor, START, START.plusMinutes(1),
+        TimeAgentStatus.FINISHED);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentProtocolToken;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentProtocolTokenRepository;
+
+/**
+ * testing the TimeAgentIndexEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentIndexEngineTest {
+  TimeAgentIndexEngine classUnderTest;
+
+  @Mock
+  TimeAgentProtocolTokenRepository tokenRepository;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentInfo agentInfo;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentIndexEngine(tokenRepository, messages);
+    agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    agentInfo.setId(1L);
+
+    when(tokenRepository.findTokensByInfoId(1L)).thenReturn(Collections.emptyList());
+  }
+
+  @Test
+  void testTokenize() {
+    assertEquals(Arrays.asList("found", "100", "files"), Arrays.asList(TimeAgentIndexEngine.tokenize("Found 100 files, 100 files!").toArray()));
+    assertEquals("found 100 files 100 files", TimeAgentIndexEngine.normalize("Found 100 files, 100 files!"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testIndexOnlyNewLinesAndTokens() {
+    agentInfo.addProtocol("found 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+
+    agentInfo.addProtocol("copied 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+
+    ArgumentCaptor<List<TimeAgentProtocolToken>> captor = ArgumentCaptor.forClass(List.class);
+    verify(tokenRepository, times(2)).saveAll(captor.capture());
+    verify(tokenRepository, times(1)).findTokensByInfoId(1L);
+
+    assertEquals(3, captor.getAllValues().get(0).size());
+    assertEquals(1, captor.getAllValues().get(1).size());
+    assertEquals("copied", captor.getAllValues().get(1).get(0).getToken());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testIndexInterleavedInfos() {
+    TimeAgentInfo otherInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    otherInfo.setId(2L);
+    when(tokenRepository.findTokensByInfoId(2L)).thenReturn(Collections.emptyList());
+
+    agentInfo.addProtocol("found 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+    otherInfo.addProtocol("found 200 files");
+    classUnderTest.indexProtocol(otherInfo);
+    agentInfo.addProtocol("copied 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+    otherInfo.addProtocol("copied 200 files");
+    classUnderTest.indexProtocol(otherInfo);
+
+    ArgumentCaptor<List<TimeAgentProtocolToken>> captor = ArgumentCaptor.forClass(List.class);
+    verify(tokenRepository, times(4)).saveAll(captor.capture());
+    verify(tokenRepository, times(1)).findTokensByInfoId(1L);
+    verify(tokenRepository, times(1)).findTokensByInfoId(2L);
+    assertEquals(1, captor.getAllValues().get(2).size());
+    assertEquals(1, captor.getAllValues().get(3).size());
+  }
+
+  @Test
+  void testIndexEvictsEldestInfo() {
+    when(tokenRepository.findTokensByInfoId(anyLong())).thenReturn(Collections.emptyList());
+    agentInfo.addProtocol("found 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+    for (long id = 2; id <= TimeAgentIndexEngine.MAX_INDEXED_INFOS + 1; id++) {
+      TimeAgentInfo otherInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+      otherInfo.setId(id);
+      classUnderTest.indexProtocol(otherInfo);
+    }
+
+    classUnderTest.indexProtocol(agentInfo);
+    verify(tokenRepository, times(2)).findTokensByInfoId(1L);
+  }
+
+  @Test
+  void testIndexWithoutId() {
+    agentInfo.setId(null);
+    agentInfo.addProtocol("found 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+    verify(tokenRepository, never()).saveAll(anyIterable());
+  }
+
+  @Test
+  void testIndexSkipsTokensOfDatabase() {
+    when(tokenRepository.findTokensByInfoId(1L)).thenReturn(Arrays.asList("found", "100", "files"));
+    agentInfo.addProtocol("found 100 files");
+    classUnderTest.indexProtocol(agentInfo);
+    verify(tokenRepository, never()).saveAll(anyIterable());
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.LeaseValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.repositories.TimeAgentLeaseRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * testing the TimeAgentLeaseEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentLeaseEngineTest {
+  static final String AGENTNAME = "agent";
+  static final String INSTANCE = "node-a";
+
+  TimeAgentLeaseEngine classUnderTest;
+
+  LeaseValue leaseValue;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentLeaseRepository leaseRepository;
+
+  @Mock
+  ThreadPoolTaskScheduler scheduler;
+
+  @Mock
+  ScheduledFuture<Object> heartbeat;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    leaseValue = new LeaseValue();
+    leaseValue.setEnabled(true);
+    leaseValue.setInstanceId(INSTANCE);
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getLease()).thenReturn(leaseValue);
+    doReturn(heartbeat).when(scheduler).scheduleAtFixedRate(any(Runnable.class), any(Date.class), anyLong());
+    classUnderTest = new TimeAgentLeaseEngine(agentValues, leaseRepository, scheduler, messages);
+  }
+
+  @Test
+  void testAcquireLeaseDisabled() {
+    leaseValue.setEnabled(false);
+
+    TimeAgentLease lease = classUnderTest.acquireLease();
+    assertEquals(INSTANCE, lease.getOwner());
+    verify(leaseRepository, never()).acquireLease(anyString(), anyString(), any(), any());
+  }
+
+  @Test
+  void testAcquireLease() {
+    when(leaseRepository.acquireLease(eq(AGENTNAME), eq(INSTANCE), any(), any())).thenReturn(1);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 4));
+
+    TimeAgentLease lease = classUnderTest.acquireLease();
+    assertEquals(4, lease.getToken());
+    verify(leaseRepository, never()).save(any(TimeAgentLease.class));
+    verify(scheduler).scheduleAtFixedRate(any(Runnable.class), any(Date.class), eq(leaseValue.getHeartbeat()));
+  }
+
+  @Test
+  void testAcquireFirstLease() {
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 1));
+
+    assertEquals(1, classUnderTest.acquireLease().getToken());
+    verify(leaseRepository).save(any(TimeAgentLease.class));
+  }
+
+  @Test
+  void testAcquireLeaseHeldByOther() {
+    when(leaseRepository.save(any(TimeAgentLease.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease("node-b", 2));
+
+    assertNull(classUnderTest.acquireLease());
+    verify(scheduler, never()).scheduleAtFixedRate(any(Runnable.class), any(Date.class), anyLong());
+  }
+
+  @Test
+  void testRenewLeaseLost() {
+    when(leaseRepository.acquireLease(eq(AGENTNAME), eq(INSTANCE), any(), any())).thenReturn(1);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 4));
+    TimeAgentLease lease = classUnderTest.acquireLease();
+
+    classUnderTest.renewLease(lease);
+    verify(heartbeat).cancel(false);
+  }
+
+  @Test
+  void testReleaseLease() {
+    when(leaseRepository.acquireLease(eq(AGENTNAME), eq(INSTANCE), any(), any())).thenReturn(1);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 4));
+    TimeAgentLease lease = classUnderTest.acquireLease();
+
+    classUnderTest.releaseLease(lease);
+    verify(heartbeat).cancel(false);
+    verify(leaseRepository).renewLease(eq(AGENTNAME), eq(INSTANCE), eq(4L), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testRenewLeaseAfterRelease() {
+    when(leaseRepository.acquireLease(eq(AGENTNAME), eq(INSTANCE), any(), any())).thenReturn(1);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 4));
+    TimeAgentLease lease = classUnderTest.acquireLease();
+
+    classUnderTest.releaseLease(lease);
+    classUnderTest.renewLease(lease);
+    verify(leaseRepository, times(1)).renewLease(eq(AGENTNAME), eq(INSTANCE), eq(4L), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testCheckFencingTokenHeld() {
+    when(leaseRepository.fenceLease(AGENTNAME, INSTANCE, 4L)).thenReturn(1);
+
+    classUnderTest.checkFencingToken(4L);
+
+    verify(leaseRepository, never()).findByAgentName(AGENTNAME);
+  }
+
+  @Test
+  void testCheckFencingTokenStale() {
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease("node-b", 5));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.checkFencingToken(4L));
+    assertEquals(TimeAgentExceptionCause.LEASE_LOST, exception.getErrorCause());
+  }
+
+  @Test
+  void testCheckFencingTokenExpiredNotTakenOver() {
+    // the expired lease is still held, until it is taken over
+    when(leaseRepository.fenceLease(AGENTNAME, INSTANCE, 4L)).thenReturn(1);
+
+    classUnderTest.checkFencingToken(4L);
+  }
+
+  @Test
+  void testIsLeaseHeldByOther() {
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease("node-b", 5));
+    assertTrue(classUnderTest.isLeaseHeldByOther());
+
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease(INSTANCE, 5));
+    assertFalse(classUnderTest.isLeaseHeldByOther());
+  }
+
+  @Test
+  void testClaimFire() {
+    LocalDateTime cronTime = LocalDateTime.of(2020, 1, 1, 2, 0);
+    when(leaseRepository.claimFire(AGENTNAME, cronTime)).thenReturn(1);
+    assertTrue(classUnderTest.claimFire(cronTime));
+
+    when(leaseRepository.claimFire(AGENTNAME, cronTime)).thenReturn(0);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease("node-b", 5));
+    assertFalse(classUnderTest.claimFire(cronTime));
+  }
+
+  @Test
+  void testClaimFirstFire() {
+    LocalDateTime cronTime = LocalDateTime.of(2020, 1, 1, 2, 0);
+
+    assertTrue(classUnderTest.claimFire(cronTime));
+
+    // the first fire creates the lease, which is not held by the instance
+    verify(leaseRepository).save(argThat(lease -> cronTime.equals(lease.getLastFireTime()) && lease.getToken() == 0));
+  }
+
+  @Test
+  void testClaimArchive() {
+    LocalDateTime cronTime = LocalDateTime.of(2020, 1, 1, 2, 0);
+    when(leaseRepository.claimArchive(AGENTNAME, cronTime)).thenReturn(0);
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(lease("node-b", 5));
+    assertFalse(classUnderTest.claimArchive(cronTime));
+
+    when(leaseRepository.findByAgentName(AGENTNAME)).thenReturn(null);
+    assertTrue(classUnderTest.claimArchive(cronTime));
+    verify(leaseRepository).save(argThat(lease -> cronTime.equals(lease.getLastArchiveTime()) && lease.getLastFireTime() == null));
+  }
+
+  @Test
+  void testClaimFireDisabled() {
+    leaseValue.setEnabled(false);
+
+    assertTrue(classUnderTest.claimFire(LocalDateTime.now()));
+    verify(leaseRepository, never()).claimFire(anyString(), any());
+  }
+
+  private TimeAgentLease lease(String owner, long token) {
+    return new TimeAgentLease(AGENTNAME, owner, token, LocalDateTime.now(), LocalDateTime.now().plusSeconds(30));
+  }
+}
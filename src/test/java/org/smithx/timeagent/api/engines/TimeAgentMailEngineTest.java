@@ -0,0 +1,294 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.mail.Multipart;
+import javax.mail.Part;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.MailRecipientValue;
+import org.smithx.timeagent.api.configuration.MailValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * testing the TimeAgentMailEngine against a local stand-in of a smtp server.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentMailEngineTest {
+  static final long WAIT = 5000;
+
+  TimeAgentMailEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  MailValue mailValue;
+
+  ThreadPoolTaskScheduler scheduler;
+
+  SmtpStandIn smtpServer;
+
+  long nextId;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    smtpServer = new SmtpStandIn();
+    scheduler = new ThreadPoolTaskScheduler();
+    scheduler.initialize();
+
+    mailValue = new MailValue();
+    mailValue.setEnabled(true);
+    mailValue.setRecipients(Arrays.asList(recipient("ops@localhost", EnumSet.allOf(TimeAgentStatus.class)),
+        recipient("oncall@localhost", EnumSet.of(TimeAgentStatus.ABORTED))));
+    when(agentValues.getAgentName()).thenReturn("agent");
+    when(agentValues.getMail()).thenReturn(mailValue);
+
+    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    mailSender.setHost("localhost");
+    mailSender.setPort(smtpServer.getPort());
+    ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+    messageSource.setBasename("messages");
+    TimeAgentMessages messages = new TimeAgentMessages(messageSource);
+    classUnderTest = new TimeAgentMailEngine(agentValues, Optional.of(mailSender), scheduler, messages);
+  }
+
+  @AfterEach
+  void afterEach() throws IOException {
+    classUnderTest.close();
+    scheduler.shutdown();
+    smtpServer.close();
+  }
+
+  @Test
+  void testDigestBySize() throws Exception {
+    mailValue.setDigestSize(2);
+
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "first"));
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "second"));
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "third"));
+
+    MimeMessage digest = smtpServer.nextMail();
+    assertEquals("[timeagent] agent: 2 runs, 0 of them not finished", digest.getSubject());
+    assertTrue(text(digest).contains("first") && text(digest).contains("second"));
+    assertNull(smtpServer.mails.poll(200, TimeUnit.MILLISECONDS));
+
+    // the last digest is sent on close
+    classUnderTest.close();
+    assertTrue(text(smtpServer.nextMail()).contains("third"));
+  }
+
+  @Test
+  void testDigestByWindow() throws Exception {
+    mailValue.setDigestSize(10);
+    mailValue.setDigestWindow(200);
+
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "first"));
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "second"));
+
+    MimeMessage digest = smtpServer.nextMail();
+    assertEquals("[timeagent] agent: 2 runs, 0 of them not finished", digest.getSubject());
+  }
+
+  @Test
+  void testDigestPerRecipient() throws Exception {
+    classUnderTest.sendProtocol(run(TimeAgentStatus.FINISHED, "fine"));
+    classUnderTest.sendProtocol(run(TimeAgentStatus.ABORTED, "broken"));
+
+    // the aborted run goes to both recipients over the pooled connections
+    assertEquals(3, smtpServer.nextMails(3).length);
+    assertTrue(smtpServer.connections.get() <= mailValue.getPoolSize());
+  }
+
+  @Test
+  void testLargeProtocolAttached() throws Exception {
+    mailValue.setAttachmentThreshold(1024);
+    TimeAgentInfo agentInfo = run(TimeAgentStatus.FINISHED, "start");
+    for (int line = 0; line < 1000; line++) {
+      agentInfo.addProtocol(String.format("processed file number %d", line));
+    }
+
+    classUnderTest.sendProtocol(agentInfo);
+
+    MimeMessage mail = smtpServer.nextMail();
+    Multipart multipart = (Multipart) ((Multipart) mail.getContent()).getBodyPart(0).getContent();
+    Part attachment = ((Multipart) mail.getContent()).getBodyPart(1);
+    assertTrue(multipart.getCount() > 0);
+    assertEquals(String.format("protocol-%d.txt.gz", agentInfo.getId()), attachment.getFileName());
+    try (InputStream protocol = new GZIPInputStream(attachment.getInputStream())) {
+      String lines = new String(protocol.readAllBytes(), StandardCharsets.UTF_8);
+      assertTrue(lines.endsWith("processed file number 999"));
+    }
+  }
+
+  @Test
+  void testDisabled() throws Exception {
+    mailValue.setEnabled(false);
+
+    classUnderTest.sendProtocol(run(TimeAgentStatus.ABORTED, "broken"));
+
+    assertNull(smtpServer.mails.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  private TimeAgentInfo run(TimeAgentStatus status, String message) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo("agent", status);
+    agentInfo.setId(++nextId);
+    agentInfo.setStartTimeExecution(LocalDateTime.now().minusMinutes(1));
+    agentInfo.setFinishTimeExecution(LocalDateTime.now());
+    agentInfo.addProtocol(message);
+    return agentInfo;
+  }
+
+  private MailRecipientValue recipient(String address, EnumSet<TimeAgentStatus> status) {
+    MailRecipientValue recipient = new MailRecipientValue();
+    recipient.setAddress(address);
+    recipient.setStatus(status);
+    return recipient;
+  }
+
+  private String text(MimeMessage mail) throws Exception {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    mail.writeTo(content);
+    return content.toString(StandardCharsets.UTF_8.name());
+  }
+
+  /**
+   * stand-in of a smtp server, which accepts every mail and keeps it.
+   */
+  static class SmtpStandIn {
+    final ServerSocket serverSocket;
+    final BlockingQueue<MimeMessage> mails = new LinkedBlockingQueue<>();
+    final AtomicInteger connections = new AtomicInteger();
+
+    SmtpStandIn() throws IOException {
+      serverSocket = new ServerSocket(0);
+      Thread acceptThread = new Thread(this::accept, "smtp-stand-in");
+      acceptThread.setDaemon(true);
+      acceptThread.start();
+    }
+
+    int getPort() {
+      return serverSocket.getLocalPort();
+    }
+
+    MimeMessage nextMail() throws InterruptedException {
+      MimeMessage mail = mails.poll(WAIT, TimeUnit.MILLISECONDS);
+      assertTrue(mail != null, "no mail received");
+      return mail;
+    }
+
+    MimeMessage[] nextMails(int count) throws InterruptedException {
+      MimeMessage[] received = new MimeMessage[count];
+      for (int mail = 0; mail < count; mail++) {
+        received[mail] = nextMail();
+      }
+      return received;
+    }
+
+    void close() throws IOException {
+      serverSocket.close();
+    }
+
+    private void accept() {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          connections.incrementAndGet();
+          Thread sessionThread = new Thread(() -> talk(socket), "smtp-stand-in-session");
+          sessionThread.setDaemon(true);
+          sessionThread.start();
+        } catch (IOException exception) {
+          return;
+        }
+      }
+    }
+
+    private void talk(Socket socket) {
+      try (Socket session = socket;
+          BufferedReader reader = new BufferedReader(new InputStreamReader(session.getInputStream(), StandardCharsets.UTF_8));
+          OutputStream writer = session.getOutputStream()) {
+        reply(writer, "220 stand-in");
+        String line;
+        while ((line = reader.readLine()) != null) {
+          String command = line.toUpperCase();
+          if (command.startsWith("DATA")) {
+            reply(writer, "354 end with <CRLF>.<CRLF>");
+            StringBuilder data = new StringBuilder();
+            while (!(line = reader.readLine()).equals(".")) {
+              data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+            }
+            mails.add(new MimeMessage(Session.getInstance(System.getProperties()),
+                new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8))));
+            reply(writer, "250 ok");
+          } else if (command.startsWith("QUIT")) {
+            reply(writer, "221 bye");
+            return;
+          } else {
+            reply(writer, "250 ok");
+          }
+        }
+      } catch (Exception exception) {
+        // the client has closed the connection
+      }
+    }
+
+    private void reply(OutputStream writer, String reply) throws IOException {
+      writer.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+      writer.flush();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentMisfire;
+import org.smithx.timeagent.api.models.TimeAgentMisfireReason;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.repositories.TimeAgentMisfireRepository;
+import org.springframework.data.domain.PageRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * testing the TimeAgentMisfireEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentMisfireEngineTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentMisfireEngine classUnderTest;
+
+  SimpleMeterRegistry meterRegistry;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentMisfireRepository misfireRepository;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+    classUnderTest = new TimeAgentMisfireEngine(agentValues, misfireRepository, meterRegistry, messages);
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getMaxLimitSearch()).thenReturn(100);
+    when(misfireRepository.save(any(TimeAgentMisfire.class))).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void testRecordMisfire() {
+    LocalDateTime scheduledTime = LocalDateTime.now();
+    TimeAgentMisfire misfire = classUnderTest.recordMisfire(new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?"), scheduledTime,
+        TimeAgentMisfireReason.OVERLAP_SKIPPED, 2);
+
+    assertAll("check misfire",
+        () -> assertEquals("nightly", misfire.getTriggerName()),
+        () -> assertEquals(scheduledTime, misfire.getScheduledTime()),
+        () -> assertEquals(2, misfire.getFires()),
+        () -> assertEquals(2.0, meterRegistry.counter(TimeAgentMisfireEngine.MISFIRE_METRIC, "agent", AGENTNAME, "trigger", "nightly",
+            "reason", "OVERLAP_SKIPPED").count()));
+  }
+
+  @Test
+  void testCountCoalesced() {
+    classUnderTest.countCoalesced(new TimeAgentTrigger(AGENTNAME, null, "0 0 2 * * ?"));
+
+    assertEquals(1.0, meterRegistry.counter(TimeAgentMisfireEngine.COALESCED_METRIC, "agent", AGENTNAME, "trigger", "crontrigger")
+        .count());
+  }
+
+  @Test
+  void testFindMisfiresLimited() {
+    classUnderTest.findMisfires(1000);
+
+    verify(misfireRepository).findByAgentNameOrderByScheduledTimeDesc(AGENTNAME, PageRequest.of(0, 100));
+  }
+
+  @Test
+  void testFindMissedFires() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "hourly", "0 0 * * * ?");
+    trigger.setLastFireTime(LocalDateTime.of(2020, 5, 1, 10, 0));
+
+    List<LocalDateTime> missedFires = classUnderTest.findMissedFires(trigger, LocalDateTime.of(2020, 5, 1, 13, 30));
+    assertEquals(3, missedFires.size());
+    assertEquals(LocalDateTime.of(2020, 5, 1, 11, 0), missedFires.get(0));
+  }
+
+  @Test
+  void testFindMissedFiresNeverFired() {
+    assertTrue(classUnderTest.findMissedFires(new TimeAgentTrigger(AGENTNAME, "hourly", "0 0 * * * ?"), LocalDateTime.now()).isEmpty());
+  }
+}
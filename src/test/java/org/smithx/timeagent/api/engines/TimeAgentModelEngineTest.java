@@ -19,10 +19,17 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,9 +38,12 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
 import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
-import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
 
 /**
  * testing the TimeAgentModelEngine.
@@ -53,14 +63,20 @@ public class TimeAgentModelEngineTest {
   TimeAgentValues agentValues;
 
   @Mock
-  TimeAgentInfoRepository agentInfoRepository;
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentOutboxEngine outboxEngine;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
 
   @Mock
   TimeAgentMessages messages;
 
   @BeforeEach
   void beforeEach() {
-    classUnderTest = new TimeAgentModelEngine(agentValues, agentInfoRepository, messages);
+    classUnderTest = new TimeAgentModelEngine(agentValues, storage, outboxEngine, leaseEngine, messages);
     when(agentValues.getAgentName()).thenReturn(AGENTNAME);
   }
 
@@ -86,7 +102,7 @@ public class TimeAgentModelEngineTest {
     expected.setId(1L);
     expected.addProtocol("message");
 
-    when(agentInfoRepository.findTop1ByAgentNameOrderByUpdatedAtDesc(AGENTNAME)).thenReturn(expected);
+    when(storage.findLatest(AGENTNAME, null)).thenReturn(expected);
 
     TimeAgentInfo agentInfo = classUnderTest.nextAgentInfo();
 
@@ -112,7 +128,7 @@ public class TimeAgentModelEngineTest {
     expected.setId(1L);
     expected.addProtocol("message");
 
-    when(agentInfoRepository.findTop1ByAgentNameAndStatusOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.NOT_SET)).thenReturn(expected);
+    when(storage.findLatest(AGENTNAME, TimeAgentStatus.NOT_SET)).thenReturn(expected);
 
     TimeAgentInfo agentInfo = classUnderTest.nextAgentInfo();
 
@@ -132,7 +148,7 @@ public class TimeAgentModelEngineTest {
 
     expected.setCrontrigger(TRIGGER);
 
-    when(agentInfoRepository.save(agentInfo)).thenReturn(expected);
+    when(storage.save(agentInfo)).thenReturn(expected);
 
     agentInfo = classUnderTest.saveTriggerToAgentInfo(TRIGGER, agentInfo);
 
@@ -151,8 +167,8 @@ public class TimeAgentModelEngineTest {
     expected.setId(1L);
     expected.addProtocol("message");
 
-    when(agentInfoRepository.findTop1ByAgentNameAndStatusOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.NOT_SET)).thenReturn(expected);
-    when(agentInfoRepository.save(expected)).thenReturn(expected);
+    when(storage.findLatest(AGENTNAME, TimeAgentStatus.NOT_SET)).thenReturn(expected);
+    when(storage.save(expected)).thenReturn(expected);
 
     TimeAgentInfo agentInfoReturned = classUnderTest.saveTriggerToAgentInfo(TRIGGER, agentInfo);
 
@@ -173,7 +189,7 @@ public class TimeAgentModelEngineTest {
     expected.setId(1L);
     expected.addProtocol("message");
 
-    when(agentInfoRepository.save(any(TimeAgentInfo.class))).thenReturn(expected);
+    when(storage.save(any(TimeAgentInfo.class))).thenReturn(expected);
 
     TimeAgentInfo agentInfoReturned = classUnderTest.saveTriggerToAgentInfo(TRIGGER, agentInfo);
 
@@ -182,4 +198,69 @@ public class TimeAgentModelEngineTest {
         () -> assertEquals(TRIGGER, agentInfoReturned.getCrontrigger()));
   }
 
+  @Test
+  void testUpdateRunInfo() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.setFencingToken(3L);
+    when(storage.save(agentInfo)).thenReturn(agentInfo);
+
+    assertEquals(agentInfo, classUnderTest.updateRunInfo(agentInfo, TimeAgentEventType.STARTED));
+    assertEquals(agentInfo, classUnderTest.updateRunInfo(agentInfo, null));
+    verify(leaseEngine, times(2)).checkFencingToken(3L);
+    verify(outboxEngine).append(agentInfo, TimeAgentEventType.STARTED);
+  }
+
+  @Test
+  void testUpdateRunInfoFenced() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.setFencingToken(3L);
+    doThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.LEASE_LOST, "lease lost")).when(leaseEngine).checkFencingToken(3L);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.updateRunInfo(agentInfo, TimeAgentEventType.FINISHED));
+    assertEquals(TimeAgentExceptionCause.LEASE_LOST, exception.getErrorCause());
+    verify(storage, never()).save(agentInfo);
+    verify(outboxEngine, never()).append(any(TimeAgentInfo.class), any(TimeAgentEventType.class));
+  }
+
+  @Test
+  void testUpdateAgentInfoWithEvent() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    TimeAgentInfo savedAgentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    savedAgentInfo.setId(1L);
+    when(storage.save(agentInfo)).thenReturn(savedAgentInfo);
+
+    assertEquals(savedAgentInfo, classUnderTest.updateAgentInfo(agentInfo, TimeAgentEventType.STARTED));
+    // the event gets the id of the saved info
+    verify(outboxEngine).append(savedAgentInfo, TimeAgentEventType.STARTED);
+  }
+
+  @Test
+  void testRecoverAgentInfo() {
+    TimeAgentInfo orphan = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    orphan.setId(1L);
+    orphan.setStartTimeExecution(LocalDateTime.now().minusHours(1));
+    orphan.addProtocol("message");
+
+    when(storage.findAll(AGENTNAME, TimeAgentStatus.RUNNING)).thenReturn(Arrays.asList(orphan));
+    when(messages.getMessage("protocol.recovered")).thenReturn("recovered");
+    when(storage.save(orphan)).thenReturn(orphan);
+
+    List<TimeAgentInfo> recovered = classUnderTest.recoverAgentInfo();
+
+    verify(storage).save(orphan);
+    verify(outboxEngine).append(orphan, TimeAgentEventType.ABORTED);
+    assertAll("check recovered model",
+        () -> assertEquals(1, recovered.size()),
+        () -> assertEquals(TimeAgentStatus.INTERRUPTED, orphan.getStatus()),
+        () -> assertTrue(orphan.getFinishTimeExecution() != null),
+        () -> assertEquals(2, orphan.getProtocol().size()),
+        () -> assertEquals("recovered", orphan.getProtocol().get(1).getMessage()));
+  }
+
+  @Test
+  void testRecoverAgentInfoWithoutOrphans() {
+    assertTrue(classUnderTest.recoverAgentInfo().isEmpty());
+    verify(storage, never()).save(any(TimeAgentInfo.class));
+  }
 }
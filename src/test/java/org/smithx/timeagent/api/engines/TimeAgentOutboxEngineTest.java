@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.OutboxValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentOutboxRepository;
+import org.smithx.timeagent.api.sinks.TimeAgentEventSink;
+import org.springframework.data.domain.Pageable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * testing the TimeAgentOutboxEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentOutboxEngineTest {
+  static final String AGENTNAME = "agent";
+  static final String INSTANCE = "host-1";
+
+  TimeAgentOutboxEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentOutboxRepository outboxRepository;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  TimeAgentEventSink sink;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  SimpleMeterRegistry meterRegistry;
+
+  OutboxValue outboxValue;
+
+  List<TimeAgentOutboxEvent> events;
+
+  @BeforeEach
+  void beforeEach() {
+    outboxValue = new OutboxValue();
+    outboxValue.setEnabled(true);
+    outboxValue.setMaxAttempts(3);
+    meterRegistry = new SimpleMeterRegistry();
+    events = Arrays.asList(event(1L, TimeAgentEventType.STARTED), event(2L, TimeAgentEventType.FINISHED));
+
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getOutbox()).thenReturn(outboxValue);
+    when(agentValues.getMaxLimitSearch()).thenReturn(50);
+    when(outboxRepository.findByAgentNameAndParkedFalseOrderByIdAsc(eq(AGENTNAME), any(Pageable.class))).thenReturn(events);
+    when(outboxRepository.claimEvents(anyCollection(), eq(INSTANCE), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(2);
+    when(leaseEngine.getInstanceId()).thenReturn(INSTANCE);
+    classUnderTest = new TimeAgentOutboxEngine(agentValues, outboxRepository, leaseEngine, Collections.singletonList(sink),
+        meterRegistry, messages);
+  }
+
+  @Test
+  void testAppend() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.setId(7L);
+
+    classUnderTest.append(agentInfo, TimeAgentEventType.STARTED);
+
+    verify(outboxRepository).save(any(TimeAgentOutboxEvent.class));
+  }
+
+  @Test
+  void testAppendDisabled() {
+    outboxValue.setEnabled(false);
+
+    classUnderTest.append(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING), TimeAgentEventType.STARTED);
+
+    verify(outboxRepository, never()).save(any(TimeAgentOutboxEvent.class));
+  }
+
+  @Test
+  void testDispatch() throws IOException {
+    assertEquals(2, classUnderTest.dispatch());
+
+    verify(outboxRepository).claimEvents(eq(Arrays.asList(1L, 2L)), eq(INSTANCE), any(LocalDateTime.class),
+        any(LocalDateTime.class));
+    verify(sink).deliver(events);
+    verify(outboxRepository).deleteEvents(Arrays.asList(1L, 2L));
+    assertEquals(2, meterRegistry.get(TimeAgentOutboxEngine.DELIVERY_METRIC).timer().count());
+    assertEquals(0, meterRegistry.get(TimeAgentOutboxEngine.PENDING_METRIC).gauge().value());
+  }
+
+  @Test
+  void testDispatchFailed() throws IOException {
+    doThrow(new IOException("refused")).when(sink).deliver(events);
+
+    assertEquals(0, classUnderTest.dispatch());
+
+    verify(outboxRepository).retryEvents(eq(Arrays.asList(1L, 2L)), eq(1), any(LocalDateTime.class), eq(false));
+    verify(outboxRepository, never()).deleteEvents(anyCollection());
+    assertEquals(1, meterRegistry.get(TimeAgentOutboxEngine.FAILURES_METRIC).counter().count());
+    assertEquals(2, meterRegistry.get(TimeAgentOutboxEngine.PENDING_METRIC).gauge().value());
+  }
+
+  @Test
+  void testDispatchParked() throws IOException {
+    events.get(0).setAttempts(2);
+    doThrow(new IOException("refused")).when(sink).deliver(events);
+
+    classUnderTest.dispatch();
+
+    verify(outboxRepository).retryEvents(eq(Arrays.asList(1L, 2L)), eq(3), any(LocalDateTime.class), eq(true));
+  }
+
+  @Test
+  void testDispatchWaitsForRetry() throws IOException {
+    // the later events keep their order behind the first one
+    events.get(0).setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+
+    assertEquals(0, classUnderTest.dispatch());
+
+    verify(sink, never()).deliver(any());
+    verify(outboxRepository, never()).retryEvents(anyCollection(), anyInt(), any(), anyBoolean());
+  }
+
+  @Test
+  void testDispatchClaimedByOther() throws IOException {
+    // another instance delivers the first event of the batch
+    when(outboxRepository.claimEvents(anyCollection(), eq(INSTANCE), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(1);
+
+    assertEquals(0, classUnderTest.dispatch());
+
+    verify(outboxRepository).releaseEvents(Arrays.asList(1L, 2L), INSTANCE);
+    verify(sink, never()).deliver(any());
+    verify(outboxRepository, never()).deleteEvents(anyCollection());
+  }
+
+  @Test
+  void testDispatchLeaseHeldByOther() throws IOException {
+    when(leaseEngine.isLeaseHeldByOther()).thenReturn(true);
+
+    assertEquals(0, classUnderTest.dispatch());
+
+    verify(sink, never()).deliver(any());
+  }
+
+  @Test
+  void testDispatchWithoutSink() {
+    classUnderTest = new TimeAgentOutboxEngine(agentValues, outboxRepository, leaseEngine, Collections.emptyList(), meterRegistry,
+        messages);
+
+    assertEquals(0, classUnderTest.dispatch());
+
+    verify(outboxRepository, never()).deleteEvents(anyCollection());
+  }
+
+  private TimeAgentOutboxEvent event(Long id, TimeAgentEventType eventType) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.setId(5L);
+    TimeAgentOutboxEvent event = new TimeAgentOutboxEvent(agentInfo, eventType);
+    event.setId(id);
+    event.setCreatedAt(LocalDateTime.now().minusSeconds(1));
+    return event;
+  }
+}
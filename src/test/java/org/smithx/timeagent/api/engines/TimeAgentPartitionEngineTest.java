@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentPartitionRepository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * testing the TimeAgentPartitionEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentPartitionEngineTest {
+  static final String AGENTNAME = "agent";
+  static final String INSTANCE = "node-a";
+
+  TimeAgentPartitionEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentPartitionRepository partitionRepository;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  ThreadPoolTaskScheduler scheduler;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(agentValues.getPartition()).thenReturn(new PartitionValue());
+    when(leaseEngine.getInstanceId()).thenReturn(INSTANCE);
+    when(partitionRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    classUnderTest = new TimeAgentPartitionEngine(agentValues, partitionRepository, leaseEngine, scheduler, messages);
+  }
+
+  @Test
+  void testCreatePartitions() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.setId(1L);
+
+    List<TimeAgentPartition> partitions = classUnderTest.createPartitions(agentInfo, Arrays.asList("a-m", "n-z"),
+        new TimeAgentArgument("mode", "full"));
+    assertEquals(2, partitions.size());
+    assertEquals("n-z", partitions.get(1).getPartitionKey());
+    assertEquals(Arrays.asList(new TimeAgentArgument("mode", "full")), partitions.get(1).getArguments());
+    assertEquals(TimeAgentPartitionStatus.PENDING, partitions.get(1).getStatus());
+  }
+
+  @Test
+  void testClaimPartition() {
+    TimeAgentPartition partition = partition(11L, 1);
+    when(partitionRepository.findClaimableByInfoId(eq(1L), any(), eq(3), any())).thenReturn(Arrays.asList(10L, 11L));
+    when(partitionRepository.claimPartition(eq(10L), eq(INSTANCE), any(), any(), eq(3))).thenReturn(0);
+    when(partitionRepository.claimPartition(eq(11L), eq(INSTANCE), any(), any(), eq(3))).thenReturn(1);
+    when(partitionRepository.findById(11L)).thenReturn(Optional.of(partition));
+
+    // the first candidate was claimed by another instance
+    assertSame(partition, classUnderTest.claimPartition(1L));
+    verify(scheduler).scheduleAtFixedRate(any(Runnable.class), anyLong());
+  }
+
+  @Test
+  void testClaimPartitionNoneLeft() {
+    assertNull(classUnderTest.claimPartition(1L));
+  }
+
+  @Test
+  void testFinishPartition() {
+    TimeAgentPartition partition = partition(11L, 2);
+    when(partitionRepository.finishClaim(11L, INSTANCE, 2, TimeAgentPartitionStatus.DONE, "done")).thenReturn(1);
+
+    assertTrue(classUnderTest.finishPartition(partition, "done"));
+    assertEquals(TimeAgentPartitionStatus.DONE, partition.getStatus());
+  }
+
+  @Test
+  void testFinishPartitionTakenOver() {
+    TimeAgentPartition partition = partition(11L, 2);
+
+    assertFalse(classUnderTest.finishPartition(partition, "done"));
+    assertEquals(TimeAgentPartitionStatus.CLAIMED, partition.getStatus());
+  }
+
+  @Test
+  void testFailPartitionRetried() {
+    classUnderTest.failPartition(partition(11L, 1), "error");
+
+    verify(partitionRepository).finishClaim(11L, INSTANCE, 1, TimeAgentPartitionStatus.PENDING, "error");
+  }
+
+  @Test
+  void testFailPartitionExhausted() {
+    classUnderTest.failPartition(partition(11L, 3), "error");
+
+    verify(partitionRepository).finishClaim(11L, INSTANCE, 3, TimeAgentPartitionStatus.FAILED, "error");
+  }
+
+  @Test
+  void testCountOpenPartitions() {
+    when(partitionRepository.countByInfoIdAndStatusIn(eq(1L), any())).thenReturn(4L);
+
+    assertEquals(4L, classUnderTest.countOpenPartitions(1L));
+    verify(partitionRepository).failExhaustedClaims(eq(1L), any(), eq(3), any());
+  }
+
+  @Test
+  void testRenewClaims() {
+    TimeAgentPartition partition = partition(11L, 1);
+    when(partitionRepository.findClaimableByInfoId(eq(1L), any(), anyInt(), any())).thenReturn(Arrays.asList(11L));
+    when(partitionRepository.claimPartition(eq(11L), anyString(), any(), any(), anyInt())).thenReturn(1);
+    when(partitionRepository.findById(11L)).thenReturn(Optional.of(partition));
+    classUnderTest.claimPartition(1L);
+
+    classUnderTest.renewClaims();
+    verify(partitionRepository).renewClaims(eq(Arrays.asList(11L)), eq(INSTANCE), any());
+  }
+
+  private TimeAgentPartition partition(Long id, int attempts) {
+    TimeAgentPartition partition = new TimeAgentPartition(1L, AGENTNAME, "p" + id);
+    partition.setId(id);
+    partition.setStatus(TimeAgentPartitionStatus.CLAIMED);
+    partition.setAttempts(attempts);
+    return partition;
+  }
+}
@@ -15,19 +15,31 @@
  */
 package org.smithx.timeagent.api.engines;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.QueryValue;
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
 import org.smithx.timeagent.api.configuration.TimeAgentValues;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
@@ -35,8 +47,9 @@ import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
-import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
-import org.springframework.data.domain.PageRequest;
+import org.smithx.timeagent.api.storage.TimeAgentStorage;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 /**
  * testing the TimeAgentSearchEngine.
@@ -56,24 +69,33 @@ public class TimeAgentSearchEngineTest {
   TimeAgentValues agentValues;
 
   @Mock
-  TimeAgentInfoRepository agentInfoRepository;
+  TimeAgentStorage storage;
+
+  @Mock
+  TimeAgentArchiveEngine archiveEngine;
 
   @Mock
   TimeAgentMessages messages;
 
-  PageRequest pagable;
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  @Captor
+  ArgumentCaptor<TransactionDefinition> transactionCaptor;
+
   TimeAgentInfoSearch searchModel;
   List<TimeAgentInfo> resultList;
 
   @BeforeEach
   void beforeEach() {
-    classUnderTest = new TimeAgentSearchEngine(agentValues, agentInfoRepository, messages);
-    pagable = PageRequest.of(0, MAX_SEARCH_VALUE);
+    classUnderTest = new TimeAgentSearchEngine(agentValues, storage, archiveEngine, messages, transactionManager);
     searchModel = new TimeAgentInfoSearch();
     resultList = Arrays.asList(new TimeAgentInfo());
 
     when(agentValues.getAgentName()).thenReturn(AGENTNAME);
     when(agentValues.getMaxLimitSearch()).thenReturn(MAX_SEARCH_VALUE);
+    when(agentValues.getQuery()).thenReturn(new QueryValue());
+    when(storage.search(AGENTNAME, searchModel)).thenReturn(resultList);
   }
 
   @Test
@@ -82,203 +104,113 @@ public class TimeAgentSearchEngineTest {
     assertEquals(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, exception.getErrorCause());
   }
 
+  @Test
+  void testSearchRunsWithSearchTimeout() {
+    agentValues.getQuery().setSearchTimeout(2500);
+
+    classUnderTest.searchAgentInfo(searchModel);
+
+    verify(transactionManager).getTransaction(transactionCaptor.capture());
+    assertAll("check search transaction",
+        () -> assertTrue(transactionCaptor.getValue().isReadOnly()),
+        () -> assertEquals(3, transactionCaptor.getValue().getTimeout()));
+  }
+
   @Test
   void testSearchModelHasNoSearchValues() {
-    when(agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(AGENTNAME, pagable)).thenReturn(resultList);
     assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    assertEquals(MAX_SEARCH_VALUE, searchModel.getLimit());
   }
 
   @Test
   void testSearchModelHasLimitOverMax() {
     searchModel.setLimit(100);
 
-    when(agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(AGENTNAME, pagable)).thenReturn(resultList);
     assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    assertEquals(MAX_SEARCH_VALUE, searchModel.getLimit());
   }
 
   @Test
   void testSearchModelHasValidLimit() {
     searchModel.setLimit(10);
-    pagable = PageRequest.of(0, 10);
 
-    when(agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(AGENTNAME, pagable)).thenReturn(resultList);
     assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    assertEquals(10, searchModel.getLimit());
   }
 
   @Test
   void testSearchModelHasStatus() {
     searchModel.setStatus(TimeAgentStatus.FINISHED);
 
-    when(agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED, pagable))
-        .thenReturn(resultList);
     assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
   }
 
   @Test
-  void testSearchModelHasExecutor() {
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndExecutorOrderByUpdatedAtDesc(AGENTNAME, "user", pagable)).thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+  void testSearchModelHasProtocolToken() {
+    searchModel.setProtocolText("Files");
 
-  @Test
-  void testSearchModelHasStatusAndExecutor() {
-    searchModel.setExecutor("user");
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
-
-    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED, "user", pagable))
+    when(storage.searchByProtocolTokens(eq(AGENTNAME), eq(searchModel), eq(new LinkedHashSet<>(Arrays.asList("files"))), eq(0)))
         .thenReturn(resultList);
     assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
   }
 
   @Test
-  void testSearchModelHasFromStartTime() {
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-
-    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, fromStartTimeExecution, pagable))
-        .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+  void testSearchModelHasProtocolPhrase() {
+    TimeAgentInfo matching = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    matching.addProtocol("found 100 files");
+    TimeAgentInfo reordered = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    reordered.addProtocol("100 files found");
 
-  @Test
-  void testSearchModelHasStatusAndFromStartTime() {
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setProtocolText("found 100 files");
     searchModel.setStatus(TimeAgentStatus.FINISHED);
 
-    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED,
-        fromStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+    when(storage.searchByProtocolTokens(eq(AGENTNAME), eq(searchModel),
+        eq(new LinkedHashSet<>(Arrays.asList("found", "100", "files"))), eq(0))).thenReturn(Arrays.asList(reordered, matching));
 
-  @Test
-  void testSearchModelHasStatusAndExecutorAndFromStartTime() {
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME,
-        TimeAgentStatus.FINISHED, "user", fromStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    List<TimeAgentInfo> result = classUnderTest.searchAgentInfo(searchModel);
+    assertEquals(1, result.size());
+    assertEquals(matching, result.get(0));
   }
 
   @Test
-  void testSearchModelHasToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
+  void testSearchMergesArchive() {
+    LocalDateTime now = LocalDateTime.now();
+    TimeAgentInfo hot = info(3L, now);
+    TimeAgentInfo archived = info(2L, now.minusDays(1));
+    TimeAgentInfo older = info(1L, now.minusDays(2));
+    searchModel.setLimit(2);
 
-    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, toStartTimeExecution, pagable))
-        .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+    when(storage.search(AGENTNAME, searchModel)).thenReturn(Arrays.asList(hot, archived));
+    when(archiveEngine.searchAgentInfo(eq(searchModel), isNull())).thenReturn(Arrays.asList(info(2L, now.minusDays(1)), older));
 
-  @Test
-  void testSearchModelHasStatusAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
-
-    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED,
-        toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
-
-  @Test
-  void testSearchModelHasStatusAndExecutorAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME,
-        TimeAgentStatus.FINISHED, "user", toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
-
-  @Test
-  void testSearchModelHasStatusAndExecutorAndFromStartTimeAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
-        TimeAgentStatus.FINISHED, "user", fromStartTimeExecution, toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
-
-  @Test
-  void testSearchModelHasStatusAndFromStartTimeAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    List<TimeAgentInfo> result = classUnderTest.searchAgentInfo(searchModel);
+    assertEquals(Arrays.asList(hot, archived), result);
 
-    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
-        TimeAgentStatus.FINISHED, fromStartTimeExecution, toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    searchModel.setLimit(3);
+    result = classUnderTest.searchAgentInfo(searchModel);
+    assertEquals(Arrays.asList(hot, archived, older), result);
   }
 
   @Test
-  void testSearchModelHasExecutorAndFromStartTimeAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
-        "user", fromStartTimeExecution, toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+  void testSearchMergesArchiveByProtocol() {
+    TimeAgentInfo archived = info(1L, LocalDateTime.now());
+    archived.addProtocol("found 100 files");
+    TimeAgentInfo reordered = info(2L, LocalDateTime.now());
+    reordered.addProtocol("100 files found");
+    searchModel.setProtocolText("found 100 files");
 
-  @Test
-  void testSearchModelHasFromStartTimeAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-
-    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
-        fromStartTimeExecution, toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
-  }
+    when(archiveEngine.searchAgentInfo(eq(searchModel), any())).thenAnswer(invocation -> {
+      Predicate<TimeAgentInfo> filter = invocation.getArgument(1);
+      return Arrays.asList(archived, reordered).stream().filter(filter).collect(Collectors.toList());
+    });
 
-  @Test
-  void testSearchModelHasExecutorAndToStartTime() {
-    LocalDateTime toStartTimeExecution = LocalDateTime.now();
-    searchModel.setToStartTimeExecution(toStartTimeExecution);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, "user",
-        toStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+    assertEquals(Arrays.asList(archived), classUnderTest.searchAgentInfo(searchModel));
   }
 
-  @Test
-  void testSearchModelHasExecutorAndFromStartTime() {
-    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
-    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
-    searchModel.setExecutor("user");
-
-    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, "user",
-        fromStartTimeExecution, pagable))
-            .thenReturn(resultList);
-    assertEquals(resultList, classUnderTest.searchAgentInfo(searchModel));
+  private TimeAgentInfo info(Long id, LocalDateTime updatedAt) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    agentInfo.setId(id);
+    agentInfo.setUpdatedAt(updatedAt);
+    return agentInfo;
   }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.models.TimeAgentEncoding;
+import org.smithx.timeagent.api.models.TimeAgentFields;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * testing the TimeAgentSnapshotEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentSnapshotEngineTest {
+  TimeAgentSnapshotEngine classUnderTest;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentSnapshotEngine(mapper, messages);
+  }
+
+  @Test
+  void testPublish() throws Exception {
+    TimeAgentInfo agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    agentInfo.addProtocol("first");
+    TimeAgentInfoSnapshot first = classUnderTest.publish(agentInfo);
+
+    // later changes of the info are not visible until the next publish
+    agentInfo.addProtocol("second");
+    JsonNode published = mapper.readTree(classUnderTest.getSnapshot().getJson());
+    assertAll("check first snapshot",
+        () -> assertSame(first, classUnderTest.getSnapshot()),
+        () -> assertEquals(1, first.getVersion()),
+        () -> assertTrue(first.getEtag().matches("\"[0-9a-z]+-1\"")),
+        () -> assertEquals("RUNNING", published.get("status").asText()),
+        () -> assertEquals(1, published.get("protocol").size()));
+
+    TimeAgentInfoSnapshot second = classUnderTest.publish(agentInfo);
+    assertAll("check second snapshot",
+        () -> assertEquals(2, second.getVersion()),
+        () -> assertEquals(2, mapper.readTree(classUnderTest.getSnapshot().getJson()).get("protocol").size()));
+  }
+
+  @Test
+  void testAwaitChange() throws Exception {
+    TimeAgentInfo agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.READY);
+    TimeAgentInfoSnapshot first = classUnderTest.publish(agentInfo);
+
+    // another etag is answered at once
+    assertSame(first, classUnderTest.awaitChange("\"other\"").getNow(null));
+    assertSame(first, classUnderTest.awaitChange(null).getNow(null));
+
+    CompletableFuture<TimeAgentInfoSnapshot> change = classUnderTest.awaitChange("W/" + first.getEtag());
+    assertFalse(change.isDone());
+    assertEquals(1, classUnderTest.getWaiting());
+
+    agentInfo.setStatus(TimeAgentStatus.RUNNING);
+    TimeAgentInfoSnapshot second = classUnderTest.publish(agentInfo);
+    assertAll("check change",
+        () -> assertSame(second, change.getNow(null)),
+        () -> assertEquals(0, classUnderTest.getWaiting()));
+  }
+
+  @Test
+  void testAwaitChangeCancelled() {
+    TimeAgentInfoSnapshot first = classUnderTest.publish(new TimeAgentInfo("agent", TimeAgentStatus.READY));
+
+    CompletableFuture<TimeAgentInfoSnapshot> change = classUnderTest.awaitChange(first.getEtag());
+    change.complete(first);
+    assertEquals(0, classUnderTest.getWaiting());
+  }
+
+  @Test
+  void testGzip() throws Exception {
+    TimeAgentInfoSnapshot snapshot = classUnderTest.publish(new TimeAgentInfo("agent", TimeAgentStatus.READY));
+
+    byte[] gzip = snapshot.getGzip();
+    assertSame(gzip, snapshot.getGzip());
+    assertEquals(mapper.readTree(snapshot.getJson()), mapper.readTree(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+  }
+
+  @Test
+  void testEncodingEtag() {
+    TimeAgentInfoSnapshot snapshot = classUnderTest.publish(new TimeAgentInfo("agent", TimeAgentStatus.READY));
+    String cborEtag = snapshot.getEtag(TimeAgentEncoding.CBOR);
+
+    assertAll("check etag of encoding",
+        () -> assertSame(snapshot.getEtag(), snapshot.getEtag(TimeAgentEncoding.JSON)),
+        () -> assertTrue(cborEtag.matches("\"[0-9a-z]+-1-cbor\"")),
+        () -> assertTrue(snapshot.matches(cborEtag)),
+        () -> assertFalse(snapshot.matches(cborEtag.replace("-1-", "-10-"))));
+  }
+
+  @Test
+  void testVariantEtag() {
+    TimeAgentInfoSnapshot snapshot = classUnderTest.publish(new TimeAgentInfo("agent", TimeAgentStatus.READY));
+    Set<String> fields = TimeAgentFields.parse("status");
+    String gzipEtag = snapshot.getEtag(TimeAgentEncoding.JSON, null, true);
+    String fieldsEtag = snapshot.getEtag(TimeAgentEncoding.JSON, fields, false);
+
+    assertAll("check etag of variant",
+        () -> assertTrue(gzipEtag.matches("\"[0-9a-z]+-1-gzip\"")),
+        () -> assertTrue(fieldsEtag.matches("\"[0-9a-z]+-1-f[0-9a-f]+\"")),
+        () -> assertTrue(snapshot.getEtag(TimeAgentEncoding.SMILE, fields, false).matches("\"[0-9a-z]+-1-smile-f[0-9a-f]+\"")),
+        () -> assertFalse(fieldsEtag.equals(snapshot.getEtag(TimeAgentEncoding.JSON, TimeAgentFields.parse("status,executor"), false))),
+        () -> assertTrue(snapshot.matches(gzipEtag)),
+        () -> assertTrue(snapshot.matches(fieldsEtag)));
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticBucket;
+import org.smithx.timeagent.api.models.TimeAgentStatisticSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentStatisticRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * testing the TimeAgentStatisticEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentStatisticEngineTest {
+  static final String AGENTNAME = "agent";
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 30);
+
+  TimeAgentStatisticEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentStatisticRepository statisticRepository;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentInfo agentInfo;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentStatisticEngine(agentValues, statisticRepository, messages);
+    agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.ABORTED);
+    agentInfo.setExecutor("user");
+    agentInfo.setStartTimeExecution(START);
+    agentInfo.setFinishTimeExecution(START.plusSeconds(2));
+
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+  }
+
+  @Test
+  void testUpdateStatisticCreatesBuckets() {
+    classUnderTest.updateStatistic(agentInfo);
+    verify(statisticRepository, times(TimeAgentStatisticBucket.values().length)).save(any(TimeAgentStatistic.class));
+  }
+
+  @Test
+  void testUpdateStatisticExistingBucket() {
+    when(statisticRepository.addDuration(eq(AGENTNAME), eq(TimeAgentStatisticBucket.HOURLY), eq(LocalDateTime.of(2020, 1, 1, 12, 0)),
+        eq(TimeAgentStatus.ABORTED), eq("user"), eq(2000L), any(LocalDateTime.class))).thenReturn(1);
+
+    classUnderTest.updateStatistic(agentInfo);
+
+    verify(statisticRepository, times(TimeAgentStatisticBucket.values().length - 1)).save(any(TimeAgentStatistic.class));
+    verify(statisticRepository, never()).save(argThat(statistic -> TimeAgentStatisticBucket.HOURLY.equals(statistic.getBucket())));
+  }
+
+  @Test
+  void testUpdateStatisticCreatedConcurrently() {
+    when(statisticRepository.save(any(TimeAgentStatistic.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+    classUnderTest.updateStatistic(agentInfo);
+
+    verify(statisticRepository, times(2)).addDuration(eq(AGENTNAME), eq(TimeAgentStatisticBucket.HOURLY),
+        eq(LocalDateTime.of(2020, 1, 1, 12, 0)), eq(TimeAgentStatus.ABORTED), eq("user"), eq(2000L), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testUpdateStatisticWithoutExecutor() {
+    agentInfo.setExecutor(null);
+
+    classUnderTest.updateStatistic(agentInfo);
+
+    verify(statisticRepository).addDuration(eq(AGENTNAME), eq(TimeAgentStatisticBucket.HOURLY),
+        eq(LocalDateTime.of(2020, 1, 1, 12, 0)), eq(TimeAgentStatus.ABORTED), eq(""), eq(2000L), any(LocalDateTime.class));
+    verify(statisticRepository).save(argThat(statistic -> TimeAgentStatisticBucket.HOURLY.equals(statistic.getBucket())
+        && statistic.getExecutor() == null && statistic.getCount() == 1));
+  }
+
+  @Test
+  void testUpdateStatisticWithoutFinishTime() {
+    agentInfo.setFinishTimeExecution(null);
+    classUnderTest.updateStatistic(agentInfo);
+    verify(statisticRepository, never()).save(any(TimeAgentStatistic.class));
+  }
+
+  @Test
+  void testSearchModelIsNull() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class, () -> classUnderTest.searchStatistic(null));
+    assertEquals(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, exception.getErrorCause());
+  }
+
+  @Test
+  void testSearchWithFilterAndAggregation() {
+    TimeAgentStatistic first = new TimeAgentStatistic(AGENTNAME, TimeAgentStatisticBucket.DAILY, START.minusDays(1),
+        TimeAgentStatus.ABORTED, "user");
+    first.addDuration(1000);
+    TimeAgentStatistic second = new TimeAgentStatistic(AGENTNAME, TimeAgentStatisticBucket.DAILY, START,
+        TimeAgentStatus.ABORTED, "user");
+    second.addDuration(3000);
+    TimeAgentStatistic finished = new TimeAgentStatistic(AGENTNAME, TimeAgentStatisticBucket.DAILY, START,
+        TimeAgentStatus.FINISHED, "user");
+    finished.addDuration(5000);
+
+    TimeAgentStatisticSearch searchModel = new TimeAgentStatisticSearch();
+    searchModel.setFrom(START.minusDays(7));
+    searchModel.setTo(START);
+    searchModel.setStatus(TimeAgentStatus.ABORTED);
+    searchModel.setAggregated(true);
+
+    when(statisticRepository.findByAgentNameAndBucketAndBucketStartBetweenOrderByBucketStartAsc(AGENTNAME,
+        TimeAgentStatisticBucket.DAILY, START.minusDays(7).toLocalDate().atStartOfDay(), START))
+            .thenReturn(Arrays.asList(first, second, finished));
+
+    List<TimeAgentStatistic> result = classUnderTest.searchStatistic(searchModel);
+
+    assertAll("check aggregated statistic",
+        () -> assertEquals(1, result.size()),
+        () -> assertEquals(2, result.get(0).getCount()),
+        () -> assertEquals(1000, result.get(0).getMinDuration()),
+        () -> assertEquals(3000, result.get(0).getMaxDuration()),
+        () -> assertEquals(2000, result.get(0).getAverageDuration()));
+  }
+
+  @Test
+  void testSearchFromAfterTo() {
+    TimeAgentStatisticSearch searchModel = new TimeAgentStatisticSearch();
+    searchModel.setFrom(START);
+    searchModel.setTo(START.minusDays(1));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.searchStatistic(searchModel));
+    assertEquals(TimeAgentExceptionCause.INVALID_SEARCH_MODEL, exception.getErrorCause());
+  }
+}
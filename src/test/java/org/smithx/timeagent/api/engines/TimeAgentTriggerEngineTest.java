@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.engines;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.LeaseValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.smithx.timeagent.api.models.TimeAgentMisfirePolicy;
+import org.smithx.timeagent.api.models.TimeAgentOverlapPolicy;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.repositories.TimeAgentTriggerRepository;
+
+/**
+ * testing the TimeAgentTriggerEngine.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentTriggerEngineTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentTriggerEngine classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentTriggerRepository triggerRepository;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentTriggerEngine(agentValues, triggerRepository, messages);
+    when(agentValues.getAgentName()).thenReturn(AGENTNAME);
+    when(triggerRepository.save(any(TimeAgentTrigger.class))).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void testFindTriggers() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    when(triggerRepository.findAllByAgentName(AGENTNAME)).thenReturn(Arrays.asList(trigger));
+
+    assertEquals(Arrays.asList(trigger), classUnderTest.findTriggers());
+  }
+
+  @Test
+  void testFindTriggerNotFound() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class, () -> classUnderTest.findTrigger("unknown"));
+    assertEquals(TimeAgentExceptionCause.TRIGGER_NOT_FOUND, exception.getErrorCause());
+  }
+
+  @Test
+  void testSaveNewTrigger() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?", new TimeAgentArgument("mode", "incremental"));
+    trigger.setEnabled(false);
+
+    TimeAgentTrigger savedTrigger = classUnderTest.saveTrigger("hourly", trigger);
+    assertAll("check new trigger",
+        () -> assertEquals(AGENTNAME, savedTrigger.getAgentName()),
+        () -> assertEquals("hourly", savedTrigger.getName()),
+        () -> assertEquals("0 0 * * * ?", savedTrigger.getCrontrigger()),
+        () -> assertFalse(savedTrigger.isEnabled()),
+        () -> assertEquals(Arrays.asList(new TimeAgentArgument("mode", "incremental")), savedTrigger.getArguments()));
+  }
+
+  @Test
+  void testSaveExistingTrigger() {
+    TimeAgentTrigger existing = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?", new TimeAgentArgument("mode", "full"));
+    existing.setId(7L);
+    when(triggerRepository.findByAgentNameAndName(AGENTNAME, "nightly")).thenReturn(existing);
+
+    TimeAgentTrigger savedTrigger = classUnderTest.saveTrigger("nightly", new TimeAgentTrigger(null, null, "0 0 3 * * ?"));
+    assertAll("check replaced trigger",
+        () -> assertSame(existing, savedTrigger),
+        () -> assertEquals("0 0 3 * * ?", savedTrigger.getCrontrigger()),
+        () -> assertEquals(0, savedTrigger.getArguments().size()));
+  }
+
+  @Test
+  void testSaveInvalidTrigger() {
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveTrigger("nightly", new TimeAgentTrigger(null, null, "xyz")));
+    assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER, exception.getErrorCause());
+    verify(triggerRepository, never()).save(any(TimeAgentTrigger.class));
+  }
+
+  @Test
+  void testSaveTriggerPolicies() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?");
+    trigger.setOverlapPolicy(TimeAgentOverlapPolicy.QUEUE_ONE);
+    trigger.setMisfirePolicy(null);
+
+    TimeAgentTrigger savedTrigger = classUnderTest.saveTrigger("hourly", trigger);
+    assertAll("check policies",
+        () -> assertEquals(TimeAgentOverlapPolicy.QUEUE_ONE, savedTrigger.getOverlapPolicy()),
+        () -> assertEquals(TimeAgentMisfirePolicy.IGNORE, savedTrigger.getMisfirePolicy()));
+  }
+
+  @Test
+  void testSaveTriggerJitter() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?");
+    trigger.setJitterMode(TimeAgentJitterMode.SPREAD);
+    trigger.setJitterWindow(300_000);
+
+    TimeAgentTrigger savedTrigger = classUnderTest.saveTrigger("hourly", trigger);
+    assertAll("check jitter",
+        () -> assertEquals(TimeAgentJitterMode.SPREAD, savedTrigger.getJitterMode()),
+        () -> assertEquals(300_000, savedTrigger.getJitterWindow()));
+  }
+
+  @Test
+  void testSaveRandomJitterWithLease() {
+    LeaseValue leaseValue = new LeaseValue();
+    leaseValue.setEnabled(true);
+    when(agentValues.getLease()).thenReturn(leaseValue);
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?");
+    trigger.setJitterMode(TimeAgentJitterMode.RANDOM);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveTrigger("hourly", trigger));
+    assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER, exception.getErrorCause());
+
+    leaseValue.setEnabled(false);
+    assertEquals(TimeAgentJitterMode.RANDOM, classUnderTest.saveTrigger("hourly", trigger).getJitterMode());
+  }
+
+  @Test
+  void testClaimFire() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    trigger.setId(3L);
+    LocalDateTime cronTime = LocalDateTime.of(2020, 1, 1, 2, 0);
+    when(triggerRepository.claimFire(3L, cronTime)).thenReturn(1, 0);
+
+    assertTrue(classUnderTest.claimFire(trigger, cronTime));
+    assertEquals(cronTime, trigger.getLastFireTime());
+    // the same time of the crontrigger was claimed already
+    assertFalse(classUnderTest.claimFire(trigger, cronTime));
+  }
+
+  @Test
+  void testSaveInvalidJitterWindow() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?");
+    trigger.setJitterWindow(-1);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveTrigger("hourly", trigger));
+    assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER, exception.getErrorCause());
+  }
+
+  @Test
+  void testSaveJitterWindowOfPeriod() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 12,13 * * ?");
+    trigger.setJitterMode(TimeAgentJitterMode.HASH);
+    trigger.setJitterWindow(3_600_000);
+
+    // the window reaches the next time of the crontrigger after one hour
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveTrigger("nightly", trigger));
+    assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER, exception.getErrorCause());
+
+    trigger.setJitterWindow(3_599_999);
+    assertEquals(3_599_999, classUnderTest.saveTrigger("nightly", trigger).getJitterWindow());
+
+    // without jitter the window is not used
+    trigger.setJitterMode(TimeAgentJitterMode.NONE);
+    trigger.setJitterWindow(3_600_000);
+    assertEquals(3_600_000, classUnderTest.saveTrigger("nightly", trigger).getJitterWindow());
+  }
+
+  @Test
+  void testSaveInvalidCatchUpLimit() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(null, null, "0 0 * * * ?");
+    trigger.setMisfirePolicy(TimeAgentMisfirePolicy.CATCH_UP);
+    trigger.setCatchUpLimit(0);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.saveTrigger("hourly", trigger));
+    assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER, exception.getErrorCause());
+  }
+
+  @Test
+  void testMarkFired() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    trigger.setId(7L);
+    LocalDateTime fireTime = LocalDateTime.now();
+
+    classUnderTest.markFired(trigger, fireTime);
+    assertEquals(fireTime, trigger.getLastFireTime());
+    verify(triggerRepository).updateLastFireTime(7L, fireTime);
+  }
+
+  @Test
+  void testDeleteTrigger() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    when(triggerRepository.findByAgentNameAndName(AGENTNAME, "nightly")).thenReturn(trigger);
+
+    assertSame(trigger, classUnderTest.deleteTrigger("nightly"));
+    verify(triggerRepository).delete(trigger);
+  }
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
 import org.smithx.timeagent.api.models.TimeAgentError;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -87,4 +88,36 @@ public class TimeAgentExceptionHandlerTest {
         () -> assertEquals(TimeAgentExceptionCause.INVALID_TRIGGER.name(), response.getBody().getError()));
   }
 
+  @Test
+  void testTriggerNotFoundHandler() {
+    ResponseEntity<TimeAgentError> response = classUnderTest
+        .handleException(new TimeAgentRuntimeException(TimeAgentExceptionCause.TRIGGER_NOT_FOUND, "unknown trigger"));
+
+    assertAll("check the error response",
+        () -> assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()),
+        () -> assertEquals("unknown trigger", response.getBody().getMessage()),
+        () -> assertEquals(TimeAgentExceptionCause.TRIGGER_NOT_FOUND.name(), response.getBody().getError()));
+  }
+
+  @Test
+  void testQueryTimeoutHandler() {
+    ResponseEntity<TimeAgentError> response = classUnderTest
+        .handleException(new TimeAgentRuntimeException(TimeAgentExceptionCause.QUERY_TIMEOUT, "timeout"));
+
+    assertAll("check the error response",
+        () -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()),
+        () -> assertEquals("timeout", response.getBody().getMessage()),
+        () -> assertEquals(TimeAgentExceptionCause.QUERY_TIMEOUT.name(), response.getBody().getError()));
+  }
+
+  @Test
+  void testRejectionHandler() {
+    ResponseEntity<TimeAgentError> response = classUnderTest.handleRejection(new TaskRejectedException("queue is full"));
+
+    assertAll("check the error response",
+        () -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()),
+        () -> assertEquals("queue is full", response.getBody().getMessage()),
+        () -> assertEquals(TimeAgentExceptionCause.QUERY_REJECTED.name(), response.getBody().getError()));
+  }
+
 }
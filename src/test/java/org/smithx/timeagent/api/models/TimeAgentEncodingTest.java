@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * testing the TimeAgentEncoding.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentEncodingTest {
+  @Test
+  void testForAcceptJson() {
+    assertAll("check json",
+        () -> assertEquals(TimeAgentEncoding.JSON, TimeAgentEncoding.forAccept(null)),
+        () -> assertEquals(TimeAgentEncoding.JSON, TimeAgentEncoding.forAccept("*/*")),
+        () -> assertEquals(TimeAgentEncoding.JSON, TimeAgentEncoding.forAccept("application/json")),
+        () -> assertEquals(TimeAgentEncoding.JSON, TimeAgentEncoding.forAccept("application/cbor;q=0, application/*")),
+        () -> assertNull(TimeAgentEncoding.forAccept("application/xml")),
+        () -> assertNull(TimeAgentEncoding.forAccept("no media type")));
+  }
+
+  @Test
+  void testForAcceptBinary() {
+    assertAll("check binary",
+        () -> assertEquals(TimeAgentEncoding.CBOR, TimeAgentEncoding.forAccept("application/json;q=0.5, application/cbor")),
+        () -> assertEquals(TimeAgentEncoding.SMILE, TimeAgentEncoding.forAccept(TimeAgentEncoding.SMILE_VALUE)),
+        () -> assertEquals(TimeAgentEncoding.getMediaTypes().size(), TimeAgentEncoding.values().length));
+  }
+
+  @Test
+  void testTranscode() throws Exception {
+    byte[] json = "{\"agentName\":\"agent\",\"protocol\":[{\"message\":\"first\"},{\"message\":\"second\"}],\"id\":42}"
+        .getBytes(StandardCharsets.UTF_8);
+    assertSame(json, TimeAgentEncoding.JSON.transcode(json));
+
+    for (TimeAgentEncoding encoding : new TimeAgentEncoding[] { TimeAgentEncoding.CBOR, TimeAgentEncoding.SMILE }) {
+      byte[] encoded = encoding.transcode(json);
+      assertEquals(new ObjectMapper().readTree(json), new ObjectMapper(encoding.getFactory()).readTree(encoded));
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.models;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * testing the TimeAgentFields.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentFieldsTest {
+  ObjectMapper mapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  TimeAgentInfo info;
+
+  @BeforeEach
+  void beforeEach() {
+    info = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    info.setId(1L);
+    info.setCrontrigger("0 0 0 1/1 * ?");
+    info.addProtocol("first line");
+  }
+
+  @Test
+  void testNamesAreSerialized() {
+    List<String> serialized = new ArrayList<>();
+    mapper.valueToTree(info).fieldNames().forEachRemaining(serialized::add);
+    assertEquals(new LinkedHashSet<>(serialized), TimeAgentFields.NAMES);
+  }
+
+  @Test
+  void testParse() {
+    assertAll("check parse",
+        () -> assertNull(TimeAgentFields.parse(null)),
+        () -> assertNull(TimeAgentFields.parse(" ")),
+        () -> assertEquals(Arrays.asList("status", "nextExecution"),
+            new ArrayList<>(TimeAgentFields.parse("nextExecution, status,,status"))));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> TimeAgentFields.parse("status,protocolData"));
+    assertEquals(TimeAgentExceptionCause.INVALID_FIELDS, exception.getErrorCause());
+  }
+
+  @Test
+  void testSelect() {
+    TimeAgentInfo spyInfo = spy(info);
+    Map<String, Object> selected = TimeAgentFields.select(spyInfo, TimeAgentFields.parse("status,id"));
+
+    assertAll("check selected fields",
+        () -> assertEquals(Arrays.asList("id", "status"), new ArrayList<>(selected.keySet())),
+        () -> assertEquals(TimeAgentStatus.RUNNING, selected.get("status")));
+    verify(spyInfo, never()).getNextExecution();
+    verify(spyInfo, never()).getProtocol();
+  }
+
+  @Test
+  void testFilter() throws Exception {
+    Set<String> fields = TimeAgentFields.parse("protocol,status");
+    byte[] json = mapper.writeValueAsBytes(info);
+    JsonNode filtered = mapper.readTree(TimeAgentEncoding.JSON.transcode(json, TimeAgentFields.filter(fields)));
+
+    assertAll("check filtered json",
+        () -> assertEquals(2, filtered.size()),
+        () -> assertEquals("RUNNING", filtered.get("status").asText()),
+        () -> assertEquals("first line", filtered.get("protocol").get(0).get("message").asText()));
+  }
+}
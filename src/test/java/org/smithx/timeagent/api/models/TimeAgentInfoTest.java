@@ -47,6 +47,18 @@ public class TimeAgentInfoTest {
     assertNotNull(classUnderTest.getNextExecution());
   }
 
+  @Test
+  void testNextExecutionWithScheduledExecution() {
+    LocalDateTime scheduledExecution = LocalDateTime.now().plusDays(1).withHour(0).withMinute(4).withSecond(0).withNano(0);
+    classUnderTest.setCrontrigger("0 0 0 1/1 * ?");
+    classUnderTest.setScheduledExecution(scheduledExecution);
+    assertEquals(scheduledExecution, classUnderTest.getNextExecution());
+
+    // a passed fire is replaced by the next time of the crontrigger
+    classUnderTest.setScheduledExecution(LocalDateTime.now().minusMinutes(1));
+    assertEquals(0, classUnderTest.getNextExecution().getHour());
+  }
+
   @Test
   void testNextExecutionWithInvalidCrontrigger() {
     classUnderTest.setCrontrigger("0 0 1/1 * ?");
@@ -85,6 +97,7 @@ public class TimeAgentInfoTest {
     classUnderTest.setStartTimeExecution(LocalDateTime.now());
     classUnderTest.setStatus(TimeAgentStatus.RUNNING);
     classUnderTest.setUpdatedAt(LocalDateTime.now());
+    classUnderTest.setParentId(2L);
 
     classUnderTest.init();
 
@@ -96,6 +109,7 @@ public class TimeAgentInfoTest {
         () -> assertNull(classUnderTest.getStartTimeExecution()),
         () -> assertNull(classUnderTest.getFinishTimeExecution()),
         () -> assertNull(classUnderTest.getUpdatedAt()),
+        () -> assertNull(classUnderTest.getParentId()),
         () -> assertEquals("* * * * * ?", classUnderTest.getCrontrigger()),
         () -> assertEquals(TimeAgentStatus.READY, classUnderTest.getStatus()),
         () -> assertEquals("agent", classUnderTest.getAgentName()),
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.engines.TimeAgentStatisticEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatistic;
+import org.smithx.timeagent.api.models.TimeAgentStatisticBucket;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * testing the TimeAgentStatisticRepository with the statistic engine against
+ * the database.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ *
+ */
+@SpringBootTest
+public class TimeAgentStatisticRepositoryTest {
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 30);
+  static final int RUNS = 8;
+
+  @Autowired
+  TimeAgentStatisticEngine statisticEngine;
+
+  @Autowired
+  TimeAgentStatisticRepository statisticRepository;
+
+  @Test
+  void testUpdateStatisticConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(RUNS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int run = 0; run < RUNS; run++) {
+        TimeAgentInfo agentInfo = agentInfo("concurrent-agent", null, 1000 * (run + 1));
+        futures.add(executor.submit(() -> {
+          start.await();
+          statisticEngine.updateStatistic(agentInfo);
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    List<TimeAgentStatistic> statistics = statisticRepository.findByAgentNameAndBucketAndBucketStartBetweenOrderByBucketStartAsc(
+        "concurrent-agent", TimeAgentStatisticBucket.HOURLY, START.minusHours(1), START);
+    assertAll("check concurrent buckets",
+        () -> assertEquals(1, statistics.size()),
+        () -> assertEquals(RUNS, statistics.get(0).getCount()),
+        () -> assertEquals(1000, statistics.get(0).getMinDuration()),
+        () -> assertEquals(1000 * RUNS, statistics.get(0).getMaxDuration()),
+        () -> assertEquals(1000 * RUNS * (RUNS + 1) / 2, statistics.get(0).getSumDuration()),
+        () -> assertNull(statistics.get(0).getExecutor()));
+  }
+
+  @Test
+  void testUpdateStatisticWithExecutor() {
+    statisticEngine.updateStatistic(agentInfo("executor-agent", "user", 2000));
+    statisticEngine.updateStatistic(agentInfo("executor-agent", "user", 4000));
+    statisticEngine.updateStatistic(agentInfo("executor-agent", null, 3000));
+
+    List<TimeAgentStatistic> statistics = statisticRepository.findByAgentNameAndBucketAndBucketStartBetweenOrderByBucketStartAsc(
+        "executor-agent", TimeAgentStatisticBucket.DAILY, START.minusDays(1), START);
+    assertEquals(2, statistics.size());
+    for (TimeAgentStatistic statistic : statistics) {
+      if (statistic.getExecutor() == null) {
+        assertEquals(1, statistic.getCount());
+      } else {
+        assertAll("check bucket of executor",
+            () -> assertEquals("user", statistic.getExecutor()),
+            () -> assertEquals(2, statistic.getCount()),
+            () -> assertEquals(3000, statistic.getAverageDuration()));
+      }
+    }
+  }
+
+  private TimeAgentInfo agentInfo(String agentName, String executor, long duration) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(agentName, TimeAgentStatus.FINISHED);
+    agentInfo.setExecutor(executor);
+    agentInfo.setStartTimeExecution(START);
+    agentInfo.setFinishTimeExecution(START.plusNanos(duration * 1_000_000));
+    return agentInfo;
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.smithx.timeagent.api.engines.TimeAgentMailEngine;
+import org.smithx.timeagent.api.engines.TimeAgentOutboxEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+/**
+ * testing the TimeAgentNotificationService.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings
+public class TimeAgentNotificationServiceTest {
+  TimeAgentNotificationService serviceUnderTest;
+
+  @Mock
+  TimeAgentMailEngine mailEngine;
+
+  @Mock
+  TimeAgentOutboxEngine outboxEngine;
+
+  @BeforeEach
+  void beforeEach() {
+    serviceUnderTest = new TimeAgentNotificationService(mailEngine, outboxEngine);
+  }
+
+  @Test
+  void testSendProtocol() {
+    TimeAgentInfo runInfo = new TimeAgentInfo("agent", TimeAgentStatus.FINISHED);
+
+    serviceUnderTest.sendProtocol(runInfo);
+
+    verify(mailEngine).sendProtocol(runInfo);
+  }
+
+  @Test
+  void testGetOutboxEvents() {
+    serviceUnderTest.getOutboxEvents(10);
+
+    verify(outboxEngine).findPendingEvents(10);
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * testing the TimeAgentPartitionService.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentPartitionServiceTest {
+  TimeAgentPartitionService serviceUnderTest;
+
+  @Mock
+  TimeAgentService service;
+
+  @Mock
+  TimeAgent agent;
+
+  @Mock
+  TimeAgentPartitionEngine partitionEngine;
+
+  @Mock
+  ThreadPoolTaskScheduler scheduler;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  PartitionValue partitionValue;
+
+  @BeforeEach
+  void beforeEach() {
+    partitionValue = new PartitionValue();
+    when(agentValues.getPartition()).thenReturn(partitionValue);
+    serviceUnderTest = new TimeAgentPartitionService(agent, partitionEngine, scheduler, agentValues);
+  }
+
+  @AfterEach
+  void afterEach() {
+    serviceUnderTest.close();
+  }
+
+  @Test
+  void testOpenPollsPartitions() {
+    partitionValue.setEnabled(true);
+
+    serviceUnderTest.open(service);
+
+    verify(scheduler).scheduleWithFixedDelay(any(Runnable.class), anyLong());
+  }
+
+  @Test
+  void testOpenWithoutPartitions() {
+    partitionValue.setEnabled(false);
+
+    serviceUnderTest.open(service);
+
+    verify(scheduler, never()).scheduleWithFixedDelay(any(Runnable.class), anyLong());
+  }
+
+  @Test
+  void testGetPartitions() {
+    serviceUnderTest.getPartitions(4L);
+
+    verify(partitionEngine).findPartitions(4L);
+  }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.configuration.BatchValue;
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.SchedulerValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentAdmissionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentArchiveEngine;
+import org.smithx.timeagent.api.engines.TimeAgentBatchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentDependencyEngine;
+import org.smithx.timeagent.api.engines.TimeAgentExportEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMisfireEngine;
+import org.smithx.timeagent.api.engines.TimeAgentModelEngine;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentSearchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentSnapshotEngine;
+import org.smithx.timeagent.api.engines.TimeAgentStatisticEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * testing the TimeAgentRunService.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentRunServiceTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentRunService serviceUnderTest;
+
+  @Mock
+  TimeAgent agent;
+
+  @Mock
+  ThreadPoolTaskScheduler scheduler;
+
+  @Mock
+  ThreadPoolTaskExecutor queryExecutor;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @Mock
+  TimeAgentModelEngine modelEngine;
+
+  @Mock
+  TimeAgentSearchEngine searchEngine;
+
+  @Mock
+  TimeAgentStatisticEngine statisticEngine;
+
+  @Mock
+  TimeAgentExportEngine exportEngine;
+
+  @Mock
+  TimeAgentArchiveEngine archiveEngine;
+
+  @Mock
+  TimeAgentSnapshotEngine snapshotEngine;
+
+  @Mock
+  TimeAgentTriggerEngine triggerEngine;
+
+  @Mock
+  TimeAgentDependencyEngine dependencyEngine;
+
+  @Mock
+  TimeAgentMisfireEngine misfireEngine;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  TimeAgentAdmissionEngine admissionEngine;
+
+  @Mock
+  TimeAgentBatchEngine batchEngine;
+
+  @Mock
+  TimeAgentPartitionEngine partitionEngine;
+
+  @Mock
+  TimeAgentNotificationService notificationService;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    when(modelEngine.nextAgentInfo()).thenReturn(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+    when(agentValues.getPartition()).thenReturn(new PartitionValue());
+    when(agentValues.getScheduler()).thenReturn(new SchedulerValue());
+    when(agentValues.getBatch()).thenReturn(new BatchValue());
+    when(leaseEngine.acquireLease()).thenReturn(new TimeAgentLease(AGENTNAME, "instance", 0, LocalDateTime.now(), null));
+
+    TimeAgentPartitionService partitionService = new TimeAgentPartitionService(agent, partitionEngine, scheduler, agentValues);
+    serviceUnderTest = new TimeAgentRunService(agent, modelEngine, statisticEngine, triggerEngine, misfireEngine, leaseEngine,
+        admissionEngine, batchEngine, partitionService, notificationService, agentValues);
+    TimeAgentService service = new TimeAgentService(modelEngine, searchEngine, statisticEngine, exportEngine, archiveEngine,
+        snapshotEngine, triggerEngine, dependencyEngine, serviceUnderTest, partitionService, scheduler, Optional.empty(),
+        queryExecutor, agentValues, messages);
+    service.initAgentInfo();
+    serviceUnderTest.open(service);
+  }
+
+  @AfterEach
+  void afterEach() {
+    serviceUnderTest.close();
+  }
+
+  @Test
+  void testRecoverAgentInfo() {
+    TimeAgentInfo recovered = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.INTERRUPTED);
+    when(modelEngine.recoverAgentInfo()).thenReturn(Arrays.asList(recovered));
+
+    serviceUnderTest.recoverAgentInfo();
+
+    verify(statisticEngine).updateStatistic(recovered);
+    verify(partitionEngine).cancelPartitions(recovered.getId());
+  }
+
+  @Test
+  void testRecoverAgentInfoLeaseHeldByOther() {
+    when(leaseEngine.isLeaseHeldByOther()).thenReturn(true);
+
+    serviceUnderTest.recoverAgentInfo();
+
+    verify(modelEngine, never()).recoverAgentInfo();
+  }
+
+  @Test
+  void testRunBatch() {
+    TimeAgentInfo parentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    parentInfo.setId(9L);
+    TimeAgentBatch batch = new TimeAgentBatch(parentInfo, 2, 2);
+    when(batchEngine.createBatch(2, 2)).thenReturn(batch);
+    when(modelEngine.createAgentInfo()).thenAnswer(invocation -> new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+    when(modelEngine.updateRunInfo(any(TimeAgentInfo.class), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    assertSame(batch, serviceUnderTest.runBatch(Arrays.asList(Arrays.asList(new TimeAgentArgument("customer", "1")),
+        Arrays.asList(new TimeAgentArgument("customer", "2"))), null));
+
+    // every sub-run writes to its own info linked to the batch
+    verify(batchEngine, timeout(2000)).finishBatch(batch);
+    assertEquals(2, batch.getFinished());
+    verify(statisticEngine, times(2)).updateStatistic(argThat(subRunInfo -> Long.valueOf(9L).equals(subRunInfo.getParentId())));
+  }
+
+  @Test
+  void testRunBatchInvalid() {
+    List<List<TimeAgentArgument>> argumentSets = Arrays.asList(Arrays.asList(new TimeAgentArgument("customer", "1")));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> serviceUnderTest.runBatch(Arrays.asList(), null));
+    assertEquals(TimeAgentExceptionCause.INVALID_BATCH, exception.getErrorCause());
+    exception = assertThrows(TimeAgentRuntimeException.class, () -> serviceUnderTest.runBatch(argumentSets, 17));
+    assertEquals(TimeAgentExceptionCause.INVALID_BATCH, exception.getErrorCause());
+    verify(batchEngine, never()).createBatch(anyInt(), anyInt());
+  }
+
+  @Test
+  void testGetMisfires() {
+    serviceUnderTest.getMisfires(10);
+
+    verify(misfireEngine).findMisfires(10);
+  }
+
+  @Test
+  void testIsBusy() {
+    assertFalse(serviceUnderTest.isBusy());
+  }
+
+}
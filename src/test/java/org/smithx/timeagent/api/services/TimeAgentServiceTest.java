@@ -16,30 +16,88 @@
 package org.smithx.timeagent.api.services;
 
 import static org.junit.Assert.assertNull;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.configuration.ArchiveValue;
+import org.smithx.timeagent.api.configuration.BatchValue;
+import org.smithx.timeagent.api.configuration.DependencyValue;
+import org.smithx.timeagent.api.configuration.JitterValue;
+import org.smithx.timeagent.api.configuration.PartitionValue;
+import org.smithx.timeagent.api.configuration.QueryValue;
+import org.smithx.timeagent.api.configuration.SchedulerValue;
 import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.configuration.WatchValue;
+import org.smithx.timeagent.api.engines.TimeAgentAdmissionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentArchiveEngine;
+import org.smithx.timeagent.api.engines.TimeAgentBatchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentDependencyEngine;
+import org.smithx.timeagent.api.engines.TimeAgentExportEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMailEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMisfireEngine;
 import org.smithx.timeagent.api.engines.TimeAgentModelEngine;
+import org.smithx.timeagent.api.engines.TimeAgentOutboxEngine;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
 import org.smithx.timeagent.api.engines.TimeAgentSearchEngine;
+import org.smithx.timeagent.api.engines.TimeAgentSnapshotEngine;
+import org.smithx.timeagent.api.engines.TimeAgentStatisticEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
 import org.smithx.timeagent.api.exceptions.TimeAgentException;
 import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
 import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentDependency;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
 import org.smithx.timeagent.api.models.TimeAgentInfo;
 import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentInfoSnapshot;
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.smithx.timeagent.api.models.TimeAgentLease;
 import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.SimpleTriggerContext;
 
 /**
  * testing the TimeAgentService.
@@ -60,12 +118,60 @@ public class TimeAgentServiceTest {
   @Mock
   ThreadPoolTaskScheduler scheduler;
 
+  @Mock
+  ThreadPoolTaskExecutor queryExecutor;
+
+  @Mock
+  TimeAgentValues agentValues;
+
   @Mock
   TimeAgentSearchEngine searchEngine;
 
   @Mock
   TimeAgentModelEngine modelEngine;
 
+  @Mock
+  TimeAgentStatisticEngine statisticEngine;
+
+  @Mock
+  TimeAgentExportEngine exportEngine;
+
+  @Mock
+  TimeAgentArchiveEngine archiveEngine;
+
+  @Mock
+  TimeAgentSnapshotEngine snapshotEngine;
+
+  @Mock
+  TimeAgentTriggerEngine triggerEngine;
+
+  @Mock
+  TimeAgentMisfireEngine misfireEngine;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  TimeAgentPartitionEngine partitionEngine;
+
+  @Mock
+  TimeAgentDependencyEngine dependencyEngine;
+
+  @Mock
+  TimeAgentAdmissionEngine admissionEngine;
+
+  @Mock
+  TimeAgentMailEngine mailEngine;
+
+  @Mock
+  TimeAgentOutboxEngine outboxEngine;
+
+  @Mock
+  TimeAgentBatchEngine batchEngine;
+
+  @Mock
+  ScheduledFuture<Object> triggerFuture;
+
   @Mock
   TimeAgentMessages messages;
 
@@ -75,9 +181,29 @@ public class TimeAgentServiceTest {
   void beforeEach() throws TimeAgentException {
     initAgentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY);
 
-    when(modelEngine.nextAgentInfo()).thenReturn(initAgentInfo);
+    QueryValue queryValue = new QueryValue();
+    queryValue.setSearchTimeout(50);
+    queryValue.setMaxPollWait(50);
 
-    serviceUnderTest = new TimeAgentService(agent, modelEngine, searchEngine, scheduler, messages);
+    when(modelEngine.nextAgentInfo()).thenReturn(initAgentInfo);
+    when(agentValues.getQuery()).thenReturn(queryValue);
+    when(agentValues.getArchive()).thenReturn(new ArchiveValue());
+    when(agentValues.getPartition()).thenReturn(new PartitionValue());
+    when(agentValues.getJitter()).thenReturn(new JitterValue());
+    when(agentValues.getDependency()).thenReturn(new DependencyValue());
+    when(agentValues.getWatch()).thenReturn(new WatchValue());
+    when(agentValues.getScheduler()).thenReturn(new SchedulerValue());
+    when(agentValues.getBatch()).thenReturn(new BatchValue());
+    doReturn(triggerFuture).when(scheduler).schedule(any(Runnable.class), any(Trigger.class));
+    when(leaseEngine.acquireLease()).thenReturn(new TimeAgentLease(AGENTNAME, "instance", 0, LocalDateTime.now(), null));
+
+    TimeAgentPartitionService partitionService = new TimeAgentPartitionService(agent, partitionEngine, scheduler, agentValues);
+    TimeAgentRunService runService = new TimeAgentRunService(agent, modelEngine, statisticEngine, triggerEngine, misfireEngine,
+        leaseEngine, admissionEngine, batchEngine, partitionService, new TimeAgentNotificationService(mailEngine, outboxEngine),
+        agentValues);
+    serviceUnderTest = new TimeAgentService(modelEngine, searchEngine, statisticEngine, exportEngine, archiveEngine, snapshotEngine,
+        triggerEngine, dependencyEngine, runService, partitionService, scheduler, Optional.empty(), queryExecutor, agentValues,
+        messages);
     serviceUnderTest.initAgentInfo();
   }
 
@@ -100,6 +226,22 @@ public class TimeAgentServiceTest {
     assertEquals(trigger, result.getCrontrigger());
   }
 
+  @Test
+  void testScheduledFirePublishesNextExecution() {
+    String trigger = "0 0 * * * ?";
+    initAgentInfo.setCrontrigger(trigger);
+    when(modelEngine.saveTriggerToAgentInfo(trigger, initAgentInfo)).thenReturn(initAgentInfo);
+    ArgumentCaptor<Trigger> scheduledTrigger = ArgumentCaptor.forClass(Trigger.class);
+    serviceUnderTest.setTrigger(trigger);
+    verify(scheduler).schedule(any(Runnable.class), scheduledTrigger.capture());
+    clearInvocations(snapshotEngine);
+
+    Date fireTime = scheduledTrigger.getValue().nextExecutionTime(new SimpleTriggerContext());
+
+    verify(snapshotEngine).publish(initAgentInfo);
+    assertEquals(LocalDateTime.ofInstant(fireTime.toInstant(), ZoneId.systemDefault()), initAgentInfo.getNextExecution());
+  }
+
   @Test
   void testSetTriggerThrowsExceptionInvalidTrigger() {
     String trigger = "xyz";
@@ -109,10 +251,36 @@ public class TimeAgentServiceTest {
 
   @Test
   void testUpdateAgentInfo() {
-    when(modelEngine.updateAgentInfo(initAgentInfo)).thenReturn(initAgentInfo);
+    when(modelEngine.updateRunInfo(initAgentInfo, null)).thenReturn(initAgentInfo);
     TimeAgentInfo agentInfo = serviceUnderTest.updateAgentInfo();
     assertEquals(initAgentInfo, agentInfo);
+    verify(snapshotEngine, times(2)).publish(initAgentInfo);
+
+  }
+
+  @Test
+  void testPublishUnderInfoLock() {
+    // the run changes the protocol under the same lock
+    List<Boolean> locked = new ArrayList<>();
+    when(snapshotEngine.publish(initAgentInfo)).thenAnswer(invocation -> {
+      locked.add(Thread.holdsLock(initAgentInfo));
+      return null;
+    });
+    when(modelEngine.saveTriggerToAgentInfo(null, initAgentInfo)).thenReturn(initAgentInfo);
+
+    serviceUnderTest.deleteTrigger();
 
+    assertEquals(Collections.singletonList(true), locked);
+  }
+
+  @Test
+  void testAwaitAgentInfoSnapshot() throws Exception {
+    TimeAgentInfoSnapshot current = new TimeAgentInfoSnapshot(1, "\"a-1\"", new byte[0]);
+    when(snapshotEngine.getSnapshot()).thenReturn(current);
+    when(snapshotEngine.awaitChange("\"a-1\"")).thenReturn(new CompletableFuture<>());
+
+    // the wait is limited by the longest poll wait
+    assertSame(current, serviceUnderTest.awaitAgentInfoSnapshot("\"a-1\"", 60_000).get(1, TimeUnit.SECONDS));
   }
 
   @Test
@@ -126,11 +294,77 @@ public class TimeAgentServiceTest {
     assertEquals(1, list.size());
   }
 
+  @Test
+  void testSearchInfoAsync() {
+    TimeAgentInfoSearch searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(10);
+
+    when(searchEngine.searchAgentInfo(searchModel)).thenReturn(Arrays.asList(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY)));
+    doAnswer(invocation -> {
+      invocation.getArgument(0, Runnable.class).run();
+      return null;
+    }).when(queryExecutor).execute(any(Runnable.class));
+
+    List<TimeAgentInfo> list = serviceUnderTest.searchInfoAsync(searchModel).join();
+    assertEquals(1, list.size());
+  }
+
+  @Test
+  void testSearchInfoAsyncRejected() {
+    doThrow(new TaskRejectedException("queue is full")).when(queryExecutor).execute(any(Runnable.class));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> serviceUnderTest.searchInfoAsync(new TimeAgentInfoSearch()));
+    assertEquals(TimeAgentExceptionCause.QUERY_REJECTED, exception.getErrorCause());
+  }
+
+  @Test
+  void testSearchInfoAsyncTimeout() {
+    CompletableFuture<List<TimeAgentInfo>> result = serviceUnderTest.searchInfoAsync(new TimeAgentInfoSearch());
+
+    CompletionException exception = assertThrows(CompletionException.class, () -> result.join());
+    assertEquals(TimeAgentExceptionCause.QUERY_TIMEOUT, ((TimeAgentRuntimeException) exception.getCause()).getErrorCause());
+  }
+
+  @Test
+  void testUpdateAgentInfoFenced() {
+    initAgentInfo.setFencingToken(3L);
+    when(modelEngine.updateRunInfo(initAgentInfo, null))
+        .thenThrow(new TimeAgentRuntimeException(TimeAgentExceptionCause.LEASE_LOST, "lease lost"));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class, () -> serviceUnderTest.updateAgentInfo());
+    assertEquals(TimeAgentExceptionCause.LEASE_LOST, exception.getErrorCause());
+  }
+
+  @Test
+  void testDropAgentInfo() {
+    initAgentInfo.setId(4L);
+    initAgentInfo.setStatus(TimeAgentStatus.RUNNING);
+    initAgentInfo.setFencingToken(3L);
+
+    serviceUnderTest.dropAgentInfo();
+
+    // the fenced run is prepared for the next run without a write
+    assertAll("check dropped info",
+        () -> assertEquals(TimeAgentStatus.READY, serviceUnderTest.getAgentInfo().getStatus()),
+        () -> assertNull(serviceUnderTest.getAgentInfo().getId()),
+        () -> assertNull(serviceUnderTest.getAgentInfo().getFencingToken()));
+    verify(modelEngine, never()).updateRunInfo(any(TimeAgentInfo.class), any());
+    serviceUnderTest.isAlreadyRunning();
+  }
+
+  @Test
+  void testArchiveInfo() {
+    when(archiveEngine.archiveSegment()).thenReturn(10, 5, 0);
+
+    assertEquals(15, serviceUnderTest.archiveInfo());
+  }
+
   @Test
   void testRun() {
     serviceUnderTest.initAgent();
 
-    when(modelEngine.updateAgentInfo(any(TimeAgentInfo.class))).thenReturn(initAgentInfo);
+    when(modelEngine.updateRunInfo(any(TimeAgentInfo.class), any())).thenReturn(initAgentInfo);
 
     serviceUnderTest.run();
   }
@@ -142,6 +376,173 @@ public class TimeAgentServiceTest {
     assertEquals(TimeAgentExceptionCause.ALREADY_RUNNING, exception.getErrorCause());
   }
 
+  @Test
+  void testRunConcurrently() {
+    serviceUnderTest.initAgent();
+
+    TimeAgentInfo concurrentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY);
+    initAgentInfo.setStatus(TimeAgentStatus.RUNNING);
+    when(modelEngine.createAgentInfo()).thenReturn(concurrentInfo);
+    when(modelEngine.updateRunInfo(any(TimeAgentInfo.class), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    serviceUnderTest.runConcurrently(7L, new TimeAgentArgument("mode", "full"));
+
+    // the concurrent run writes to its own info and leaves the current run alone
+    assertEquals(TimeAgentStatus.FINISHED, concurrentInfo.getStatus());
+    assertEquals(7L, concurrentInfo.getFencingToken());
+    assertSame(initAgentInfo, serviceUnderTest.getAgentInfo());
+    verify(snapshotEngine, never()).publish(concurrentInfo);
+    verify(statisticEngine).updateStatistic(concurrentInfo);
+    verify(modelEngine).updateRunInfo(concurrentInfo, TimeAgentEventType.STARTED);
+    verify(modelEngine).updateRunInfo(concurrentInfo, TimeAgentEventType.FINISHED);
+  }
+
+  @Test
+  void testScheduleTriggersFiresMissed() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    when(triggerEngine.findTriggers()).thenReturn(Arrays.asList(trigger));
+
+    serviceUnderTest.initAgent();
+
+    verify(misfireEngine).findMissedFires(any(TimeAgentTrigger.class), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testScheduleTriggers() {
+    TimeAgentTrigger disabled = new TimeAgentTrigger(AGENTNAME, "hourly", "0 0 * * * ?");
+    disabled.setEnabled(false);
+    when(triggerEngine.findTriggers())
+        .thenReturn(Arrays.asList(new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?", new TimeAgentArgument("mode", "full")),
+            disabled));
+
+    serviceUnderTest.initAgent();
+
+    verify(scheduler).schedule(any(Runnable.class), any(Trigger.class));
+  }
+
+  @Test
+  void testSaveTriggerReschedules() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    when(triggerEngine.saveTrigger("nightly", trigger)).thenReturn(trigger);
+
+    serviceUnderTest.saveTrigger("nightly", trigger);
+    assertEquals(trigger, serviceUnderTest.saveTrigger("nightly", trigger));
+
+    verify(scheduler, times(2)).schedule(any(Runnable.class), any(Trigger.class));
+    verify(triggerFuture).cancel(false);
+  }
+
+  @Test
+  void testSaveTriggerWithJitter() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "hourly", "0 0 * * * ?");
+    trigger.setJitterMode(TimeAgentJitterMode.HASH);
+    trigger.setJitterWindow(600_000);
+    when(triggerEngine.saveTrigger("hourly", trigger)).thenReturn(trigger);
+    when(triggerEngine.findTrigger("hourly")).thenReturn(new TimeAgentTrigger(AGENTNAME, "hourly", "0 0 * * * ?"));
+    ArgumentCaptor<Trigger> scheduledTrigger = ArgumentCaptor.forClass(Trigger.class);
+
+    serviceUnderTest.saveTrigger("hourly", trigger);
+    verify(scheduler).schedule(any(Runnable.class), scheduledTrigger.capture());
+    scheduledTrigger.getValue().nextExecutionTime(new SimpleTriggerContext());
+
+    LocalDateTime nextExecution = serviceUnderTest.getTrigger("hourly").getNextExecution();
+    LocalDateTime cronTime = LocalDateTime.now().plusHours(1).withMinute(0).withSecond(0).withNano(0);
+    assertTrue(!nextExecution.isBefore(cronTime) && nextExecution.isBefore(cronTime.plusMinutes(10)));
+  }
+
+  @Test
+  void testDeleteNamedTrigger() {
+    TimeAgentTrigger trigger = new TimeAgentTrigger(AGENTNAME, "nightly", "0 0 2 * * ?");
+    when(triggerEngine.saveTrigger("nightly", trigger)).thenReturn(trigger);
+    when(triggerEngine.deleteTrigger("nightly")).thenReturn(trigger);
+
+    serviceUnderTest.saveTrigger("nightly", trigger);
+    assertEquals(trigger, serviceUnderTest.deleteTrigger("nightly"));
+
+    verify(triggerFuture).cancel(false);
+  }
+
+  @Test
+  void testFireDependencies() {
+    serviceUnderTest.initAgent();
+
+    List<TimeAgentDependency> dependencies = Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", LocalDateTime.now()));
+    TimeAgentInfo upstreamRun = new TimeAgentInfo("upstream-a", TimeAgentStatus.FINISHED);
+    upstreamRun.setId(12L);
+    when(dependencyEngine.findDependencies()).thenReturn(dependencies);
+    when(dependencyEngine.findUpstreamRuns(dependencies)).thenReturn(Arrays.asList(upstreamRun));
+    when(dependencyEngine.markFired(any(), any(LocalDateTime.class))).thenReturn(true);
+
+    serviceUnderTest.fireDependencies();
+
+    verify(triggerEngine).markFired(argThat(trigger -> TimeAgentService.DEPENDENCY_TRIGGER.equals(trigger.getName())
+        && "upstream-a:12".equals(trigger.getArguments().get(0).getValue())), any(LocalDateTime.class));
+    verify(modelEngine, never()).createAgentInfo();
+  }
+
+  @Test
+  void testFireDependenciesSkipsAbortedUpstream() {
+    List<TimeAgentDependency> dependencies = Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", LocalDateTime.now()));
+    TimeAgentInfo upstreamRun = new TimeAgentInfo("upstream-a", TimeAgentStatus.ABORTED);
+    TimeAgentInfo skippedInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY);
+    when(dependencyEngine.findDependencies()).thenReturn(dependencies);
+    when(dependencyEngine.findUpstreamRuns(dependencies)).thenReturn(Arrays.asList(upstreamRun));
+    when(dependencyEngine.markFired(any(), any(LocalDateTime.class))).thenReturn(true);
+    when(modelEngine.createAgentInfo()).thenReturn(skippedInfo);
+    when(modelEngine.updateAgentInfo(skippedInfo)).thenReturn(skippedInfo);
+
+    serviceUnderTest.fireDependencies();
+
+    // the skip is saved as aborted run, so that it reaches the agents downstream
+    assertEquals(TimeAgentStatus.ABORTED, skippedInfo.getStatus());
+    assertEquals(1, skippedInfo.getProtocol().size());
+    verify(statisticEngine).updateStatistic(skippedInfo);
+    verify(triggerEngine, never()).markFired(any(), any());
+  }
+
+  @Test
+  void testFireDependenciesWaitsForUpstream() {
+    List<TimeAgentDependency> dependencies = Arrays.asList(new TimeAgentDependency(AGENTNAME, "upstream-a", LocalDateTime.now()));
+    when(dependencyEngine.findDependencies()).thenReturn(dependencies);
+    when(dependencyEngine.findUpstreamRuns(dependencies)).thenReturn(null);
+
+    serviceUnderTest.fireDependencies();
+
+    verify(dependencyEngine, never()).markFired(any(), any());
+    verify(triggerEngine, never()).markFired(any(), any());
+  }
+
+  @Test
+  void testFireFiles() {
+    serviceUnderTest.initAgent();
+
+    assertTrue(serviceUnderTest.fireFiles(Arrays.asList(Paths.get("/data/in/a.csv"), Paths.get("/data/in/b.csv"))));
+
+    verify(triggerEngine).markFired(argThat(trigger -> TimeAgentService.FILE_TRIGGER.equals(trigger.getName())
+        && trigger.getArguments().size() == 2
+        && new TimeAgentArgument("file.name", "/data/in/b.csv").equals(trigger.getArguments().get(1))), any(LocalDateTime.class));
+  }
+
+  @Test
+  void testFireFilesLeaseHeldByOther() {
+    serviceUnderTest.initAgent();
+    when(leaseEngine.acquireLease()).thenReturn(null);
+
+    // the files are kept for the next batch
+    assertFalse(serviceUnderTest.fireFiles(Arrays.asList(Paths.get("/data/in/a.csv"))));
+  }
+
+  @Test
+  void testInitAgentSavesConfiguredDependencies() {
+    DependencyValue dependencyValue = new DependencyValue();
+    dependencyValue.setUpstream(Arrays.asList("upstream-a", "upstream-b"));
+    when(agentValues.getDependency()).thenReturn(dependencyValue);
+
+    serviceUnderTest.initAgent();
+
+    verify(dependencyEngine).saveDependencies(anyList());
+  }
+
   @Test
   void testDeleteTrigger() throws TimeAgentException {
     when(modelEngine.saveTriggerToAgentInfo(null, initAgentInfo)).thenReturn(initAgentInfo);
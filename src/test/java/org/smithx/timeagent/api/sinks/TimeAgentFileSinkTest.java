@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.OutboxValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * testing the TimeAgentFileSink.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentFileSinkTest {
+  TimeAgentFileSink classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  @TempDir
+  Path directory;
+
+  Path file;
+
+  @BeforeEach
+  void beforeEach() {
+    file = directory.resolve("events").resolve("events.ndjson");
+    OutboxValue outboxValue = new OutboxValue();
+    outboxValue.setFilePath(file.toString());
+    when(agentValues.getOutbox()).thenReturn(outboxValue);
+    classUnderTest = new TimeAgentFileSink(agentValues, new ObjectMapper().registerModule(new JavaTimeModule()));
+  }
+
+  @Test
+  void testDeliverAppends() throws IOException {
+    classUnderTest.deliver(Arrays.asList(event(1L, TimeAgentEventType.STARTED)));
+    classUnderTest.deliver(Arrays.asList(event(2L, TimeAgentEventType.FINISHED), event(3L, TimeAgentEventType.STARTED)));
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(0).contains("\"eventType\":\"STARTED\""));
+    assertTrue(lines.get(1).contains("\"id\":2"));
+    assertTrue(lines.get(2).contains("\"infoId\":5"));
+  }
+
+  private TimeAgentOutboxEvent event(Long id, TimeAgentEventType eventType) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    agentInfo.setId(5L);
+    TimeAgentOutboxEvent event = new TimeAgentOutboxEvent(agentInfo, eventType);
+    event.setId(id);
+    return event;
+  }
+}
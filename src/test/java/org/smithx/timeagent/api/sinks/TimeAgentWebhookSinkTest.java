@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.OutboxValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.models.TimeAgentEventType;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentOutboxEvent;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * testing the TimeAgentWebhookSink against a local http server.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentWebhookSinkTest {
+  TimeAgentWebhookSink classUnderTest;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  HttpServer server;
+
+  List<String> bodies = new ArrayList<>();
+
+  int status = 204;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/events", exchange -> {
+      bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    server.start();
+
+    OutboxValue outboxValue = new OutboxValue();
+    outboxValue.setWebhookUrl(String.format("http://localhost:%d/events", server.getAddress().getPort()));
+    when(agentValues.getOutbox()).thenReturn(outboxValue);
+    classUnderTest = new TimeAgentWebhookSink(agentValues, new ObjectMapper().registerModule(new JavaTimeModule()));
+  }
+
+  @AfterEach
+  void afterEach() {
+    server.stop(0);
+  }
+
+  @Test
+  void testDeliver() throws IOException {
+    classUnderTest.deliver(Arrays.asList(event(1L, TimeAgentEventType.STARTED), event(2L, TimeAgentEventType.ABORTED)));
+
+    assertEquals(1, bodies.size());
+    assertTrue(bodies.get(0).startsWith("[{"));
+    assertTrue(bodies.get(0).contains("\"eventType\":\"ABORTED\""));
+  }
+
+  @Test
+  void testDeliverRejected() {
+    status = 503;
+
+    IOException exception = assertThrows(IOException.class,
+        () -> classUnderTest.deliver(Arrays.asList(event(1L, TimeAgentEventType.STARTED))));
+
+    assertEquals("the webhook answered with status 503", exception.getMessage());
+  }
+
+  private TimeAgentOutboxEvent event(Long id, TimeAgentEventType eventType) {
+    TimeAgentOutboxEvent event = new TimeAgentOutboxEvent(new TimeAgentInfo("agent", TimeAgentStatus.RUNNING), eventType);
+    event.setId(id);
+    event.setInfoId(5L);
+    return event;
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+/**
+ * testing the TimeAgentArchiveSegment.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentArchiveSegmentTest {
+  static final String AGENTNAME = "agent";
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+  @TempDir
+  Path directory;
+
+  TimeAgentArchiveSegment classUnderTest;
+  TimeAgentInfoSearch searchModel;
+
+  @BeforeEach
+  void beforeEach() throws Exception {
+    List<TimeAgentInfo> agentInfos = new ArrayList<>();
+    for (long id = 1; id <= 10; id++) {
+      TimeAgentInfo agentInfo = new TimeAgentInfo(id, START, START.plusDays(id), AGENTNAME, "0 0 * * * ?",
+          id % 2 == 0 ? "user" : null, START.plusDays(id), START.plusDays(id).plusMinutes(1),
+          id == 10 ? TimeAgentStatus.ABORTED : TimeAgentStatus.FINISHED, id, id == 1 ? null : 1L);
+      agentInfo.addProtocol(String.format("processed %d files", id), START.plusDays(id).plusSeconds(30));
+      agentInfos.add(agentInfo);
+    }
+    classUnderTest = TimeAgentArchiveSegment.write(directory, AGENTNAME, agentInfos);
+    searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(50);
+  }
+
+  @Test
+  void testWriteAndOpen() throws Exception {
+    TimeAgentArchiveSegment segment = TimeAgentArchiveSegment.open(classUnderTest.getFile());
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.collect(Collectors.toList());
+    }
+
+    assertAll("check header",
+        () -> assertEquals(AGENTNAME, segment.getAgentName()),
+        () -> assertEquals(10, segment.getRows()),
+        () -> assertEquals(1L, segment.getMinId()),
+        () -> assertEquals(10L, segment.getMaxId()),
+        () -> assertEquals(START.plusDays(1), segment.getMinStartTime()),
+        () -> assertEquals(START.plusDays(10), segment.getMaxStartTime()),
+        () -> assertEquals(Arrays.asList(segment.getFile()), files));
+  }
+
+  @Test
+  void testSearchReadsAllColumns() throws Exception {
+    List<TimeAgentInfo> result = classUnderTest.search(searchModel, null);
+
+    TimeAgentInfo latest = result.get(0);
+    assertAll("check rows",
+        () -> assertEquals(10, result.size()),
+        () -> assertEquals(10L, latest.getId()),
+        () -> assertEquals(START, latest.getCreatedAt()),
+        () -> assertEquals(START.plusDays(10), latest.getUpdatedAt()),
+        () -> assertEquals("0 0 * * * ?", latest.getCrontrigger()),
+        () -> assertEquals("user", latest.getExecutor()),
+        () -> assertEquals(START.plusDays(10).plusMinutes(1), latest.getFinishTimeExecution()),
+        () -> assertEquals(TimeAgentStatus.ABORTED, latest.getStatus()),
+        () -> assertEquals(10L, latest.getFencingToken()),
+        () -> assertEquals(1L, latest.getParentId()),
+        () -> assertEquals(null, result.get(9).getParentId()),
+        () -> assertEquals("processed 10 files", latest.getProtocol().get(0).getMessage()),
+        () -> assertEquals(START.plusDays(10).plusSeconds(30), latest.getProtocol().get(0).getCreatedAt()));
+  }
+
+  @Test
+  void testSearchWithoutProtocol() throws Exception {
+    searchModel.setFields(new HashSet<>(Arrays.asList("id", "status")));
+
+    List<TimeAgentInfo> result = classUnderTest.search(searchModel, null);
+
+    assertAll("check rows without protocol",
+        () -> assertEquals(10, result.size()),
+        () -> assertTrue(result.get(0).getProtocol().isEmpty()),
+        () -> assertEquals(1, classUnderTest.search(searchModel, agentInfo -> true).get(0).getProtocol().size()));
+  }
+
+  @Test
+  void testSearchWithFilter() throws Exception {
+    searchModel.setExecutor("user");
+    searchModel.setFromStartTimeExecution(START.plusDays(2));
+    searchModel.setToStartTimeExecution(START.plusDays(6));
+    searchModel.setLimit(2);
+
+    assertEquals(Arrays.asList(6L, 4L), ids(classUnderTest.search(searchModel, null)));
+
+    searchModel.setToStartTimeExecution(null);
+    searchModel.setLimit(50);
+    assertEquals(Arrays.asList(10L, 8L, 6L, 4L), ids(classUnderTest.search(searchModel, null)));
+    assertEquals(Arrays.asList(4L),
+        ids(classUnderTest.search(searchModel, agentInfo -> agentInfo.getProtocol().get(0).getMessage().contains(" 4 "))));
+  }
+
+  @Test
+  void testExport() throws Exception {
+    searchModel.setExecutor("user");
+    searchModel.setLimit(2);
+
+    List<TimeAgentInfo> withoutProtocol = classUnderTest.export(searchModel, false);
+    List<TimeAgentInfo> withProtocol = classUnderTest.export(searchModel, true);
+
+    assertAll("check export",
+        () -> assertEquals(Arrays.asList(2L, 4L, 6L, 8L, 10L), ids(withoutProtocol)),
+        () -> assertTrue(withoutProtocol.get(0).getProtocol().isEmpty()),
+        () -> assertEquals("processed 2 files", withProtocol.get(0).getProtocol().get(0).getMessage()));
+  }
+
+  @Test
+  void testMayContain() {
+    assertTrue(classUnderTest.mayContain(AGENTNAME, searchModel));
+    assertFalse(classUnderTest.mayContain("other", searchModel));
+
+    searchModel.setStatus(TimeAgentStatus.INTERRUPTED);
+    assertFalse(classUnderTest.mayContain(AGENTNAME, searchModel));
+
+    searchModel.setStatus(TimeAgentStatus.ABORTED);
+    searchModel.setFromStartTimeExecution(START.plusDays(11));
+    assertFalse(classUnderTest.mayContain(AGENTNAME, searchModel));
+
+    searchModel.setFromStartTimeExecution(START.plusDays(10));
+    assertTrue(classUnderTest.mayContain(AGENTNAME, searchModel));
+
+    searchModel.setFromStartTimeExecution(null);
+    searchModel.setToStartTimeExecution(START);
+    assertFalse(classUnderTest.mayContain(AGENTNAME, searchModel));
+  }
+
+  private List<Long> ids(List<TimeAgentInfo> agentInfos) {
+    return agentInfos.stream().map(TimeAgentInfo::getId).collect(Collectors.toList());
+  }
+}
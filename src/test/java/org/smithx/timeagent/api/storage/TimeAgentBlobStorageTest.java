@@ -0,0 +1,292 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.StorageValue;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentProtocol;
+import org.smithx.timeagent.api.models.TimeAgentProtocolChunk;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.smithx.timeagent.api.repositories.TimeAgentProtocolChunkRepository;
+
+/**
+ * testing the TimeAgentBlobStorage.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentBlobStorageTest {
+  static final String AGENTNAME = "agent";
+
+  TimeAgentBlobStorage classUnderTest;
+
+  @Mock
+  TimeAgentInfoRepository agentInfoRepository;
+
+  @Mock
+  TimeAgentIndexEngine indexEngine;
+
+  @Mock
+  TimeAgentProtocolChunkRepository chunkRepository;
+
+  @Mock
+  EntityManager entityManager;
+
+  @Mock
+  TimeAgentValues agentValues;
+
+  List<Integer> savedProtocolSizes;
+
+  @BeforeEach
+  void beforeEach() {
+    StorageValue storageValue = new StorageValue();
+    storageValue.setChunkLines(2);
+    when(agentValues.getStorage()).thenReturn(storageValue);
+
+    classUnderTest = new TimeAgentBlobStorage(agentInfoRepository, indexEngine, chunkRepository, entityManager, agentValues);
+    savedProtocolSizes = new ArrayList<>();
+
+    when(agentInfoRepository.save(any(TimeAgentInfo.class))).thenAnswer(invocation -> {
+      TimeAgentInfo agentInfo = invocation.getArgument(0);
+      savedProtocolSizes.add(agentInfo.getProtocol().size());
+      if (agentInfo.getId() == null) {
+        agentInfo.setId(1L);
+      }
+      return agentInfo;
+    });
+  }
+
+  @Test
+  void testSaveRunningAppendsChunks() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.addProtocol("first");
+    agentInfo.addProtocol("second");
+    classUnderTest.save(agentInfo);
+    agentInfo.addProtocol("third");
+    classUnderTest.save(agentInfo);
+    agentInfo.addProtocol("fourth");
+    TimeAgentInfo saved = classUnderTest.save(agentInfo);
+
+    ArgumentCaptor<TimeAgentProtocolChunk> chunks = ArgumentCaptor.forClass(TimeAgentProtocolChunk.class);
+    verify(chunkRepository, times(2)).save(chunks.capture());
+    TimeAgentProtocolChunk second = chunks.getAllValues().get(1);
+
+    assertAll("check chunks",
+        () -> assertEquals(Arrays.asList(0), savedProtocolSizes),
+        () -> assertNull(saved.getProtocolData()),
+        () -> assertEquals(4, saved.getProtocol().size()),
+        () -> assertEquals(2, second.getFirstLine()),
+        () -> assertEquals(2, second.getLines()),
+        () -> assertEquals(Arrays.asList("third", "fourth"), TimeAgentProtocolCodec.decompressMessages(second.getData())));
+    verify(indexEngine, times(2)).indexProtocol(saved);
+  }
+
+  @Test
+  void testSaveRunningWithChangedHeader() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    classUnderTest.save(agentInfo);
+    agentInfo.addProtocol("first");
+    classUnderTest.save(agentInfo);
+    agentInfo.setExecutor("executor");
+    classUnderTest.save(agentInfo);
+
+    assertEquals(Arrays.asList(0, 0), savedProtocolSizes);
+    verify(chunkRepository, never()).save(any(TimeAgentProtocolChunk.class));
+  }
+
+  @Test
+  void testSaveFinishedPacksProtocol() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.addProtocol("first");
+    agentInfo.addProtocol("second");
+    classUnderTest.save(agentInfo);
+    agentInfo.addProtocol("third");
+    agentInfo.setStatus(TimeAgentStatus.FINISHED);
+    TimeAgentInfo saved = classUnderTest.save(agentInfo);
+
+    assertEquals(Arrays.asList("first", "second", "third"), TimeAgentProtocolCodec.decompressMessages(saved.getProtocolData()));
+    verify(chunkRepository).deleteByInfoIds(Collections.singletonList(1L));
+  }
+
+  @Test
+  void testSaveReadyWithoutChunks() {
+    TimeAgentInfo saved = classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+
+    assertNull(saved.getProtocolData());
+    verify(chunkRepository, never()).save(any(TimeAgentProtocolChunk.class));
+    verify(chunkRepository, never()).deleteByInfoIds(any());
+  }
+
+  @Test
+  void testFindLatestDecompressesProtocol() {
+    TimeAgentInfo finished = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    finished.setProtocolData(TimeAgentProtocolCodec.compress(lines("first", "second")));
+    TimeAgentInfo running = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    running.setId(2L);
+    when(agentInfoRepository.findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED))
+        .thenReturn(finished);
+    when(agentInfoRepository.findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.RUNNING))
+        .thenReturn(running);
+    when(chunkRepository.findByInfoIdOrderByFirstLineAsc(2L)).thenReturn(Arrays.asList(
+        new TimeAgentProtocolChunk(2L, 0, 1, TimeAgentProtocolCodec.compress(lines("first"))),
+        new TimeAgentProtocolChunk(2L, 1, 1, TimeAgentProtocolCodec.compress(lines("second")))));
+
+    assertEquals(Arrays.asList("first", "second"), messages(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED)));
+    assertEquals(Arrays.asList("first", "second"), messages(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.RUNNING)));
+
+    // the loaded chunks are continued
+    running.addProtocol("third");
+    running.addProtocol("fourth");
+    classUnderTest.save(running);
+    ArgumentCaptor<TimeAgentProtocolChunk> chunk = ArgumentCaptor.forClass(TimeAgentProtocolChunk.class);
+    verify(chunkRepository).save(chunk.capture());
+    assertEquals(2, chunk.getValue().getFirstLine());
+  }
+
+  @Test
+  void testFindProtocolMessages() {
+    when(agentInfoRepository.findProtocolDataById(1L)).thenReturn(TimeAgentProtocolCodec.compress(lines("first")));
+
+    assertEquals(Arrays.asList("first"), classUnderTest.findProtocolMessages(1L));
+  }
+
+  @Test
+  void testFindProtocolMessagesOfInfos() {
+    when(agentInfoRepository.findProtocolDataByIds(Arrays.asList(1L, 2L, 3L))).thenReturn(Arrays.asList(
+        new Object[] { 1L, TimeAgentProtocolCodec.compress(lines("first")) }, new Object[] { 2L, null },
+        new Object[] { 3L, null }));
+    when(agentInfoRepository.findProtocolMessagesByInfoIds(Arrays.asList(2L, 3L)))
+        .thenReturn(Collections.singletonList(new Object[] { 2L, "row" }));
+    when(chunkRepository.findByInfoIdInOrderByFirstLineAsc(Arrays.asList(1L, 2L, 3L))).thenReturn(
+        Collections.singletonList(new TimeAgentProtocolChunk(3L, 0, 1, TimeAgentProtocolCodec.compress(lines("chunk")))));
+
+    Map<Long, List<String>> protocols = classUnderTest.findProtocolMessages(Arrays.asList(1L, 2L, 3L));
+
+    assertAll("check protocols",
+        () -> assertEquals(Arrays.asList("first"), protocols.get(1L)),
+        () -> assertEquals(Arrays.asList("row"), protocols.get(2L)),
+        () -> assertEquals(Arrays.asList("chunk"), protocols.get(3L)));
+  }
+
+  @Test
+  void testDelete() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    agentInfo.setId(3L);
+
+    classUnderTest.delete(Arrays.asList(agentInfo));
+
+    verify(indexEngine).deleteProtocol(Arrays.asList(3L));
+    verify(chunkRepository).deleteByInfoIds(Arrays.asList(3L));
+    verify(agentInfoRepository).deleteProtocolByInfoIds(Arrays.asList(3L));
+    verify(agentInfoRepository).deleteByIds(Arrays.asList(3L));
+  }
+
+  @Test
+  void testCodecKeepsTimes() {
+    LocalDateTime createdAt = LocalDateTime.of(2026, 10, 19, 12, 0, 0, 123_000_000);
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    agentInfo.addProtocol("first", createdAt);
+    agentInfo.addProtocol("second", createdAt.minusSeconds(1));
+    agentInfo.addProtocol("third", null);
+
+    List<TimeAgentProtocol> lines = TimeAgentProtocolCodec.decompress(TimeAgentProtocolCodec.compress(agentInfo.getProtocol()));
+
+    assertAll("check lines",
+        () -> assertEquals(Arrays.asList("first", "second", "third"),
+            lines.stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList())),
+        () -> assertEquals(createdAt, lines.get(0).getCreatedAt()),
+        () -> assertEquals(createdAt, lines.get(0).getUpdatedAt()),
+        () -> assertEquals(createdAt.minusSeconds(1), lines.get(1).getCreatedAt()),
+        () -> assertNull(lines.get(2).getCreatedAt()),
+        () -> assertNull(lines.get(0).getId()));
+  }
+
+  @Test
+  void testCodecReadsLinesWithoutTimes() throws IOException {
+    // an array of the first format starts with the count of the lines
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(data))) {
+      output.writeInt(1);
+      output.writeInt(3);
+      output.write("old".getBytes(StandardCharsets.UTF_8));
+    }
+
+    List<TimeAgentProtocol> lines = TimeAgentProtocolCodec.decompress(data.toByteArray());
+
+    assertEquals("old", lines.get(0).getMessage());
+    assertNull(lines.get(0).getCreatedAt());
+  }
+
+  @Test
+  void testLoadKeepsTimes() {
+    LocalDateTime createdAt = LocalDateTime.of(2026, 10, 19, 12, 0);
+    TimeAgentInfo stored = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    stored.addProtocol("first", createdAt);
+    TimeAgentInfo finished = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    finished.setProtocolData(TimeAgentProtocolCodec.compress(stored.getProtocol()));
+    when(agentInfoRepository.findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED))
+        .thenReturn(finished);
+
+    TimeAgentInfo loaded = classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED);
+
+    assertEquals(createdAt, loaded.getProtocol().get(0).getCreatedAt());
+  }
+
+  private List<TimeAgentProtocol> lines(String... messages) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    Arrays.stream(messages).forEach(agentInfo::addProtocol);
+    return agentInfo.getProtocol();
+  }
+
+  private List<String> messages(TimeAgentInfo agentInfo) {
+    return agentInfo.getProtocol().stream().map(TimeAgentProtocol::getMessage).collect(Collectors.toList());
+  }
+}
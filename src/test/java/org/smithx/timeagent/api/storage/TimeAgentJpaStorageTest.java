@@ -0,0 +1,326 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.engines.TimeAgentIndexEngine;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.repositories.TimeAgentInfoRepository;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * testing the TimeAgentJpaStorage.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentJpaStorageTest {
+  static final String AGENTNAME = "agent";
+  static final int MAX_SEARCH_VALUE = 50;
+
+  TimeAgentJpaStorage classUnderTest;
+
+  @Mock
+  TimeAgentInfoRepository agentInfoRepository;
+
+  @Mock
+  TimeAgentIndexEngine indexEngine;
+
+  PageRequest pagable;
+  TimeAgentInfoSearch searchModel;
+  List<TimeAgentInfo> resultList;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = new TimeAgentJpaStorage(agentInfoRepository, indexEngine);
+    pagable = PageRequest.of(0, MAX_SEARCH_VALUE);
+    searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(MAX_SEARCH_VALUE);
+    resultList = Arrays.asList(new TimeAgentInfo());
+  }
+
+  @Test
+  void testSave() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY);
+    TimeAgentInfo savedAgentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    when(agentInfoRepository.save(agentInfo)).thenReturn(savedAgentInfo);
+
+    assertEquals(savedAgentInfo, classUnderTest.save(agentInfo));
+    verify(indexEngine).indexProtocol(savedAgentInfo);
+  }
+
+  @Test
+  void testFindLatest() {
+    TimeAgentInfo latest = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    TimeAgentInfo notSet = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.NOT_SET);
+    when(agentInfoRepository.findTop1ByAgentNameAndParentIdIsNullOrderByUpdatedAtDesc(AGENTNAME)).thenReturn(latest);
+    when(agentInfoRepository.findTop1ByAgentNameAndStatusAndParentIdIsNullOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.NOT_SET)).thenReturn(notSet);
+
+    assertEquals(latest, classUnderTest.findLatest(AGENTNAME, null));
+    assertEquals(notSet, classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.NOT_SET));
+  }
+
+  @Test
+  void testFindArchivableAndDelete() {
+    LocalDateTime finishedBefore = LocalDateTime.now();
+    TimeAgentInfo archivable = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED);
+    archivable.setId(7L);
+    when(agentInfoRepository.findByAgentNameAndStatusInAndFinishTimeExecutionBeforeOrderByIdAsc(AGENTNAME,
+        TimeAgentStatus.finalValues(), finishedBefore, PageRequest.of(0, 10))).thenReturn(Arrays.asList(archivable));
+
+    List<TimeAgentInfo> result = classUnderTest.findArchivable(AGENTNAME, finishedBefore, 10);
+    classUnderTest.delete(result);
+
+    assertEquals(Arrays.asList(archivable), result);
+    verify(indexEngine).deleteProtocol(Arrays.asList(7L));
+    verify(agentInfoRepository).deleteAll(result);
+  }
+
+  @Test
+  void testFindProtocolMessagesOfInfos() {
+    when(agentInfoRepository.findProtocolMessagesByInfoIds(Arrays.asList(1L, 2L)))
+        .thenReturn(Arrays.asList(new Object[] { 1L, "first" }, new Object[] { 1L, "second" }));
+
+    Map<Long, List<String>> protocols = classUnderTest.findProtocolMessages(Arrays.asList(1L, 2L));
+
+    assertEquals(Arrays.asList("first", "second"), protocols.get(1L));
+    assertEquals(Arrays.asList(), protocols.get(2L));
+  }
+
+  @Test
+  void testSearchModelHasNoSearchValues() {
+    when(agentInfoRepository.findByAgentNameOrderByUpdatedAtDesc(AGENTNAME, pagable)).thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelWithoutProtocol() {
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    searchModel.setFields(new LinkedHashSet<>(Arrays.asList("status", "nextExecution")));
+
+    when(agentInfoRepository.searchWithoutProtocol(AGENTNAME, TimeAgentStatus.FINISHED, null, null, null, pagable))
+        .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+
+    searchModel.getFields().add("protocol");
+    when(agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED, pagable))
+        .thenReturn(Arrays.asList(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED)));
+    assertEquals(AGENTNAME, classUnderTest.search(AGENTNAME, searchModel).get(0).getAgentName());
+  }
+
+  @Test
+  void testSearchModelHasStatus() {
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+
+    when(agentInfoRepository.findByAgentNameAndStatusOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED, pagable))
+        .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasExecutor() {
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndExecutorOrderByUpdatedAtDesc(AGENTNAME, "user", pagable)).thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndExecutor() {
+    searchModel.setExecutor("user");
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED, "user", pagable))
+        .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasFromStartTime() {
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+
+    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, fromStartTimeExecution, pagable))
+        .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndFromStartTime() {
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED,
+        fromStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndExecutorAndFromStartTime() {
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME,
+        TimeAgentStatus.FINISHED, "user", fromStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+
+    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, toStartTimeExecution, pagable))
+        .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, TimeAgentStatus.FINISHED,
+        toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndExecutorAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME,
+        TimeAgentStatus.FINISHED, "user", toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndExecutorAndFromStartTimeAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
+        TimeAgentStatus.FINISHED, "user", fromStartTimeExecution, toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasStatusAndFromStartTimeAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+
+    when(agentInfoRepository.findByAgentNameAndStatusAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
+        TimeAgentStatus.FINISHED, fromStartTimeExecution, toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasExecutorAndFromStartTimeAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
+        "user", fromStartTimeExecution, toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasFromStartTimeAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+
+    when(agentInfoRepository.findByAgentNameAndStartTimeExecutionBetweenOrderByUpdatedAtDesc(AGENTNAME,
+        fromStartTimeExecution, toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasExecutorAndToStartTime() {
+    LocalDateTime toStartTimeExecution = LocalDateTime.now();
+    searchModel.setToStartTimeExecution(toStartTimeExecution);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionBeforeOrderByUpdatedAtDesc(AGENTNAME, "user",
+        toStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasExecutorAndFromStartTime() {
+    LocalDateTime fromStartTimeExecution = LocalDateTime.now();
+    searchModel.setFromStartTimeExecution(fromStartTimeExecution);
+    searchModel.setExecutor("user");
+
+    when(agentInfoRepository.findByAgentNameAndExecutorAndStartTimeExecutionAfterOrderByUpdatedAtDesc(AGENTNAME, "user",
+        fromStartTimeExecution, pagable))
+            .thenReturn(resultList);
+    assertEquals(resultList, classUnderTest.search(AGENTNAME, searchModel));
+  }
+
+  @Test
+  void testSearchModelHasProtocolToken() {
+    when(agentInfoRepository.findByAgentNameAndProtocolTokens(AGENTNAME, null, null, null, null,
+        new LinkedHashSet<>(Arrays.asList("files")), 1, PageRequest.of(1, MAX_SEARCH_VALUE))).thenReturn(resultList);
+    assertEquals(resultList,
+        classUnderTest.searchByProtocolTokens(AGENTNAME, searchModel, new LinkedHashSet<>(Arrays.asList("files")), 1));
+  }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.storage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentInfoSearch;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+
+/**
+ * testing the TimeAgentLogStorage.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentLogStorageTest {
+  static final String AGENTNAME = "agent";
+  static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 0);
+  static final int INITIAL_SIZE = 1024;
+
+  TimeAgentLogStorage classUnderTest;
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentInfoSearch searchModel;
+
+  @BeforeEach
+  void beforeEach() {
+    classUnderTest = open();
+    searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(10);
+  }
+
+  @AfterEach
+  void afterEach() {
+    classUnderTest.close();
+  }
+
+  @Test
+  void testSaveAndFindLatest() {
+    TimeAgentInfo finished = classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    TimeAgentInfo ready = classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+
+    assertAll("check saved infos",
+        () -> assertEquals(1L, finished.getId()),
+        () -> assertEquals(2L, ready.getId()),
+        () -> assertNotNull(finished.getCreatedAt()),
+        () -> assertEquals(ready.getId(), classUnderTest.findLatest(AGENTNAME, null).getId()),
+        () -> assertEquals(finished.getId(), classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getId()),
+        () -> assertNull(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.NOT_SET)),
+        () -> assertNull(classUnderTest.findLatest("other", null)));
+  }
+
+  @Test
+  void testFindLatestSkipsSubRuns() {
+    TimeAgentInfo parentInfo = classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    TimeAgentInfo subRunInfo = info(TimeAgentStatus.FINISHED, "user", START);
+    subRunInfo.setParentId(parentInfo.getId());
+    classUnderTest.save(subRunInfo);
+
+    assertAll("check latest run",
+        () -> assertEquals(parentInfo.getId(), classUnderTest.findLatest(AGENTNAME, null).getId()),
+        () -> assertEquals(parentInfo.getId(), classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getId()));
+  }
+
+  @Test
+  void testFindBatch() {
+    TimeAgentInfo parentInfo = classUnderTest.save(info(TimeAgentStatus.RUNNING, "user", START));
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    TimeAgentInfo subRunInfo = info(TimeAgentStatus.FINISHED, "user", START);
+    subRunInfo.setParentId(parentInfo.getId());
+    classUnderTest.save(subRunInfo);
+
+    List<TimeAgentInfo> batch = classUnderTest.findBatch(parentInfo.getId());
+
+    assertEquals(Arrays.asList(parentInfo.getId(), subRunInfo.getId()),
+        batch.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+    assertTrue(batch.get(1).getProtocol().isEmpty());
+    assertTrue(classUnderTest.findBatch(99L).isEmpty());
+  }
+
+  @Test
+  void testUpdateMovesIndexEntries() {
+    TimeAgentInfo agentInfo = classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY));
+    agentInfo.setStatus(TimeAgentStatus.RUNNING);
+    classUnderTest.save(agentInfo);
+
+    assertNull(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.READY));
+    assertEquals(agentInfo.getId(), classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.RUNNING).getId());
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).size());
+  }
+
+  @Test
+  void testFindAll() {
+    TimeAgentInfo first = classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING));
+    classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.FINISHED));
+    TimeAgentInfo second = classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING));
+
+    List<TimeAgentInfo> running = classUnderTest.findAll(AGENTNAME, TimeAgentStatus.RUNNING);
+
+    assertEquals(Arrays.asList(second.getId(), first.getId()), running.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+    assertTrue(classUnderTest.findAll(AGENTNAME, TimeAgentStatus.ABORTED).isEmpty());
+  }
+
+  @Test
+  void testProtocolIsAppended() {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, TimeAgentStatus.RUNNING);
+    agentInfo.addProtocol("first");
+    classUnderTest.save(agentInfo);
+    agentInfo.addProtocol("second");
+    classUnderTest.save(agentInfo);
+    classUnderTest.save(agentInfo);
+
+    assertEquals(Arrays.asList("first", "second"), classUnderTest.findProtocolMessages(agentInfo.getId()));
+
+    agentInfo.clearProtocol();
+    agentInfo.addProtocol("third");
+    classUnderTest.save(agentInfo);
+
+    assertEquals(Arrays.asList("third"), classUnderTest.findProtocolMessages(agentInfo.getId()));
+  }
+
+  @Test
+  void testSearch() {
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    classUnderTest.save(info(TimeAgentStatus.ABORTED, "user", START.plusHours(1)));
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "admin", START.plusHours(2)));
+
+    List<TimeAgentInfo> all = classUnderTest.search(AGENTNAME, searchModel);
+    assertEquals(Arrays.asList(3L, 2L, 1L), all.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+
+    searchModel.setStatus(TimeAgentStatus.FINISHED);
+    assertEquals(2, classUnderTest.search(AGENTNAME, searchModel).size());
+
+    searchModel.setExecutor("user");
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).size());
+
+    searchModel = new TimeAgentInfoSearch();
+    searchModel.setLimit(10);
+    searchModel.setFromStartTimeExecution(START);
+    assertEquals(2, classUnderTest.search(AGENTNAME, searchModel).size());
+
+    searchModel.setToStartTimeExecution(START.plusHours(1));
+    assertEquals(2, classUnderTest.search(AGENTNAME, searchModel).size());
+
+    searchModel.setFromStartTimeExecution(null);
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).size());
+
+    searchModel.setToStartTimeExecution(null);
+    searchModel.setLimit(1);
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).size());
+  }
+
+  @Test
+  void testSearchWithoutProtocol() {
+    TimeAgentInfo agentInfo = info(TimeAgentStatus.FINISHED, "user", START);
+    agentInfo.addProtocol("first line");
+    classUnderTest.save(agentInfo);
+
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).get(0).getProtocol().size());
+    searchModel.setFields(Collections.singleton("status"));
+    assertTrue(classUnderTest.search(AGENTNAME, searchModel).get(0).getProtocol().isEmpty());
+  }
+
+  @Test
+  void testSearchByProtocolTokens() {
+    TimeAgentInfo first = info(TimeAgentStatus.FINISHED, "user", START);
+    first.addProtocol("found 100 files");
+    classUnderTest.save(first);
+    TimeAgentInfo second = info(TimeAgentStatus.FINISHED, "user", START);
+    second.addProtocol("no files");
+    classUnderTest.save(second);
+
+    assertEquals(2, classUnderTest.searchByProtocolTokens(AGENTNAME, searchModel, new LinkedHashSet<>(Arrays.asList("files")), 0).size());
+    assertEquals(0, classUnderTest.searchByProtocolTokens(AGENTNAME, searchModel, new LinkedHashSet<>(Arrays.asList("files")), 1).size());
+    List<TimeAgentInfo> result = classUnderTest.searchByProtocolTokens(AGENTNAME, searchModel,
+        new LinkedHashSet<>(Arrays.asList("100", "files")), 0);
+    assertEquals(1, result.size());
+    assertEquals("found 100 files", result.get(0).getProtocol().get(0).getMessage());
+  }
+
+  @Test
+  void testStream() {
+    TimeAgentInfo agentInfo = info(TimeAgentStatus.FINISHED, "user", START);
+    agentInfo.addProtocol("first");
+    classUnderTest.save(agentInfo);
+    classUnderTest.save(info(TimeAgentStatus.ABORTED, "user", START));
+
+    try (Stream<TimeAgentInfo> stream = classUnderTest.stream(AGENTNAME, searchModel)) {
+      List<TimeAgentInfo> result = stream.collect(Collectors.toList());
+      assertEquals(Arrays.asList(1L, 2L), result.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+      assertEquals(0, result.get(0).getProtocol().size());
+    }
+    Map<Long, List<String>> protocols = classUnderTest.findProtocolMessages(Arrays.asList(1L, 2L));
+    assertEquals(Arrays.asList("first"), protocols.get(1L));
+    assertTrue(protocols.get(2L).isEmpty());
+  }
+
+  @Test
+  void testStreamLoadsLazily() {
+    TimeAgentInfo first = info(TimeAgentStatus.FINISHED, "user", START);
+    classUnderTest.save(first);
+    TimeAgentInfo second = info(TimeAgentStatus.FINISHED, "user", START);
+    classUnderTest.save(second);
+
+    try (Stream<TimeAgentInfo> stream = classUnderTest.stream(AGENTNAME, searchModel)) {
+      // the storage is not locked by an open stream and an info deleted before it is reached is skipped
+      classUnderTest.delete(Arrays.asList(second));
+      assertEquals(Arrays.asList(first.getId()), stream.map(TimeAgentInfo::getId).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void testStreamHasRangeOfSearch() {
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START.plusHours(1)));
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START.plusHours(2)));
+
+    searchModel.setFromStartTimeExecution(START);
+    searchModel.setToStartTimeExecution(START.plusHours(2));
+    try (Stream<TimeAgentInfo> stream = classUnderTest.stream(AGENTNAME, searchModel)) {
+      assertEquals(classUnderTest.search(AGENTNAME, searchModel).size(), stream.count());
+    }
+    searchModel.setToStartTimeExecution(null);
+    try (Stream<TimeAgentInfo> stream = classUnderTest.stream(AGENTNAME, searchModel)) {
+      assertEquals(classUnderTest.search(AGENTNAME, searchModel).size(), stream.count());
+    }
+  }
+
+  @Test
+  void testFindArchivableAndDelete() {
+    TimeAgentInfo finished = info(TimeAgentStatus.FINISHED, "user", START);
+    finished.setFinishTimeExecution(START.plusMinutes(1));
+    finished.addProtocol("first");
+    classUnderTest.save(finished);
+    TimeAgentInfo running = info(TimeAgentStatus.RUNNING, "user", START);
+    classUnderTest.save(running);
+    TimeAgentInfo recent = info(TimeAgentStatus.ABORTED, "user", START);
+    recent.setFinishTimeExecution(START.plusDays(10));
+    classUnderTest.save(recent);
+
+    List<TimeAgentInfo> archivable = classUnderTest.findArchivable(AGENTNAME, START.plusDays(1), 10);
+    assertEquals(Arrays.asList(finished.getId()), archivable.stream().map(TimeAgentInfo::getId).collect(Collectors.toList()));
+    assertEquals(1, archivable.get(0).getProtocol().size());
+
+    classUnderTest.delete(archivable);
+    classUnderTest.close();
+    classUnderTest = open();
+
+    assertEquals(2, classUnderTest.search(AGENTNAME, searchModel).size());
+    assertNull(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED));
+    assertTrue(classUnderTest.findProtocolMessages(finished.getId()).isEmpty());
+  }
+
+  @Test
+  void testReopenReplaysLog() {
+    TimeAgentInfo agentInfo = info(TimeAgentStatus.RUNNING, "user", START);
+    for (int line = 0; line < 100; line++) {
+      agentInfo.addProtocol(String.format("line %d of the protocol", line));
+      classUnderTest.save(agentInfo);
+    }
+    agentInfo.setStatus(TimeAgentStatus.FINISHED);
+    classUnderTest.save(agentInfo);
+    classUnderTest.close();
+
+    classUnderTest = open();
+    TimeAgentInfo reopened = classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED);
+    assertAll("check replayed info",
+        () -> assertEquals(agentInfo.getId(), reopened.getId()),
+        () -> assertEquals("user", reopened.getExecutor()),
+        () -> assertEquals(START, reopened.getStartTimeExecution()),
+        () -> assertEquals(agentInfo.getUpdatedAt(), reopened.getUpdatedAt()),
+        () -> assertEquals(100, reopened.getProtocol().size()),
+        () -> assertEquals("line 99 of the protocol", reopened.getProtocol().get(99).getMessage()),
+        () -> assertEquals(2L, classUnderTest.save(new TimeAgentInfo(AGENTNAME, TimeAgentStatus.READY)).getId()));
+  }
+
+  @Test
+  void testReopenKeepsFencingToken() {
+    TimeAgentInfo fencedInfo = info(TimeAgentStatus.RUNNING, "user", START);
+    fencedInfo.setFencingToken(5L);
+    Long fencedId = classUnderTest.save(fencedInfo).getId();
+    Long localId = classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START)).getId();
+    assertEquals(5L, classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.RUNNING).getFencingToken());
+    classUnderTest.close();
+
+    classUnderTest = open();
+    assertAll("check replayed fencing tokens",
+        () -> assertEquals(fencedId, classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.RUNNING).getId()),
+        () -> assertEquals(5L, classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.RUNNING).getFencingToken()),
+        () -> assertEquals(localId, classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getId()),
+        () -> assertNull(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getFencingToken()));
+  }
+
+  @Test
+  void testReopenKeepsParentId() {
+    TimeAgentInfo parentInfo = classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    TimeAgentInfo subRunInfo = info(TimeAgentStatus.ABORTED, "user", START);
+    subRunInfo.setParentId(parentInfo.getId());
+    classUnderTest.save(subRunInfo);
+    assertEquals(parentInfo.getId(), classUnderTest.findAll(AGENTNAME, TimeAgentStatus.ABORTED).get(0).getParentId());
+    classUnderTest.close();
+
+    classUnderTest = open();
+    assertAll("check replayed parent ids",
+        () -> assertEquals(parentInfo.getId(), classUnderTest.findAll(AGENTNAME, TimeAgentStatus.ABORTED).get(0).getParentId()),
+        () -> assertNull(classUnderTest.findLatest(AGENTNAME, TimeAgentStatus.FINISHED).getParentId()));
+  }
+
+  @Test
+  void testReopenIgnoresIncompleteRecord() throws Exception {
+    classUnderTest.save(info(TimeAgentStatus.FINISHED, "user", START));
+    classUnderTest.save(info(TimeAgentStatus.ABORTED, "user", START));
+    classUnderTest.close();
+
+    // corrupt the checksum of the second record
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("info.log").toFile(), "rw")) {
+      int secondRecord = 8 + file.readInt();
+      file.seek(secondRecord + 4);
+      file.writeInt(0);
+    }
+
+    classUnderTest = open();
+    assertEquals(1, classUnderTest.search(AGENTNAME, searchModel).size());
+    assertEquals(2L, classUnderTest.save(info(TimeAgentStatus.READY, null, null)).getId());
+  }
+
+  private TimeAgentLogStorage open() {
+    TimeAgentLogStorage storage = new TimeAgentLogStorage(directory.resolve("info.log"), INITIAL_SIZE, messages);
+    storage.open();
+    return storage;
+  }
+
+  private TimeAgentInfo info(TimeAgentStatus status, String executor, LocalDateTime startTimeExecution) {
+    TimeAgentInfo agentInfo = new TimeAgentInfo(AGENTNAME, status);
+    agentInfo.setExecutor(executor);
+    agentInfo.setStartTimeExecution(startTimeExecution);
+    return agentInfo;
+  }
+}
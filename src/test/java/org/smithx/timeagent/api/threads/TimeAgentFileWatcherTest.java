@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+
+/**
+ * testing the TimeAgentFileWatcher.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentFileWatcherTest {
+  static final long DEBOUNCE = 300;
+  static final long WAIT = 5000;
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentFileWatcher classUnderTest;
+
+  BlockingQueue<List<Path>> batches = new LinkedBlockingQueue<>();
+
+  @AfterEach
+  void afterEach() {
+    classUnderTest.close();
+  }
+
+  @Test
+  void testBurstIsOneBatch() throws Exception {
+    start("*.csv", 30_000, 100, batch -> batches.add(batch));
+
+    Path first = Files.createFile(directory.resolve("a.csv"));
+    Path second = Files.createFile(directory.resolve("b.csv"));
+    Files.createFile(directory.resolve("c.txt"));
+    Path third = Files.createFile(directory.resolve("d.csv"));
+
+    List<Path> batch = batches.poll(WAIT, TimeUnit.MILLISECONDS);
+    assertEquals(new HashSet<>(Arrays.asList(first, second, third)), new HashSet<>(batch));
+    assertNull(batches.poll(2 * DEBOUNCE, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void testFilesOnStart() throws Exception {
+    Path waiting = Files.createFile(directory.resolve("waiting.csv"));
+    start("*", 30_000, 100, batch -> batches.add(batch));
+
+    assertEquals(Arrays.asList(waiting), batches.poll(WAIT, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void testMaxBatch() throws Exception {
+    start("*", 30_000, 2, batch -> batches.add(batch));
+
+    for (int file = 0; file < 5; file++) {
+      Files.createFile(directory.resolve("file-" + file));
+    }
+
+    int files = 0;
+    while (files < 5) {
+      List<Path> batch = batches.poll(WAIT, TimeUnit.MILLISECONDS);
+      assertTrue(batch.size() <= 2);
+      files += batch.size();
+    }
+  }
+
+  @Test
+  void testBatchKeptWhileBusy() throws Exception {
+    AtomicBoolean busy = new AtomicBoolean(true);
+    start("*", 30_000, 100, batch -> {
+      if (busy.getAndSet(false)) {
+        return false;
+      }
+      return batches.add(batch);
+    });
+
+    Path first = Files.createFile(directory.resolve("first"));
+
+    // the batch is taken by the next try after the debounce
+    assertEquals(Arrays.asList(first), batches.poll(WAIT, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void testMaxWaitDuringEndlessBurst() throws Exception {
+    start("*", 2 * DEBOUNCE, 100, batch -> batches.add(batch));
+
+    long start = System.currentTimeMillis();
+    List<Path> batch = null;
+    for (int file = 0; batch == null && file < 50; file++) {
+      Files.createFile(directory.resolve("file-" + file));
+      batch = batches.poll(DEBOUNCE / 3, TimeUnit.MILLISECONDS);
+    }
+    assertTrue(batch != null && System.currentTimeMillis() - start < WAIT);
+  }
+
+  private void start(String pattern, long maxWait, int maxBatch, Predicate<List<Path>> consumer)
+      throws IOException {
+    classUnderTest = new TimeAgentFileWatcher(directory, pattern, DEBOUNCE, maxWait, maxBatch, consumer, messages);
+    classUnderTest.start();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.smithx.timeagent.api.models.TimeAgentJitterMode;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+/**
+ * testing the TimeAgentJitterTrigger.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+public class TimeAgentJitterTriggerTest {
+  static final String CRONTRIGGER = "0 0 * * * ?";
+  static final long WINDOW = 600_000;
+
+  @Test
+  void testWithoutJitter() {
+    TimeAgentJitterTrigger classUnderTest = new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.NONE, WINDOW, "agent",
+        null);
+
+    assertEquals(new CronSequenceGenerator(CRONTRIGGER).next(new Date()),
+        classUnderTest.nextExecutionTime(new SimpleTriggerContext()));
+  }
+
+  @Test
+  void testHashJitter() {
+    List<LocalDateTime> fireTimes = new ArrayList<>();
+    TimeAgentJitterTrigger classUnderTest = new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.HASH, WINDOW, "agent",
+        fireTimes::add);
+
+    long firstOffset = offset(classUnderTest.nextExecutionTime(new SimpleTriggerContext()));
+    long secondOffset = offset(classUnderTest.nextExecutionTime(new SimpleTriggerContext()));
+    long otherOffset = offset(new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.HASH, WINDOW, "other-agent", null)
+        .nextExecutionTime(new SimpleTriggerContext()));
+    assertAll("check hash jitter",
+        () -> assertTrue(firstOffset >= 0 && firstOffset < WINDOW),
+        () -> assertEquals(firstOffset, secondOffset),
+        () -> assertNotEquals(firstOffset, otherOffset),
+        () -> assertEquals(2, fireTimes.size()),
+        () -> assertEquals(fireTimes.get(0).plusHours(1), fireTimes.get(1)));
+  }
+
+  @Test
+  void testSpreadJitter() {
+    TimeAgentJitterTrigger classUnderTest = new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.SPREAD, WINDOW, "agent",
+        null);
+    TimeAgentJitterTrigger otherInstance = new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.SPREAD, WINDOW, "agent",
+        null);
+
+    Set<Long> offsets = new HashSet<>();
+    for (int fire = 0; fire < 5; fire++) {
+      Date fireTime = classUnderTest.nextExecutionTime(new SimpleTriggerContext());
+      assertEquals(fireTime, otherInstance.nextExecutionTime(new SimpleTriggerContext()));
+      offsets.add(offset(fireTime));
+    }
+    assertTrue(offsets.size() > 1);
+    assertTrue(offsets.stream().allMatch(offset -> offset >= 0 && offset < WINDOW));
+  }
+
+  @Test
+  void testRandomJitter() {
+    TimeAgentJitterTrigger classUnderTest = new TimeAgentJitterTrigger(CRONTRIGGER, TimeAgentJitterMode.RANDOM, WINDOW, "agent",
+        null);
+
+    for (int fire = 0; fire < 5; fire++) {
+      long offset = offset(classUnderTest.nextExecutionTime(new SimpleTriggerContext()));
+      assertTrue(offset >= 0 && offset < WINDOW);
+    }
+  }
+
+  @Test
+  void testWindowLongerThanPeriod() {
+    TimeAgentJitterTrigger classUnderTest = new TimeAgentJitterTrigger("0 * * * * ?", TimeAgentJitterMode.HASH, 3_600_000,
+        "agent", null);
+
+    Date firstFire = classUnderTest.nextExecutionTime(new SimpleTriggerContext());
+    Date secondFire = classUnderTest.nextExecutionTime(new SimpleTriggerContext());
+    // every minute is fired once with the same delay
+    assertEquals(60_000, secondFire.getTime() - firstFire.getTime());
+  }
+
+  private long offset(Date fireTime) {
+    LocalDateTime time = LocalDateTime.ofInstant(fireTime.toInstant(), ZoneId.systemDefault());
+    LocalDateTime cronTime = time.withMinute(0).withSecond(0).withNano(0);
+    return Duration.between(cronTime, time).toMillis();
+  }
+}
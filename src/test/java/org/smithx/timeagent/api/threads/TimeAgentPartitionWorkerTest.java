@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.agent.TimeAgent;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.engines.TimeAgentPartitionEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentException;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentPartition;
+import org.smithx.timeagent.api.models.TimeAgentPartitionStatus;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.services.TimeAgentService;
+
+/**
+ * testing the TimeAgentPartitionWorker.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentPartitionWorkerTest {
+  TimeAgentPartitionWorker classUnderTest;
+
+  @Mock
+  TimeAgentService service;
+
+  @Mock
+  TimeAgent agent;
+
+  @Mock
+  TimeAgentPartitionEngine partitionEngine;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentInfo agentInfo;
+
+  @BeforeEach
+  void beforeEach() {
+    agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    agentInfo.setId(1L);
+    when(service.getMessages()).thenReturn(messages);
+    when(messages.getMessage(eq("protocol.partition.result"), any())).thenReturn("partition result");
+    classUnderTest = new TimeAgentPartitionWorker(service, agent, partitionEngine, 2, 10);
+  }
+
+  @AfterEach
+  void afterEach() {
+    classUnderTest.close();
+  }
+
+  @Test
+  void testRunPartitions() throws TimeAgentException {
+    TimeAgentPartition first = partition(10L, "a-m");
+    TimeAgentPartition second = partition(11L, "n-z");
+    when(partitionEngine.countOpenPartitions(1L)).thenReturn(2L, 1L, 1L, 0L);
+    // the second partition is claimed by another instance
+    when(partitionEngine.claimPartition(1L)).thenReturn(first, (TimeAgentPartition) null);
+    when(agent.executePartition(service, "a-m", new TimeAgentArgument("mode", "full"))).thenReturn("done");
+    when(partitionEngine.findPartitions(1L)).thenReturn(Arrays.asList(done(first), done(second)));
+
+    classUnderTest.runPartitions(agentInfo, Arrays.asList("a-m", "n-z"), new TimeAgentArgument("mode", "full"));
+
+    verify(partitionEngine).createPartitions(agentInfo, Arrays.asList("a-m", "n-z"), new TimeAgentArgument("mode", "full"));
+    verify(partitionEngine).finishPartition(first, "done");
+    assertEquals(2, agentInfo.getProtocol().size());
+    verify(service).updateAgentInfo();
+  }
+
+  @Test
+  void testRunPartitionsFailed() throws TimeAgentException {
+    TimeAgentPartition first = partition(10L, "a-m");
+    when(partitionEngine.countOpenPartitions(1L)).thenReturn(1L, 0L);
+    when(partitionEngine.claimPartition(1L)).thenReturn(first);
+    when(agent.executePartition(service, "a-m", new TimeAgentArgument("mode", "full")))
+        .thenThrow(new TimeAgentException(TimeAgentExceptionCause.PARTITION_FAILED, "error"));
+    first.setStatus(TimeAgentPartitionStatus.FAILED);
+    when(partitionEngine.findPartitions(1L)).thenReturn(Arrays.asList(first));
+
+    TimeAgentException exception = assertThrows(TimeAgentException.class,
+        () -> classUnderTest.runPartitions(agentInfo, Arrays.asList("a-m"), new TimeAgentArgument("mode", "full")));
+    assertEquals(TimeAgentExceptionCause.PARTITION_FAILED, exception.getErrorCause());
+    verify(partitionEngine).failPartition(first, "PARTITION_FAILED: error");
+  }
+
+  @Test
+  void testPoll() throws TimeAgentException {
+    TimeAgentPartition partition = partition(10L, "a-m");
+    when(partitionEngine.claimPartitions(2)).thenReturn(Arrays.asList(partition));
+    when(agent.executePartition(service, "a-m", new TimeAgentArgument("mode", "full"))).thenReturn("done");
+
+    classUnderTest.poll();
+
+    verify(partitionEngine, timeout(2000)).finishPartition(partition, "done");
+  }
+
+  @Test
+  void testPollFailed() {
+    when(partitionEngine.claimPartitions(2)).thenThrow(new IllegalStateException("database down"));
+
+    classUnderTest.poll();
+
+    verify(messages).getMessage("log.partition.poll.failed");
+  }
+
+  private TimeAgentPartition partition(Long id, String partitionKey) {
+    TimeAgentPartition partition = new TimeAgentPartition(1L, "agent", partitionKey, new TimeAgentArgument("mode", "full"));
+    partition.setId(id);
+    partition.setStatus(TimeAgentPartitionStatus.CLAIMED);
+    partition.setAttempts(1);
+    return partition;
+  }
+
+  private TimeAgentPartition done(TimeAgentPartition partition) {
+    TimeAgentPartition donePartition = partition(partition.getId(), partition.getPartitionKey());
+    donePartition.setStatus(TimeAgentPartitionStatus.DONE);
+    return donePartition;
+  }
+}
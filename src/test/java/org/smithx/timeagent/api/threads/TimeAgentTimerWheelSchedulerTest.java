@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.configuration.SchedulerValue;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * testing the TimeAgentTimerWheelScheduler.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentTimerWheelSchedulerTest {
+  TimeAgentTimerWheelScheduler classUnderTest;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  @BeforeEach
+  void beforeEach() {
+    // a small wheel, so that the tasks are moved down over all levels
+    SchedulerValue schedulerValue = new SchedulerValue();
+    schedulerValue.setTickDuration(1);
+    schedulerValue.setWheelSize(4);
+    classUnderTest = new TimeAgentTimerWheelScheduler(schedulerValue, messages);
+  }
+
+  @AfterEach
+  void afterEach() {
+    classUnderTest.shutdown();
+  }
+
+  @Test
+  void testSchedule() throws Exception {
+    AtomicLong fireTime = new AtomicLong();
+    long startTime = System.currentTimeMillis() + 200;
+
+    ScheduledFuture<?> future = classUnderTest.schedule(() -> fireTime.set(System.currentTimeMillis()), new Date(startTime));
+    future.get(2, TimeUnit.SECONDS);
+
+    assertAll("check fire",
+        () -> assertTrue(fireTime.get() >= startTime),
+        () -> assertTrue(future.isDone()),
+        () -> assertEquals(0, classUnderTest.getScheduledTasks()));
+  }
+
+  @Test
+  void testScheduleInPast() throws Exception {
+    CountDownLatch fired = new CountDownLatch(1);
+
+    classUnderTest.schedule(fired::countDown, new Date(System.currentTimeMillis() - 1000));
+
+    assertTrue(fired.await(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testCancel() throws Exception {
+    AtomicInteger fires = new AtomicInteger();
+
+    ScheduledFuture<?> future = classUnderTest.schedule(fires::incrementAndGet, new Date(System.currentTimeMillis() + 100));
+    Thread.sleep(20);
+    assertEquals(1, classUnderTest.getScheduledTasks());
+    assertTrue(future.cancel(false));
+    Thread.sleep(200);
+
+    assertAll("check cancel",
+        () -> assertEquals(0, fires.get()),
+        () -> assertTrue(future.isCancelled()),
+        () -> assertFalse(future.cancel(false)),
+        () -> assertEquals(0, classUnderTest.getScheduledTasks()),
+        () -> assertThrows(CancellationException.class, () -> future.get()));
+  }
+
+  @Test
+  void testScheduleAtFixedRate() throws Exception {
+    CountDownLatch fired = new CountDownLatch(5);
+
+    ScheduledFuture<?> future = classUnderTest.scheduleAtFixedRate(() -> {
+      fired.countDown();
+      throw new IllegalStateException("failed fire");
+    }, 10);
+
+    // a failed fire does not end the schedule
+    assertTrue(fired.await(2, TimeUnit.SECONDS));
+    future.cancel(false);
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  void testScheduleWithTrigger() throws Exception {
+    AtomicInteger fires = new AtomicInteger();
+    long startTime = System.currentTimeMillis();
+
+    ScheduledFuture<?> future = classUnderTest.schedule(fires::incrementAndGet, triggerContext -> {
+      if (triggerContext.lastCompletionTime() == null) {
+        return new Date(startTime + 50);
+      }
+      return fires.get() < 3 ? new Date(triggerContext.lastScheduledExecutionTime().getTime() + 50) : null;
+    });
+    future.get(2, TimeUnit.SECONDS);
+
+    assertAll("check trigger",
+        () -> assertEquals(3, fires.get()),
+        () -> assertTrue(System.currentTimeMillis() - startTime >= 150));
+  }
+
+  @Test
+  void testSlowTaskDoesNotDelayFires() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch fired = new CountDownLatch(1);
+
+    classUnderTest.schedule(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+    }, new Date());
+    classUnderTest.schedule(fired::countDown, new Date(System.currentTimeMillis() + 50));
+
+    assertTrue(fired.await(2, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  @Test
+  void testInvalidPeriod() {
+    assertThrows(IllegalArgumentException.class, () -> classUnderTest.scheduleWithFixedDelay(() -> {}, 0));
+  }
+
+  @Test
+  void testShutdown() {
+    classUnderTest.shutdown();
+
+    assertThrows(TaskRejectedException.class, () -> classUnderTest.schedule(() -> {}, new Date()));
+  }
+}
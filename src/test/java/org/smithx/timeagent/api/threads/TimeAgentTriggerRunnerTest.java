@@ -0,0 +1,433 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smithx.timeagent.api.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.smithx.timeagent.api.agent.TimeAgentRuntime;
+import org.smithx.timeagent.api.configuration.TimeAgentMessages;
+import org.smithx.timeagent.api.configuration.TimeAgentValues;
+import org.smithx.timeagent.api.engines.TimeAgentAdmissionEngine;
+import org.smithx.timeagent.api.engines.TimeAgentLeaseEngine;
+import org.smithx.timeagent.api.engines.TimeAgentMisfireEngine;
+import org.smithx.timeagent.api.engines.TimeAgentTriggerEngine;
+import org.smithx.timeagent.api.exceptions.TimeAgentExceptionCause;
+import org.smithx.timeagent.api.exceptions.TimeAgentRuntimeException;
+import org.smithx.timeagent.api.models.TimeAgentAdmission;
+import org.smithx.timeagent.api.models.TimeAgentArgument;
+import org.smithx.timeagent.api.models.TimeAgentBatch;
+import org.smithx.timeagent.api.models.TimeAgentInfo;
+import org.smithx.timeagent.api.models.TimeAgentLease;
+import org.smithx.timeagent.api.models.TimeAgentMisfirePolicy;
+import org.smithx.timeagent.api.models.TimeAgentMisfireReason;
+import org.smithx.timeagent.api.models.TimeAgentOverlapPolicy;
+import org.smithx.timeagent.api.models.TimeAgentStatus;
+import org.smithx.timeagent.api.models.TimeAgentTrigger;
+import org.smithx.timeagent.api.services.TimeAgentService;
+
+/**
+ * testing the TimeAgentTriggerRunner.
+ *
+ * @author norman schmidt {smithx}
+ * @since 19.10.2026
+ * 
+ */
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class TimeAgentTriggerRunnerTest {
+  static final long WAIT = 2000;
+
+  TimeAgentTriggerRunner classUnderTest;
+
+  @Mock
+  TimeAgentService service;
+
+  @Mock
+  TimeAgentRuntime workflow;
+
+  @Mock
+  TimeAgentTriggerEngine triggerEngine;
+
+  @Mock
+  TimeAgentMisfireEngine misfireEngine;
+
+  @Mock
+  TimeAgentLeaseEngine leaseEngine;
+
+  @Mock
+  TimeAgentAdmissionEngine admissionEngine;
+
+  @Mock
+  TimeAgentMessages messages;
+
+  TimeAgentValues agentValues;
+
+  CountDownLatch release;
+
+  TimeAgentLease lease;
+
+  TimeAgentInfo agentInfo;
+
+  @BeforeEach
+  void beforeEach() {
+    release = new CountDownLatch(1);
+    agentValues = new TimeAgentValues();
+    lease = new TimeAgentLease("agent", "instance", 5, LocalDateTime.now(), LocalDateTime.now().plusSeconds(30));
+    agentInfo = new TimeAgentInfo("agent", TimeAgentStatus.READY);
+    when(service.getMessages()).thenReturn(messages);
+    when(service.getAgentInfo()).thenReturn(agentInfo);
+    when(leaseEngine.acquireLease()).thenReturn(lease);
+    when(triggerEngine.claimFire(any(TimeAgentTrigger.class), any(LocalDateTime.class))).thenReturn(true);
+    when(leaseEngine.claimFire(any(LocalDateTime.class))).thenReturn(true);
+    // the runs block until they are released
+    doAnswer(invocation -> {
+      release.await();
+      return null;
+    }).when(workflow).run(any());
+    classUnderTest = runner();
+  }
+
+  @AfterEach
+  void afterEach() {
+    release.countDown();
+    classUnderTest.close();
+  }
+
+  @Test
+  void testFireStartsRun() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    assertTrue(classUnderTest.fire(trigger));
+
+    verify(workflow, timeout(WAIT)).run(new TimeAgentArgument("mode", "full"));
+    verify(triggerEngine).markFired(eq(trigger), any(LocalDateTime.class));
+    assertTrue(classUnderTest.isActive());
+  }
+
+  @Test
+  void testRunHoldsLease() {
+    classUnderTest.run(new TimeAgentArgument("mode", "full"));
+
+    verify(workflow, timeout(WAIT)).run(new TimeAgentArgument("mode", "full"));
+    assertEquals(5L, agentInfo.getFencingToken());
+    verify(leaseEngine, never()).releaseLease(lease);
+
+    release.countDown();
+    verify(leaseEngine, timeout(WAIT)).releaseLease(lease);
+  }
+
+  @Test
+  void testRunHoldsSlot() {
+    TimeAgentAdmission admission = new TimeAgentAdmission("agent", "instance", 1, 0, 1, LocalDateTime.now());
+    admission.setSlot(0);
+    when(admissionEngine.acquireSlot()).thenReturn(admission);
+
+    classUnderTest.run(new TimeAgentArgument("mode", "full"));
+
+    verify(workflow, timeout(WAIT)).run(new TimeAgentArgument("mode", "full"));
+    verify(admissionEngine, never()).releaseSlot(admission);
+
+    release.countDown();
+    verify(admissionEngine, timeout(WAIT)).releaseSlot(admission);
+  }
+
+  @Test
+  void testRunBatch() throws InterruptedException {
+    TimeAgentInfo parentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    parentInfo.setId(9L);
+    TimeAgentBatch batch = new TimeAgentBatch(parentInfo, 3, 2);
+    AtomicLong subRunIds = new AtomicLong(10);
+    when(service.runConcurrently(eq(5L), eq(9L), any())).thenAnswer(invocation -> {
+      TimeAgentArgument argument = invocation.getArgument(2);
+      TimeAgentInfo subRunInfo = new TimeAgentInfo("agent",
+          "fail".equals(argument.getValue()) ? TimeAgentStatus.ABORTED : TimeAgentStatus.FINISHED);
+      subRunInfo.setId(subRunIds.incrementAndGet());
+      return subRunInfo;
+    });
+    CountDownLatch finished = new CountDownLatch(1);
+
+    classUnderTest.runBatch(batch, Arrays.asList(new TimeAgentArgument[] { new TimeAgentArgument("customer", "1") },
+        new TimeAgentArgument[] { new TimeAgentArgument("customer", "fail") },
+        new TimeAgentArgument[] { new TimeAgentArgument("customer", "3") }), finishedBatch -> finished.countDown());
+
+    assertTrue(finished.await(WAIT, TimeUnit.MILLISECONDS));
+    assertEquals(2, batch.getFinished());
+    assertEquals(1, batch.getAborted());
+    assertEquals(0, batch.getRunning());
+    assertEquals(3, batch.getSubRunIds().size());
+    assertEquals(1.0, batch.getProgress());
+    verify(leaseEngine, timeout(WAIT)).releaseLease(lease);
+    // the sub-runs are executed besides the other runs
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testRunBatchLeaseHeldByOther() {
+    when(leaseEngine.acquireLease()).thenReturn(null);
+    TimeAgentInfo parentInfo = new TimeAgentInfo("agent", TimeAgentStatus.RUNNING);
+    TimeAgentBatch batch = new TimeAgentBatch(parentInfo, 1, 1);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.runBatch(batch, Collections.singletonList(new TimeAgentArgument[0]), finishedBatch -> {}));
+    assertEquals(TimeAgentExceptionCause.ALREADY_RUNNING, exception.getErrorCause());
+  }
+
+  @Test
+  void testRunLeaseHeldByOther() {
+    when(leaseEngine.acquireLease()).thenReturn(null);
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class,
+        () -> classUnderTest.run(new TimeAgentArgument("mode", "full")));
+    assertEquals(TimeAgentExceptionCause.ALREADY_RUNNING, exception.getErrorCause());
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testFireLeaseHeldByOther() {
+    when(leaseEngine.acquireLease()).thenReturn(null);
+
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.QUEUE_ONE);
+    assertFalse(classUnderTest.fire(trigger));
+
+    verify(workflow, never()).run(any());
+    verify(misfireEngine).recordMisfire(eq(trigger), any(LocalDateTime.class), eq(TimeAgentMisfireReason.LEASE_HELD), eq(1));
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testFireConcurrentLeaseHeldByOther() {
+    when(leaseEngine.acquireLease()).thenReturn(null);
+
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.CONCURRENT);
+    classUnderTest.fire(trigger);
+
+    verify(service, never()).runConcurrently(5L, new TimeAgentArgument("mode", "full"));
+    verify(misfireEngine).recordMisfire(eq(trigger), any(LocalDateTime.class), eq(TimeAgentMisfireReason.LEASE_HELD), eq(1));
+  }
+
+  @Test
+  void testRunWhileActive() {
+    classUnderTest.run(new TimeAgentArgument("mode", "full"));
+
+    TimeAgentRuntimeException exception = assertThrows(TimeAgentRuntimeException.class, () -> classUnderTest.run());
+    assertEquals(TimeAgentExceptionCause.ALREADY_RUNNING, exception.getErrorCause());
+  }
+
+  @Test
+  void testFireSkipped() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    classUnderTest.fire(trigger);
+    assertFalse(classUnderTest.fire(trigger));
+
+    verify(misfireEngine).recordMisfire(eq(trigger), any(LocalDateTime.class), eq(TimeAgentMisfireReason.OVERLAP_SKIPPED), eq(1));
+    assertEquals(0, classUnderTest.getPendingRuns());
+  }
+
+  @Test
+  void testFireQueueOne() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.QUEUE_ONE);
+    classUnderTest.fire(trigger);
+    assertTrue(classUnderTest.fire(trigger));
+    assertFalse(classUnderTest.fire(trigger));
+
+    assertEquals(1, classUnderTest.getPendingRuns());
+    verify(misfireEngine).recordMisfire(eq(trigger), any(LocalDateTime.class), eq(TimeAgentMisfireReason.QUEUE_FULL), eq(1));
+
+    release.countDown();
+    verify(workflow, timeout(WAIT).times(2)).run(any());
+  }
+
+  @Test
+  void testFireCoalesce() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.COALESCE);
+    classUnderTest.fire(trigger);
+    classUnderTest.fire(trigger);
+    classUnderTest.fire(trigger);
+
+    assertEquals(1, classUnderTest.getPendingRuns());
+    verify(misfireEngine).countCoalesced(trigger);
+    verify(misfireEngine, never()).recordMisfire(any(), any(), any(), any(Integer.class));
+
+    release.countDown();
+    verify(workflow, timeout(WAIT).times(2)).run(any());
+  }
+
+  @Test
+  void testFireConcurrent() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.CONCURRENT);
+    classUnderTest.fire(trigger);
+    classUnderTest.fire(trigger);
+
+    verify(service, timeout(WAIT)).runConcurrently(5L, new TimeAgentArgument("mode", "full"));
+    verify(leaseEngine).acquireLease();
+    assertEquals(0, classUnderTest.getPendingRuns());
+  }
+
+  @Test
+  void testFireConcurrentRunExecutorBusy() {
+    agentValues.getScheduler().setRunThreads(1);
+    agentValues.getScheduler().setRunQueueCapacity(1);
+    classUnderTest.close();
+    classUnderTest = runner();
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.CONCURRENT);
+    classUnderTest.fire(trigger);
+    verify(workflow, timeout(WAIT)).run(new TimeAgentArgument("mode", "full"));
+
+    // the second fire waits in the queue of the run executor, the third is dropped
+    classUnderTest.fire(trigger);
+    classUnderTest.fire(trigger);
+
+    verify(misfireEngine).recordMisfire(eq(trigger), any(LocalDateTime.class), eq(TimeAgentMisfireReason.QUEUE_FULL), eq(1));
+    verify(leaseEngine, never()).releaseLease(lease);
+  }
+
+  @Test
+  void testRunOnNamedThread() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    StringBuilder threadName = new StringBuilder();
+    doAnswer(invocation -> {
+      threadName.append(Thread.currentThread().getName());
+      started.countDown();
+      return null;
+    }).when(workflow).run(any());
+
+    classUnderTest.run();
+
+    assertTrue(started.await(WAIT, TimeUnit.MILLISECONDS));
+    assertTrue(threadName.toString().startsWith(TimeAgentTriggerRunner.RUN_THREAD));
+  }
+
+  @Test
+  void testFireMissedCatchUp() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    trigger.setMisfirePolicy(TimeAgentMisfirePolicy.CATCH_UP);
+    trigger.setCatchUpLimit(2);
+    LocalDateTime now = LocalDateTime.now();
+    when(misfireEngine.findMissedFires(trigger, now))
+        .thenReturn(Arrays.asList(now.minusHours(3), now.minusHours(2), now.minusHours(1)));
+
+    classUnderTest.fireMissed(trigger, now);
+
+    verify(misfireEngine).recordMisfire(trigger, now.minusHours(1), TimeAgentMisfireReason.MISSED, 1);
+    verify(triggerEngine).claimFire(trigger, now.minusHours(1));
+    release.countDown();
+    verify(workflow, timeout(WAIT).times(2)).run(any());
+  }
+
+  @Test
+  void testFireMissedIgnore() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    LocalDateTime now = LocalDateTime.now();
+    when(misfireEngine.findMissedFires(trigger, now)).thenReturn(Arrays.asList(now.minusHours(2), now.minusHours(1)));
+
+    classUnderTest.fireMissed(trigger, now);
+
+    verify(misfireEngine).recordMisfire(trigger, now.minusHours(2), TimeAgentMisfireReason.MISSED, 2);
+    verify(workflow, never()).run(any());
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testFireMissedNone() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    classUnderTest.fireMissed(trigger, LocalDateTime.now());
+
+    verify(triggerEngine, times(0)).markFired(any(), any());
+    verify(triggerEngine, never()).claimFire(any(), any());
+  }
+
+  @Test
+  void testFireMissedClaimedByOtherInstance() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    trigger.setMisfirePolicy(TimeAgentMisfirePolicy.FIRE_ONCE);
+    LocalDateTime now = LocalDateTime.now();
+    when(misfireEngine.findMissedFires(trigger, now)).thenReturn(Arrays.asList(now.minusHours(1)));
+    when(triggerEngine.claimFire(trigger, now.minusHours(1))).thenReturn(false);
+
+    classUnderTest.fireMissed(trigger, now);
+
+    verify(workflow, never()).run(any());
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testFireAtCronTime() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    LocalDateTime cronTime = LocalDateTime.now().withNano(0);
+    classUnderTest.fire(trigger, cronTime);
+
+    verify(workflow, timeout(WAIT)).run(new TimeAgentArgument("mode", "full"));
+    verify(triggerEngine).claimFire(trigger, cronTime);
+    verify(triggerEngine, never()).markFired(any(), any());
+  }
+
+  @Test
+  void testFireAtCronTimeClaimedByOtherInstance() {
+    TimeAgentTrigger trigger = trigger(TimeAgentOverlapPolicy.SKIP);
+    LocalDateTime cronTime = LocalDateTime.now().withNano(0);
+    when(triggerEngine.claimFire(trigger, cronTime)).thenReturn(false);
+
+    classUnderTest.fire(trigger, cronTime);
+
+    // the time of the crontrigger was fired by another instance already
+    verify(leaseEngine, never()).acquireLease();
+    assertFalse(classUnderTest.isActive());
+  }
+
+  @Test
+  void testFireCrontriggerClaimedOnLease() {
+    TimeAgentTrigger infoTrigger = new TimeAgentTrigger("agent", null, "0 0 2 * * ?");
+    LocalDateTime cronTime = LocalDateTime.now().withNano(0);
+    when(leaseEngine.claimFire(cronTime)).thenReturn(false);
+
+    classUnderTest.fire(infoTrigger, cronTime);
+
+    verify(triggerEngine, never()).claimFire(any(), any());
+    verify(workflow, never()).run(any());
+  }
+
+  private TimeAgentTriggerRunner runner() {
+    return new TimeAgentTriggerRunner(service, workflow, triggerEngine, misfireEngine, leaseEngine, admissionEngine, agentValues);
+  }
+
+  private TimeAgentTrigger trigger(TimeAgentOverlapPolicy overlapPolicy) {
+    TimeAgentTrigger trigger = new TimeAgentTrigger("agent", "nightly", "0 0 2 * * ?", new TimeAgentArgument("mode", "full"));
+    trigger.setOverlapPolicy(overlapPolicy);
+    return trigger;
+  }
+}